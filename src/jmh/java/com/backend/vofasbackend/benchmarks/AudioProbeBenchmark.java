@@ -0,0 +1,69 @@
+package com.backend.vofasbackend.benchmarks;
+
+import com.backend.vofasbackend.servicelayer.audio.AudioProbe;
+import com.mpatric.mp3agic.Mp3File;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.BufferedOutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+/**
+ * Compares reading the duration of an uploaded MP3 with {@link AudioProbe} against the mp3agic
+ * path {@code saveFile} used before, on synthetic CBR files of typical feedback lengths.
+ */
+@State(Scope.Benchmark)
+public class AudioProbeBenchmark {
+
+    // MPEG 1 layer III, 128 kbit/s, 44.1 kHz, joint stereo: 417 byte frames of 1152 samples
+    private static final int FRAME_HEADER = 0xFFFB9044;
+    private static final int FRAME_LENGTH = 417;
+
+    @Param({"30", "300", "1800"})
+    public int seconds;
+
+    private Path file;
+    private AudioProbe audioProbe;
+
+    @Setup
+    public void setUp() throws IOException {
+        audioProbe = new AudioProbe();
+        file = Files.createTempFile("probe-benchmark-", ".mp3");
+        int frames = (int) (seconds * 44100L / 1152);
+        Random random = new Random(42);
+        byte[] frame = new byte[FRAME_LENGTH];
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(file))) {
+            for (int i = 0; i < frames; i++) {
+                random.nextBytes(frame);
+                frame[0] = (byte) (FRAME_HEADER >>> 24);
+                frame[1] = (byte) (FRAME_HEADER >>> 16);
+                frame[2] = (byte) (FRAME_HEADER >>> 8);
+                frame[3] = (byte) FRAME_HEADER;
+                out.write(frame);
+            }
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    public long mp3agic() throws Exception {
+        return new Mp3File(file).getLengthInSeconds();
+    }
+
+    @Benchmark
+    public long audioProbe() {
+        return audioProbe.probe(file).orElseThrow().duration().toMillis();
+    }
+}
@@ -0,0 +1,214 @@
+package com.backend.vofasbackend.benchmarks;
+
+import com.backend.vofasbackend.datalayer.sequences.IdSequences;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares writing {@value #PAIRS} feedback and transcription pairs with {@code AUTO_INCREMENT} keys, one insert and
+ * key round trip per row, against ids reserved {@value IdSequences#ALLOCATION_SIZE} at a time from a sequence table
+ * and rows sent in ordered JDBC batches, the statements Hibernate issues for {@code IDENTITY} and for the pooled-lo
+ * table generator. Both commit every {@code batchSize} pairs.
+ * <p>
+ * Runs against an in-memory H2 database by default. Pass {@code -p url=jdbc:mysql://...?rewriteBatchedStatements=true}
+ * with {@code -p user=} and {@code -p password=} to measure a MySQL server, where the round trips dominate.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@OperationsPerInvocation(FeedbackInsertBenchmark.PAIRS)
+public class FeedbackInsertBenchmark {
+
+    static final int PAIRS = 100_000;
+
+    @Param("jdbc:h2:mem:feedback-insert;MODE=MySQL;DB_CLOSE_DELAY=-1")
+    public String url;
+
+    @Param("sa")
+    public String user;
+
+    @Param("")
+    public String password;
+
+    @Param("100")
+    public int batchSize;
+
+    private Connection connection;
+    private Connection sequenceConnection;
+
+    @Setup
+    public void setUp() throws SQLException {
+        connection = DriverManager.getConnection(url, user, password);
+        sequenceConnection = DriverManager.getConnection(url, user, password);
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("DROP TABLE IF EXISTS bench_feedback");
+            statement.execute("DROP TABLE IF EXISTS bench_transcription");
+            statement.execute("DROP TABLE IF EXISTS bench_sequences");
+            statement.execute("CREATE TABLE bench_transcription (transcription_id BIGINT AUTO_INCREMENT PRIMARY KEY, "
+                    + "transcription VARCHAR(1000), transcription_received_at TIMESTAMP)");
+            statement.execute("CREATE TABLE bench_feedback (feedback_id BIGINT AUTO_INCREMENT PRIMARY KEY, "
+                    + "feedback_received_at TIMESTAMP, transcription_id BIGINT, "
+                    + "FOREIGN KEY (transcription_id) REFERENCES bench_transcription (transcription_id))");
+            statement.execute("CREATE TABLE bench_sequences (sequence_name VARCHAR(255) PRIMARY KEY, next_val BIGINT)");
+        }
+        connection.setAutoCommit(false);
+        sequenceConnection.setAutoCommit(false);
+    }
+
+    @Setup(Level.Invocation)
+    public void clear() throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("DELETE FROM bench_feedback");
+            statement.execute("DELETE FROM bench_transcription");
+            statement.execute("DELETE FROM bench_sequences");
+            statement.execute("INSERT INTO bench_sequences VALUES ('" + IdSequences.FEEDBACK + "', 0), ('"
+                    + IdSequences.TRANSCRIPTION + "', 0)");
+        }
+        connection.commit();
+    }
+
+    @TearDown
+    public void tearDown() throws SQLException {
+        sequenceConnection.close();
+        connection.close();
+    }
+
+    @Benchmark
+    public long identity() throws SQLException {
+        long lastID = 0;
+        try (PreparedStatement transcriptions = connection.prepareStatement(
+                "INSERT INTO bench_transcription (transcription, transcription_received_at) VALUES (?, ?)",
+                Statement.RETURN_GENERATED_KEYS);
+             PreparedStatement feedbacks = connection.prepareStatement(
+                     "INSERT INTO bench_feedback (feedback_received_at, transcription_id) VALUES (?, ?)",
+                     Statement.RETURN_GENERATED_KEYS)) {
+            for (int i = 0; i < PAIRS; i++) {
+                Timestamp now = new Timestamp(System.currentTimeMillis());
+                transcriptions.setString(1, "transcription " + i);
+                transcriptions.setTimestamp(2, now);
+                transcriptions.executeUpdate();
+                long transcriptionID = generatedKey(transcriptions);
+
+                feedbacks.setTimestamp(1, now);
+                feedbacks.setLong(2, transcriptionID);
+                feedbacks.executeUpdate();
+                lastID = generatedKey(feedbacks);
+
+                if ((i + 1) % batchSize == 0) {
+                    connection.commit();
+                }
+            }
+            connection.commit();
+        }
+        return lastID;
+    }
+
+    @Benchmark
+    public long pooledLo() throws SQLException {
+        Block feedbackIDs = new Block(IdSequences.FEEDBACK);
+        Block transcriptionIDs = new Block(IdSequences.TRANSCRIPTION);
+        long lastID = 0;
+        try (PreparedStatement transcriptions = connection.prepareStatement(
+                "INSERT INTO bench_transcription (transcription_id, transcription, transcription_received_at) VALUES (?, ?, ?)");
+             PreparedStatement feedbacks = connection.prepareStatement(
+                     "INSERT INTO bench_feedback (feedback_id, feedback_received_at, transcription_id) VALUES (?, ?, ?)")) {
+            for (int i = 0; i < PAIRS; i++) {
+                Timestamp now = new Timestamp(System.currentTimeMillis());
+                long transcriptionID = transcriptionIDs.next();
+                transcriptions.setLong(1, transcriptionID);
+                transcriptions.setString(2, "transcription " + i);
+                transcriptions.setTimestamp(3, now);
+                transcriptions.addBatch();
+
+                lastID = feedbackIDs.next();
+                feedbacks.setLong(1, lastID);
+                feedbacks.setTimestamp(2, now);
+                feedbacks.setLong(3, transcriptionID);
+                feedbacks.addBatch();
+
+                if ((i + 1) % batchSize == 0) {
+                    // ordered inserts: all transcriptions of the batch before the feedbacks referencing them
+                    transcriptions.executeBatch();
+                    feedbacks.executeBatch();
+                    connection.commit();
+                }
+            }
+            transcriptions.executeBatch();
+            feedbacks.executeBatch();
+            connection.commit();
+        }
+        return lastID;
+    }
+
+    private static long generatedKey(Statement statement) throws SQLException {
+        try (ResultSet keys = statement.getGeneratedKeys()) {
+            keys.next();
+            return keys.getLong(1);
+        }
+    }
+
+    /**
+     * Ids reserved from the sequence table in their own transaction, as the table generator does.
+     */
+    private final class Block {
+
+        private final String sequenceName;
+        private long next;
+        private long last = -1;
+
+        private Block(String sequenceName) {
+            this.sequenceName = sequenceName;
+        }
+
+        long next() throws SQLException {
+            if (next > last) {
+                reserve();
+            }
+            return next++;
+        }
+
+        private void reserve() throws SQLException {
+            long stored;
+            try (PreparedStatement select = sequenceConnection.prepareStatement(
+                    "SELECT next_val FROM bench_sequences WHERE sequence_name = ? FOR UPDATE")) {
+                select.setString(1, sequenceName);
+                try (ResultSet resultSet = select.executeQuery()) {
+                    resultSet.next();
+                    stored = resultSet.getLong(1);
+                }
+            }
+            try (PreparedStatement update = sequenceConnection.prepareStatement(
+                    "UPDATE bench_sequences SET next_val = ? WHERE sequence_name = ? AND next_val = ?")) {
+                update.setLong(1, stored + IdSequences.ALLOCATION_SIZE);
+                update.setString(2, sequenceName);
+                update.setLong(3, stored);
+                update.executeUpdate();
+            }
+            sequenceConnection.commit();
+            next = stored + 1;
+            last = stored + IdSequences.ALLOCATION_SIZE;
+        }
+    }
+}
@@ -3,14 +3,32 @@ package com.backend.vofasbackend.configurations;
 import org.springframework.ai.openai.OpenAiAudioTranscriptionModel;
 import org.springframework.ai.openai.OpenAiAudioTranscriptionOptions;
 import org.springframework.ai.openai.api.OpenAiAudioApi;
+import org.springframework.ai.retry.RetryUtils;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.retry.support.RetryTemplate;
 import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClient;
+
+import java.time.Duration;
 
 @Component
+@ConditionalOnProperty(name = "VoFAS.transcription.provider", havingValue = "openai", matchIfMissing = true)
 public class OpenAIConfiguration {
-    @Value("$openai.apiKey")
+    @Value("${openai.apiKey}")
     private String apiKey;
+
+    @Value("${openai.baseUrl:https://api.openai.com}")
+    private String baseUrl;
+
+    @Value("${VoFAS.transcription.timeout.connect}")
+    private Duration connectTimeout;
+
+    @Value("${VoFAS.transcription.timeout.read}")
+    private Duration readTimeout;
+
     @Bean
     public OpenAiAudioTranscriptionModel transcriptionModel() {
         OpenAiAudioTranscriptionOptions options = OpenAiAudioTranscriptionOptions.builder()
@@ -18,9 +36,18 @@ public class OpenAIConfiguration {
                 .withTemperature(0f)
                 .withResponseFormat(OpenAiAudioApi.TranscriptResponseFormat.TEXT)
                 .build();
-        OpenAiAudioApi openAiAudioApi = new OpenAiAudioApi(apiKey);
-        return new OpenAiAudioTranscriptionModel(openAiAudioApi);
+        SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
+        requestFactory.setConnectTimeout(connectTimeout);
+        requestFactory.setReadTimeout(readTimeout);
+        OpenAiAudioApi openAiAudioApi = new OpenAiAudioApi(
+                baseUrl,
+                apiKey,
+                RestClient.builder().requestFactory(requestFactory),
+                RetryUtils.DEFAULT_RESPONSE_ERROR_HANDLER
+        );
+        // retries are left to the transcription queue so that a slow provider does not hold a limiter permit
+        RetryTemplate noRetry = RetryTemplate.builder().maxAttempts(1).build();
+        return new OpenAiAudioTranscriptionModel(openAiAudioApi, options, noRetry);
     }
 
 }
-
@@ -0,0 +1,136 @@
+package com.backend.vofasbackend.configurations;
+
+import com.backend.vofasbackend.contants.MessagingConstants;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.amqp.core.*;
+import org.springframework.amqp.rabbit.config.RetryInterceptorBuilder;
+import org.springframework.amqp.rabbit.config.SimpleRabbitListenerContainerFactory;
+import org.springframework.amqp.rabbit.connection.ConnectionFactory;
+import org.springframework.amqp.rabbit.retry.RejectAndDontRequeueRecoverer;
+import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
+import org.springframework.amqp.support.converter.MessageConverter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Declares the AMQP topology of the feedback pipeline: a durable direct exchange feeding the transcription queue,
+ * and a dead-letter exchange/queue pair receiving messages whose transcription kept failing. Processed feedbacks are
+ * fanned out to the live streams of all nodes through a fanout exchange, each node consuming its own auto-delete queue.
+ * <p>
+ * The listener container factory bounds how many transcriptions a single node runs at once (consumer count and
+ * prefetch), so transcription throughput can be scaled by adding worker nodes instead of HTTP nodes.
+ */
+@Configuration
+@ConditionalOnProperty(name = "VoFAS.messaging.broker", havingValue = "rabbit", matchIfMissing = true)
+public class RabbitMQConfiguration {
+
+    @Value("${VoFAS.transcription.worker.concurrency}")
+    private int concurrency;
+
+    @Value("${VoFAS.transcription.worker.max-concurrency}")
+    private int maxConcurrency;
+
+    @Value("${VoFAS.transcription.worker.prefetch}")
+    private int prefetch;
+
+    @Value("${VoFAS.transcription.worker.max-attempts}")
+    private int maxAttempts;
+
+    @Value("${VoFAS.stream.fanout.queue-ttl}")
+    private Duration streamQueueTtl;
+
+    @Value("${VoFAS.stream.fanout.queue-max-length}")
+    private int streamQueueMaxLength;
+
+    @Bean
+    public DirectExchange feedbackExchange() {
+        return ExchangeBuilder.directExchange(MessagingConstants.FEEDBACK_EXCHANGE).durable(true).build();
+    }
+
+    @Bean
+    public DirectExchange feedbackDeadLetterExchange() {
+        return ExchangeBuilder.directExchange(MessagingConstants.FEEDBACK_DEAD_LETTER_EXCHANGE).durable(true).build();
+    }
+
+    @Bean
+    public Queue transcriptionQueue() {
+        return QueueBuilder.durable(MessagingConstants.TRANSCRIPTION_QUEUE)
+                .deadLetterExchange(MessagingConstants.FEEDBACK_DEAD_LETTER_EXCHANGE)
+                .deadLetterRoutingKey(MessagingConstants.FEEDBACK_DEAD_LETTER_ROUTING_KEY)
+                .build();
+    }
+
+    @Bean
+    public Queue transcriptionDeadLetterQueue() {
+        return QueueBuilder.durable(MessagingConstants.TRANSCRIPTION_DEAD_LETTER_QUEUE).build();
+    }
+
+    @Bean
+    public Binding transcriptionBinding(Queue transcriptionQueue, DirectExchange feedbackExchange) {
+        return BindingBuilder.bind(transcriptionQueue)
+                .to(feedbackExchange)
+                .with(MessagingConstants.FEEDBACK_RECEIVED_ROUTING_KEY);
+    }
+
+    @Bean
+    public Binding transcriptionDeadLetterBinding(Queue transcriptionDeadLetterQueue, DirectExchange feedbackDeadLetterExchange) {
+        return BindingBuilder.bind(transcriptionDeadLetterQueue)
+                .to(feedbackDeadLetterExchange)
+                .with(MessagingConstants.FEEDBACK_DEAD_LETTER_ROUTING_KEY);
+    }
+
+    @Bean
+    public FanoutExchange feedbackStreamExchange() {
+        return ExchangeBuilder.fanoutExchange(MessagingConstants.FEEDBACK_STREAM_EXCHANGE).durable(true).build();
+    }
+
+    /**
+     * The queue of this node on the feedback stream exchange. It is named per node and removed when the node
+     * disconnects; stale batches expire and a stalled node cannot pile up more than the configured length.
+     */
+    @Bean
+    public Queue feedbackStreamQueue() {
+        return new AnonymousQueue(new Base64UrlNamingStrategy(MessagingConstants.FEEDBACK_STREAM_QUEUE_PREFIX), Map.of(
+                "x-message-ttl", (int) streamQueueTtl.toMillis(),
+                "x-max-length", streamQueueMaxLength));
+    }
+
+    @Bean
+    public Binding feedbackStreamBinding(Queue feedbackStreamQueue, FanoutExchange feedbackStreamExchange) {
+        return BindingBuilder.bind(feedbackStreamQueue).to(feedbackStreamExchange);
+    }
+
+    @Bean
+    public MessageConverter messageConverter(ObjectMapper objectMapper) {
+        return new Jackson2JsonMessageConverter(objectMapper);
+    }
+
+    /**
+     * Container factory used by the transcription workers. Messages are acknowledged only after the transcription
+     * finished; failed deliveries are retried in-process with exponential back-off and then rejected without
+     * re-queueing, which routes them to the dead-letter queue.
+     */
+    @Bean
+    public SimpleRabbitListenerContainerFactory transcriptionListenerContainerFactory(ConnectionFactory connectionFactory,
+                                                                                     MessageConverter messageConverter) {
+        SimpleRabbitListenerContainerFactory factory = new SimpleRabbitListenerContainerFactory();
+        factory.setConnectionFactory(connectionFactory);
+        factory.setMessageConverter(messageConverter);
+        factory.setConcurrentConsumers(concurrency);
+        factory.setMaxConcurrentConsumers(maxConcurrency);
+        factory.setPrefetchCount(prefetch);
+        factory.setAcknowledgeMode(AcknowledgeMode.AUTO);
+        factory.setDefaultRequeueRejected(false);
+        factory.setAdviceChain(RetryInterceptorBuilder.stateless()
+                .maxAttempts(maxAttempts)
+                .backOffOptions(1000, 2.0, 10000)
+                .recoverer(new RejectAndDontRequeueRecoverer())
+                .build());
+        return factory;
+    }
+}
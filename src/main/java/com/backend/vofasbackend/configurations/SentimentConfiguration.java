@@ -0,0 +1,35 @@
+package com.backend.vofasbackend.configurations;
+
+import com.backend.vofasbackend.servicelayer.interfaces.SentimentAnalyzer;
+import com.backend.vofasbackend.servicelayer.sentiment.ChatModelSentimentAnalyzer;
+import com.backend.vofasbackend.servicelayer.sentiment.LexiconSentimentAnalyzer;
+import org.springframework.ai.chat.model.ChatModel;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.io.Resource;
+
+/**
+ * Selects the sentiment analyzer with {@code VoFAS.sentiment.analyzer}: {@code lexicon} scores transcriptions
+ * offline against the Turkish lexicon, {@code openai} asks the OpenAI chat model configured under
+ * {@code spring.ai.openai.chat}.
+ */
+@Configuration
+public class SentimentConfiguration {
+
+    @Value("${VoFAS.sentiment.analyzer}")
+    private String analyzer;
+
+    @Value("${VoFAS.sentiment.lexicon}")
+    private Resource lexicon;
+
+    @Bean
+    public SentimentAnalyzer sentimentAnalyzer(ObjectProvider<ChatModel> chatModel) {
+        return switch (analyzer) {
+            case "lexicon" -> new LexiconSentimentAnalyzer(lexicon);
+            case "openai" -> new ChatModelSentimentAnalyzer(analyzer, chatModel.getObject());
+            default -> throw new IllegalStateException("Unknown sentiment analyzer: " + analyzer);
+        };
+    }
+}
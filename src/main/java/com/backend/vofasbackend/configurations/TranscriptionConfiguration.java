@@ -0,0 +1,103 @@
+package com.backend.vofasbackend.configurations;
+
+import com.backend.vofasbackend.servicelayer.audio.AudioProbe;
+import com.backend.vofasbackend.servicelayer.interfaces.TranscriptionEngine;
+import com.backend.vofasbackend.servicelayer.resilience.AdaptiveConcurrencyLimiter;
+import com.backend.vofasbackend.servicelayer.resilience.CircuitBreaker;
+import com.backend.vofasbackend.servicelayer.resilience.GuardedTranscriptionModel;
+import com.backend.vofasbackend.servicelayer.resilience.TranscriptionGuard;
+import com.backend.vofasbackend.servicelayer.transcription.ModelTranscriptionEngine;
+import com.backend.vofasbackend.servicelayer.transcription.StubTranscriptionModel;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.ai.audio.transcription.AudioTranscriptionPrompt;
+import org.springframework.ai.audio.transcription.AudioTranscriptionResponse;
+import org.springframework.ai.model.Model;
+import org.springframework.ai.openai.OpenAiAudioTranscriptionModel;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Selects the transcription provider with {@code VoFAS.transcription.provider} ({@code openai} or {@code stub}) and
+ * exposes it as a {@link TranscriptionEngine} whose calls go through the shared {@link TranscriptionGuard}.
+ */
+@Configuration
+public class TranscriptionConfiguration {
+
+    @Value("${VoFAS.transcription.provider}")
+    private String provider;
+
+    @Value("${VoFAS.transcription.limiter.initial-limit}")
+    private int initialLimit;
+
+    @Value("${VoFAS.transcription.limiter.min-limit}")
+    private int minLimit;
+
+    @Value("${VoFAS.transcription.limiter.max-limit}")
+    private int maxLimit;
+
+    @Value("${VoFAS.transcription.limiter.backoff-ratio}")
+    private double backoffRatio;
+
+    @Value("${VoFAS.transcription.limiter.latency-threshold}")
+    private Duration latencyThreshold;
+
+    @Value("${VoFAS.transcription.limiter.max-queued}")
+    private int maxQueued;
+
+    @Value("${VoFAS.transcription.limiter.max-wait}")
+    private Duration maxWait;
+
+    @Value("${VoFAS.transcription.circuit.window-size}")
+    private int windowSize;
+
+    @Value("${VoFAS.transcription.circuit.minimum-calls}")
+    private int minimumCalls;
+
+    @Value("${VoFAS.transcription.circuit.failure-rate-threshold}")
+    private double failureRateThreshold;
+
+    @Value("${VoFAS.transcription.circuit.open-duration}")
+    private Duration openDuration;
+
+    @Value("${VoFAS.transcription.circuit.half-open-probes}")
+    private int halfOpenProbes;
+
+    @Bean
+    public TranscriptionGuard transcriptionGuard(MeterRegistry meterRegistry) {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(
+                initialLimit, minLimit, maxLimit, backoffRatio, latencyThreshold, maxQueued, maxWait);
+        CircuitBreaker circuitBreaker = new CircuitBreaker(
+                windowSize, minimumCalls, failureRateThreshold, openDuration, halfOpenProbes);
+        return new TranscriptionGuard(limiter, circuitBreaker, meterRegistry);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "VoFAS.transcription.provider", havingValue = "stub")
+    public StubTranscriptionModel stubTranscriptionModel(
+            AudioProbe audioProbe,
+            @Value("${VoFAS.transcription.stub.median-latency}") Duration medianLatency,
+            @Value("${VoFAS.transcription.stub.real-time-factor}") double realTimeFactor,
+            @Value("${VoFAS.transcription.stub.latency-sigma}") double latencySigma,
+            @Value("${VoFAS.transcription.stub.requests-per-second}") double requestsPerSecond,
+            @Value("${VoFAS.transcription.stub.failure-rate}") double failureRate,
+            @Value("${VoFAS.transcription.stub.seed}") long seed) {
+        return new StubTranscriptionModel(audioProbe, medianLatency, realTimeFactor, latencySigma, requestsPerSecond, failureRate, seed);
+    }
+
+    @Bean
+    public TranscriptionEngine transcriptionEngine(ObjectProvider<OpenAiAudioTranscriptionModel> openAiTranscriptionModel,
+                                                   ObjectProvider<StubTranscriptionModel> stubTranscriptionModel,
+                                                   TranscriptionGuard transcriptionGuard) {
+        Model<AudioTranscriptionPrompt, AudioTranscriptionResponse> model = switch (provider) {
+            case "openai" -> openAiTranscriptionModel.getObject();
+            case "stub" -> stubTranscriptionModel.getObject();
+            default -> throw new IllegalStateException("Unknown transcription provider: " + provider);
+        };
+        return new ModelTranscriptionEngine(provider, new GuardedTranscriptionModel(model, transcriptionGuard));
+    }
+}
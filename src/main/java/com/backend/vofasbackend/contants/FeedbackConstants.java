@@ -9,12 +9,14 @@ public final class FeedbackConstants {
 
     public static final String STATUS_201 = "201";
     public static final String STATUS_400 = "400";
+    public static final String STATUS_403 = "403";
     public static final String STATUS_404 = "404";
     public static final String STATUS_415 = "415";
     public static final String STATUS_500 = "500";
 
     public static final String MESSAGE_201 = "Request successful";
     public static final String MESSAGE_400 = "Bad Request";
+    public static final String MESSAGE_403 = "Invalid Validation Token";
     public static final String MESSAGE_404 = "Feedback Not Found";
     public static final String MESSAGE_415 = "Only MP3 or WAV files are allowed.";
 
@@ -0,0 +1,22 @@
+package com.backend.vofasbackend.contants;
+
+/**
+ * A utility class that holds the names of the AMQP exchanges, queues and routing keys used by the feedback
+ * processing pipeline. Every node declares the same topology, so these names must stay stable across releases.
+ */
+public final class MessagingConstants {
+
+    public static final String FEEDBACK_EXCHANGE = "vofas.feedback";
+    public static final String FEEDBACK_DEAD_LETTER_EXCHANGE = "vofas.feedback.dlx";
+    public static final String FEEDBACK_STREAM_EXCHANGE = "vofas.feedback.stream";
+
+    public static final String TRANSCRIPTION_QUEUE = "vofas.feedback.transcription";
+    public static final String TRANSCRIPTION_DEAD_LETTER_QUEUE = "vofas.feedback.transcription.dlq";
+    public static final String FEEDBACK_STREAM_QUEUE_PREFIX = "vofas.feedback.stream.";
+
+    public static final String FEEDBACK_RECEIVED_ROUTING_KEY = "feedback.received";
+    public static final String FEEDBACK_DEAD_LETTER_ROUTING_KEY = "feedback.received.dead";
+
+    private MessagingConstants() {
+    }
+}
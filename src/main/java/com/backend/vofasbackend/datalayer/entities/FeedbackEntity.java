@@ -1,6 +1,7 @@
 package com.backend.vofasbackend.datalayer.entities;
 
 import com.backend.vofasbackend.datalayer.enums.FeedbackStateEnum;
+import com.backend.vofasbackend.datalayer.sequences.IdSequences;
 import com.fasterxml.jackson.annotation.JsonFormat;
 import jakarta.persistence.*;
 import lombok.*;
@@ -24,7 +25,11 @@ import java.time.LocalTime;
  * the feedback was collected.
  */
 @Entity
-@Table(name = "feedback_table")
+@Table(name = "feedback_table", indexes = {
+        @Index(name = "idx_feedback_file_hash", columnList = "file_hash"),
+        @Index(name = "idx_feedback_received_at_id", columnList = "feedback_received_at, feedback_id"),
+        @Index(name = "idx_feedback_state", columnList = "feedback_state")
+})
 @Data
 @ToString
 @EqualsAndHashCode
@@ -37,7 +42,9 @@ public class FeedbackEntity {
      * This is the primary key for the feedback entity.
      */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = IdSequences.FEEDBACK)
+    @TableGenerator(name = IdSequences.FEEDBACK, table = IdSequences.TABLE, pkColumnName = IdSequences.NAME_COLUMN,
+            valueColumnName = IdSequences.VALUE_COLUMN, pkColumnValue = IdSequences.FEEDBACK, allocationSize = IdSequences.ALLOCATION_SIZE)
     @Column(name = "feedback_id", nullable = false, unique = true, updatable = false)
     private Long feedbackID;
 
@@ -67,6 +74,22 @@ public class FeedbackEntity {
     @Enumerated(EnumType.STRING)
     private FeedbackStateEnum feedbackState;
 
+    /**
+     * The timestamp of the last state change, null for feedbacks that have not changed state since the column was
+     * added. Used to find feedbacks stuck in a pipeline state.
+     */
+    @Column(name = "feedback_state_changed_at")
+    private LocalDateTime feedbackStateChangedAt;
+
+    /**
+     * The node that last claimed the feedback for recovery, and until when no other node may recover it.
+     */
+    @Column(name = "recovery_lease_owner")
+    private String recoveryLeaseOwner;
+
+    @Column(name = "recovery_lease_until")
+    private LocalDateTime recoveryLeaseUntil;
+
     /**
      * One-to-one relationship with the Transcription entity.
      * Transcription is linked via the "transcription_id" column.
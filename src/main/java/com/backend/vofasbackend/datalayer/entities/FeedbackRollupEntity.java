@@ -0,0 +1,81 @@
+package com.backend.vofasbackend.datalayer.entities;
+
+import com.backend.vofasbackend.datalayer.enums.RollupGranularityEnum;
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Entity holding the running totals of the feedbacks received at one kiosk within one hour or day.
+ * <p>
+ * Rows are kept up to date incrementally as feedbacks move through their lifecycle, so analytics read one row per
+ * bucket instead of scanning the feedbacks. Every figure is attributed to the bucket in which the feedback was
+ * received, also when its transcription or sentiment analysis finishes later. Averages are derived from the totals
+ * and the matching counts when the rows are read.
+ */
+@Entity
+@Table(name = "feedback_rollup_table", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_feedback_rollup_bucket", columnNames = {"granularity", "bucket_start", "kiosk_id"})
+})
+@Data
+@NoArgsConstructor
+public class FeedbackRollupEntity {
+
+    /**
+     * Kiosk id used for feedbacks that are not linked to a kiosk.
+     */
+    public static final long NO_KIOSK = 0L;
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "rollup_id", nullable = false, unique = true, updatable = false)
+    private Long rollupID;
+
+    @Column(name = "granularity", nullable = false, updatable = false, length = 8)
+    @Enumerated(EnumType.STRING)
+    private RollupGranularityEnum granularity;
+
+    /**
+     * The first instant of the hour or day the bucket covers.
+     */
+    @Column(name = "bucket_start", nullable = false, updatable = false)
+    private LocalDateTime bucketStart;
+
+    /**
+     * The kiosk the feedbacks were recorded at, {@link #NO_KIOSK} if unknown.
+     */
+    @Column(name = "kiosk_id", nullable = false, updatable = false)
+    private Long kioskID;
+
+    @Column(name = "feedback_count", nullable = false)
+    private long feedbackCount;
+
+    @Column(name = "total_duration_millis", nullable = false)
+    private long totalDurationMillis;
+
+    @Column(name = "transcribed_count", nullable = false)
+    private long transcribedCount;
+
+    /**
+     * Sum over the transcribed feedbacks of the time from receiving the feedback to storing its transcription.
+     */
+    @Column(name = "total_transcription_latency_millis", nullable = false)
+    private long totalTranscriptionLatencyMillis;
+
+    @Column(name = "positive_count", nullable = false)
+    private long positiveCount;
+
+    @Column(name = "neutral_count", nullable = false)
+    private long neutralCount;
+
+    @Column(name = "negative_count", nullable = false)
+    private long negativeCount;
+
+    public FeedbackRollupEntity(RollupGranularityEnum granularity, LocalDateTime bucketStart, Long kioskID) {
+        this.granularity = granularity;
+        this.bucketStart = bucketStart;
+        this.kioskID = kioskID;
+    }
+}
@@ -1,6 +1,7 @@
 package com.backend.vofasbackend.datalayer.entities;
 
 import com.backend.vofasbackend.datalayer.enums.KioskStateEnum;
+import com.backend.vofasbackend.datalayer.sequences.IdSequences;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.Pattern;
 import lombok.Data;
@@ -27,7 +28,9 @@ public class KioskEntity {
      * This is the primary key for the Kiosk entity.
      */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = IdSequences.KIOSK)
+    @TableGenerator(name = IdSequences.KIOSK, table = IdSequences.TABLE, pkColumnName = IdSequences.NAME_COLUMN,
+            valueColumnName = IdSequences.VALUE_COLUMN, pkColumnValue = IdSequences.KIOSK, allocationSize = IdSequences.ALLOCATION_SIZE)
     @Column(name = "kiosk_id", nullable = false, unique = true, updatable = false)
     private Long kioskID;
 
@@ -1,6 +1,7 @@
 package com.backend.vofasbackend.datalayer.entities;
 
 import com.backend.vofasbackend.datalayer.enums.SentimentStateEnum;
+import com.backend.vofasbackend.datalayer.sequences.IdSequences;
 import com.fasterxml.jackson.annotation.JsonFormat;
 import jakarta.persistence.*;
 import lombok.*;
@@ -23,7 +24,9 @@ import java.time.LocalDateTime;
 public class SentimentAnalysisEntity {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = IdSequences.SENTIMENT)
+    @TableGenerator(name = IdSequences.SENTIMENT, table = IdSequences.TABLE, pkColumnName = IdSequences.NAME_COLUMN,
+            valueColumnName = IdSequences.VALUE_COLUMN, pkColumnValue = IdSequences.SENTIMENT, allocationSize = IdSequences.ALLOCATION_SIZE)
     @Column(name = "sentiment_id", nullable = false, unique = true, updatable = false)
     private Long sentimentID;
 
@@ -1,5 +1,6 @@
 package com.backend.vofasbackend.datalayer.entities;
 
+import com.backend.vofasbackend.datalayer.sequences.IdSequences;
 import com.fasterxml.jackson.annotation.JsonFormat;
 import io.swagger.v3.oas.annotations.media.Schema;
 import jakarta.persistence.*;
@@ -14,7 +15,9 @@ import java.time.LocalDateTime;
  * Contains timestamps for request and receipt, and a one-to-one relationship with {@link FeedbackEntity}.
  */
 @Entity
-@Table(name = "transcription_table")
+@Table(name = "transcription_table", indexes = {
+        @Index(name = "idx_transcription_hash", columnList = "transcription_hash")
+})
 @Data
 @ToString
 @EqualsAndHashCode
@@ -23,7 +26,9 @@ import java.time.LocalDateTime;
 public class TranscriptionEntity {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = IdSequences.TRANSCRIPTION)
+    @TableGenerator(name = IdSequences.TRANSCRIPTION, table = IdSequences.TABLE, pkColumnName = IdSequences.NAME_COLUMN,
+            valueColumnName = IdSequences.VALUE_COLUMN, pkColumnValue = IdSequences.TRANSCRIPTION, allocationSize = IdSequences.ALLOCATION_SIZE)
     @Column(name = "transcription_id", nullable = false, unique = true, updatable = false)
     private Long transcriptionID;
 
@@ -35,6 +40,10 @@ public class TranscriptionEntity {
     @Column(name = "transcription", nullable = false, updatable = false)
     private String transcription;
 
+    /**
+     * Hash of the transcription text, see {@code HashTool.hashString}. Feedbacks with the same text share their
+     * sentiment analysis result through it.
+     */
     @Column(name = "transcription_hash", nullable = false, updatable = false)
     private String transcriptionHash;
 
@@ -15,13 +15,16 @@ import java.util.UUID;
  * The validation token is used to authenticate or validate feedback and is linked to a specific kiosk and feedback.
  */
 @Entity
-@Table(name = "validation_tokens")
+@Table(name = "validation_tokens", indexes = {
+        @Index(name = "idx_validation_token_state_created_at", columnList = "validation_token_state, token_create_at")
+})
 @Data
 public class ValidationTokenEntity {
 
     /**
      * The unique validation token identifier.
-     * This is the primary key for the ValidationToken entity.
+     * This is the primary key for the ValidationToken entity. It is a random UUID generated by Hibernate before the
+     * insert, so new tokens can be inserted in JDBC batches without reserving ids from the sequence table.
      */
     @Id
     @GeneratedValue(strategy = GenerationType.AUTO)
@@ -56,8 +59,9 @@ public class ValidationTokenEntity {
     /**
      * The timestamp when the validation token was used.
      * This field tracks when the token was used for feedback validation.
+     * Uses are written in batches, so several tokens may share the same second.
      */
-    @Column(name = "token_used_at", unique = true)
+    @Column(name = "token_used_at")
     @DateTimeFormat(pattern = "dd-MM-yyyy HH:mm:ss")
     @JsonFormat(pattern = "dd-MM-yyyy HH:mm:ss")
     private LocalDateTime tokenUsedAt;
@@ -75,7 +79,6 @@ public class ValidationTokenEntity {
      * This constructor is required for JPA to create instances of the entity.
      */
     public ValidationTokenEntity() {
-        this.validationToken = UUID.randomUUID();
         this.validationTokenStateEnum = ValidationTokenStateEnum.VALID;
         this.tokenCreateAt = LocalDateTime.now();
         this.tokenUsedAt = null;
@@ -0,0 +1,39 @@
+package com.backend.vofasbackend.datalayer.enums;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Enum representing the width of the time buckets feedback analytics are rolled up into.
+ *
+ * <ul>
+ *   <li>{@link #HOUR}: One bucket per kiosk and hour.</li>
+ *   <li>{@link #DAY}: One bucket per kiosk and day.</li>
+ * </ul>
+ */
+public enum RollupGranularityEnum {
+
+    HOUR(ChronoUnit.HOURS),
+
+    DAY(ChronoUnit.DAYS);
+
+    private final ChronoUnit unit;
+
+    RollupGranularityEnum(ChronoUnit unit) {
+        this.unit = unit;
+    }
+
+    /**
+     * Returns the start of the bucket the given time falls into.
+     */
+    public LocalDateTime bucketOf(LocalDateTime time) {
+        return time.truncatedTo(unit);
+    }
+
+    /**
+     * Returns the start of the bucket following the one starting at {@code bucketStart}.
+     */
+    public LocalDateTime next(LocalDateTime bucketStart) {
+        return bucketStart.plus(1, unit);
+    }
+}
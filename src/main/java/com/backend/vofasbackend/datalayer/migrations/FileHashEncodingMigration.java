@@ -0,0 +1,86 @@
+package com.backend.vofasbackend.datalayer.migrations;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.List;
+
+/**
+ * Re-encodes the {@code file_hash} of feedbacks stored before audio files became content-addressed, when the
+ * application starts. Those hashes are Base64 encoded SHA-256 digests, while new feedbacks, the audio store layout and
+ * the transcription cache use lowercase hexadecimal; without the migration the cache never finds the transcriptions
+ * of older recordings.
+ * <p>
+ * Base64 digests are recognized by their padding, which hexadecimal never contains, so rows already migrated are left
+ * alone and the migration finds nothing to do once it has run. Rows are rewritten in batches of
+ * {@value #BATCH_SIZE}, one transaction each. The transaction manager is injected so the migration runs after
+ * Hibernate has updated the schema.
+ */
+@Slf4j
+@Component
+public class FileHashEncodingMigration {
+
+    static final int BATCH_SIZE = 1000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transaction;
+
+    public FileHashEncodingMigration(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transaction = new TransactionTemplate(transactionManager);
+    }
+
+    @PostConstruct
+    void migrate() {
+        long lastID = 0;
+        int migrated = 0;
+        List<StoredHash> batch;
+        do {
+            long after = lastID;
+            batch = jdbcTemplate.query(
+                    "SELECT feedback_id, file_hash FROM feedback_table WHERE file_hash LIKE '%=' AND feedback_id > ? " +
+                            "ORDER BY feedback_id LIMIT " + BATCH_SIZE,
+                    (resultSet, rowNum) -> new StoredHash(resultSet.getLong(1), resultSet.getString(2)),
+                    after);
+            List<Object[]> updates = new ArrayList<>(batch.size());
+            for (StoredHash storedHash : batch) {
+                lastID = storedHash.feedbackID();
+                String hex = toHex(storedHash.fileHash());
+                if (hex != null) {
+                    updates.add(new Object[]{hex, storedHash.feedbackID(), storedHash.fileHash()});
+                }
+            }
+            if (!updates.isEmpty()) {
+                // a concurrent node may have migrated the row already
+                transaction.executeWithoutResult(status -> jdbcTemplate.batchUpdate(
+                        "UPDATE feedback_table SET file_hash = ? WHERE feedback_id = ? AND file_hash = ?", updates));
+                migrated += updates.size();
+            }
+        } while (batch.size() == BATCH_SIZE);
+        if (migrated > 0) {
+            log.info("Re-encoded the file hash of {} feedbacks from Base64 to hexadecimal", migrated);
+        }
+    }
+
+    /**
+     * @return the hexadecimal form of a Base64 SHA-256 digest, or null if the value is not one
+     */
+    static String toHex(String base64) {
+        try {
+            byte[] digest = Base64.getDecoder().decode(base64);
+            return digest.length == 32 ? HexFormat.of().formatHex(digest) : null;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private record StoredHash(long feedbackID, String fileHash) {
+    }
+}
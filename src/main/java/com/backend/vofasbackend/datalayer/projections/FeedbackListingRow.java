@@ -0,0 +1,59 @@
+package com.backend.vofasbackend.datalayer.projections;
+
+import com.backend.vofasbackend.datalayer.enums.FeedbackStateEnum;
+import com.backend.vofasbackend.datalayer.enums.KioskStateEnum;
+import com.backend.vofasbackend.datalayer.enums.SentimentStateEnum;
+import com.backend.vofasbackend.datalayer.enums.ValidationTokenStateEnum;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Read model of a feedback in a listing, holding exactly the columns the listing DTOs need.
+ * <p>
+ * Rows are built by a constructor expression over the feedback and its left-joined transcription, sentiment
+ * analysis, kiosk and validation token, so a whole page is read with one statement and no entity is managed by
+ * the persistence context. Columns of a missing association are null.
+ */
+public record FeedbackListingRow(
+        Long feedbackID,
+        LocalDateTime feedbackReceivedAt,
+        String filePath,
+        String fileHash,
+        Duration feedbackDuration,
+        FeedbackStateEnum feedbackState,
+        Long transcriptionID,
+        String transcription,
+        String transcriptionHash,
+        LocalDateTime transcriptionRequestedAt,
+        LocalDateTime transcriptionReceivedAt,
+        Long sentimentID,
+        SentimentStateEnum sentimentState,
+        LocalDateTime analysisRequestedAt,
+        Long kioskID,
+        String kioskName,
+        String kioskDescription,
+        KioskStateEnum kioskState,
+        UUID validationToken,
+        ValidationTokenStateEnum validationTokenState,
+        LocalDateTime tokenCreateAt,
+        Long tokenKioskID) {
+
+    /**
+     * JPQL select list matching the record components, for {@code SELECT new ...FeedbackListingRow(...)} queries
+     * over {@code FeedbackEntity f} joined as {@code t}, {@code s}, {@code k}, {@code v} and {@code vk}.
+     */
+    public static final String SELECT = "SELECT new com.backend.vofasbackend.datalayer.projections.FeedbackListingRow(" +
+            "f.feedbackID, f.feedbackReceivedAt, f.filePath, f.file_hash, f.feedbackDuration, f.feedbackState, " +
+            "t.transcriptionID, t.transcription, t.transcriptionHash, t.transcriptionRequestedAt, t.transcriptionReceivedAt, " +
+            "s.sentimentID, s.sentimentState, s.analysisRequestedAt, " +
+            "k.kioskID, k.kioskName, k.kioskDescription, k.kioskStateEnum, " +
+            "v.validationToken, v.validationTokenStateEnum, v.tokenCreateAt, vk.kioskID) " +
+            "FROM FeedbackEntity f " +
+            "LEFT JOIN f.transcription t " +
+            "LEFT JOIN f.sentimentAnalysis s " +
+            "LEFT JOIN f.feedbackSource k " +
+            "LEFT JOIN f.validationToken v " +
+            "LEFT JOIN v.parentKiosk vk ";
+}
@@ -0,0 +1,13 @@
+package com.backend.vofasbackend.datalayer.projections;
+
+import java.time.LocalDateTime;
+
+/**
+ * The values that decide which analytics buckets a feedback counts towards.
+ *
+ * @param feedbackID         the feedback
+ * @param feedbackReceivedAt when the feedback was received
+ * @param kioskID            the kiosk it was recorded at, null if unknown
+ */
+public record FeedbackRollupKey(Long feedbackID, LocalDateTime feedbackReceivedAt, Long kioskID) {
+}
@@ -0,0 +1,24 @@
+package com.backend.vofasbackend.datalayer.projections;
+
+import java.time.LocalDateTime;
+
+/**
+ * Totals of one analytics bucket, summed over the kiosks selected by the query. Built by a constructor expression
+ * over {@code FeedbackRollupEntity}, so reading a range costs one row per bucket and kiosk.
+ */
+public record FeedbackRollupRow(
+        LocalDateTime bucketStart,
+        Long feedbackCount,
+        Long totalDurationMillis,
+        Long transcribedCount,
+        Long totalTranscriptionLatencyMillis,
+        Long positiveCount,
+        Long neutralCount,
+        Long negativeCount
+) {
+
+    public static final String SELECT = "SELECT new com.backend.vofasbackend.datalayer.projections.FeedbackRollupRow(" +
+            "r.bucketStart, SUM(r.feedbackCount), SUM(r.totalDurationMillis), SUM(r.transcribedCount), " +
+            "SUM(r.totalTranscriptionLatencyMillis), SUM(r.positiveCount), SUM(r.neutralCount), SUM(r.negativeCount)) " +
+            "FROM FeedbackRollupEntity r ";
+}
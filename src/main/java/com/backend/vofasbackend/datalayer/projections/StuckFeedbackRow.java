@@ -0,0 +1,14 @@
+package com.backend.vofasbackend.datalayer.projections;
+
+import com.backend.vofasbackend.datalayer.enums.FeedbackStateEnum;
+
+/**
+ * A feedback that has not left a pipeline state in time, with what is needed to put it back into the pipeline.
+ *
+ * @param feedbackID        the feedback
+ * @param feedbackState     the state it is stuck in
+ * @param transcription     its transcription text, null if it was not transcribed yet
+ * @param transcriptionHash the hash of the text, null if it was not transcribed yet
+ */
+public record StuckFeedbackRow(Long feedbackID, FeedbackStateEnum feedbackState, String transcription, String transcriptionHash) {
+}
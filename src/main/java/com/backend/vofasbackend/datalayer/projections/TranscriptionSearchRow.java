@@ -0,0 +1,14 @@
+package com.backend.vofasbackend.datalayer.projections;
+
+import java.time.LocalDateTime;
+
+/**
+ * The columns of a transcribed feedback that go into the transcription search index.
+ *
+ * @param feedbackID         the feedback
+ * @param feedbackReceivedAt when it was received
+ * @param kioskID            the kiosk it was recorded at, null if unknown
+ * @param transcription      the transcription text
+ */
+public record TranscriptionSearchRow(Long feedbackID, LocalDateTime feedbackReceivedAt, Long kioskID, String transcription) {
+}
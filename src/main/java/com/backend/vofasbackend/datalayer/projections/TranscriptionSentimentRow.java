@@ -0,0 +1,12 @@
+package com.backend.vofasbackend.datalayer.projections;
+
+import com.backend.vofasbackend.datalayer.enums.SentimentStateEnum;
+
+/**
+ * The sentiment analysis result stored for a transcription text.
+ *
+ * @param transcriptionHash the hash of the transcription text
+ * @param sentimentState    the sentiment the text was classified as
+ */
+public record TranscriptionSentimentRow(String transcriptionHash, SentimentStateEnum sentimentState) {
+}
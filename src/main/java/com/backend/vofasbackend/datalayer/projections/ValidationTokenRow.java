@@ -0,0 +1,14 @@
+package com.backend.vofasbackend.datalayer.projections;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * A validation token and the kiosk it was issued to.
+ *
+ * @param validationToken the token
+ * @param kioskID         the kiosk the token may be used at
+ * @param tokenCreateAt   when the token was created
+ */
+public record ValidationTokenRow(UUID validationToken, Long kioskID, LocalDateTime tokenCreateAt) {
+}
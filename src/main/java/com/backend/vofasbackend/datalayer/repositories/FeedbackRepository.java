@@ -2,19 +2,35 @@ package com.backend.vofasbackend.datalayer.repositories;
 
 import com.backend.vofasbackend.datalayer.entities.FeedbackEntity;
 import com.backend.vofasbackend.datalayer.entities.KioskEntity;
+import com.backend.vofasbackend.datalayer.entities.SentimentAnalysisEntity;
+import com.backend.vofasbackend.datalayer.entities.TranscriptionEntity;
 import com.backend.vofasbackend.datalayer.enums.FeedbackStateEnum;
 import com.backend.vofasbackend.datalayer.enums.SentimentStateEnum;
+import com.backend.vofasbackend.datalayer.projections.FeedbackListingRow;
+import com.backend.vofasbackend.datalayer.projections.FeedbackRollupKey;
+import com.backend.vofasbackend.datalayer.projections.StuckFeedbackRow;
+import com.backend.vofasbackend.datalayer.projections.TranscriptionSearchRow;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.PagingAndSortingRepository;
 import org.springframework.data.repository.query.Param;
 import org.springframework.data.repository.reactive.ReactiveCrudRepository;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.UUID;
+import java.util.stream.Stream;
 
 
 /**
@@ -26,19 +42,254 @@ import java.util.Optional;
 public interface FeedbackRepository extends JpaRepository<FeedbackEntity, Long>, PagingAndSortingRepository<FeedbackEntity, Long> {
     Optional<FeedbackEntity> getFeedbackEntityByFeedbackID(Long feedbackID);
 
-    @Query("SELECT f FROM FeedbackEntity f " +
+    /**
+     * Finds a feedback with its kiosk and validation token fetched as well, so that it can be mapped after the
+     * read-only transaction of the query has ended.
+     */
+    @EntityGraph(attributePaths = {"feedbackSource", "validationToken"})
+    Optional<FeedbackEntity> findDetailedByFeedbackID(Long feedbackID);
+
+    /**
+     * Reads the values that place a feedback in the analytics buckets, without loading the feedback.
+     */
+    @Query("SELECT new com.backend.vofasbackend.datalayer.projections.FeedbackRollupKey(f.feedbackID, f.feedbackReceivedAt, k.kioskID) " +
+            "FROM FeedbackEntity f LEFT JOIN f.feedbackSource k WHERE f.feedbackID = :feedbackID")
+    Optional<FeedbackRollupKey> findRollupKeyByFeedbackID(@Param("feedbackID") Long feedbackID);
+
+    /**
+     * Reads the values that place each of the given feedbacks in the analytics buckets, with one statement.
+     */
+    @Query("SELECT new com.backend.vofasbackend.datalayer.projections.FeedbackRollupKey(f.feedbackID, f.feedbackReceivedAt, k.kioskID) " +
+            "FROM FeedbackEntity f LEFT JOIN f.feedbackSource k WHERE f.feedbackID IN :feedbackIDs")
+    List<FeedbackRollupKey> findRollupKeysByFeedbackIDs(@Param("feedbackIDs") Collection<Long> feedbackIDs);
+
+    /**
+     * Lists feedbacks as {@link FeedbackListingRow}s, reading a page and its associations with one statement plus
+     * the count query.
+     */
+    @Query(value = FeedbackListingRow.SELECT +
+            "WHERE (:feedbackState IS NULL OR f.feedbackState = :feedbackState) " +
+            "AND (:feedbackSource IS NULL OR f.feedbackSource = :feedbackSource) " +
+            "AND (:sentimentState IS NULL OR s.sentimentState = :sentimentState) " +
+            "AND (:startDate IS NULL OR :endDate IS NULL OR f.feedbackReceivedAt BETWEEN :startDate AND :endDate)",
+            countQuery = "SELECT COUNT(f) FROM FeedbackEntity f " +
+                    "LEFT JOIN f.sentimentAnalysis s " +
+                    "WHERE (:feedbackState IS NULL OR f.feedbackState = :feedbackState) " +
+                    "AND (:feedbackSource IS NULL OR f.feedbackSource = :feedbackSource) " +
+                    "AND (:sentimentState IS NULL OR s.sentimentState = :sentimentState) " +
+                    "AND (:startDate IS NULL OR :endDate IS NULL OR f.feedbackReceivedAt BETWEEN :startDate AND :endDate)")
+    Page<FeedbackListingRow> findFeedbacksByCriteria(
+            @Param("feedbackState") FeedbackStateEnum feedbackState,
+            @Param("feedbackSource") KioskEntity feedbackSource,
+            @Param("sentimentState") SentimentStateEnum sentimentState,
+            @Param("startDate") LocalDateTime startDate,
+            @Param("endDate") LocalDateTime endDate,
+            Pageable pageable);
+
+    /**
+     * Seeks to the feedbacks received before the cursor position, newest first. Unlike the offset based
+     * {@link #findFeedbacksByCriteria} the cost does not grow with the depth of the page, and no count query is run.
+     * Pass a null cursor for the first slice; the size of the slice is taken from the unsorted {@code pageable}.
+     */
+    @Query(FeedbackListingRow.SELECT +
+            "WHERE (:feedbackState IS NULL OR f.feedbackState = :feedbackState) " +
+            "AND (:feedbackSource IS NULL OR f.feedbackSource = :feedbackSource) " +
+            "AND (:sentimentState IS NULL OR s.sentimentState = :sentimentState) " +
+            "AND (:startDate IS NULL OR :endDate IS NULL OR f.feedbackReceivedAt BETWEEN :startDate AND :endDate) " +
+            "AND (:cursorReceivedAt IS NULL OR f.feedbackReceivedAt < :cursorReceivedAt " +
+            "OR (f.feedbackReceivedAt = :cursorReceivedAt AND f.feedbackID < :cursorID)) " +
+            "ORDER BY f.feedbackReceivedAt DESC, f.feedbackID DESC")
+    Slice<FeedbackListingRow> findFeedbacksByCriteriaBefore(
+            @Param("feedbackState") FeedbackStateEnum feedbackState,
+            @Param("feedbackSource") KioskEntity feedbackSource,
+            @Param("sentimentState") SentimentStateEnum sentimentState,
+            @Param("startDate") LocalDateTime startDate,
+            @Param("endDate") LocalDateTime endDate,
+            @Param("cursorReceivedAt") LocalDateTime cursorReceivedAt,
+            @Param("cursorID") Long cursorID,
+            Pageable pageable);
+
+    /**
+     * Seeks to the feedbacks received after the cursor position, oldest first.
+     *
+     * @see #findFeedbacksByCriteriaBefore
+     */
+    @Query(FeedbackListingRow.SELECT +
+            "WHERE (:feedbackState IS NULL OR f.feedbackState = :feedbackState) " +
+            "AND (:feedbackSource IS NULL OR f.feedbackSource = :feedbackSource) " +
+            "AND (:sentimentState IS NULL OR s.sentimentState = :sentimentState) " +
+            "AND (:startDate IS NULL OR :endDate IS NULL OR f.feedbackReceivedAt BETWEEN :startDate AND :endDate) " +
+            "AND (:cursorReceivedAt IS NULL OR f.feedbackReceivedAt > :cursorReceivedAt " +
+            "OR (f.feedbackReceivedAt = :cursorReceivedAt AND f.feedbackID > :cursorID)) " +
+            "ORDER BY f.feedbackReceivedAt ASC, f.feedbackID ASC")
+    Slice<FeedbackListingRow> findFeedbacksByCriteriaAfter(
+            @Param("feedbackState") FeedbackStateEnum feedbackState,
+            @Param("feedbackSource") KioskEntity feedbackSource,
+            @Param("sentimentState") SentimentStateEnum sentimentState,
+            @Param("startDate") LocalDateTime startDate,
+            @Param("endDate") LocalDateTime endDate,
+            @Param("cursorReceivedAt") LocalDateTime cursorReceivedAt,
+            @Param("cursorID") Long cursorID,
+            Pageable pageable);
+
+    /**
+     * Streams the matching feedbacks oldest first for bulk export. Rows are fetched from a forward-only cursor in
+     * chunks of the fetch size and are not kept by the persistence context, so memory does not grow with the number
+     * of rows. Must be consumed inside a transaction and closed afterwards.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query(FeedbackListingRow.SELECT +
+            "WHERE (:feedbackState IS NULL OR f.feedbackState = :feedbackState) " +
+            "AND (:kioskID IS NULL OR k.kioskID = :kioskID) " +
+            "AND (:sentimentState IS NULL OR s.sentimentState = :sentimentState) " +
+            "AND (:startDate IS NULL OR :endDate IS NULL OR f.feedbackReceivedAt BETWEEN :startDate AND :endDate) " +
+            "ORDER BY f.feedbackReceivedAt ASC, f.feedbackID ASC")
+    Stream<FeedbackListingRow> streamFeedbacksByCriteria(
+            @Param("feedbackState") FeedbackStateEnum feedbackState,
+            @Param("kioskID") Long kioskID,
+            @Param("sentimentState") SentimentStateEnum sentimentState,
+            @Param("startDate") LocalDateTime startDate,
+            @Param("endDate") LocalDateTime endDate);
+
+    /**
+     * Streams the transcribed feedbacks whose id is in {@code [fromID, toID]}, to rebuild the transcription search
+     * index. Must be consumed inside a transaction and closed afterwards.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT new com.backend.vofasbackend.datalayer.projections.TranscriptionSearchRow(" +
+            "f.feedbackID, f.feedbackReceivedAt, k.kioskID, t.transcription) " +
+            "FROM FeedbackEntity f JOIN f.transcription t LEFT JOIN f.feedbackSource k " +
+            "WHERE f.feedbackID BETWEEN :fromID AND :toID")
+    Stream<TranscriptionSearchRow> streamTranscriptionsBetween(@Param("fromID") Long fromID, @Param("toID") Long toID);
+
+    @Query("SELECT f.feedbackID FROM FeedbackEntity f WHERE f.validationToken.validationToken = :validationToken")
+    Optional<Long> findFeedbackIDByValidationToken(@Param("validationToken") UUID validationToken);
+
+    @Query("SELECT f.feedbackID FROM FeedbackEntity f WHERE f.validationToken.validationToken IN :validationTokens")
+    List<Long> findFeedbackIDsByValidationTokens(@Param("validationTokens") Collection<UUID> validationTokens);
+
+    @Query("SELECT MIN(f.feedbackID) FROM FeedbackEntity f")
+    Optional<Long> findMinFeedbackID();
+
+    @Query("SELECT MAX(f.feedbackID) FROM FeedbackEntity f")
+    Optional<Long> findMaxFeedbackID();
+
+    /**
+     * Lists the feedbacks with the given ids that match the filters, in no particular order.
+     */
+    @Query(FeedbackListingRow.SELECT +
+            "WHERE f.feedbackID IN :feedbackIDs " +
+            "AND (:feedbackState IS NULL OR f.feedbackState = :feedbackState) " +
+            "AND (:sentimentState IS NULL OR s.sentimentState = :sentimentState)")
+    List<FeedbackListingRow> findFeedbacksByIDs(
+            @Param("feedbackIDs") Collection<Long> feedbackIDs,
+            @Param("feedbackState") FeedbackStateEnum feedbackState,
+            @Param("sentimentState") SentimentStateEnum sentimentState);
+
+    @Query("SELECT COUNT(f) FROM FeedbackEntity f " +
             "LEFT JOIN f.sentimentAnalysis s " +
             "WHERE (:feedbackState IS NULL OR f.feedbackState = :feedbackState) " +
             "AND (:feedbackSource IS NULL OR f.feedbackSource = :feedbackSource) " +
             "AND (:sentimentState IS NULL OR s.sentimentState = :sentimentState) " +
             "AND (:startDate IS NULL OR :endDate IS NULL OR f.feedbackReceivedAt BETWEEN :startDate AND :endDate)")
-    Page<FeedbackEntity> findFeedbacksByCriteria(
+    long countFeedbacksByCriteria(
             @Param("feedbackState") FeedbackStateEnum feedbackState,
             @Param("feedbackSource") KioskEntity feedbackSource,
             @Param("sentimentState") SentimentStateEnum sentimentState,
             @Param("startDate") LocalDateTime startDate,
-            @Param("endDate") LocalDateTime endDate,
+            @Param("endDate") LocalDateTime endDate);
+
+    /**
+     * Moves a feedback to a new state if it is still in the expected one. {@code now} is the time of the application
+     * rather than of the database, which is what the recovery of stuck feedbacks compares the state change against.
+     *
+     * @return the number of updated rows, 0 if the feedback does not exist or is in another state
+     */
+    @Modifying
+    @Query("UPDATE FeedbackEntity f SET f.feedbackState = :to, f.feedbackStateChangedAt = :now " +
+            "WHERE f.feedbackID = :feedbackID AND f.feedbackState = :from")
+    int updateFeedbackState(
+            @Param("feedbackID") Long feedbackID,
+            @Param("from") FeedbackStateEnum from,
+            @Param("to") FeedbackStateEnum to,
+            @Param("now") LocalDateTime now);
+
+    /**
+     * Renews the claim on a feedback that has been in the expected state since before the given time, by recording
+     * the state as entered at {@code now}, the time of the application.
+     *
+     * @return the number of updated rows, 0 if the feedback is in another state or entered it after {@code claimedBefore}
+     */
+    @Modifying
+    @Query("UPDATE FeedbackEntity f SET f.feedbackStateChangedAt = :now " +
+            "WHERE f.feedbackID = :feedbackID AND f.feedbackState = :feedbackState " +
+            "AND f.feedbackStateChangedAt < :claimedBefore")
+    int renewFeedbackState(
+            @Param("feedbackID") Long feedbackID,
+            @Param("feedbackState") FeedbackStateEnum feedbackState,
+            @Param("claimedBefore") LocalDateTime claimedBefore,
+            @Param("now") LocalDateTime now);
+
+    /**
+     * Links a transcription to a feedback and moves it to a new state if it is still in the expected one.
+     *
+     * @return the number of updated rows, 0 if the feedback does not exist or is in another state
+     */
+    @Modifying
+    @Query("UPDATE FeedbackEntity f SET f.transcription = :transcription, f.feedbackState = :to, f.feedbackStateChangedAt = :now " +
+            "WHERE f.feedbackID = :feedbackID AND f.feedbackState = :from")
+    int attachTranscription(
+            @Param("feedbackID") Long feedbackID,
+            @Param("transcription") TranscriptionEntity transcription,
+            @Param("from") FeedbackStateEnum from,
+            @Param("to") FeedbackStateEnum to,
+            @Param("now") LocalDateTime now);
+
+    /**
+     * Links a sentiment analysis to a feedback and moves it to a new state if it is still in the expected one.
+     *
+     * @return the number of updated rows, 0 if the feedback does not exist or is in another state
+     */
+    @Modifying
+    @Query("UPDATE FeedbackEntity f SET f.sentimentAnalysis = :sentimentAnalysis, f.feedbackState = :to, f.feedbackStateChangedAt = :now " +
+            "WHERE f.feedbackID = :feedbackID AND f.feedbackState = :from")
+    int attachSentimentAnalysis(
+            @Param("feedbackID") Long feedbackID,
+            @Param("sentimentAnalysis") SentimentAnalysisEntity sentimentAnalysis,
+            @Param("from") FeedbackStateEnum from,
+            @Param("to") FeedbackStateEnum to,
+            @Param("now") LocalDateTime now);
+
+    /**
+     * Lists the feedbacks in one of the given states whose state has not changed since {@code changedBefore} and
+     * that no node holds a recovery lease on at {@code now}, oldest first.
+     */
+    @Query("SELECT new com.backend.vofasbackend.datalayer.projections.StuckFeedbackRow(" +
+            "f.feedbackID, f.feedbackState, t.transcription, t.transcriptionHash) " +
+            "FROM FeedbackEntity f LEFT JOIN f.transcription t " +
+            "WHERE f.feedbackState IN :feedbackStates " +
+            "AND COALESCE(f.feedbackStateChangedAt, f.feedbackReceivedAt) < :changedBefore " +
+            "AND (f.recoveryLeaseUntil IS NULL OR f.recoveryLeaseUntil < :now) " +
+            "ORDER BY f.feedbackID")
+    List<StuckFeedbackRow> findStuckFeedbacks(
+            @Param("feedbackStates") Collection<FeedbackStateEnum> feedbackStates,
+            @Param("changedBefore") LocalDateTime changedBefore,
+            @Param("now") LocalDateTime now,
             Pageable pageable);
 
+    /**
+     * Takes the recovery lease of a feedback if it is still in the expected state and no other lease is running.
+     *
+     * @return the number of updated rows, 0 if the feedback moved on or another node holds the lease
+     */
+    @Modifying
+    @Query("UPDATE FeedbackEntity f SET f.recoveryLeaseOwner = :owner, f.recoveryLeaseUntil = :until " +
+            "WHERE f.feedbackID = :feedbackID AND f.feedbackState = :feedbackState " +
+            "AND (f.recoveryLeaseUntil IS NULL OR f.recoveryLeaseUntil < :now)")
+    int claimRecoveryLease(
+            @Param("feedbackID") Long feedbackID,
+            @Param("feedbackState") FeedbackStateEnum feedbackState,
+            @Param("owner") String owner,
+            @Param("now") LocalDateTime now,
+            @Param("until") LocalDateTime until);
 }
-
@@ -0,0 +1,64 @@
+package com.backend.vofasbackend.datalayer.repositories;
+
+import com.backend.vofasbackend.datalayer.entities.FeedbackRollupEntity;
+import com.backend.vofasbackend.datalayer.enums.RollupGranularityEnum;
+import com.backend.vofasbackend.datalayer.projections.FeedbackRollupRow;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Repository for {@link FeedbackRollupEntity}, the pre-aggregated feedback analytics.
+ */
+@Repository
+public interface FeedbackRollupRepository extends JpaRepository<FeedbackRollupEntity, Long> {
+
+    boolean existsByGranularityAndBucketStartAndKioskID(RollupGranularityEnum granularity, LocalDateTime bucketStart, Long kioskID);
+
+    /**
+     * Adds the given amounts to the totals of a bucket in place, so concurrent updates of the same bucket never
+     * overwrite each other.
+     *
+     * @return the number of updated rows, 0 if the bucket does not exist yet
+     */
+    @Modifying
+    @Query("UPDATE FeedbackRollupEntity r SET " +
+            "r.feedbackCount = r.feedbackCount + :feedbacks, " +
+            "r.totalDurationMillis = r.totalDurationMillis + :durationMillis, " +
+            "r.transcribedCount = r.transcribedCount + :transcribed, " +
+            "r.totalTranscriptionLatencyMillis = r.totalTranscriptionLatencyMillis + :transcriptionLatencyMillis, " +
+            "r.positiveCount = r.positiveCount + :positive, " +
+            "r.neutralCount = r.neutralCount + :neutral, " +
+            "r.negativeCount = r.negativeCount + :negative " +
+            "WHERE r.granularity = :granularity AND r.bucketStart = :bucketStart AND r.kioskID = :kioskID")
+    int increment(
+            @Param("granularity") RollupGranularityEnum granularity,
+            @Param("bucketStart") LocalDateTime bucketStart,
+            @Param("kioskID") Long kioskID,
+            @Param("feedbacks") long feedbacks,
+            @Param("durationMillis") long durationMillis,
+            @Param("transcribed") long transcribed,
+            @Param("transcriptionLatencyMillis") long transcriptionLatencyMillis,
+            @Param("positive") long positive,
+            @Param("neutral") long neutral,
+            @Param("negative") long negative);
+
+    /**
+     * Sums the buckets starting in {@code [from, to)} per bucket, over one kiosk or, if {@code kioskID} is null,
+     * over all kiosks. Buckets without any feedback are absent.
+     */
+    @Query(FeedbackRollupRow.SELECT +
+            "WHERE r.granularity = :granularity AND r.bucketStart >= :from AND r.bucketStart < :to " +
+            "AND (:kioskID IS NULL OR r.kioskID = :kioskID) " +
+            "GROUP BY r.bucketStart ORDER BY r.bucketStart")
+    List<FeedbackRollupRow> sumByBucket(
+            @Param("granularity") RollupGranularityEnum granularity,
+            @Param("from") LocalDateTime from,
+            @Param("to") LocalDateTime to,
+            @Param("kioskID") Long kioskID);
+}
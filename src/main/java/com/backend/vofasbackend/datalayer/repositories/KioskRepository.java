@@ -2,10 +2,15 @@ package com.backend.vofasbackend.datalayer.repositories;
 
 import com.backend.vofasbackend.datalayer.entities.FeedbackEntity;
 import com.backend.vofasbackend.datalayer.entities.KioskEntity;
+import com.backend.vofasbackend.datalayer.enums.KioskStateEnum;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.PagingAndSortingRepository;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+
 /**
  * Repository for managing kiosk entities. Extends {@link JpaRepository} for CRUD operations
  * and {@link PagingAndSortingRepository} for pagination and sorting support.
@@ -13,4 +18,10 @@ import org.springframework.stereotype.Repository;
  */
 @Repository
 public interface KioskRepository extends JpaRepository<KioskEntity, Long>, PagingAndSortingRepository<KioskEntity, Long> {
+
+    /**
+     * Lists the ids of the kiosks in the given state.
+     */
+    @Query("SELECT k.kioskID FROM KioskEntity k WHERE k.kioskStateEnum = :state")
+    List<Long> findKioskIDsByState(@Param("state") KioskStateEnum state);
 }
@@ -0,0 +1,36 @@
+package com.backend.vofasbackend.datalayer.repositories;
+
+import com.backend.vofasbackend.datalayer.entities.SentimentAnalysisEntity;
+import com.backend.vofasbackend.datalayer.projections.TranscriptionSentimentRow;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Repository for {@link SentimentAnalysisEntity}, providing CRUD operations.
+ */
+@Repository
+public interface SentimentAnalysisRepository extends JpaRepository<SentimentAnalysisEntity, Long> {
+
+    /**
+     * Lists the sentiment stored for the most frequent transcription texts, most frequent first. A text classified
+     * differently over time appears once per sentiment.
+     */
+    @Query("SELECT new com.backend.vofasbackend.datalayer.projections.TranscriptionSentimentRow(t.transcriptionHash, s.sentimentState) " +
+            "FROM FeedbackEntity f JOIN f.transcription t JOIN f.sentimentAnalysis s " +
+            "GROUP BY t.transcriptionHash, s.sentimentState ORDER BY COUNT(f) DESC")
+    List<TranscriptionSentimentRow> findMostFrequentSentiments(Pageable pageable);
+
+    /**
+     * Finds the sentiment stored for any of the given transcription texts.
+     */
+    @Query("SELECT DISTINCT new com.backend.vofasbackend.datalayer.projections.TranscriptionSentimentRow(t.transcriptionHash, s.sentimentState) " +
+            "FROM FeedbackEntity f JOIN f.transcription t JOIN f.sentimentAnalysis s " +
+            "WHERE t.transcriptionHash IN :transcriptionHashes")
+    List<TranscriptionSentimentRow> findSentimentsByTranscriptionHashes(@Param("transcriptionHashes") Collection<String> transcriptionHashes);
+}
@@ -1,13 +1,25 @@
 package com.backend.vofasbackend.datalayer.repositories;
 
 import com.backend.vofasbackend.datalayer.entities.TranscriptionEntity;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.PagingAndSortingRepository;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+
 /**
  * Repository for {@link TranscriptionEntity}, providing CRUD and pagination/sorting operations.
  */
 @Repository
 public interface TranscriptionRepository extends JpaRepository<TranscriptionEntity, Long>, PagingAndSortingRepository<TranscriptionEntity, Long> {
+
+    /**
+     * Finds the transcription texts of feedbacks whose audio file has the given hash, newest first.
+     */
+    @Query("SELECT t.transcription FROM FeedbackEntity f JOIN f.transcription t " +
+            "WHERE f.file_hash = :fileHash ORDER BY t.transcriptionID DESC")
+    List<String> findTranscriptionsByFileHash(@Param("fileHash") String fileHash, Pageable pageable);
 }
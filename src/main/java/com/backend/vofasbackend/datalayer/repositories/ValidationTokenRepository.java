@@ -1,9 +1,19 @@
 package com.backend.vofasbackend.datalayer.repositories;
 
 import com.backend.vofasbackend.datalayer.entities.ValidationTokenEntity;
+import com.backend.vofasbackend.datalayer.enums.ValidationTokenStateEnum;
+import com.backend.vofasbackend.datalayer.projections.ValidationTokenRow;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.PagingAndSortingRepository;
+import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 /**
@@ -12,4 +22,66 @@ import java.util.UUID;
  * to handle the persistence operations.
  */
 public interface ValidationTokenRepository extends JpaRepository<ValidationTokenEntity, UUID>, PagingAndSortingRepository<ValidationTokenEntity,UUID> {
+
+    /**
+     * Lists the tokens in the given state that no feedback references, together with their kiosk, without loading the
+     * entities.
+     */
+    @Query("SELECT new com.backend.vofasbackend.datalayer.projections.ValidationTokenRow(t.validationToken, t.parentKiosk.kioskID, t.tokenCreateAt) " +
+            "FROM ValidationTokenEntity t WHERE t.validationTokenStateEnum = :state " +
+            "AND NOT EXISTS (SELECT f.feedbackID FROM FeedbackEntity f WHERE f.validationToken = t)")
+    List<ValidationTokenRow> findUnlinkedTokensByState(@Param("state") ValidationTokenStateEnum state);
+
+    /**
+     * Lists the oldest valid tokens created before the cutoff, a page at a time.
+     */
+    @Query("SELECT t.validationToken FROM ValidationTokenEntity t " +
+            "WHERE t.validationTokenStateEnum = com.backend.vofasbackend.datalayer.enums.ValidationTokenStateEnum.VALID " +
+            "AND t.tokenCreateAt < :cutoff ORDER BY t.tokenCreateAt")
+    List<UUID> findValidTokensCreatedBefore(@Param("cutoff") LocalDateTime cutoff, Pageable pageable);
+
+    /**
+     * Moves the given tokens from one state to another with a single statement, skipping those no longer in the
+     * expected state.
+     *
+     * @return the number of tokens moved
+     */
+    @Modifying
+    @Query("UPDATE ValidationTokenEntity t SET t.validationTokenStateEnum = :to " +
+            "WHERE t.validationToken IN :validationTokens AND t.validationTokenStateEnum = :from")
+    int updateTokenStates(
+            @Param("validationTokens") Collection<UUID> validationTokens,
+            @Param("from") ValidationTokenStateEnum from,
+            @Param("to") ValidationTokenStateEnum to);
+
+    /**
+     * Uses a valid token that no feedback references with a single conditional statement.
+     *
+     * @return 1 if the token was used, 0 if it is unknown, no longer valid or referenced by a feedback
+     */
+    @Modifying
+    @Query("UPDATE ValidationTokenEntity t SET t.validationTokenStateEnum = " +
+            "com.backend.vofasbackend.datalayer.enums.ValidationTokenStateEnum.USED, t.tokenUsedAt = :usedAt " +
+            "WHERE t.validationToken = :validationToken " +
+            "AND t.validationTokenStateEnum = com.backend.vofasbackend.datalayer.enums.ValidationTokenStateEnum.VALID " +
+            "AND NOT EXISTS (SELECT f.feedbackID FROM FeedbackEntity f WHERE f.validationToken = t)")
+    int useToken(@Param("validationToken") UUID validationToken, @Param("usedAt") LocalDateTime usedAt);
+
+    /**
+     * Makes a used token that no feedback was created with valid again.
+     *
+     * @return 1 if the token was released, 0 otherwise
+     */
+    @Modifying
+    @Query("UPDATE ValidationTokenEntity t SET t.validationTokenStateEnum = " +
+            "com.backend.vofasbackend.datalayer.enums.ValidationTokenStateEnum.VALID, t.tokenUsedAt = null " +
+            "WHERE t.validationToken = :validationToken AND t.userToken IS NULL " +
+            "AND t.validationTokenStateEnum = com.backend.vofasbackend.datalayer.enums.ValidationTokenStateEnum.USED")
+    int releaseToken(@Param("validationToken") UUID validationToken);
+
+    /**
+     * Finds the kiosk a token was issued to.
+     */
+    @Query("SELECT t.parentKiosk.kioskID FROM ValidationTokenEntity t WHERE t.validationToken = :validationToken")
+    Optional<Long> findKioskIDByValidationToken(@Param("validationToken") UUID validationToken);
 }
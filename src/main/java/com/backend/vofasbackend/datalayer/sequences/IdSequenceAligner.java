@@ -0,0 +1,71 @@
+package com.backend.vofasbackend.datalayer.sequences;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+/**
+ * Moves each row of {@value IdSequences#TABLE} past the largest id already in its entity table when the application
+ * starts, so databases whose rows were inserted with {@code AUTO_INCREMENT} ids, or by hand, keep working with the
+ * allocated ids. Rows already ahead are left alone; missing rows are created.
+ * <p>
+ * Following the JPA table generator convention, the stored value is the last id reserved: the pooled-lo optimizer
+ * starts its next block one above it. The transaction manager is injected so the aligner runs after Hibernate has
+ * updated the schema.
+ */
+@Slf4j
+@Component
+public class IdSequenceAligner {
+
+    private static final List<Sequence> SEQUENCES = List.of(
+            new Sequence(IdSequences.FEEDBACK, "feedback_table", "feedback_id"),
+            new Sequence(IdSequences.TRANSCRIPTION, "transcription_table", "transcription_id"),
+            new Sequence(IdSequences.SENTIMENT, "sentiment_table", "sentiment_id"),
+            new Sequence(IdSequences.KIOSK, "kiosk_table", "kiosk_id"));
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transaction;
+
+    public IdSequenceAligner(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transaction = new TransactionTemplate(transactionManager);
+    }
+
+    @PostConstruct
+    void align() {
+        for (Sequence sequence : SEQUENCES) {
+            transaction.executeWithoutResult(status -> align(sequence));
+        }
+    }
+
+    private void align(Sequence sequence) {
+        Long maxID = jdbcTemplate.queryForObject(
+                "SELECT MAX(" + sequence.idColumn() + ") FROM " + sequence.table(), Long.class);
+        long lastID = maxID == null ? 0 : maxID;
+        int raised = jdbcTemplate.update(
+                "UPDATE " + IdSequences.TABLE + " SET " + IdSequences.VALUE_COLUMN + " = ? " +
+                        "WHERE " + IdSequences.NAME_COLUMN + " = ? AND " + IdSequences.VALUE_COLUMN + " < ?",
+                lastID, sequence.name(), lastID);
+        if (raised > 0) {
+            log.info("Moved id sequence {} past {}", sequence.name(), lastID);
+            return;
+        }
+        Integer rows = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM " + IdSequences.TABLE + " WHERE " + IdSequences.NAME_COLUMN + " = ?",
+                Integer.class, sequence.name());
+        if (rows == null || rows == 0) {
+            jdbcTemplate.update(
+                    "INSERT INTO " + IdSequences.TABLE + " (" + IdSequences.NAME_COLUMN + ", " + IdSequences.VALUE_COLUMN + ") VALUES (?, ?)",
+                    sequence.name(), lastID);
+            log.info("Created id sequence {} past {}", sequence.name(), lastID);
+        }
+    }
+
+    private record Sequence(String name, String table, String idColumn) {
+    }
+}
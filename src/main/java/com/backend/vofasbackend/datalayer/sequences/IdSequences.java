@@ -0,0 +1,25 @@
+package com.backend.vofasbackend.datalayer.sequences;
+
+/**
+ * The table the numeric entity ids are allocated from.
+ * <p>
+ * Each entity has a row in {@value #TABLE} holding the last id reserved. Hibernate reserves {@value #ALLOCATION_SIZE}
+ * ids at a time with the pooled-lo optimizer ({@code hibernate.id.optimizer.pooled.preferred}), so ids are known
+ * before the insert and rows can be written in JDBC batches, which {@code GenerationType.IDENTITY} rules out. Ids
+ * stay unique across nodes, but are no longer ordered by insert time: each node hands out its own block.
+ */
+public final class IdSequences {
+
+    public static final String TABLE = "id_sequences";
+    public static final String NAME_COLUMN = "sequence_name";
+    public static final String VALUE_COLUMN = "next_val";
+    public static final int ALLOCATION_SIZE = 50;
+
+    public static final String FEEDBACK = "feedback_id";
+    public static final String TRANSCRIPTION = "transcription_id";
+    public static final String SENTIMENT = "sentiment_id";
+    public static final String KIOSK = "kiosk_id";
+
+    private IdSequences() {
+    }
+}
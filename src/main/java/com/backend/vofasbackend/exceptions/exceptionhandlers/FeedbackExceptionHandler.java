@@ -1,5 +1,6 @@
 package com.backend.vofasbackend.exceptions.exceptionhandlers;
 
+import com.backend.vofasbackend.exceptions.exceptions.InvalidValidationTokenException;
 import com.backend.vofasbackend.exceptions.exceptions.ResourceNotFoundException;
 import com.backend.vofasbackend.exceptions.exceptions.UnsupportedMediaTypeException;
 import com.backend.vofasbackend.presentationlayer.datatransferobjects.ErrorResponseDTO;
@@ -39,6 +40,18 @@ public class FeedbackExceptionHandler extends ResponseEntityExceptionHandler {
         return new ResponseEntity<>(errorResponseDTO, HttpStatus.NOT_FOUND);
     }
 
+    @ExceptionHandler(InvalidValidationTokenException.class)
+    public ResponseEntity<ErrorResponseDTO> handleInvalidValidationTokenException(InvalidValidationTokenException exception,
+                                                                                  WebRequest webRequest) {
+        ErrorResponseDTO errorResponseDTO = new ErrorResponseDTO(
+                webRequest.getDescription(false),
+                HttpStatus.FORBIDDEN.toString(),
+                exception.getMessage(),
+                LocalDateTime.now()
+        );
+        return new ResponseEntity<>(errorResponseDTO, HttpStatus.FORBIDDEN);
+    }
+
     @ExceptionHandler(Exception.class)
     public ResponseEntity<ErrorResponseDTO> handleGlobalException(Exception exception,
                                                                   WebRequest webRequest) {
@@ -0,0 +1,15 @@
+package com.backend.vofasbackend.exceptions.exceptions;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+import java.util.UUID;
+
+@ResponseStatus(value = HttpStatus.FORBIDDEN)
+public class InvalidValidationTokenException extends RuntimeException {
+
+    public InvalidValidationTokenException(UUID validationToken) {
+        super(String.format("Validation token '%s' is unknown or has already been used", validationToken));
+    }
+
+}
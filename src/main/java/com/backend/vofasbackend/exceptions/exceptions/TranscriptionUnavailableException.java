@@ -0,0 +1,16 @@
+package com.backend.vofasbackend.exceptions.exceptions;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Thrown when a transcription request is not sent to the transcription provider because the provider is
+ * considered unhealthy or the concurrency budget is exhausted. The request can be retried later.
+ */
+@ResponseStatus(value = HttpStatus.SERVICE_UNAVAILABLE)
+public class TranscriptionUnavailableException extends RuntimeException {
+
+    public TranscriptionUnavailableException(String reason) {
+        super(String.format("Transcription is temporarily unavailable: %s", reason));
+    }
+}
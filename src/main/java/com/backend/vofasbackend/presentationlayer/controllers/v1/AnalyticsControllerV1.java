@@ -1,10 +1,131 @@
 package com.backend.vofasbackend.presentationlayer.controllers.v1;
 
+import com.backend.vofasbackend.presentationlayer.datatransferobjects.AnalyticsBucketDTO;
+import com.backend.vofasbackend.presentationlayer.datatransferobjects.ErrorResponseDTO;
+import com.backend.vofasbackend.servicelayer.interfaces.AnalyticsService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
+
+/**
+ * The {@code AnalyticsControllerV1} class provides the API endpoints behind the dashboards of the VoFAS frontend.
+ * The figures are read from rollups that are kept up to date as feedbacks are processed, so a query costs the same
+ * however many feedbacks fall into its range.
+ *
+ * <p>The endpoints in this controller allow for actions such as:</p>
+ * <ul>
+ *     <li>Fetching hourly or daily feedback counts, sentiment distribution, durations and transcription latency.</li>
+ *     <li>Fetching the same figures summed over a date range.</li>
+ *     <li>Restricting either to a single kiosk.</li>
+ * </ul>
+ */
 @Tag(
         name = "Analytics API Endpoints",
         description = "This controller offers HTTP endpoints to handle all analytics-related queries for the VoFAS frontend application."
 )
+@RestController
+@RequestMapping(value = "/api/v1")
+@CrossOrigin(origins = "${VoFAS.crossorigin.url}")
 public class AnalyticsControllerV1 {
+
+    private final AnalyticsService analyticsService;
+
+    public AnalyticsControllerV1(AnalyticsService analyticsService) {
+        this.analyticsService = analyticsService;
+    }
+
+    @Operation(
+            summary = "fetches hourly or daily feedback analytics",
+            description = "This API endpoint returns one bucket per hour or day between `start-date` and `end-date`, " +
+                    "oldest first. Buckets without feedbacks are returned with zero counts."
+    )
+    @ApiResponses({
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Analytics buckets returned to the client."
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "The granularity or a date is not valid, or the range covers too many buckets.",
+                    content = @Content(
+                            schema = @Schema(implementation = ErrorResponseDTO.class)
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "500",
+                    description = "Internal Server Error. This response maybe caused by any Java exception",
+                    content = @Content(
+                            schema = @Schema(implementation = ErrorResponseDTO.class)
+                    )
+            ),
+    })
+    @GetMapping(value = "/analytics/rollups", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<List<AnalyticsBucketDTO>> getRollups(
+            @Parameter(description = "Width of the buckets: hour or day", example = "day")
+            @RequestParam(name = "granularity", defaultValue = "day") String granularity,
+
+            @Parameter(description = "First day of the range, defaults to six days before the end date", example = "04-12-2024")
+            @RequestParam(name = "start-date", required = false) String startDate,
+
+            @Parameter(description = "Last day of the range, inclusive, defaults to today", example = "10-12-2024")
+            @RequestParam(name = "end-date", required = false) String endDate,
+
+            @Parameter(description = "Only report on feedbacks recorded at this kiosk", example = "3")
+            @RequestParam(name = "kiosk-id", required = false) Long kioskID
+    ) {
+        return ResponseEntity
+                .status(HttpStatus.OK)
+                .body(analyticsService.getRollups(granularity, startDate, endDate, kioskID));
+    }
+
+    @Operation(
+            summary = "fetches feedback analytics summed over a date range",
+            description = "This API endpoint returns the feedback counts, sentiment distribution, durations and " +
+                    "transcription latency of the whole range between `start-date` and `end-date`."
+    )
+    @ApiResponses({
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Summary returned to the client."
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "A date is not valid or the range is too long.",
+                    content = @Content(
+                            schema = @Schema(implementation = ErrorResponseDTO.class)
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "500",
+                    description = "Internal Server Error. This response maybe caused by any Java exception",
+                    content = @Content(
+                            schema = @Schema(implementation = ErrorResponseDTO.class)
+                    )
+            ),
+    })
+    @GetMapping(value = "/analytics/summary", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<AnalyticsBucketDTO> getSummary(
+            @Parameter(description = "First day of the range, defaults to six days before the end date", example = "04-12-2024")
+            @RequestParam(name = "start-date", required = false) String startDate,
+
+            @Parameter(description = "Last day of the range, inclusive, defaults to today", example = "10-12-2024")
+            @RequestParam(name = "end-date", required = false) String endDate,
+
+            @Parameter(description = "Only report on feedbacks recorded at this kiosk", example = "3")
+            @RequestParam(name = "kiosk-id", required = false) Long kioskID
+    ) {
+        return ResponseEntity
+                .status(HttpStatus.OK)
+                .body(analyticsService.getSummary(startDate, endDate, kioskID));
+    }
 }
@@ -3,7 +3,12 @@ package com.backend.vofasbackend.presentationlayer.controllers.v1;
 import com.backend.vofasbackend.contants.FeedbackConstants;
 import com.backend.vofasbackend.presentationlayer.datatransferobjects.ErrorResponseDTO;
 import com.backend.vofasbackend.presentationlayer.datatransferobjects.FeedbackDTO;
-import com.backend.vofasbackend.presentationlayer.datatransferobjects.ResponseDTO;
+import com.backend.vofasbackend.presentationlayer.datatransferobjects.FeedbackReceiptDTO;
+import com.backend.vofasbackend.presentationlayer.datatransferobjects.FeedbackSliceDTO;
+import com.backend.vofasbackend.servicelayer.caches.FeedbackDetailCache;
+import com.backend.vofasbackend.servicelayer.export.FeedbackExport;
+import com.backend.vofasbackend.servicelayer.interfaces.FeedbackExportService;
+import com.backend.vofasbackend.servicelayer.interfaces.FeedbackSearchService;
 import com.backend.vofasbackend.servicelayer.interfaces.FeedbackService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -12,14 +17,24 @@ import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.time.Duration;
 import java.util.UUID;
 
 /**
@@ -33,6 +48,9 @@ import java.util.UUID;
  *     <li>Fetching feedback by feedback ID.</li>
  *     <li>Uploading files associated with feedback submissions.</li>
  *     <li>Sorting and filtering feedback based on various criteria.</li>
+ *     <li>Paging through feedback with a continuation cursor ({@code mode=cursor}).</li>
+ *     <li>Exporting feedback in bulk as NDJSON or CSV.</li>
+ *     <li>Searching the transcriptions of the feedbacks.</li>
  *     <li>Handling errors related to feedback processing.</li>
  * </ul>
  *
@@ -53,14 +71,23 @@ import java.util.UUID;
 public class FeedbackControllerV1 {
 
     private final FeedbackService feedbackService;
+    private final FeedbackExportService feedbackExportService;
+    private final FeedbackSearchService feedbackSearchService;
 
-    public FeedbackControllerV1(FeedbackService feedbackService) {
+    @Value("${VoFAS.stream.heartbeat}")
+    private Duration streamHeartbeat;
+
+    public FeedbackControllerV1(FeedbackService feedbackService, FeedbackExportService feedbackExportService, FeedbackSearchService feedbackSearchService) {
         this.feedbackService = feedbackService;
+        this.feedbackExportService = feedbackExportService;
+        this.feedbackSearchService = feedbackSearchService;
     }
 
     @Operation(
             summary = "This API endpoint streams the latest processed feedbacks",
-            description = "Streams the latest feedbacks"
+            description = "Streams the latest feedbacks as server-sent events. A reconnecting client sends the " +
+                    "`Last-Event-ID` header and first receives the recent feedbacks it missed. The stream can be narrowed " +
+                    "to a kiosk, a feedback state, a sentiment and a minimum duration."
     )
     @ApiResponses({
             @ApiResponse(
@@ -68,6 +95,13 @@ public class FeedbackControllerV1 {
                     description = "Reactive Connection between client and VoFAS backend established successfully and " +
                             "recently processed feedbacks are streaming to VoFAS Frontend."
             ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "The `overflow` parameter is neither `drop-oldest` nor `disconnect`, or a filter value is invalid.",
+                    content = @Content(
+                            schema = @Schema(implementation = ErrorResponseDTO.class)
+                    )
+            ),
             @ApiResponse(
                     responseCode = "500",
                     description = "Internal Server Error. This response maybe caused by any Java exception",
@@ -78,8 +112,37 @@ public class FeedbackControllerV1 {
 
     })
     @GetMapping(value = "/feedback/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
-    public Flux<FeedbackDTO> streamFeedbacks() {
-        return  feedbackService.getFeedbackStream();
+    public Flux<ServerSentEvent<String>> streamFeedbacks(
+            @Parameter(description = "Id of the last event received, sent by the browser when it reconnects")
+            @RequestHeader(name = "Last-Event-ID", required = false) Long lastEventId,
+            @Parameter(description = "What to do when the client falls too far behind: drop-oldest or disconnect", example = "drop-oldest")
+            @RequestParam(name = "overflow", defaultValue = "drop-oldest") String overflow,
+            @Parameter(description = "Only stream feedbacks recorded at this kiosk", example = "3")
+            @RequestParam(name = "kiosk-id", required = false) Long kioskID,
+            @Parameter(description = "Only stream feedbacks in this state", example = "TRANSCRIBED")
+            @RequestParam(name = "feedback-state", required = false) String feedbackState,
+            @Parameter(description = "Only stream feedbacks with this sentiment", example = "POSITIVE")
+            @RequestParam(name = "sentiment-state", required = false) String sentimentState,
+            @Parameter(description = "Only stream recordings at least this long, in seconds", example = "10")
+            @RequestParam(name = "min-duration", required = false) Integer minDuration,
+            @Parameter(description = "False to leave the transcription text out of the streamed feedbacks", example = "false")
+            @RequestParam(name = "include-transcription", defaultValue = "true") boolean includeTranscription
+    ) {
+        // ends the heartbeats with the events, so a subscriber disconnected for overflowing sees the response end and
+        // reconnects with its Last-Event-ID
+        Sinks.Empty<Void> eventsEnded = Sinks.empty();
+        // the feedbacks arrive serialized once per payload shape and are written as they are
+        Flux<ServerSentEvent<String>> events = feedbackService.getFeedbackStream(lastEventId, overflow, kioskID, feedbackState, sentimentState, minDuration, includeTranscription)
+                .map(event -> ServerSentEvent.builder(event.payload())
+                        .id(Long.toString(event.id()))
+                        .comment(event.missedBefore() > 0 ? event.missedBefore() + " events missed" : null)
+                        .build())
+                .doFinally(signal -> eventsEnded.tryEmitEmpty());
+        // comments keep idle connections open through proxies and let dead clients be detected
+        Flux<ServerSentEvent<String>> heartbeats = Flux.interval(streamHeartbeat)
+                .takeUntilOther(eventsEnded.asMono())
+                .map(tick -> ServerSentEvent.<String>builder().comment("heartbeat").build());
+        return Flux.merge(events, heartbeats);
     }
 
     @Operation(
@@ -146,6 +209,213 @@ public class FeedbackControllerV1 {
     }
 
 
+    @Operation(
+            summary = "fetches feedbacks with a continuation cursor",
+            description = "This API endpoint retrieves feedbacks ordered by receive time in slices. Each slice returns a " +
+                    "`nextCursor` that is passed back as `cursor` to fetch the following slice. Slices cost the same " +
+                    "however deep the client pages, and the total count is only computed if `with-count` is true."
+    )
+    @ApiResponses({
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Slice of feedbacks returned to the client."
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "A filter option or the cursor is not valid.",
+                    content = @Content(
+                            schema = @Schema(implementation = ErrorResponseDTO.class)
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "404",
+                    description = "This value is returned if there is no feedback to fetch",
+                    content = @Content(
+                            schema = @Schema(implementation = ErrorResponseDTO.class)
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "500",
+                    description = "Internal Server Error. This response maybe caused by any Java exception",
+                    content = @Content(
+                            schema = @Schema(implementation = ErrorResponseDTO.class)
+                    )
+            ),
+
+    })
+    @GetMapping(value = "/feedback", params = "mode=cursor", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<FeedbackSliceDTO> getFeedbacksByCursor(
+            @Parameter(description = "Selects cursor pagination", example = "cursor")
+            @RequestParam(name = "mode") String mode,
+
+            @Parameter(description = "The nextCursor of the previous slice, omitted for the first slice")
+            @RequestParam(name = "cursor", required = false) String cursor,
+
+            @Parameter(description = "Maximum number of feedbacks in the slice, capped by the server", example = "10")
+            @RequestParam(name = "size", required = false) Integer size,
+
+            @Parameter(description = "Specifies if the feedbacks are returned oldest first (true) or newest first (false)", example = "false")
+            @RequestParam(name = "ascending", defaultValue = "false", required = false) boolean ascending,
+
+            @Parameter(description = "A keyword to filtering feedbacks by start date", example = "2024-12-04")
+            @RequestParam(name = "start-date", required = false) String startDate,
+
+            @Parameter(description = "A keyword to filtering feedbacks by start date", example = "2024-12-04")
+            @RequestParam(name = "end-date", required = false) String endDate,
+
+            @Parameter(description = "A keyword to filtering feedbacks by feedback state", example = "TRANSCRIBED")
+            @RequestParam(name = "feedback-state", required = false) String feedbackState,
+
+            @Parameter(description = "A keyword to filtering feedbacks by feedback sentiment analysis state", example = "POSITIVE")
+            @RequestParam(name = "sentiment-state", required = false) String sentimentState,
+
+            @Parameter(description = "True to include the total number of matching feedbacks", example = "false")
+            @RequestParam(name = "with-count", defaultValue = "false") boolean withCount
+    ) {
+        FeedbackSliceDTO feedbacks = feedbackService.getFeedbacksByCursor(cursor, size, ascending, startDate, endDate, feedbackState, sentimentState, withCount);
+        if (feedbacks.getContent().isEmpty()) {
+            return ResponseEntity
+                    .status(HttpStatus.NOT_FOUND)
+                    .build();
+        } else {
+            return ResponseEntity
+                    .status(HttpStatus.OK)
+                    .body(feedbacks);
+        }
+    }
+
+
+    @Operation(
+            summary = "searches feedbacks by their transcription",
+            description = "This API endpoint finds the feedbacks whose transcription matches a full-text query, best match " +
+                    "first. Turkish suffixes and casing are ignored, all words are required unless joined with `OR`, `NOT` " +
+                    "excludes a word and double quotes search for a phrase. The usual filters narrow the matches down."
+    )
+    @ApiResponses({
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Page of matching feedbacks returned to the client."
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "The query or a filter option is not valid.",
+                    content = @Content(
+                            schema = @Schema(implementation = ErrorResponseDTO.class)
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "404",
+                    description = "This value is returned if no feedback matches the query",
+                    content = @Content(
+                            schema = @Schema(implementation = ErrorResponseDTO.class)
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "500",
+                    description = "Internal Server Error. This response maybe caused by any Java exception",
+                    content = @Content(
+                            schema = @Schema(implementation = ErrorResponseDTO.class)
+                    )
+            ),
+    })
+    @GetMapping(value = "/feedback/search", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<FeedbackSliceDTO> searchFeedbacks(
+            @Parameter(description = "The full-text query", example = "\"kasada bekledim\" OR personel")
+            @RequestParam(name = "q") String query,
+
+            @Parameter(description = "The page number for pagination", example = "0")
+            @RequestParam(name = "page-no", defaultValue = "0") int pageNumber,
+
+            @Parameter(description = "Maximum number of feedbacks in the page, capped by the server", example = "10")
+            @RequestParam(name = "size", required = false) Integer size,
+
+            @Parameter(description = "A keyword to filtering feedbacks by start date", example = "04-12-2024")
+            @RequestParam(name = "start-date", required = false) String startDate,
+
+            @Parameter(description = "A keyword to filtering feedbacks by end date", example = "31-12-2024")
+            @RequestParam(name = "end-date", required = false) String endDate,
+
+            @Parameter(description = "A keyword to filtering feedbacks by feedback state", example = "COMPLETED")
+            @RequestParam(name = "feedback-state", required = false) String feedbackState,
+
+            @Parameter(description = "A keyword to filtering feedbacks by feedback sentiment analysis state", example = "NEGATIVE")
+            @RequestParam(name = "sentiment-state", required = false) String sentimentState,
+
+            @Parameter(description = "Only match feedbacks recorded at this kiosk", example = "3")
+            @RequestParam(name = "kiosk-id", required = false) Long kioskID
+    ) {
+        FeedbackSliceDTO feedbacks = feedbackSearchService.searchFeedbacks(query, pageNumber, size, startDate, endDate, feedbackState, sentimentState, kioskID);
+        if (feedbacks.getContent().isEmpty()) {
+            return ResponseEntity
+                    .status(HttpStatus.NOT_FOUND)
+                    .build();
+        } else {
+            return ResponseEntity
+                    .status(HttpStatus.OK)
+                    .body(feedbacks);
+        }
+    }
+
+
+    @Operation(
+            summary = "exports feedbacks in bulk",
+            description = "This API endpoint downloads every feedback matching the filters, oldest first, as NDJSON or CSV " +
+                    "and optionally gzip compressed. Rows are streamed from the database while the response is written, " +
+                    "so exports of any size can be requested."
+    )
+    @ApiResponses({
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "The export is streamed to the client."
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "The format or a filter option is not valid.",
+                    content = @Content(
+                            schema = @Schema(implementation = ErrorResponseDTO.class)
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "500",
+                    description = "Internal Server Error. This response maybe caused by any Java exception",
+                    content = @Content(
+                            schema = @Schema(implementation = ErrorResponseDTO.class)
+                    )
+            ),
+    })
+    @GetMapping(value = "/feedback/export")
+    public void exportFeedbacks(
+            @Parameter(description = "File format: ndjson or csv", example = "ndjson")
+            @RequestParam(name = "format", defaultValue = "ndjson") String format,
+
+            @Parameter(description = "True to download the export gzip compressed", example = "false")
+            @RequestParam(name = "gzip", defaultValue = "false") boolean gzip,
+
+            @Parameter(description = "A keyword to filtering feedbacks by start date", example = "04-12-2024")
+            @RequestParam(name = "start-date", required = false) String startDate,
+
+            @Parameter(description = "A keyword to filtering feedbacks by end date", example = "31-12-2024")
+            @RequestParam(name = "end-date", required = false) String endDate,
+
+            @Parameter(description = "A keyword to filtering feedbacks by feedback state", example = "TRANSCRIBED")
+            @RequestParam(name = "feedback-state", required = false) String feedbackState,
+
+            @Parameter(description = "A keyword to filtering feedbacks by feedback sentiment analysis state", example = "POSITIVE")
+            @RequestParam(name = "sentiment-state", required = false) String sentimentState,
+
+            @Parameter(description = "Only export feedbacks recorded at this kiosk", example = "3")
+            @RequestParam(name = "kiosk-id", required = false) Long kioskID,
+
+            HttpServletResponse response
+    ) throws IOException {
+        FeedbackExport export = feedbackExportService.prepareExport(format, gzip, startDate, endDate, feedbackState, sentimentState, kioskID);
+        response.setStatus(HttpStatus.OK.value());
+        response.setContentType(export.contentType());
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename(export.fileName()).build().toString());
+        export.body().writeTo(response.getOutputStream());
+    }
+
+
     @Operation(
             summary = "Fetch a specific feedback by its ID",
             description = "This API endpoint retrieves a single feedback by its unique `feedbackID`." +
@@ -156,6 +426,10 @@ public class FeedbackControllerV1 {
                     responseCode = "200",
                     description = "Feedback successfully retrieved and returned to the client."
             ),
+            @ApiResponse(
+                    responseCode = "304",
+                    description = "The feedback has not changed since the version identified by the `If-None-Match` ETag."
+            ),
             @ApiResponse(
                     responseCode = "404",
                     description = "No feedback found with the provided `feedbackID`. This value is returned when the requested feedback does not exist.",
@@ -180,10 +454,12 @@ public class FeedbackControllerV1 {
             @Parameter(description = "True if kiosk details requested in feedback", example = "True")
             @RequestParam(name = "get-token", defaultValue = "false") boolean getValidation
     ) {
-        FeedbackDTO feedbackDTO = feedbackService.getFeedbackById(feedbackID,getFeedbackSource,getValidation );
+        // a matching If-None-Match header turns this into a 304 without a body
+        FeedbackDetailCache.FeedbackDetail feedbackDetail = feedbackService.getFeedbackDetail(feedbackID, getFeedbackSource, getValidation);
         return ResponseEntity
                 .status(HttpStatus.OK)
-                .body(feedbackDTO);
+                .eTag(feedbackDetail.eTag())
+                .body(feedbackDetail.feedback());
     }
 
 
@@ -216,22 +492,70 @@ public class FeedbackControllerV1 {
             ),
             @ApiResponse(
                     responseCode = "201",
-                    description = "File successfully uploaded and feedback associated with the provided validation token has been created.",
+                    description = "File successfully uploaded and feedback associated with the provided validation token has been created." +
+                            " The file is stored durably; transcription and sentiment analysis follow asynchronously.",
                     content = @Content(
-                            schema = @Schema(implementation = ResponseDTO.class)
+                            schema = @Schema(implementation = FeedbackReceiptDTO.class)
                     )
             )
     })
     @PostMapping(path = "/feedback/{validation-token}", consumes = {MediaType.MULTIPART_FORM_DATA_VALUE}, produces = {MediaType.APPLICATION_JSON_VALUE})
-    public ResponseEntity<ResponseDTO> uploadFeedbackFile(
+    public ResponseEntity<FeedbackReceiptDTO> uploadFeedbackFile(
             @PathVariable(name = "validation-token") UUID validationToken,
             @RequestPart(name = "file") MultipartFile file
-    ) {
-            feedbackService.saveFeedback(file, validationToken).subscribe();
-            ResponseDTO responseDTO = new ResponseDTO(FeedbackConstants.STATUS_201, FeedbackConstants.MESSAGE_201);
-            return ResponseEntity
-                    .status(HttpStatus.CREATED)
-                    .body(responseDTO);
+    ) throws IOException {
+        try (InputStream content = file.getInputStream()) {
+            Long feedbackID = feedbackService.saveFeedback(content, file.getContentType(), file.getOriginalFilename(), validationToken);
+            return feedbackCreated(feedbackID);
+        }
+    }
+
+    @Operation(
+            summary = "Upload feedback audio as the request body",
+            description = "Same as the multipart upload, but the audio is sent as the raw request body with its audio" +
+                    " media type, or as `application/octet-stream` with a `filename`. The body is streamed straight to" +
+                    " disk without being buffered as a multipart part first."
+    )
+    @ApiResponses({
+            @ApiResponse(
+                    responseCode = "403",
+                    description = "Forbidden. The `validation-token` is unknown or has already been used.",
+                    content = @Content(
+                            schema = @Schema(implementation = ErrorResponseDTO.class)
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "415",
+                    description = "Unsupported Media Type. Only MP3, M4A and WAV audio is accepted.",
+                    content = @Content(
+                            schema = @Schema(implementation = ErrorResponseDTO.class)
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "201",
+                    description = "The audio is stored durably and the feedback has been created.",
+                    content = @Content(
+                            schema = @Schema(implementation = FeedbackReceiptDTO.class)
+                    )
+            )
+    })
+    @PostMapping(path = "/feedback/{validation-token}", consumes = {"audio/mpeg", "audio/mp4", "audio/wav", MediaType.APPLICATION_OCTET_STREAM_VALUE}, produces = {MediaType.APPLICATION_JSON_VALUE})
+    public ResponseEntity<FeedbackReceiptDTO> uploadFeedbackAudio(
+            @PathVariable(name = "validation-token") UUID validationToken,
+            @RequestHeader(name = HttpHeaders.CONTENT_TYPE) String contentType,
+            @Parameter(description = "The original file name, needed when the content type does not tell the format", example = "feedback.mp3")
+            @RequestParam(name = "filename", required = false) String filename,
+            InputStream content
+    ) throws IOException {
+        Long feedbackID = feedbackService.saveFeedback(content, contentType, filename, validationToken);
+        return feedbackCreated(feedbackID);
+    }
+
+    private ResponseEntity<FeedbackReceiptDTO> feedbackCreated(Long feedbackID) {
+        FeedbackReceiptDTO feedbackReceiptDTO = new FeedbackReceiptDTO(FeedbackConstants.STATUS_201, FeedbackConstants.MESSAGE_201, feedbackID);
+        return ResponseEntity
+                .created(URI.create("/api/v1/feedback/" + feedbackID))
+                .body(feedbackReceiptDTO);
     }
 
 
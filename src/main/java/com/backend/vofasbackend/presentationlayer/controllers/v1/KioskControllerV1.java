@@ -1,4 +1,87 @@
 package com.backend.vofasbackend.presentationlayer.controllers.v1;
 
+import com.backend.vofasbackend.presentationlayer.datatransferobjects.ErrorResponseDTO;
+import com.backend.vofasbackend.presentationlayer.datatransferobjects.ValidationTokenDTO;
+import com.backend.vofasbackend.servicelayer.interfaces.ValidationTokenService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+/**
+ * The {@code KioskControllerV1} class provides the API endpoints used by the kiosks themselves.
+ *
+ * <p>The endpoints in this controller allow for actions such as:</p>
+ * <ul>
+ *     <li>Leasing a batch of single-use validation tokens to attach to feedback uploads.</li>
+ * </ul>
+ */
+@Tag(
+        name = "Kiosk Controller:V1",
+        description = "This controller provides the endpoints called by the VoFAS kiosks."
+)
+@RestController
+@RequestMapping(value = "/api/v1")
+@CrossOrigin(origins = "${VoFAS.crossorigin.url}")
 public class KioskControllerV1 {
+
+    private final ValidationTokenService validationTokenService;
+
+    public KioskControllerV1(ValidationTokenService validationTokenService) {
+        this.validationTokenService = validationTokenService;
+    }
+
+    @Operation(
+            summary = "leases validation tokens to a kiosk",
+            description = "This API endpoint hands out `count` unused validation tokens for the kiosk. Each token " +
+                    "can be used for a single feedback upload and expires if it is not used in time."
+    )
+    @ApiResponses({
+            @ApiResponse(
+                    responseCode = "201",
+                    description = "Validation tokens issued to the kiosk."
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "The count is not between one and the configured maximum.",
+                    content = @Content(
+                            schema = @Schema(implementation = ErrorResponseDTO.class)
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "404",
+                    description = "There is no kiosk with the given id.",
+                    content = @Content(
+                            schema = @Schema(implementation = ErrorResponseDTO.class)
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "500",
+                    description = "Internal Server Error. This response maybe caused by any Java exception",
+                    content = @Content(
+                            schema = @Schema(implementation = ErrorResponseDTO.class)
+                    )
+            ),
+    })
+    @PostMapping(value = "/kiosks/{kiosk-id}/validation-tokens", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<List<ValidationTokenDTO>> leaseValidationTokens(
+            @Parameter(description = "The kiosk the tokens will be used at", example = "3")
+            @PathVariable(name = "kiosk-id") Long kioskID,
+
+            @Parameter(description = "The number of tokens to issue", example = "20")
+            @RequestParam(name = "count", defaultValue = "1") int count
+    ) {
+        return ResponseEntity
+                .status(HttpStatus.CREATED)
+                .body(validationTokenService.leaseTokens(kioskID, count));
+    }
 }
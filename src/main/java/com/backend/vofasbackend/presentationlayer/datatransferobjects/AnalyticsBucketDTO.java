@@ -0,0 +1,53 @@
+package com.backend.vofasbackend.presentationlayer.datatransferobjects;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * DTO class for the feedback analytics of one time bucket, or of a whole date range in a summary.
+ */
+@Schema(
+        name = "AnalyticsBucket",
+        description = "Schema to hold the feedback counts, sentiment distribution, durations and transcription latency of a time bucket"
+)
+@Data
+@NoArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class AnalyticsBucketDTO {
+
+    @Schema(description = "Start of the hour or day the figures cover; the first day of the range in a summary", example = "04-12-2024 10:00")
+    @JsonFormat(pattern = "dd-MM-yyyy HH:mm")
+    private LocalDateTime bucketStart;
+
+    @Schema(description = "Kiosk the figures are restricted to, absent if they cover all kiosks", example = "3")
+    private Long kioskId;
+
+    @Schema(description = "Number of feedbacks received", example = "42")
+    private long feedbackCount;
+
+    @Schema(description = "Number of feedbacks analyzed as positive", example = "20")
+    private long positiveCount;
+
+    @Schema(description = "Number of feedbacks analyzed as neutral", example = "12")
+    private long neutralCount;
+
+    @Schema(description = "Number of feedbacks analyzed as negative", example = "8")
+    private long negativeCount;
+
+    @Schema(description = "Total duration of the received recordings in seconds", example = "1260.5")
+    private double totalDurationSeconds;
+
+    @Schema(description = "Average duration of the received recordings in seconds, absent without feedbacks", example = "30.0")
+    private Double averageDurationSeconds;
+
+    @Schema(description = "Number of feedbacks transcribed", example = "40")
+    private long transcribedCount;
+
+    @Schema(description = "Average time from receiving a feedback to storing its transcription in seconds, absent without transcriptions", example = "4.2")
+    private Double averageTranscriptionLatencySeconds;
+}
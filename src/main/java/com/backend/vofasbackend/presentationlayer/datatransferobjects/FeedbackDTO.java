@@ -2,7 +2,7 @@ package com.backend.vofasbackend.presentationlayer.datatransferobjects;
 
 import com.fasterxml.jackson.annotation.JsonFormat;
 import com.fasterxml.jackson.annotation.JsonInclude;
-import com.fasterxml.jackson.annotation.JsonManagedReference;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
 import io.swagger.v3.oas.annotations.media.Schema;
 import jakarta.persistence.Column;
 import lombok.*;
@@ -38,20 +38,18 @@ public class FeedbackDTO {
 
     @Schema(description = "duration of the recorded feedback audio file in seconds", example = " 10.5s")
     @JsonFormat(pattern = "mm:ss")
+    @JsonDeserialize(using = FeedbackDurationDeserializer.class)
     private LocalTime feedbackDuration;
 
     @Schema(description = "Current state of the feedback", example = "TRANSCRIBED")
     private String feedbackState;
 
-    @JsonManagedReference
     @Schema(description = "Transcription details of the feedback")
     private TranscriptionDTO transcriptionDTO;
 
-    @JsonManagedReference
     @Schema(description = "Sentiment analysis results of the feedback")
     private SentimentAnalysisDTO sentimentAnalysisDTO;
 
-    @JsonManagedReference
     @Schema(description = "Source information of the feedback (Kiosk details)")
     private KioskDTO feedbackSource;
 
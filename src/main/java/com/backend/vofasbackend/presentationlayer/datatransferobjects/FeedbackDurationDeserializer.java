@@ -0,0 +1,36 @@
+package com.backend.vofasbackend.presentationlayer.datatransferobjects;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.deser.std.StdScalarDeserializer;
+
+import java.io.IOException;
+import java.time.LocalTime;
+
+/**
+ * Reads the {@code mm:ss} form {@link FeedbackDTO#getFeedbackDuration()} is written in back into a {@link LocalTime}.
+ * The pattern has no hour field, which the default {@code LocalTime} deserializer requires.
+ */
+public class FeedbackDurationDeserializer extends StdScalarDeserializer<LocalTime> {
+
+    public FeedbackDurationDeserializer() {
+        super(LocalTime.class);
+    }
+
+    @Override
+    public LocalTime deserialize(JsonParser parser, DeserializationContext context) throws IOException {
+        String text = parser.getValueAsString();
+        if (text == null || text.isBlank()) {
+            return null;
+        }
+        String[] parts = text.trim().split(":");
+        try {
+            if (parts.length == 2) {
+                return LocalTime.ofSecondOfDay(Integer.parseInt(parts[0]) * 60L + Integer.parseInt(parts[1]));
+            }
+        } catch (RuntimeException e) {
+            // reported below
+        }
+        return (LocalTime) context.handleWeirdStringValue(LocalTime.class, text, "expected a duration as mm:ss");
+    }
+}
@@ -0,0 +1,33 @@
+package com.backend.vofasbackend.presentationlayer.datatransferobjects;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Schema(
+        name = "FeedbackReceipt",
+        description = "Schema to hold the response to an accepted feedback upload"
+)
+@Data
+@AllArgsConstructor
+public class FeedbackReceiptDTO {
+
+    @Schema(
+            description = "Status code in the response",
+            example = "201"
+    )
+    private String statusCode;
+
+    @Schema(
+            description = "Status message in the response",
+            example = "Request successful"
+    )
+    private String statusMessage;
+
+    @Schema(
+            description = "The id of the created feedback, its transcription and sentiment analysis follow asynchronously",
+            example = "123"
+    )
+    private Long feedbackID;
+
+}
@@ -0,0 +1,39 @@
+package com.backend.vofasbackend.presentationlayer.datatransferobjects;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO class for one slice of a cursor-paginated feedback listing.
+ */
+@Schema(
+        name = "FeedbackSlice",
+        description = "Schema to hold a slice of feedbacks and the cursor of the next slice"
+)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class FeedbackSliceDTO {
+
+    @Schema(description = "Feedbacks in this slice")
+    private List<FeedbackDTO> content;
+
+    @Schema(description = "Maximum number of feedbacks in a slice", example = "10")
+    private int size;
+
+    @Schema(description = "True if there are more feedbacks after this slice", example = "true")
+    private boolean hasNext;
+
+    @Schema(description = "Opaque token to pass as `cursor` to fetch the next slice, absent on the last slice",
+            example = "MjAyNC0xMi0wNFQxMDoxNTozMHwxMjN8RA")
+    private String nextCursor;
+
+    @Schema(description = "Total number of matching feedbacks, only present if requested with `with-count`", example = "1234")
+    private Long totalElements;
+}
@@ -0,0 +1,101 @@
+package com.backend.vofasbackend.servicelayer.analytics;
+
+import com.backend.vofasbackend.datalayer.entities.FeedbackRollupEntity;
+import com.backend.vofasbackend.datalayer.enums.RollupGranularityEnum;
+import com.backend.vofasbackend.datalayer.enums.SentimentStateEnum;
+import com.backend.vofasbackend.datalayer.repositories.FeedbackRollupRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.transaction.Transactional;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * Applies feedback lifecycle events to the hourly and daily analytics rollups.
+ * <p>
+ * Each event adds to the totals of two buckets with in-place increments, inside the transaction that changes the
+ * state of the feedback, so the rollups commit or roll back together with the state. A bucket row is created the
+ * first time it is needed, in its own short transaction: a node that loses the race to create it simply increments
+ * the row the other one inserted. Created buckets are remembered, so the common case is a single update per bucket.
+ */
+@Component
+public class FeedbackRollupRecorder {
+
+    private final FeedbackRollupRepository feedbackRollupRepository;
+    private final TransactionTemplate requiresNew;
+    private final Cache<BucketKey, Boolean> existingBuckets = Caffeine.newBuilder().maximumSize(10_000).build();
+
+    public FeedbackRollupRecorder(FeedbackRollupRepository feedbackRollupRepository, PlatformTransactionManager transactionManager) {
+        this.feedbackRollupRepository = feedbackRollupRepository;
+        this.requiresNew = new TransactionTemplate(transactionManager);
+        this.requiresNew.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * Counts a newly received feedback and its duration.
+     */
+    @Transactional(Transactional.TxType.MANDATORY)
+    public void feedbackReceived(LocalDateTime receivedAt, Long kioskID, Duration feedbackDuration) {
+        long durationMillis = feedbackDuration != null ? feedbackDuration.toMillis() : 0;
+        apply(receivedAt, kioskID, 1, durationMillis, 0, 0, 0, 0, 0);
+    }
+
+    /**
+     * Counts a transcribed feedback and the time it took from receiving it to storing its transcription.
+     */
+    @Transactional(Transactional.TxType.MANDATORY)
+    public void feedbackTranscribed(LocalDateTime receivedAt, Long kioskID, LocalDateTime transcribedAt) {
+        long latencyMillis = Math.max(0, Duration.between(receivedAt, transcribedAt).toMillis());
+        apply(receivedAt, kioskID, 0, 0, 1, latencyMillis, 0, 0, 0);
+    }
+
+    /**
+     * Counts the result of the sentiment analysis of a feedback.
+     */
+    @Transactional(Transactional.TxType.MANDATORY)
+    public void sentimentAnalyzed(LocalDateTime receivedAt, Long kioskID, SentimentStateEnum sentimentState) {
+        apply(receivedAt, kioskID, 0, 0, 0, 0,
+                sentimentState == SentimentStateEnum.POSITIVE ? 1 : 0,
+                sentimentState == SentimentStateEnum.NEUTRAL ? 1 : 0,
+                sentimentState == SentimentStateEnum.NEGATIVE ? 1 : 0);
+    }
+
+    private void apply(LocalDateTime receivedAt, Long kioskID, long feedbacks, long durationMillis, long transcribed,
+                       long transcriptionLatencyMillis, long positive, long neutral, long negative) {
+        long kiosk = kioskID != null ? kioskID : FeedbackRollupEntity.NO_KIOSK;
+        for (RollupGranularityEnum granularity : RollupGranularityEnum.values()) {
+            BucketKey bucket = new BucketKey(granularity, granularity.bucketOf(receivedAt), kiosk);
+            ensureExists(bucket);
+            int updated = feedbackRollupRepository.increment(granularity, bucket.bucketStart(), kiosk,
+                    feedbacks, durationMillis, transcribed, transcriptionLatencyMillis, positive, neutral, negative);
+            if (updated != 1) {
+                throw new IllegalStateException("Analytics bucket " + bucket + " could not be updated");
+            }
+        }
+    }
+
+    private void ensureExists(BucketKey bucket) {
+        if (existingBuckets.getIfPresent(bucket) != null) {
+            return;
+        }
+        // a plain read takes no locks, so the insert below cannot wait on a gap lock held by the caller
+        if (!feedbackRollupRepository.existsByGranularityAndBucketStartAndKioskID(bucket.granularity(), bucket.bucketStart(), bucket.kioskID())) {
+            try {
+                requiresNew.executeWithoutResult(status -> feedbackRollupRepository.saveAndFlush(
+                        new FeedbackRollupEntity(bucket.granularity(), bucket.bucketStart(), bucket.kioskID())));
+            } catch (DataIntegrityViolationException e) {
+                // created concurrently by another transaction
+            }
+        }
+        existingBuckets.put(bucket, Boolean.TRUE);
+    }
+
+    private record BucketKey(RollupGranularityEnum granularity, LocalDateTime bucketStart, long kioskID) {
+    }
+}
@@ -0,0 +1,290 @@
+package com.backend.vofasbackend.servicelayer.audio;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.AudioInputStream;
+import javax.sound.sampled.UnsupportedAudioFileException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Locale;
+
+/**
+ * Reduces WAV recordings to what the transcription model needs before they are uploaded.
+ * <p>
+ * Kiosks record 44.1 kHz stereo with long stretches of silence around the actual feedback. The
+ * preprocessor downmixes to mono, resamples to the target rate and drops leading and trailing
+ * silence found by an energy-based voice activity detector, writing the result as 16-bit PCM
+ * next to the original as {@code <hash>.16k.wav}. The file is processed in a single streaming
+ * pass over fixed-size buffers: leading silence is held back in a bounded pre-roll buffer until
+ * speech starts, and trailing silence is cut by truncating the output once the input ends.
+ * <p>
+ * Other formats are passed through unchanged.
+ */
+@Slf4j
+@Component
+public class AudioPreprocessor {
+
+    private static final String DERIVED_SUFFIX = ".16k.wav";
+    private static final int WAV_HEADER_SIZE = 44;
+    private static final int VAD_BLOCK_MILLIS = 20;
+    private static final int INPUT_BUFFER_FRAMES = 8192;
+    private static final int OUTPUT_BUFFER_SIZE = 64 * 1024;
+
+    private final boolean enabled;
+    private final int targetSampleRate;
+    private final double voiceThreshold;
+    private final Duration preRoll;
+    private final Duration postRoll;
+
+    public AudioPreprocessor(@Value("${VoFAS.transcription.preprocess.enabled}") boolean enabled,
+                             @Value("${VoFAS.transcription.preprocess.sample-rate}") int targetSampleRate,
+                             @Value("${VoFAS.transcription.preprocess.vad-threshold-db}") double voiceThresholdDb,
+                             @Value("${VoFAS.transcription.preprocess.pre-roll}") Duration preRoll,
+                             @Value("${VoFAS.transcription.preprocess.post-roll}") Duration postRoll) {
+        this.enabled = enabled;
+        this.targetSampleRate = targetSampleRate;
+        this.voiceThreshold = Math.pow(10, voiceThresholdDb / 20);
+        this.preRoll = preRoll;
+        this.postRoll = postRoll;
+    }
+
+    /**
+     * Returns the audio to send to the transcription model, creating the derived file if needed.
+     *
+     * @param original the stored recording
+     * @return the derived recording, or the original if it cannot or need not be processed
+     */
+    public PreparedAudio prepare(Path original) throws IOException {
+        String fileName = original.getFileName().toString();
+        if (!enabled || !fileName.toLowerCase(Locale.ROOT).endsWith(".wav") || fileName.endsWith(DERIVED_SUFFIX)) {
+            return new PreparedAudio(original, null);
+        }
+
+        Path derived = original.resolveSibling(fileName.substring(0, fileName.length() - ".wav".length()) + DERIVED_SUFFIX);
+        if (Files.exists(derived)) {
+            // stored files are content addressed, so an existing derived file was made from the same audio
+            return new PreparedAudio(derived, durationOf(derived));
+        }
+
+        Path staging = Files.createTempFile(original.getParent(), fileName, ".tmp");
+        try {
+            Duration duration = process(original, staging);
+            if (duration == null) {
+                log.debug("No speech detected in {}, sending it unprocessed", original);
+                return new PreparedAudio(original, null);
+            }
+            Files.move(staging, derived, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            log.debug("Preprocessed {}: {} -> {} bytes", original, Files.size(original), Files.size(derived));
+            return new PreparedAudio(derived, duration);
+        } catch (UnsupportedAudioFileException e) {
+            log.warn("Cannot preprocess {}, sending it unprocessed: {}", original, e.getMessage());
+            return new PreparedAudio(original, null);
+        } finally {
+            Files.deleteIfExists(staging);
+        }
+    }
+
+    /**
+     * Streams the original into the staging file.
+     *
+     * @return the duration of the processed audio, or null if no speech was detected
+     */
+    private Duration process(Path original, Path staging) throws IOException, UnsupportedAudioFileException {
+        try (AudioInputStream input = PcmSamples.openPcm(original);
+             FileChannel output = FileChannel.open(staging, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            AudioFormat format = input.getFormat();
+            int outputRate = Math.min(targetSampleRate, Math.round(format.getSampleRate()));
+            int blockSamples = Math.max(1, outputRate * VAD_BLOCK_MILLIS / 1000);
+            int preRollBlocks = (int) (preRoll.toMillis() / VAD_BLOCK_MILLIS);
+            long postRollBytes = postRoll.toMillis() * outputRate / 1000 * 2;
+
+            VoiceTrimmer trimmer = new VoiceTrimmer(output, blockSamples, preRollBlocks);
+            Resampler resampler = new Resampler(format.getSampleRate(), outputRate, trimmer);
+
+            int frameSize = format.getFrameSize();
+            byte[] buffer = new byte[INPUT_BUFFER_FRAMES * frameSize];
+            int read;
+            while ((read = PcmSamples.readFully(input, buffer)) >= frameSize) {
+                int frames = read / frameSize;
+                for (int frame = 0; frame < frames; frame++) {
+                    resampler.accept(PcmSamples.monoSampleAt(buffer, frame * frameSize, format));
+                }
+            }
+            trimmer.finish();
+
+            if (trimmer.lastVoicedEnd < 0) {
+                return null;
+            }
+            long dataEnd = Math.min(trimmer.position, trimmer.lastVoicedEnd + postRollBytes);
+            output.truncate(dataEnd);
+            writeHeader(output, outputRate, dataEnd - WAV_HEADER_SIZE);
+            output.force(false);
+            return Duration.ofMillis((dataEnd - WAV_HEADER_SIZE) / 2 * 1000 / outputRate);
+        }
+    }
+
+    private static void writeHeader(FileChannel output, int sampleRate, long dataSize) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(WAV_HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        header.put(new byte[]{'R', 'I', 'F', 'F'}).putInt((int) (dataSize + WAV_HEADER_SIZE - 8))
+                .put(new byte[]{'W', 'A', 'V', 'E'})
+                .put(new byte[]{'f', 'm', 't', ' '}).putInt(16)
+                .putShort((short) 1)            // PCM
+                .putShort((short) 1)            // mono
+                .putInt(sampleRate)
+                .putInt(sampleRate * 2)         // byte rate
+                .putShort((short) 2)            // block align
+                .putShort((short) 16)           // bits per sample
+                .put(new byte[]{'d', 'a', 't', 'a'}).putInt((int) dataSize)
+                .flip();
+        long position = 0;
+        while (header.hasRemaining()) {
+            position += output.write(header, position);
+        }
+    }
+
+    private static Duration durationOf(Path wav) throws IOException {
+        long dataSize = Files.size(wav) - WAV_HEADER_SIZE;
+        try (FileChannel channel = FileChannel.open(wav, StandardOpenOption.READ)) {
+            ByteBuffer rate = ByteBuffer.allocate(4).order(ByteOrder.LITTLE_ENDIAN);
+            channel.read(rate, 24);
+            return Duration.ofMillis(dataSize / 2 * 1000 / rate.getInt(0));
+        }
+    }
+
+    /**
+     * The audio handed to the transcription model.
+     *
+     * @param path     file to transcribe
+     * @param duration duration of the derived file, or null if the original is used unchanged
+     */
+    public record PreparedAudio(Path path, Duration duration) {
+    }
+
+    /**
+     * Area-averaging resampler: each output sample is the mean of the input samples it covers,
+     * which also acts as the anti-aliasing filter when downsampling speech. Only downsampling or
+     * equal rates are used since the output rate never exceeds the input rate.
+     */
+    private static final class Resampler {
+
+        private final double step;
+        private final VoiceTrimmer sink;
+        private double nextBoundary;
+        private long inputIndex;
+        private double sum;
+        private int count;
+
+        Resampler(double inputRate, int outputRate, VoiceTrimmer sink) {
+            this.step = inputRate / outputRate;
+            this.sink = sink;
+            this.nextBoundary = step;
+        }
+
+        void accept(double sample) throws IOException {
+            sum += sample;
+            count++;
+            inputIndex++;
+            if (inputIndex >= nextBoundary) {
+                sink.accept(sum / count);
+                sum = 0;
+                count = 0;
+                nextBoundary += step;
+            }
+        }
+    }
+
+    /**
+     * Groups output samples into VAD blocks and writes them, holding back silence before the
+     * first voiced block and remembering where the last voiced block ended.
+     */
+    private final class VoiceTrimmer {
+
+        private final FileChannel output;
+        private final int preRollBlocks;
+        private final short[] block;
+        private final ArrayDeque<short[]> preRollQueue = new ArrayDeque<>();
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(OUTPUT_BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        private int filled;
+        private long position = WAV_HEADER_SIZE;
+        private long lastVoicedEnd = -1;
+
+        VoiceTrimmer(FileChannel output, int blockSamples, int preRollBlocks) {
+            this.output = output;
+            this.preRollBlocks = preRollBlocks;
+            this.block = new short[blockSamples];
+        }
+
+        void accept(double sample) throws IOException {
+            block[filled++] = (short) Math.max(Short.MIN_VALUE, Math.min(Short.MAX_VALUE, Math.round(sample * 32768)));
+            if (filled == block.length) {
+                completeBlock(block.length);
+                filled = 0;
+            }
+        }
+
+        void finish() throws IOException {
+            if (filled > 0) {
+                completeBlock(filled);
+            }
+            flush();
+        }
+
+        private void completeBlock(int length) throws IOException {
+            double sumOfSquares = 0;
+            for (int i = 0; i < length; i++) {
+                double sample = block[i] / 32768.0;
+                sumOfSquares += sample * sample;
+            }
+            boolean voiced = Math.sqrt(sumOfSquares / length) >= voiceThreshold;
+
+            if (lastVoicedEnd < 0 && !voiced) {
+                if (preRollBlocks > 0) {
+                    // recycle the oldest held block once the pre-roll is full
+                    short[] held = preRollQueue.size() == preRollBlocks ? preRollQueue.removeFirst() : new short[block.length];
+                    System.arraycopy(block, 0, held, 0, length);
+                    preRollQueue.addLast(held);
+                }
+                return;
+            }
+            while (!preRollQueue.isEmpty()) {
+                write(preRollQueue.removeFirst());
+            }
+            write(block, length);
+            if (voiced) {
+                lastVoicedEnd = position + buffer.position();
+            }
+        }
+
+        private void write(short[] samples) throws IOException {
+            write(samples, samples.length);
+        }
+
+        private void write(short[] samples, int length) throws IOException {
+            for (int i = 0; i < length; i++) {
+                if (buffer.remaining() < 2) {
+                    flush();
+                }
+                buffer.putShort(samples[i]);
+            }
+        }
+
+        private void flush() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                position += output.write(buffer, position);
+            }
+            buffer.clear();
+        }
+    }
+}
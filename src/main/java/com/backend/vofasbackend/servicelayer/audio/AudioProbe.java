@@ -0,0 +1,287 @@
+package com.backend.vofasbackend.servicelayer.audio;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Optional;
+
+/**
+ * Reads duration, sample rate and channel count from container headers without decoding or
+ * scanning the audio data.
+ * <p>
+ * <ul>
+ *     <li>MP3: the Xing/Info (with LAME gapless info) or VBRI header of the first frame, otherwise
+ *     an estimate from the bitrates of a few frames sampled across the file</li>
+ *     <li>WAV: the RIFF {@code fmt } and {@code data} chunks</li>
+ *     <li>M4A: {@code mvhd} for the duration and the {@code mp4a} sample entry for the format</li>
+ * </ul>
+ * Every probe reads a bounded number of small regions of the file, so its cost does not grow
+ * with the length of the recording.
+ */
+@Slf4j
+@Component
+public class AudioProbe {
+
+    private static final int MP3_SYNC_SEARCH_LIMIT = 64 * 1024;
+    private static final int MP3_SAMPLED_FRAMES = 8;
+    private static final int MAX_CHUNKS = 64;
+    private static final int MAX_BOXES = 256;
+
+    /**
+     * @param audio the recording, its format is taken from the file extension
+     * @return the audio properties, or empty if the format is unknown or the headers are unusable
+     */
+    public Optional<AudioInfo> probe(Path audio) {
+        String fileName = audio.getFileName().toString().toLowerCase(Locale.ROOT);
+        try (FileChannel channel = FileChannel.open(audio, StandardOpenOption.READ)) {
+            if (fileName.endsWith(".mp3")) {
+                return probeMp3(channel);
+            }
+            if (fileName.endsWith(".wav")) {
+                return probeWav(channel);
+            }
+            if (fileName.endsWith(".m4a") || fileName.endsWith(".mp4")) {
+                return probeMp4(channel);
+            }
+            return Optional.empty();
+        } catch (IOException | RuntimeException e) {
+            log.warn("Failed to probe {}: {}", audio, e.toString());
+            return Optional.empty();
+        }
+    }
+
+    Optional<AudioInfo> probeMp3(FileChannel channel) throws IOException {
+        long size = channel.size();
+        long audioStart = Mp3FrameHeader.id3v2TagLength(channel);
+        long audioEnd = hasId3v1Tag(channel) ? size - 128 : size;
+
+        long firstFrame = findFrame(channel, audioStart, Math.min(audioEnd, audioStart + MP3_SYNC_SEARCH_LIMIT));
+        if (firstFrame < 0) {
+            return Optional.empty();
+        }
+        Mp3FrameHeader header = Mp3FrameHeader.parse(readInt(channel, firstFrame, ByteOrder.BIG_ENDIAN));
+        int channels = header.mono() ? 1 : 2;
+
+        ByteBuffer frame = read(channel, firstFrame, header.frameLength());
+        long totalSamples = vbrTotalSamples(frame, header);
+        if (totalSamples >= 0) {
+            return Optional.of(new AudioInfo(samplesToDuration(totalSamples, header.sampleRate()), header.sampleRate(), channels));
+        }
+
+        // no VBR header: average the bitrate of frames sampled across the file
+        long audioBytes = audioEnd - firstFrame;
+        long bitrateSum = 0;
+        int sampled = 0;
+        for (int i = 0; i < MP3_SAMPLED_FRAMES; i++) {
+            long position = firstFrame + audioBytes * i / MP3_SAMPLED_FRAMES;
+            long found = i == 0 ? firstFrame : findFrame(channel, position, Math.min(audioEnd, position + 8 * 1024));
+            if (found >= 0) {
+                bitrateSum += Mp3FrameHeader.parse(readInt(channel, found, ByteOrder.BIG_ENDIAN)).bitrate();
+                sampled++;
+            }
+        }
+        double bitrate = bitrateSum * 1000.0 / sampled;
+        Duration duration = Duration.ofMillis(Math.round(audioBytes * 8 / bitrate * 1000));
+        return Optional.of(new AudioInfo(duration, header.sampleRate(), channels));
+    }
+
+    /**
+     * @return the number of samples declared by a Xing/Info or VBRI header, or -1 if the frame has none
+     */
+    private static long vbrTotalSamples(ByteBuffer frame, Mp3FrameHeader header) {
+        int xing = header.xingTagOffset();
+        if (header.layer() == 3 && frame.limit() >= xing + 8) {
+            String id = ascii(frame, xing, 4);
+            int flags = frame.getInt(xing + 4);
+            if ((id.equals("Xing") || id.equals("Info")) && (flags & 0x1) != 0 && frame.limit() >= xing + 12) {
+                long frames = Integer.toUnsignedLong(frame.getInt(xing + 8));
+                long samples = frames * header.samplesPerFrame();
+                // LAME extension: encoder delay and padding that decoders drop for gapless playback
+                int lame = xing + 8 + 4 + ((flags & 0x2) != 0 ? 4 : 0) + ((flags & 0x4) != 0 ? 100 : 0) + ((flags & 0x8) != 0 ? 4 : 0);
+                if (frame.limit() >= lame + 24 && ascii(frame, lame, 4).equals("LAME")) {
+                    int gapless = ((frame.get(lame + 21) & 0xFF) << 16) | ((frame.get(lame + 22) & 0xFF) << 8) | (frame.get(lame + 23) & 0xFF);
+                    samples -= (gapless >>> 12) + (gapless & 0xFFF);
+                }
+                return Math.max(0, samples);
+            }
+        }
+        int vbri = 4 + 32;
+        if (frame.limit() >= vbri + 18 && ascii(frame, vbri, 4).equals("VBRI")) {
+            long frames = Integer.toUnsignedLong(frame.getInt(vbri + 14));
+            return frames * header.samplesPerFrame();
+        }
+        return -1;
+    }
+
+    /**
+     * Finds a frame header that is followed by another valid header, which rules out most false
+     * syncs inside tags and padding.
+     */
+    private static long findFrame(FileChannel channel, long from, long to) throws IOException {
+        ByteBuffer window = read(channel, from, (int) Math.max(0, Math.min(to - from + 4, MP3_SYNC_SEARCH_LIMIT + 4)));
+        for (int offset = 0; offset + 4 <= window.limit(); offset++) {
+            if ((window.get(offset) & 0xFF) != 0xFF) {
+                continue;
+            }
+            Mp3FrameHeader header = Mp3FrameHeader.parse(window.getInt(offset));
+            if (header == null) {
+                continue;
+            }
+            long next = from + offset + header.frameLength();
+            if (next + 4 > channel.size() || Mp3FrameHeader.parse(readInt(channel, next, ByteOrder.BIG_ENDIAN)) != null) {
+                return from + offset;
+            }
+        }
+        return -1;
+    }
+
+    private static boolean hasId3v1Tag(FileChannel channel) throws IOException {
+        return channel.size() >= 128 && ascii(read(channel, channel.size() - 128, 3), 0, 3).equals("TAG");
+    }
+
+    Optional<AudioInfo> probeWav(FileChannel channel) throws IOException {
+        ByteBuffer riff = read(channel, 0, 12);
+        if (riff.limit() < 12 || !ascii(riff, 0, 4).equals("RIFF") || !ascii(riff, 8, 4).equals("WAVE")) {
+            return Optional.empty();
+        }
+        long size = channel.size();
+        long position = 12;
+        int channels = 0;
+        int sampleRate = 0;
+        long byteRate = 0;
+        for (int chunk = 0; chunk < MAX_CHUNKS && position + 8 <= size; chunk++) {
+            ByteBuffer header = read(channel, position, 8).order(ByteOrder.LITTLE_ENDIAN);
+            String id = ascii(header, 0, 4);
+            long length = Integer.toUnsignedLong(header.getInt(4));
+            if (id.equals("fmt ")) {
+                ByteBuffer format = read(channel, position + 8, 16).order(ByteOrder.LITTLE_ENDIAN);
+                channels = format.getShort(2) & 0xFFFF;
+                sampleRate = format.getInt(4);
+                byteRate = Integer.toUnsignedLong(format.getInt(8));
+            } else if (id.equals("data")) {
+                if (byteRate == 0) {
+                    return Optional.empty();
+                }
+                // streaming writers leave the size at 0 or 0xFFFFFFFF, fall back to the file length
+                long available = size - position - 8;
+                long dataSize = length == 0 || length > available ? available : length;
+                Duration duration = Duration.ofMillis(dataSize * 1000 / byteRate);
+                return Optional.of(new AudioInfo(duration, sampleRate, channels));
+            }
+            position += 8 + length + (length & 1);
+        }
+        return Optional.empty();
+    }
+
+    Optional<AudioInfo> probeMp4(FileChannel channel) throws IOException {
+        Mp4Info info = new Mp4Info();
+        walkBoxes(channel, 0, channel.size(), info, new int[]{0});
+        if (info.timescale <= 0 || info.duration < 0) {
+            return Optional.empty();
+        }
+        Duration duration = Duration.ofMillis(info.duration * 1000 / info.timescale);
+        return Optional.of(new AudioInfo(duration, info.sampleRate, info.channels));
+    }
+
+    private static void walkBoxes(FileChannel channel, long from, long to, Mp4Info info, int[] visited) throws IOException {
+        long position = from;
+        while (position + 8 <= to && visited[0]++ < MAX_BOXES) {
+            ByteBuffer header = read(channel, position, 16);
+            long size = Integer.toUnsignedLong(header.getInt(0));
+            String type = ascii(header, 4, 4);
+            int headerSize = 8;
+            if (size == 1) {
+                size = header.getLong(8);
+                headerSize = 16;
+            } else if (size == 0) {
+                size = to - position;
+            }
+            if (size < headerSize) {
+                return;
+            }
+            long body = position + headerSize;
+            switch (type) {
+                case "moov", "trak", "mdia", "minf", "stbl" -> walkBoxes(channel, body, position + size, info, visited);
+                case "mvhd" -> {
+                    ByteBuffer mvhd = read(channel, body, 32);
+                    if (mvhd.get(0) == 1) {
+                        info.timescale = Integer.toUnsignedLong(mvhd.getInt(20));
+                        info.duration = mvhd.getLong(24);
+                    } else {
+                        info.timescale = Integer.toUnsignedLong(mvhd.getInt(12));
+                        info.duration = Integer.toUnsignedLong(mvhd.getInt(16));
+                    }
+                }
+                case "stsd" -> {
+                    // full box header and entry count, then the first sample entry
+                    ByteBuffer entry = read(channel, body + 8, 36);
+                    if (info.sampleRate == 0 && ascii(entry, 4, 4).equals("mp4a")) {
+                        info.channels = entry.getShort(24) & 0xFFFF;
+                        info.sampleRate = entry.getInt(32) >>> 16;
+                    }
+                }
+                default -> {
+                    // skipped, including mdat
+                }
+            }
+            if (info.timescale > 0 && info.sampleRate > 0) {
+                return;
+            }
+            position += size;
+        }
+    }
+
+    private static Duration samplesToDuration(long samples, int sampleRate) {
+        return Duration.ofMillis(samples * 1000 / sampleRate);
+    }
+
+    private static ByteBuffer read(FileChannel channel, long position, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                break;
+            }
+        }
+        return buffer.flip();
+    }
+
+    private static int readInt(FileChannel channel, long position, ByteOrder order) throws IOException {
+        ByteBuffer buffer = read(channel, position, 4).order(order);
+        return buffer.limit() < 4 ? 0 : buffer.getInt(0);
+    }
+
+    private static String ascii(ByteBuffer buffer, int offset, int length) {
+        if (buffer.limit() < offset + length) {
+            return "";
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(offset, bytes);
+        return new String(bytes, StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * Properties of a recording read from its headers.
+     *
+     * @param duration   playback duration
+     * @param sampleRate sample rate in Hz, 0 if the container does not declare it
+     * @param channels   number of channels, 0 if the container does not declare it
+     */
+    public record AudioInfo(Duration duration, int sampleRate, int channels) {
+    }
+
+    private static final class Mp4Info {
+        private long timescale;
+        private long duration = -1;
+        private int sampleRate;
+        private int channels;
+    }
+}
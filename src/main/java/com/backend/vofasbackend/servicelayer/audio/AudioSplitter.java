@@ -0,0 +1,263 @@
+package com.backend.vofasbackend.servicelayer.audio;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import javax.sound.sampled.AudioFileFormat;
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.AudioInputStream;
+import javax.sound.sampled.AudioSystem;
+import javax.sound.sampled.UnsupportedAudioFileException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Splits long recordings into overlapping chunks that can be transcribed independently.
+ * <p>
+ * PCM WAV files are cut at the quietest point near each target boundary, so that cuts land in
+ * pauses between words rather than inside them. MP3 files are cut at frame boundaries without
+ * decoding. Other containers are returned as a single chunk.
+ * <p>
+ * Every chunk except the first starts {@code overlap} before its cut point; the repeated words
+ * are removed again when the chunk transcriptions are stitched together.
+ */
+@Slf4j
+@Component
+public class AudioSplitter {
+
+    private static final double ENERGY_BLOCK_SECONDS = 0.02;
+
+    /**
+     * Splits the audio file into chunks written to the target directory.
+     *
+     * @param audio           the recording to split
+     * @param targetDirectory directory receiving the chunk files
+     * @param chunkLength     target length of a chunk
+     * @param overlap         how much audio each chunk repeats from the previous one
+     * @param searchWindow    how far around the target boundary to look for silence
+     * @return the chunk files in playback order, or a list containing only {@code audio} if it is not split
+     * @throws IOException if the audio cannot be read or the chunks cannot be written
+     */
+    public List<Path> split(Path audio, Path targetDirectory, Duration chunkLength, Duration overlap, Duration searchWindow) throws IOException {
+        String fileName = audio.getFileName().toString().toLowerCase(Locale.ROOT);
+        if (fileName.endsWith(".wav")) {
+            try {
+                return splitPcm(audio, targetDirectory, chunkLength, overlap, searchWindow);
+            } catch (UnsupportedAudioFileException e) {
+                log.warn("Cannot split {}, transcribing it in one piece: {}", audio, e.getMessage());
+                return List.of(audio);
+            }
+        }
+        if (fileName.endsWith(".mp3")) {
+            return splitMp3(audio, targetDirectory, chunkLength, overlap);
+        }
+        return List.of(audio);
+    }
+
+    private List<Path> splitPcm(Path audio, Path targetDirectory, Duration chunkLength, Duration overlap, Duration searchWindow)
+            throws IOException, UnsupportedAudioFileException {
+        AudioFormat format;
+        int framesPerBlock;
+        float[] energies;
+        long totalFrames;
+        try (AudioInputStream stream = PcmSamples.openPcm(audio)) {
+            format = stream.getFormat();
+            framesPerBlock = Math.max(1, Math.round(format.getFrameRate() * (float) ENERGY_BLOCK_SECONDS));
+            BlockEnergies blockEnergies = measureEnergy(stream, framesPerBlock);
+            energies = blockEnergies.energies();
+            totalFrames = blockEnergies.totalFrames();
+        }
+
+        double blockSeconds = framesPerBlock / (double) format.getFrameRate();
+        int[] cutBlocks = chooseCuts(energies, toBlocks(chunkLength, blockSeconds), toBlocks(searchWindow, blockSeconds));
+        if (cutBlocks.length == 0) {
+            return List.of(audio);
+        }
+
+        long overlapFrames = Math.round(overlap.toMillis() / 1000.0 * format.getFrameRate());
+        List<Path> chunks = new ArrayList<>(cutBlocks.length + 1);
+        for (int i = 0; i <= cutBlocks.length; i++) {
+            long start = i == 0 ? 0 : Math.max(0, (long) cutBlocks[i - 1] * framesPerBlock - overlapFrames);
+            long end = i == cutBlocks.length ? totalFrames : (long) cutBlocks[i] * framesPerBlock;
+            Path chunk = targetDirectory.resolve(String.format("chunk-%04d.wav", i));
+            writePcmChunk(audio, chunk, start, end - start);
+            chunks.add(chunk);
+        }
+        return chunks;
+    }
+
+    private BlockEnergies measureEnergy(AudioInputStream stream, int framesPerBlock) throws IOException {
+        AudioFormat format = stream.getFormat();
+        int frameSize = format.getFrameSize();
+        byte[] block = new byte[framesPerBlock * frameSize];
+        float[] energies = new float[1024];
+        int blocks = 0;
+        long totalFrames = 0;
+
+        int read;
+        while ((read = PcmSamples.readFully(stream, block)) >= frameSize) {
+            int frames = read / frameSize;
+            double sumOfSquares = 0;
+            for (int frame = 0; frame < frames; frame++) {
+                double sample = PcmSamples.monoSampleAt(block, frame * frameSize, format);
+                sumOfSquares += sample * sample;
+            }
+            if (blocks == energies.length) {
+                energies = Arrays.copyOf(energies, blocks * 2);
+            }
+            energies[blocks++] = (float) Math.sqrt(sumOfSquares / frames);
+            totalFrames += frames;
+        }
+        return new BlockEnergies(Arrays.copyOf(energies, blocks), totalFrames);
+    }
+
+    /**
+     * Picks one cut per chunk boundary: the lowest-energy block within the search window around
+     * the target, measured from the previous cut. A trailing remainder shorter than a quarter of a
+     * chunk is folded into the last chunk instead of becoming a chunk of its own.
+     */
+    static int[] chooseCuts(float[] energies, int chunkBlocks, int windowBlocks) {
+        List<Integer> cuts = new ArrayList<>();
+        int minimumTail = Math.max(1, chunkBlocks / 4);
+        int previous = 0;
+        int target = chunkBlocks;
+        while (target + minimumTail < energies.length) {
+            int low = Math.max(previous + 1, target - windowBlocks);
+            int high = Math.min(energies.length - minimumTail, target + windowBlocks);
+            int best = target;
+            for (int block = low; block <= high; block++) {
+                if (energies[block] < energies[best]
+                        || (energies[block] == energies[best] && Math.abs(block - target) < Math.abs(best - target))) {
+                    best = block;
+                }
+            }
+            cuts.add(best);
+            previous = best;
+            target = best + chunkBlocks;
+        }
+        return cuts.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    private void writePcmChunk(Path audio, Path chunk, long startFrame, long frameCount) throws IOException {
+        try (AudioInputStream stream = PcmSamples.openPcm(audio)) {
+            long toSkip = startFrame * stream.getFormat().getFrameSize();
+            while (toSkip > 0) {
+                long skipped = stream.skip(toSkip);
+                if (skipped <= 0) {
+                    throw new IOException("Unexpected end of audio while seeking in " + audio);
+                }
+                toSkip -= skipped;
+            }
+            try (AudioInputStream slice = new AudioInputStream(stream, stream.getFormat(), frameCount)) {
+                AudioSystem.write(slice, AudioFileFormat.Type.WAVE, chunk.toFile());
+            }
+        } catch (UnsupportedAudioFileException e) {
+            throw new IOException("Audio format changed while splitting " + audio, e);
+        }
+    }
+
+    private List<Path> splitMp3(Path audio, Path targetDirectory, Duration chunkLength, Duration overlap) throws IOException {
+        try (FileChannel channel = FileChannel.open(audio, StandardOpenOption.READ)) {
+            long[] offsets = new long[4096];
+            double[] startTimes = new double[4096];
+            int frames = 0;
+            double elapsed = 0;
+
+            ByteBuffer header = ByteBuffer.allocate(4);
+            long position = Mp3FrameHeader.id3v2TagLength(channel);
+            long size = channel.size();
+            boolean first = true;
+            while (position + 4 <= size) {
+                header.clear();
+                channel.read(header, position);
+                Mp3FrameHeader frame = Mp3FrameHeader.parse(header.getInt(0));
+                if (frame == null) {
+                    // lost sync, e.g. trailing tags or junk between frames: move on byte by byte
+                    position++;
+                    continue;
+                }
+                if (first && isXingFrame(channel, position, frame)) {
+                    // the Xing/Info header describes the whole file and would be wrong in every chunk
+                    position += frame.frameLength();
+                    first = false;
+                    continue;
+                }
+                first = false;
+                if (frames == offsets.length) {
+                    offsets = Arrays.copyOf(offsets, frames * 2);
+                    startTimes = Arrays.copyOf(startTimes, frames * 2);
+                }
+                offsets[frames] = position;
+                startTimes[frames] = elapsed;
+                frames++;
+                elapsed += frame.durationSeconds();
+                position += frame.frameLength();
+            }
+            long end = Math.min(position, size);
+
+            double chunkSeconds = chunkLength.toMillis() / 1000.0;
+            double overlapSeconds = overlap.toMillis() / 1000.0;
+            if (frames == 0 || elapsed < chunkSeconds * 1.25) {
+                return List.of(audio);
+            }
+
+            List<Path> chunks = new ArrayList<>();
+            int startFrame = 0;
+            int cutFrame = 0;
+            while (startFrame < frames) {
+                double cutTime = startTimes[cutFrame] + chunkSeconds;
+                int nextCut = cutFrame;
+                while (nextCut < frames && startTimes[nextCut] < cutTime) {
+                    nextCut++;
+                }
+                if (elapsed - cutTime < chunkSeconds / 4) {
+                    nextCut = frames;
+                }
+                long chunkEnd = nextCut == frames ? end : offsets[nextCut];
+                Path chunk = targetDirectory.resolve(String.format("chunk-%04d.mp3", chunks.size()));
+                try (FileChannel out = FileChannel.open(chunk, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                    long from = offsets[startFrame];
+                    while (from < chunkEnd) {
+                        from += channel.transferTo(from, chunkEnd - from, out);
+                    }
+                }
+                chunks.add(chunk);
+                if (nextCut == frames) {
+                    break;
+                }
+                cutFrame = nextCut;
+                startFrame = nextCut;
+                while (startFrame > 0 && startTimes[nextCut] - startTimes[startFrame - 1] <= overlapSeconds) {
+                    startFrame--;
+                }
+            }
+            return chunks;
+        }
+    }
+
+    private static boolean isXingFrame(FileChannel channel, long frameStart, Mp3FrameHeader frame) throws IOException {
+        if (frame.layer() != 3) {
+            return false;
+        }
+        ByteBuffer tag = ByteBuffer.allocate(4);
+        channel.read(tag, frameStart + frame.xingTagOffset());
+        String id = new String(tag.array(), 0, tag.position(), StandardCharsets.US_ASCII);
+        return id.equals("Xing") || id.equals("Info");
+    }
+
+    private static int toBlocks(Duration duration, double blockSeconds) {
+        return (int) Math.max(1, Math.round(duration.toMillis() / 1000.0 / blockSeconds));
+    }
+
+    private record BlockEnergies(float[] energies, long totalFrames) {
+    }
+}
@@ -0,0 +1,107 @@
+package com.backend.vofasbackend.servicelayer.audio;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Decoded MPEG audio frame header (MPEG 1, 2 and 2.5, layers I to III).
+ *
+ * @param version         1 for MPEG 1, 2 for MPEG 2, 25 for MPEG 2.5
+ * @param layer           1, 2 or 3
+ * @param protectedByCrc  true if a 16-bit CRC follows the header
+ * @param bitrate         bitrate in kbit/s
+ * @param sampleRate      sample rate in Hz
+ * @param padding         true if the frame carries a padding slot
+ * @param mono            true for single channel frames
+ * @param frameLength     length of the whole frame in bytes, including the header
+ * @param samplesPerFrame number of samples per channel encoded in the frame
+ */
+public record Mp3FrameHeader(int version, int layer, boolean protectedByCrc, int bitrate, int sampleRate,
+                             boolean padding, boolean mono, int frameLength, int samplesPerFrame) {
+
+    private static final int[][] BITRATES = {
+            // MPEG 1 layer I, II, III
+            {0, 32, 64, 96, 128, 160, 192, 224, 256, 288, 320, 352, 384, 416, 448},
+            {0, 32, 48, 56, 64, 80, 96, 112, 128, 160, 192, 224, 256, 320, 384},
+            {0, 32, 40, 48, 56, 64, 80, 96, 112, 128, 160, 192, 224, 256, 320},
+            // MPEG 2 and 2.5 layer I, layers II and III
+            {0, 32, 48, 56, 64, 80, 96, 112, 128, 144, 160, 176, 192, 224, 256},
+            {0, 8, 16, 24, 32, 40, 48, 56, 64, 80, 96, 112, 128, 144, 160}
+    };
+
+    private static final int[][] SAMPLE_RATES = {
+            {44100, 48000, 32000},
+            {22050, 24000, 16000},
+            {11025, 12000, 8000}
+    };
+
+    /**
+     * Parses the four header bytes of a frame.
+     *
+     * @param header the header bytes in big-endian order
+     * @return the decoded header, or null if the bytes are not a valid frame header
+     */
+    public static Mp3FrameHeader parse(int header) {
+        if ((header & 0xFFE00000) != 0xFFE00000) {
+            return null;
+        }
+        int versionBits = (header >>> 19) & 0x3;
+        int layerBits = (header >>> 17) & 0x3;
+        int bitrateIndex = (header >>> 12) & 0xF;
+        int sampleRateIndex = (header >>> 10) & 0x3;
+        if (versionBits == 1 || layerBits == 0 || bitrateIndex == 0 || bitrateIndex == 15 || sampleRateIndex == 3) {
+            // reserved values, and free-format streams whose frame length cannot be derived from the header
+            return null;
+        }
+        int version = versionBits == 3 ? 1 : versionBits == 2 ? 2 : 25;
+        int layer = 4 - layerBits;
+        int bitrateTable = version == 1 ? layer - 1 : (layer == 1 ? 3 : 4);
+        int bitrate = BITRATES[bitrateTable][bitrateIndex];
+        int sampleRate = SAMPLE_RATES[version == 1 ? 0 : version == 2 ? 1 : 2][sampleRateIndex];
+        boolean padding = ((header >>> 9) & 0x1) == 1;
+        boolean mono = ((header >>> 6) & 0x3) == 3;
+        boolean protectedByCrc = ((header >>> 16) & 0x1) == 0;
+
+        int samplesPerFrame;
+        int frameLength;
+        if (layer == 1) {
+            samplesPerFrame = 384;
+            frameLength = (12 * bitrate * 1000 / sampleRate + (padding ? 1 : 0)) * 4;
+        } else {
+            samplesPerFrame = (layer == 3 && version != 1) ? 576 : 1152;
+            frameLength = samplesPerFrame / 8 * bitrate * 1000 / sampleRate + (padding ? 1 : 0);
+        }
+        return new Mp3FrameHeader(version, layer, protectedByCrc, bitrate, sampleRate, padding, mono, frameLength, samplesPerFrame);
+    }
+
+    /**
+     * @return the playback duration of the frame in seconds
+     */
+    public double durationSeconds() {
+        return (double) samplesPerFrame / sampleRate;
+    }
+
+    /**
+     * @return the offset from the start of the frame where a Xing/Info tag would begin in a layer III frame
+     */
+    public int xingTagOffset() {
+        int sideInfoLength = version == 1 ? (mono ? 17 : 32) : (mono ? 9 : 17);
+        return 4 + (protectedByCrc ? 2 : 0) + sideInfoLength;
+    }
+
+    /**
+     * @return the length of the ID3v2 tag at the start of the file, or 0 if there is none
+     */
+    public static long id3v2TagLength(FileChannel channel) throws IOException {
+        ByteBuffer tag = ByteBuffer.allocate(10);
+        channel.read(tag, 0);
+        byte[] bytes = tag.array();
+        if (tag.position() < 10 || bytes[0] != 'I' || bytes[1] != 'D' || bytes[2] != '3') {
+            return 0;
+        }
+        long size = ((bytes[6] & 0x7F) << 21) | ((bytes[7] & 0x7F) << 14) | ((bytes[8] & 0x7F) << 7) | (bytes[9] & 0x7F);
+        boolean footer = (bytes[5] & 0x10) != 0;
+        return 10 + size + (footer ? 10 : 0);
+    }
+}
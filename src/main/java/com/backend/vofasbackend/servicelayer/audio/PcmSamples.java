@@ -0,0 +1,112 @@
+package com.backend.vofasbackend.servicelayer.audio;
+
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.AudioInputStream;
+import javax.sound.sampled.AudioSystem;
+import javax.sound.sampled.UnsupportedAudioFileException;
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Helpers to read integer PCM samples from raw frame bytes.
+ */
+public final class PcmSamples {
+
+    private static final int IO_BUFFER_SIZE = 64 * 1024;
+
+    private PcmSamples() {
+    }
+
+    /**
+     * Opens an audio file as a stream of integer PCM frames, converting other encodings the
+     * installed codecs can decode to 16-bit signed PCM.
+     *
+     * @throws UnsupportedAudioFileException if the file cannot be decoded to PCM
+     */
+    public static AudioInputStream openPcm(Path audio) throws IOException, UnsupportedAudioFileException {
+        InputStream input = new BufferedInputStream(Files.newInputStream(audio), IO_BUFFER_SIZE);
+        try {
+            AudioInputStream stream = AudioSystem.getAudioInputStream(input);
+            if (isSupported(stream.getFormat())) {
+                return stream;
+            }
+            AudioFormat source = stream.getFormat();
+            AudioFormat target = new AudioFormat(source.getSampleRate(), 16, source.getChannels(), true, false);
+            if (!AudioSystem.isConversionSupported(target, source)) {
+                stream.close();
+                throw new UnsupportedAudioFileException("No PCM conversion for " + source);
+            }
+            return AudioSystem.getAudioInputStream(target, stream);
+        } catch (IOException | UnsupportedAudioFileException | RuntimeException e) {
+            input.close();
+            throw e;
+        }
+    }
+
+    /**
+     * @return true if the format is integer PCM with whole-byte samples, which {@link #sampleAt} can decode
+     */
+    public static boolean isSupported(AudioFormat format) {
+        AudioFormat.Encoding encoding = format.getEncoding();
+        return (AudioFormat.Encoding.PCM_SIGNED.equals(encoding) || AudioFormat.Encoding.PCM_UNSIGNED.equals(encoding))
+                && format.getSampleSizeInBits() % 8 == 0
+                && format.getSampleSizeInBits() <= 32;
+    }
+
+    /**
+     * Decodes one sample and scales it to the range [-1, 1).
+     *
+     * @param data   the raw audio bytes
+     * @param offset offset of the sample's first byte
+     * @param format the format of the data, must be {@link #isSupported supported}
+     */
+    public static double sampleAt(byte[] data, int offset, AudioFormat format) {
+        int bits = format.getSampleSizeInBits();
+        int bytes = bits / 8;
+        long value = 0;
+        for (int i = 0; i < bytes; i++) {
+            int index = format.isBigEndian() ? offset + i : offset + bytes - 1 - i;
+            value = (value << 8) | (data[index] & 0xFF);
+        }
+        if (AudioFormat.Encoding.PCM_SIGNED.equals(format.getEncoding())) {
+            int shift = 64 - bits;
+            value = (value << shift) >> shift;
+        } else {
+            value -= 1L << (bits - 1);
+        }
+        return value / (double) (1L << (bits - 1));
+    }
+
+    /**
+     * Averages the channels of one frame.
+     */
+    public static double monoSampleAt(byte[] data, int frameOffset, AudioFormat format) {
+        int channels = format.getChannels();
+        int sampleBytes = format.getSampleSizeInBits() / 8;
+        double sum = 0;
+        for (int channel = 0; channel < channels; channel++) {
+            sum += sampleAt(data, frameOffset + channel * sampleBytes, format);
+        }
+        return sum / channels;
+    }
+
+    /**
+     * Reads until the buffer is full or the stream ends.
+     *
+     * @return the number of bytes read, less than the buffer length only at the end of the stream
+     */
+    public static int readFully(InputStream stream, byte[] buffer) throws IOException {
+        int total = 0;
+        while (total < buffer.length) {
+            int read = stream.read(buffer, total, buffer.length - total);
+            if (read < 0) {
+                break;
+            }
+            total += read;
+        }
+        return total;
+    }
+}
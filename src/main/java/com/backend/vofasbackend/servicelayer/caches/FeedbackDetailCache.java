@@ -0,0 +1,104 @@
+package com.backend.vofasbackend.servicelayer.caches;
+
+import com.backend.vofasbackend.presentationlayer.datatransferobjects.FeedbackDTO;
+import com.backend.vofasbackend.servicelayer.tools.HashTool;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Cache of fully mapped feedback details, keyed by feedback id and the optional parts requested with it. Each entry
+ * carries a strong ETag computed from its JSON form, so clients can revalidate with {@code If-None-Match} without
+ * the response body being rebuilt.
+ * <p>
+ * Entries are dropped through {@link #invalidate(Long)} whenever the feedback changes state. Size, hit ratio and
+ * evictions are published as the {@code cache.*} metrics of the {@code feedbackDetailCache} cache.
+ */
+@Component
+public class FeedbackDetailCache {
+
+    private final Cache<Key, FeedbackDetail> cache;
+    private final ObjectMapper objectMapper;
+
+    public FeedbackDetailCache(ObjectMapper objectMapper,
+                               MeterRegistry meterRegistry,
+                               @Value("${VoFAS.feedback.cache.max-size}") long maximumSize,
+                               @Value("${VoFAS.feedback.cache.expire-after-write}") Duration expireAfterWrite) {
+        this.objectMapper = objectMapper;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "feedbackDetailCache");
+    }
+
+    /**
+     * Returns the cached detail of a feedback, mapping it with {@code loader} on a miss. Exceptions thrown by the
+     * loader are propagated and nothing is cached.
+     */
+    public FeedbackDetail get(Long feedbackID, boolean withSource, boolean withToken, Supplier<FeedbackDTO> loader) {
+        return cache.get(new Key(feedbackID, withSource, withToken), key -> detailOf(loader.get()));
+    }
+
+    /**
+     * Drops every cached variant of a feedback. Inside a transaction the entries are dropped once more after it
+     * completes, so that a reader which loaded the row before the commit cannot leave the old state behind.
+     */
+    public void invalidate(Long feedbackID) {
+        List<Key> keys = keysOf(feedbackID);
+        cache.invalidateAll(keys);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    cache.invalidateAll(keys);
+                }
+            });
+        }
+    }
+
+    long estimatedSize() {
+        return cache.estimatedSize();
+    }
+
+    private FeedbackDetail detailOf(FeedbackDTO feedbackDTO) {
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(feedbackDTO);
+            String eTag = "\"" + HashTool.toHex(HashTool.newSha256Digest().digest(json)).substring(0, 32) + "\"";
+            return new FeedbackDetail(feedbackDTO, eTag);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Feedback " + feedbackDTO.getFeedbackId() + " cannot be serialized", e);
+        }
+    }
+
+    private static List<Key> keysOf(Long feedbackID) {
+        return List.of(
+                new Key(feedbackID, false, false),
+                new Key(feedbackID, true, false),
+                new Key(feedbackID, false, true),
+                new Key(feedbackID, true, true)
+        );
+    }
+
+    private record Key(Long feedbackID, boolean withSource, boolean withToken) {
+    }
+
+    /**
+     * A mapped feedback together with the ETag of its JSON representation. The DTO is shared between requests and
+     * must not be modified.
+     */
+    public record FeedbackDetail(FeedbackDTO feedback, String eTag) {
+    }
+}
@@ -0,0 +1,125 @@
+package com.backend.vofasbackend.servicelayer.caches;
+
+import com.backend.vofasbackend.datalayer.enums.SentimentStateEnum;
+import com.backend.vofasbackend.datalayer.projections.TranscriptionSentimentRow;
+import com.backend.vofasbackend.datalayer.repositories.SentimentAnalysisRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cache of sentiment analysis results keyed by the hash of the transcription text. Short kiosk feedbacks repeat the
+ * same few texts ("çok güzel", "teşekkürler"), so most of them can be classified without calling the analyzer.
+ * <p>
+ * Lookups are made for a whole batch at once: the texts missing from the bounded in-memory cache are looked up in
+ * the stored analyses with a single query, so results survive evictions and restarts and are shared between nodes.
+ * The in-memory cache is filled with the results of the most frequent texts when the application starts. Hit and
+ * miss counts of the in-memory tier are published as the {@code cache.*} metrics of the {@code sentimentCache}
+ * cache, the database tier reports {@code vofas.sentiment.cache.store}, and {@code vofas.sentiment.cache.hit-ratio}
+ * is the share of lookups answered by either tier.
+ */
+@Slf4j
+@Component
+public class SentimentCache {
+
+    private final SentimentAnalysisRepository sentimentAnalysisRepository;
+    private final Cache<String, SentimentStateEnum> cache;
+    private final int warmUpSize;
+    private final Counter storeHits;
+    private final Counter storeMisses;
+    private final AtomicLong lookups = new AtomicLong();
+    private final AtomicLong hits = new AtomicLong();
+
+    public SentimentCache(SentimentAnalysisRepository sentimentAnalysisRepository,
+                          MeterRegistry meterRegistry,
+                          @Value("${VoFAS.sentiment.cache.max-size}") long maximumSize,
+                          @Value("${VoFAS.sentiment.cache.warm-up-size}") int warmUpSize) {
+        this.sentimentAnalysisRepository = sentimentAnalysisRepository;
+        this.warmUpSize = warmUpSize;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "sentimentCache");
+        this.storeHits = Counter.builder("vofas.sentiment.cache.store")
+                .tag("result", "hit")
+                .register(meterRegistry);
+        this.storeMisses = Counter.builder("vofas.sentiment.cache.store")
+                .tag("result", "miss")
+                .register(meterRegistry);
+        Gauge.builder("vofas.sentiment.cache.hit-ratio", this, SentimentCache::hitRatio)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Looks up the sentiment of a batch of transcription texts.
+     *
+     * @param transcriptionHashes the hashes of the texts
+     * @return the known sentiments by hash; texts never classified before are missing
+     */
+    public Map<String, SentimentStateEnum> findAll(Collection<String> transcriptionHashes) {
+        Set<String> hashes = Set.copyOf(transcriptionHashes);
+        Map<String, SentimentStateEnum> found = cache.getAll(hashes, this::loadFromStore);
+        lookups.addAndGet(hashes.size());
+        hits.addAndGet(found.size());
+        return found;
+    }
+
+    /**
+     * Records the sentiment of a transcription text.
+     */
+    public void put(String transcriptionHash, SentimentStateEnum sentimentState) {
+        if (transcriptionHash != null && sentimentState != null) {
+            cache.put(transcriptionHash, sentimentState);
+        }
+    }
+
+    /**
+     * Loads the results of the most frequent transcription texts, so the first batches after a restart hit the
+     * cache as well.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        if (warmUpSize <= 0) {
+            return;
+        }
+        int loaded = 0;
+        for (TranscriptionSentimentRow row : sentimentAnalysisRepository.findMostFrequentSentiments(PageRequest.of(0, warmUpSize))) {
+            // rows come most frequent first, a text classified differently over time keeps its most frequent result
+            if (cache.asMap().putIfAbsent(row.transcriptionHash(), row.sentimentState()) == null) {
+                loaded++;
+            }
+        }
+        log.info("Warmed up the sentiment cache with {} transcription texts", loaded);
+    }
+
+    double hitRatio() {
+        long lookupCount = lookups.get();
+        return lookupCount == 0 ? 0 : (double) hits.get() / lookupCount;
+    }
+
+    private Map<String, SentimentStateEnum> loadFromStore(Set<? extends String> transcriptionHashes) {
+        Map<String, SentimentStateEnum> stored = new HashMap<>();
+        for (TranscriptionSentimentRow row : sentimentAnalysisRepository.findSentimentsByTranscriptionHashes(Set.copyOf(transcriptionHashes))) {
+            stored.putIfAbsent(row.transcriptionHash(), row.sentimentState());
+        }
+        storeHits.increment(stored.size());
+        storeMisses.increment(transcriptionHashes.size() - stored.size());
+        return stored;
+    }
+}
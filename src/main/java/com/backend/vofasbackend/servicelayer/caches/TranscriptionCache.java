@@ -0,0 +1,99 @@
+package com.backend.vofasbackend.servicelayer.caches;
+
+import com.backend.vofasbackend.datalayer.repositories.TranscriptionRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Cache of transcription texts keyed by the SHA-256 hash of the transcribed audio file. Kiosks re-sending the same
+ * clip after a network retry produce the same file hash, so the transcription can be reused instead of calling the
+ * transcription model again.
+ * <p>
+ * Lookups go to a bounded in-memory cache first and fall back to the transcriptions already persisted through
+ * {@link TranscriptionRepository}, so entries survive restarts and evictions. Hit and miss counts of the in-memory
+ * tier are published as the {@code cache.*} metrics of the {@code transcriptionCache} cache; the database tier
+ * reports {@code vofas.transcription.cache.store}.
+ */
+@Component
+public class TranscriptionCache {
+
+    private final TranscriptionRepository transcriptionRepository;
+    private final Cache<String, String> cache;
+    private final Counter storeHits;
+    private final Counter storeMisses;
+
+    public TranscriptionCache(TranscriptionRepository transcriptionRepository,
+                              MeterRegistry meterRegistry,
+                              @Value("${VoFAS.transcription.cache.max-size}") long maximumSize,
+                              @Value("${VoFAS.transcription.cache.expire-after-access}") Duration expireAfterAccess) {
+        this.transcriptionRepository = transcriptionRepository;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterAccess(expireAfterAccess)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "transcriptionCache");
+        this.storeHits = Counter.builder("vofas.transcription.cache.store")
+                .tag("result", "hit")
+                .register(meterRegistry);
+        this.storeMisses = Counter.builder("vofas.transcription.cache.store")
+                .tag("result", "miss")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Looks up the transcription of an audio file.
+     *
+     * @param fileHash the hash of the audio file, may be null
+     * @return the transcription text if the same audio has been transcribed before
+     */
+    public Optional<String> find(String fileHash) {
+        if (fileHash == null) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(cache.get(fileHash, this::loadFromStore));
+    }
+
+    /**
+     * Records the transcription of an audio file.
+     *
+     * @param fileHash      the hash of the audio file, ignored if null
+     * @param transcription the transcription text
+     */
+    public void put(String fileHash, String transcription) {
+        if (fileHash != null && transcription != null) {
+            cache.put(fileHash, transcription);
+        }
+    }
+
+    /**
+     * Runs the pending evictions now instead of on the next cache operation.
+     */
+    void cleanUp() {
+        cache.cleanUp();
+    }
+
+    long estimatedSize() {
+        return cache.estimatedSize();
+    }
+
+    private String loadFromStore(String fileHash) {
+        List<String> transcriptions = transcriptionRepository.findTranscriptionsByFileHash(fileHash, PageRequest.of(0, 1));
+        if (transcriptions.isEmpty()) {
+            storeMisses.increment();
+            return null;
+        }
+        storeHits.increment();
+        return transcriptions.get(0);
+    }
+}
@@ -0,0 +1,44 @@
+package com.backend.vofasbackend.servicelayer.export;
+
+import com.backend.vofasbackend.exceptions.exceptions.InvalidFilterOptionException;
+import lombok.Getter;
+
+import java.util.Locale;
+
+/**
+ * The file formats feedbacks can be exported in.
+ */
+@Getter
+public enum ExportFormat {
+
+    /**
+     * One {@code FeedbackDTO} JSON object per line.
+     */
+    NDJSON("application/x-ndjson", "ndjson"),
+
+    /**
+     * Comma separated values with a header row, one feedback per row.
+     */
+    CSV("text/csv", "csv");
+
+    private final String contentType;
+    private final String extension;
+
+    ExportFormat(String contentType, String extension) {
+        this.contentType = contentType;
+        this.extension = extension;
+    }
+
+    /**
+     * Parses the {@code format} request parameter, ignoring case.
+     *
+     * @throws InvalidFilterOptionException if the value names no format
+     */
+    public static ExportFormat fromParameter(String value) throws InvalidFilterOptionException {
+        try {
+            return valueOf(value.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException | NullPointerException e) {
+            throw new InvalidFilterOptionException("format", value);
+        }
+    }
+}
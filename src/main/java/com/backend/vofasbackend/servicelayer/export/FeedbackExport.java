@@ -0,0 +1,23 @@
+package com.backend.vofasbackend.servicelayer.export;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * A validated export request, ready to be written to a response.
+ *
+ * @param contentType the media type of the written bytes
+ * @param fileName    the suggested name of the downloaded file
+ * @param body        writes the export, reading the feedbacks while it goes
+ */
+public record FeedbackExport(String contentType, String fileName, Body body) {
+
+    @FunctionalInterface
+    public interface Body {
+
+        /**
+         * Writes the whole export to {@code out}, flushing it periodically. The stream is not closed.
+         */
+        void writeTo(OutputStream out) throws IOException;
+    }
+}
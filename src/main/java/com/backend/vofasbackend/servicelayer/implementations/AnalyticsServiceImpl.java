@@ -0,0 +1,143 @@
+package com.backend.vofasbackend.servicelayer.implementations;
+
+import com.backend.vofasbackend.datalayer.enums.RollupGranularityEnum;
+import com.backend.vofasbackend.datalayer.projections.FeedbackRollupRow;
+import com.backend.vofasbackend.datalayer.repositories.FeedbackRollupRepository;
+import com.backend.vofasbackend.exceptions.exceptions.InvalidFilterOptionException;
+import com.backend.vofasbackend.presentationlayer.datatransferobjects.AnalyticsBucketDTO;
+import com.backend.vofasbackend.servicelayer.interfaces.AnalyticsService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+
+@Service
+public class AnalyticsServiceImpl implements AnalyticsService {
+
+    private final FeedbackRollupRepository feedbackRollupRepository;
+    private final int maxBuckets;
+
+    public AnalyticsServiceImpl(FeedbackRollupRepository feedbackRollupRepository,
+                                @Value("${VoFAS.analytics.max-buckets}") int maxBuckets) {
+        this.feedbackRollupRepository = feedbackRollupRepository;
+        this.maxBuckets = maxBuckets;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<AnalyticsBucketDTO> getRollups(String granularity, String startDate, String endDate, Long kioskID) throws InvalidFilterOptionException {
+        RollupGranularityEnum granularityEnum = parseGranularity(granularity);
+        DateRange range = parseRange(startDate, endDate);
+        long buckets = granularityEnum == RollupGranularityEnum.HOUR ? range.days() * 24 : range.days();
+        if (buckets > maxBuckets) {
+            throw new InvalidFilterOptionException("dateRange", "at most " + maxBuckets + " buckets can be requested");
+        }
+
+        List<FeedbackRollupRow> rows = feedbackRollupRepository.sumByBucket(granularityEnum, range.from(), range.to(), kioskID);
+        List<AnalyticsBucketDTO> series = new ArrayList<>((int) buckets);
+        Iterator<FeedbackRollupRow> iterator = rows.iterator();
+        FeedbackRollupRow row = iterator.hasNext() ? iterator.next() : null;
+        for (LocalDateTime bucketStart = range.from(); bucketStart.isBefore(range.to()); bucketStart = granularityEnum.next(bucketStart)) {
+            Totals totals = new Totals();
+            if (row != null && row.bucketStart().equals(bucketStart)) {
+                totals.add(row);
+                row = iterator.hasNext() ? iterator.next() : null;
+            }
+            series.add(totals.toDTO(bucketStart, kioskID));
+        }
+        return series;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public AnalyticsBucketDTO getSummary(String startDate, String endDate, Long kioskID) throws InvalidFilterOptionException {
+        DateRange range = parseRange(startDate, endDate);
+        if (range.days() > maxBuckets) {
+            throw new InvalidFilterOptionException("dateRange", "at most " + maxBuckets + " days can be summarized");
+        }
+
+        Totals totals = new Totals();
+        feedbackRollupRepository.sumByBucket(RollupGranularityEnum.DAY, range.from(), range.to(), kioskID).forEach(totals::add);
+        return totals.toDTO(range.from(), kioskID);
+    }
+
+    private static RollupGranularityEnum parseGranularity(String granularity) throws InvalidFilterOptionException {
+        try {
+            return RollupGranularityEnum.valueOf(granularity.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException | NullPointerException e) {
+            throw new InvalidFilterOptionException("granularity", granularity);
+        }
+    }
+
+    private static DateRange parseRange(String startDate, String endDate) throws InvalidFilterOptionException {
+        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("dd-MM-yyyy");
+        LocalDate end = LocalDate.now();
+        if (endDate != null && !endDate.isBlank()) {
+            try {
+                end = LocalDate.parse(endDate, formatter);
+            } catch (DateTimeParseException e) {
+                throw new InvalidFilterOptionException("endDate", endDate);
+            }
+        }
+        LocalDate start = end.minusDays(6);
+        if (startDate != null && !startDate.isBlank()) {
+            try {
+                start = LocalDate.parse(startDate, formatter);
+            } catch (DateTimeParseException e) {
+                throw new InvalidFilterOptionException("startDate", startDate);
+            }
+        }
+        if (end.isBefore(start)) {
+            throw new InvalidFilterOptionException("dateRange", "endDate must be later than or equal to startDate");
+        }
+        return new DateRange(start.atStartOfDay(), end.plusDays(1).atStartOfDay(), ChronoUnit.DAYS.between(start, end) + 1);
+    }
+
+    private record DateRange(LocalDateTime from, LocalDateTime to, long days) {
+    }
+
+    private static final class Totals {
+
+        private long feedbacks;
+        private long durationMillis;
+        private long transcribed;
+        private long transcriptionLatencyMillis;
+        private long positive;
+        private long neutral;
+        private long negative;
+
+        void add(FeedbackRollupRow row) {
+            feedbacks += row.feedbackCount();
+            durationMillis += row.totalDurationMillis();
+            transcribed += row.transcribedCount();
+            transcriptionLatencyMillis += row.totalTranscriptionLatencyMillis();
+            positive += row.positiveCount();
+            neutral += row.neutralCount();
+            negative += row.negativeCount();
+        }
+
+        AnalyticsBucketDTO toDTO(LocalDateTime bucketStart, Long kioskID) {
+            AnalyticsBucketDTO bucket = new AnalyticsBucketDTO();
+            bucket.setBucketStart(bucketStart);
+            bucket.setKioskId(kioskID);
+            bucket.setFeedbackCount(feedbacks);
+            bucket.setPositiveCount(positive);
+            bucket.setNeutralCount(neutral);
+            bucket.setNegativeCount(negative);
+            bucket.setTotalDurationSeconds(durationMillis / 1000.0);
+            bucket.setAverageDurationSeconds(feedbacks > 0 ? durationMillis / 1000.0 / feedbacks : null);
+            bucket.setTranscribedCount(transcribed);
+            bucket.setAverageTranscriptionLatencySeconds(transcribed > 0 ? transcriptionLatencyMillis / 1000.0 / transcribed : null);
+            return bucket;
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.backend.vofasbackend.servicelayer.implementations;
+
+import com.backend.vofasbackend.servicelayer.interfaces.AudioStore;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.*;
+import java.util.Locale;
+
+/**
+ * {@link AudioStore} that lays files out by content hash: {@code <root>/ab/cd/abcd...ef.mp3}. The two levels of
+ * two-character shards keep every directory small regardless of how many feedbacks are stored.
+ * <p>
+ * Files are hashed before they reach the store, by the upload spool, and renamed into place, or dropped if a file with
+ * the same hash already exists. A file on another file system is copied into a staging directory first.
+ */
+@Slf4j
+@Service
+public class ContentAddressedAudioStore implements AudioStore {
+
+    private static final String STAGING_DIRECTORY = ".staging";
+
+    private final Path root;
+    private final Path stagingDirectory;
+
+    public ContentAddressedAudioStore(@Value("${VoFAS.store.path}") String storePath) {
+        this.root = Paths.get(storePath);
+        this.stagingDirectory = root.resolve(STAGING_DIRECTORY);
+    }
+
+    @PostConstruct
+    public void init() throws IOException {
+        Files.createDirectories(stagingDirectory);
+        log.info("Audio store initialized at {}", root);
+    }
+
+    @Override
+    public StoredAudio adopt(Path file, String fileHash, String extension) throws IOException {
+        long size = Files.size(file);
+        try {
+            return place(file, fileHash, extension, size);
+        } catch (AtomicMoveNotSupportedException e) {
+            // the file is on another file system, copy it next to the store first
+            Path stagingFile = Files.createTempFile(stagingDirectory, "adopt-", ".part");
+            try {
+                Files.copy(file, stagingFile, StandardCopyOption.REPLACE_EXISTING);
+                StoredAudio storedAudio = place(stagingFile, fileHash, extension, size);
+                Files.delete(file);
+                return storedAudio;
+            } catch (IOException | RuntimeException copyFailure) {
+                Files.deleteIfExists(stagingFile);
+                throw copyFailure;
+            }
+        }
+    }
+
+    private StoredAudio place(Path file, String fileHash, String extension, long size) throws IOException {
+        Path path = resolve(fileHash, extension);
+        if (Files.exists(path)) {
+            Files.delete(file);
+            return new StoredAudio(path, fileHash, size, true);
+        }
+        Files.createDirectories(path.getParent());
+        Files.move(file, path, StandardCopyOption.ATOMIC_MOVE);
+        return new StoredAudio(path, fileHash, size, false);
+    }
+
+    @Override
+    public Path resolve(String fileHash, String extension) {
+        return root.resolve(fileHash.substring(0, 2))
+                .resolve(fileHash.substring(2, 4))
+                .resolve(fileHash + extension.toLowerCase(Locale.ROOT));
+    }
+}
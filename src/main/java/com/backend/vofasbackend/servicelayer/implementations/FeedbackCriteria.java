@@ -0,0 +1,57 @@
+package com.backend.vofasbackend.servicelayer.implementations;
+
+import com.backend.vofasbackend.datalayer.enums.FeedbackStateEnum;
+import com.backend.vofasbackend.datalayer.enums.SentimentStateEnum;
+import com.backend.vofasbackend.exceptions.exceptions.InvalidFilterOptionException;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+
+/**
+ * The filters shared by the feedback listings, the stream and the export, parsed from their request parameters.
+ * Null components do not filter.
+ */
+record FeedbackCriteria(LocalDateTime start, LocalDateTime end, FeedbackStateEnum feedbackState, SentimentStateEnum sentimentState) {
+
+    static FeedbackCriteria parse(String startDate, String endDate, String feedbackState, String sentimentState) throws InvalidFilterOptionException {
+        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("dd-MM-yyyy");
+        LocalDateTime start = null;
+        if (startDate != null && !startDate.isBlank()) {
+            try {
+                start = LocalDate.parse(startDate, formatter).atStartOfDay();
+            } catch (DateTimeParseException e) {
+                throw new InvalidFilterOptionException("startDate", startDate);
+            }
+        }
+        LocalDateTime end = null;
+        if (endDate != null && !endDate.isBlank()) {
+            try {
+                end = LocalDate.parse(endDate, formatter).atStartOfDay();
+            } catch (DateTimeParseException e) {
+                throw new InvalidFilterOptionException("endDate", endDate);
+            }
+        }
+        if (start != null && end != null && end.isBefore(start)) {
+            throw new InvalidFilterOptionException("dateRange", "endDate must be later than or equal to startDate");
+        }
+        FeedbackStateEnum feedbackStateEnum = null;
+        if (feedbackState != null && !feedbackState.isBlank()) {
+            try {
+                feedbackStateEnum = FeedbackStateEnum.valueOf(feedbackState.toUpperCase());
+            } catch (IllegalArgumentException e) {
+                throw new InvalidFilterOptionException("feedbackState", feedbackState);
+            }
+        }
+        SentimentStateEnum sentimentStateEnum = null;
+        if (sentimentState != null && !sentimentState.isBlank()) {
+            try {
+                sentimentStateEnum = SentimentStateEnum.valueOf(sentimentState.toUpperCase());
+            } catch (IllegalArgumentException e) {
+                throw new InvalidFilterOptionException("sentimentState", sentimentState);
+            }
+        }
+        return new FeedbackCriteria(start, end, feedbackStateEnum, sentimentStateEnum);
+    }
+}
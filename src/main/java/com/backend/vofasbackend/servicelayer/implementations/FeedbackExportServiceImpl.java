@@ -0,0 +1,163 @@
+package com.backend.vofasbackend.servicelayer.implementations;
+
+import com.backend.vofasbackend.datalayer.projections.FeedbackListingRow;
+import com.backend.vofasbackend.datalayer.repositories.FeedbackRepository;
+import com.backend.vofasbackend.exceptions.exceptions.InvalidFilterOptionException;
+import com.backend.vofasbackend.presentationlayer.datatransferobjects.FeedbackDTO;
+import com.backend.vofasbackend.presentationlayer.datatransferobjects.SentimentAnalysisDTO;
+import com.backend.vofasbackend.presentationlayer.datatransferobjects.TranscriptionDTO;
+import com.backend.vofasbackend.servicelayer.export.ExportFormat;
+import com.backend.vofasbackend.servicelayer.export.FeedbackExport;
+import com.backend.vofasbackend.servicelayer.interfaces.FeedbackExportService;
+import com.backend.vofasbackend.servicelayer.mappers.FeedbackMapper;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Iterator;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+@Service
+public class FeedbackExportServiceImpl implements FeedbackExportService {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final DateTimeFormatter TIMESTAMP = DateTimeFormatter.ofPattern("dd-MM-yyyy HH:mm:ss");
+    private static final String CSV_HEADER = "feedbackId,feedbackReceivedAt,feedbackDurationSeconds,feedbackState," +
+            "kioskId,kioskName,transcription,transcriptionRequestedAt,transcriptionReceivedAt," +
+            "sentimentState,analysisRequestedAt,filePath,fileHash";
+
+    private final FeedbackRepository feedbackRepository;
+    private final ObjectWriter feedbackWriter;
+    private final TransactionTemplate readOnlyTransaction;
+    private final int flushEvery;
+
+    public FeedbackExportServiceImpl(FeedbackRepository feedbackRepository,
+                                     ObjectMapper objectMapper,
+                                     PlatformTransactionManager transactionManager,
+                                     @Value("${VoFAS.export.flush-every}") int flushEvery) {
+        this.feedbackRepository = feedbackRepository;
+        // rows are flushed in batches below and the response must stay open between rows
+        this.feedbackWriter = objectMapper.writerFor(FeedbackDTO.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE)
+                .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.flushEvery = flushEvery;
+    }
+
+    @Override
+    public FeedbackExport prepareExport(String format, boolean gzip, String startDate, String endDate, String feedbackState,
+                                        String sentimentState, Long kioskID) throws InvalidFilterOptionException {
+        ExportFormat exportFormat = ExportFormat.fromParameter(format);
+        FeedbackCriteria criteria = FeedbackCriteria.parse(startDate, endDate, feedbackState, sentimentState);
+        String fileName = "feedbacks." + exportFormat.getExtension() + (gzip ? ".gz" : "");
+        String contentType = gzip ? "application/gzip" : exportFormat.getContentType() + ";charset=UTF-8";
+        return new FeedbackExport(contentType, fileName, out -> write(exportFormat, gzip, criteria, kioskID, out));
+    }
+
+    private void write(ExportFormat format, boolean gzip, FeedbackCriteria criteria, Long kioskID, OutputStream out) throws IOException {
+        GZIPOutputStream gzipStream = gzip ? new GZIPOutputStream(out, BUFFER_SIZE, true) : null;
+        Writer writer = new BufferedWriter(new OutputStreamWriter(gzipStream != null ? gzipStream : out, StandardCharsets.UTF_8), BUFFER_SIZE);
+        try {
+            readOnlyTransaction.executeWithoutResult(status -> {
+                try (Stream<FeedbackListingRow> rows = feedbackRepository.streamFeedbacksByCriteria(criteria.feedbackState(),
+                        kioskID, criteria.sentimentState(), criteria.start(), criteria.end())) {
+                    writeRows(format, rows.iterator(), writer);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        writer.flush();
+        if (gzipStream != null) {
+            gzipStream.finish();
+        }
+        out.flush();
+    }
+
+    private void writeRows(ExportFormat format, Iterator<FeedbackListingRow> rows, Writer writer) throws IOException {
+        if (format == ExportFormat.CSV) {
+            writer.write(CSV_HEADER);
+            writer.write("\r\n");
+        }
+        long written = 0;
+        while (rows.hasNext()) {
+            FeedbackDTO feedbackDTO = FeedbackMapper.mapFeedbackListingRowToFeedbackDTO(rows.next(), new FeedbackDTO(), new TranscriptionDTO(), new SentimentAnalysisDTO());
+            if (format == ExportFormat.CSV) {
+                writeCsvRow(feedbackDTO, writer);
+            } else {
+                feedbackWriter.writeValue(writer, feedbackDTO);
+                writer.write('\n');
+            }
+            if (++written % flushEvery == 0) {
+                // push what has been written so far to the client instead of holding the buffers until the end
+                writer.flush();
+            }
+        }
+    }
+
+    private static void writeCsvRow(FeedbackDTO feedbackDTO, Writer writer) throws IOException {
+        TranscriptionDTO transcriptionDTO = feedbackDTO.getTranscriptionDTO();
+        SentimentAnalysisDTO sentimentAnalysisDTO = feedbackDTO.getSentimentAnalysisDTO();
+        writeCsvCells(writer,
+                feedbackDTO.getFeedbackId(),
+                timestamp(feedbackDTO.getFeedbackReceivedAt()),
+                feedbackDTO.getFeedbackDuration() != null ? feedbackDTO.getFeedbackDuration().toSecondOfDay() : null,
+                feedbackDTO.getFeedbackState(),
+                feedbackDTO.getFeedbackSource() != null ? feedbackDTO.getFeedbackSource().getKioskId() : null,
+                feedbackDTO.getFeedbackSource() != null ? feedbackDTO.getFeedbackSource().getKioskName() : null,
+                transcriptionDTO != null ? transcriptionDTO.getTranscription() : null,
+                transcriptionDTO != null ? timestamp(transcriptionDTO.getTranscriptionRequestedAt()) : null,
+                transcriptionDTO != null ? timestamp(transcriptionDTO.getTranscriptionReceivedAt()) : null,
+                sentimentAnalysisDTO != null ? sentimentAnalysisDTO.getSentimentState() : null,
+                sentimentAnalysisDTO != null ? timestamp(sentimentAnalysisDTO.getAnalysisRequestedAt()) : null,
+                feedbackDTO.getFilePath(),
+                feedbackDTO.getFileHash());
+    }
+
+    private static void writeCsvCells(Writer writer, Object... cells) throws IOException {
+        for (int i = 0; i < cells.length; i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            if (cells[i] != null) {
+                writer.write(csvCell(cells[i].toString()));
+            }
+        }
+        writer.write("\r\n");
+    }
+
+    /**
+     * Quotes a cell if needed (RFC 4180) and defuses values a spreadsheet would run as a formula.
+     */
+    static String csvCell(String value) {
+        if (!value.isEmpty() && "=+-@\t\r".indexOf(value.charAt(0)) >= 0) {
+            value = "'" + value;
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    private static String timestamp(LocalDateTime time) {
+        return time != null ? TIMESTAMP.format(time) : null;
+    }
+}
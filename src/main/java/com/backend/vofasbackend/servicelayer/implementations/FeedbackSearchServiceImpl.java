@@ -0,0 +1,104 @@
+package com.backend.vofasbackend.servicelayer.implementations;
+
+import com.backend.vofasbackend.datalayer.projections.FeedbackListingRow;
+import com.backend.vofasbackend.datalayer.repositories.FeedbackRepository;
+import com.backend.vofasbackend.exceptions.exceptions.InvalidFilterOptionException;
+import com.backend.vofasbackend.presentationlayer.datatransferobjects.FeedbackDTO;
+import com.backend.vofasbackend.presentationlayer.datatransferobjects.FeedbackSliceDTO;
+import com.backend.vofasbackend.presentationlayer.datatransferobjects.SentimentAnalysisDTO;
+import com.backend.vofasbackend.presentationlayer.datatransferobjects.TranscriptionDTO;
+import com.backend.vofasbackend.servicelayer.interfaces.FeedbackSearchService;
+import com.backend.vofasbackend.servicelayer.mappers.FeedbackMapper;
+import com.backend.vofasbackend.servicelayer.search.TranscriptionSearchIndex;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Answers searches from the {@link TranscriptionSearchIndex} and loads the matching feedbacks from the database.
+ * <p>
+ * The index only holds the values that never change after transcription. The feedback and sentiment states are
+ * checked against the database instead: the best matches are read in windows and filtered until the page is full,
+ * so the index never has to follow the sentiment analysis.
+ */
+@Service
+public class FeedbackSearchServiceImpl implements FeedbackSearchService {
+
+    // upper bound on the matches a filtered search looks at, keeps broad queries with rare states cheap
+    static final int MAX_SCANNED_HITS = 10_000;
+
+    private final TranscriptionSearchIndex transcriptionSearchIndex;
+    private final FeedbackRepository feedbackRepository;
+    private final int pageSize;
+    private final int maxPageSize;
+
+    public FeedbackSearchServiceImpl(TranscriptionSearchIndex transcriptionSearchIndex,
+                                     FeedbackRepository feedbackRepository,
+                                     @Value("${VoFAS.pagination.size}") int pageSize,
+                                     @Value("${VoFAS.pagination.max-size}") int maxPageSize) {
+        this.transcriptionSearchIndex = transcriptionSearchIndex;
+        this.feedbackRepository = feedbackRepository;
+        this.pageSize = pageSize;
+        this.maxPageSize = maxPageSize;
+    }
+
+    @Override
+    public FeedbackSliceDTO searchFeedbacks(String query, int pageNumber, Integer size, String startDate, String endDate,
+                                            String feedbackState, String sentimentState, Long kioskID) throws InvalidFilterOptionException {
+        if (pageNumber < 0) {
+            throw new InvalidFilterOptionException("page-no", Integer.toString(pageNumber));
+        }
+        if (size != null && size < 1) {
+            throw new InvalidFilterOptionException("size", size.toString());
+        }
+        int sliceSize = size == null ? pageSize : Math.min(size, maxPageSize);
+        FeedbackCriteria criteria = FeedbackCriteria.parse(startDate, endDate, feedbackState, sentimentState);
+        boolean filteredInDatabase = criteria.feedbackState() != null || criteria.sentimentState() != null;
+
+        // one match beyond the page tells whether there is a next page
+        int skip = pageNumber * sliceSize;
+        int wanted = sliceSize + 1;
+        int window = filteredInDatabase ? Math.max(100, 4 * wanted) : wanted;
+        int offset = filteredInDatabase ? 0 : skip;
+        List<FeedbackListingRow> matches = new ArrayList<>(wanted);
+        long totalHits;
+        while (true) {
+            TranscriptionSearchIndex.SearchHits hits = transcriptionSearchIndex.search(query, criteria.start(), criteria.end(), kioskID, offset, window);
+            totalHits = hits.totalHits();
+            for (FeedbackListingRow row : loadInRankOrder(hits.feedbackIDs(), criteria)) {
+                if (skip > 0 && filteredInDatabase) {
+                    skip--;
+                } else if (matches.size() < wanted) {
+                    matches.add(row);
+                }
+            }
+            offset += hits.feedbackIDs().size();
+            if (matches.size() >= wanted || hits.feedbackIDs().size() < window || offset >= MAX_SCANNED_HITS) {
+                break;
+            }
+        }
+
+        boolean hasNext = matches.size() > sliceSize;
+        List<FeedbackDTO> content = matches.subList(0, Math.min(sliceSize, matches.size())).stream()
+                .map(row -> FeedbackMapper.mapFeedbackListingRowToFeedbackDTO(row, new FeedbackDTO(), new TranscriptionDTO(), new SentimentAnalysisDTO()))
+                .toList();
+        return new FeedbackSliceDTO(content, sliceSize, hasNext, null, filteredInDatabase ? null : totalHits);
+    }
+
+    private List<FeedbackListingRow> loadInRankOrder(List<Long> feedbackIDs, FeedbackCriteria criteria) {
+        if (feedbackIDs.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, FeedbackListingRow> rows = feedbackRepository.findFeedbacksByIDs(feedbackIDs, criteria.feedbackState(), criteria.sentimentState())
+                .stream()
+                .collect(Collectors.toMap(FeedbackListingRow::feedbackID, Function.identity()));
+        // feedbacks removed since they were indexed are skipped like the ones that do not match the filters
+        return feedbackIDs.stream().map(rows::get).filter(Objects::nonNull).toList();
+    }
+}
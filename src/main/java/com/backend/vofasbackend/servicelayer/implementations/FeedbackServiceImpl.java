@@ -2,199 +2,363 @@ package com.backend.vofasbackend.servicelayer.implementations;
 
 import com.backend.vofasbackend.contants.FeedbackConstants;
 import com.backend.vofasbackend.datalayer.entities.FeedbackEntity;
+import com.backend.vofasbackend.datalayer.entities.KioskEntity;
 import com.backend.vofasbackend.datalayer.entities.TranscriptionEntity;
+import com.backend.vofasbackend.datalayer.entities.ValidationTokenEntity;
 import com.backend.vofasbackend.datalayer.enums.FeedbackStateEnum;
-import com.backend.vofasbackend.datalayer.enums.SentimentStateEnum;
+import com.backend.vofasbackend.datalayer.projections.FeedbackListingRow;
 import com.backend.vofasbackend.datalayer.repositories.FeedbackRepository;
-import com.backend.vofasbackend.datalayer.repositories.TranscriptionRepository;
 import com.backend.vofasbackend.exceptions.exceptions.InvalidFilterOptionException;
+import com.backend.vofasbackend.exceptions.exceptions.InvalidValidationTokenException;
 import com.backend.vofasbackend.exceptions.exceptions.ResourceNotFoundException;
 import com.backend.vofasbackend.exceptions.exceptions.UnsupportedMediaTypeException;
 import com.backend.vofasbackend.presentationlayer.datatransferobjects.*;
+import com.backend.vofasbackend.servicelayer.audio.AudioPreprocessor;
+import com.backend.vofasbackend.servicelayer.audio.AudioProbe;
+import com.backend.vofasbackend.servicelayer.caches.FeedbackDetailCache;
+import com.backend.vofasbackend.servicelayer.caches.TranscriptionCache;
+import com.backend.vofasbackend.servicelayer.interfaces.AudioStore;
+import com.backend.vofasbackend.servicelayer.interfaces.FeedbackEventPublisher;
 import com.backend.vofasbackend.servicelayer.interfaces.FeedbackService;
+import com.backend.vofasbackend.servicelayer.interfaces.FeedbackStateMachine;
+import com.backend.vofasbackend.servicelayer.interfaces.FeedbackStreamBus;
 import com.backend.vofasbackend.servicelayer.mappers.FeedbackMapper;
 import com.backend.vofasbackend.servicelayer.mappers.KioskMapper;
 import com.backend.vofasbackend.servicelayer.mappers.ValidationTokenMapper;
+import com.backend.vofasbackend.servicelayer.messages.FeedbackReceivedMessage;
+import com.backend.vofasbackend.servicelayer.sentiment.SentimentStage;
+import com.backend.vofasbackend.servicelayer.spool.StagedUpload;
+import com.backend.vofasbackend.servicelayer.spool.UploadSpool;
+import com.backend.vofasbackend.servicelayer.streaming.FeedbackEventLog;
+import com.backend.vofasbackend.servicelayer.streaming.StreamFilter;
+import com.backend.vofasbackend.servicelayer.streaming.StreamOverflowPolicy;
+import com.backend.vofasbackend.servicelayer.streaming.StreamPayload;
+import com.backend.vofasbackend.servicelayer.tokens.ValidationTokenRegistry;
+import com.backend.vofasbackend.servicelayer.tools.FeedbackCursor;
 import com.backend.vofasbackend.servicelayer.tools.HashTool;
-import com.mpatric.mp3agic.Mp3File;
-import jakarta.annotation.PostConstruct;
+import com.backend.vofasbackend.servicelayer.transcription.ChunkedTranscriber;
 import jakarta.transaction.Transactional;
-import org.springframework.ai.audio.transcription.AudioTranscriptionPrompt;
-import org.springframework.ai.audio.transcription.AudioTranscriptionResponse;
-import org.springframework.ai.openai.OpenAiAudioTranscriptionModel;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.core.io.FileSystemResource;
-import org.springframework.core.io.Resource;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
-import org.springframework.web.multipart.MultipartFile;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
-import reactor.core.publisher.Sinks;
 import reactor.core.scheduler.Schedulers;
+import reactor.util.retry.Retry;
 
-import javax.sound.sampled.AudioFileFormat;
-import javax.sound.sampled.AudioSystem;
 import java.io.IOException;
+import java.io.InputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.nio.file.Paths;
 import java.time.Duration;
-import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
-import java.time.format.DateTimeParseException;
+import java.util.List;
+import java.util.Locale;
 import java.util.Optional;
 import java.util.UUID;
 
+@Slf4j
 @Service
 public class FeedbackServiceImpl implements FeedbackService {
 
-    private final Sinks.Many<FeedbackDTO> feedbackSink;
+    private final FeedbackEventLog feedbackEventLog;
+    private final FeedbackStreamBus feedbackStreamBus;
     private final FeedbackRepository feedbackRepository;
-    private final TranscriptionRepository transcriptionRepository;
-    private final OpenAiAudioTranscriptionModel transcriptionModel;
-
-    @Value("${VoFAS.store.path}")
-    private String filePath;
-
-
-    @PostConstruct
-    public void init() {
-        Path directoryPath = Paths.get(filePath);
-        if (!Files.exists(directoryPath)) {
-            try {
-                Files.createDirectories(directoryPath);
-                System.out.println("Directory created at: " + directoryPath);
-            } catch (IOException e) {
-                System.err.println("Failed to create directory: " + e.getMessage());
-                System.exit(-1);
-            }
-        } else {
-            System.out.println("Directory already exists at: " + directoryPath);
-        }
-    }
+    private final FeedbackStateMachine feedbackStateMachine;
+    private final AudioProbe audioProbe;
+    private final AudioPreprocessor audioPreprocessor;
+    private final ChunkedTranscriber chunkedTranscriber;
+    private final FeedbackEventPublisher feedbackEventPublisher;
+    private final AudioStore audioStore;
+    private final TranscriptionCache transcriptionCache;
+    private final FeedbackDetailCache feedbackDetailCache;
+    private final SentimentStage sentimentStage;
+    private final ValidationTokenRegistry validationTokenRegistry;
+    private final UploadSpool uploadSpool;
+
+    @Value("${VoFAS.pagination.size}")
+    private int pageSize;
+
+    @Value("${VoFAS.pagination.max-size}")
+    private int maxPageSize;
+
+    @Value("${VoFAS.transcription.claim-lease}")
+    private Duration transcriptionClaimLease;
 
     @Autowired
-    public FeedbackServiceImpl(FeedbackRepository feedbackRepository, TranscriptionRepository transcriptionRepository, OpenAiAudioTranscriptionModel openAiAudioTranscriptionModel) {
+    public FeedbackServiceImpl(FeedbackRepository feedbackRepository, FeedbackStateMachine feedbackStateMachine, AudioPreprocessor audioPreprocessor, ChunkedTranscriber chunkedTranscriber, FeedbackEventPublisher feedbackEventPublisher, AudioStore audioStore, AudioProbe audioProbe, TranscriptionCache transcriptionCache, FeedbackDetailCache feedbackDetailCache, FeedbackEventLog feedbackEventLog, FeedbackStreamBus feedbackStreamBus, SentimentStage sentimentStage, ValidationTokenRegistry validationTokenRegistry, UploadSpool uploadSpool) {
         this.feedbackRepository = feedbackRepository;
-        this.transcriptionRepository = transcriptionRepository;
-        this.transcriptionModel = openAiAudioTranscriptionModel;
-        feedbackSink = Sinks.many().multicast().onBackpressureBuffer();
+        this.feedbackStateMachine = feedbackStateMachine;
+        this.audioPreprocessor = audioPreprocessor;
+        this.chunkedTranscriber = chunkedTranscriber;
+        this.feedbackEventPublisher = feedbackEventPublisher;
+        this.audioStore = audioStore;
+        this.audioProbe = audioProbe;
+        this.transcriptionCache = transcriptionCache;
+        this.feedbackDetailCache = feedbackDetailCache;
+        this.feedbackEventLog = feedbackEventLog;
+        this.feedbackStreamBus = feedbackStreamBus;
+        this.sentimentStage = sentimentStage;
+        this.validationTokenRegistry = validationTokenRegistry;
+        this.uploadSpool = uploadSpool;
     }
 
 
     @Override
-    public Mono<Void> saveFeedback(MultipartFile file, UUID validationToken) throws UnsupportedMediaTypeException {
-
-        String contentType = file.getContentType();
-        String filename = file.getOriginalFilename();
-
-        if (!(contentType.equals("audio/mpeg") || contentType.equals("audio/mp4") || contentType.equals("audio/wav") ||
-                filename.toLowerCase().endsWith(".mp3") || filename.toLowerCase().endsWith(".m4a") || filename.toLowerCase().endsWith(".wav"))) {
+    public Long saveFeedback(InputStream content, String contentType, String filename, UUID validationToken) throws UnsupportedMediaTypeException, InvalidValidationTokenException, IOException {
+        String extension = audioExtension(contentType, filename);
+        if (extension == null) {
             throw new UnsupportedMediaTypeException(FeedbackConstants.MESSAGE_415);
         }
-        return persistFeedbackToDatabase(validationToken)
-                .flatMap(feedbackID ->
-                        saveFile(file, feedbackID)
-                                .then(transcribeFeedback(feedbackID))
-                                .subscribeOn(Schedulers.boundedElastic())
-                )
-                .then();
+        ValidationTokenRegistry.ClaimedToken claimedToken = validationTokenRegistry.consume(validationToken);
+        StagedUpload upload;
+        try {
+            UploadSpool.SpooledAudio spooledAudio = uploadSpool.write(content, extension);
+            Duration feedbackDuration = audioProbe.probe(spooledAudio.path())
+                    .map(AudioProbe.AudioInfo::duration)
+                    .orElse(null);
+            upload = new StagedUpload(spooledAudio.spoolID(), extension, spooledAudio.fileHash(), spooledAudio.size(),
+                    feedbackDuration, claimedToken.validationToken(), claimedToken.kioskID(), LocalDateTime.now());
+            uploadSpool.stage(upload);
+        } catch (IOException | RuntimeException e) {
+            validationTokenRegistry.release(claimedToken);
+            throw e;
+        }
 
+        Long feedbackID;
+        try {
+            feedbackID = registerFeedback(upload, claimedToken);
+        } catch (RuntimeException e) {
+            // the client is told the upload failed, so it must not be replayed either
+            uploadSpool.discard(upload);
+            validationTokenRegistry.release(claimedToken);
+            throw e;
+        }
+        drainLater(upload, feedbackID);
+        return feedbackID;
     }
 
-    public Mono<Long> persistFeedbackToDatabase(UUID validationToken) {
-        return Mono.fromCallable(() -> {
-            FeedbackEntity feedbackEntity = new FeedbackEntity();
-            feedbackEntity.setFeedbackReceivedAt(LocalDateTime.now());
-            feedbackEntity.setFeedbackState(FeedbackStateEnum.RECEIVED);
-            feedbackEntity.setTranscription(null);
-            feedbackEntity.setSentimentAnalysis(null);
-            feedbackEntity.setFeedbackSource(null);
-            feedbackEntity.setValidationToken(null);
-            FeedbackEntity savedFeedback = feedbackRepository.save(feedbackEntity);
-            return savedFeedback.getFeedbackID();
-        });
+    /**
+     * Creates the feedbacks of the uploads that were staged but not drained when the application last stopped, and
+     * drains them. A feedback that was already created for an upload is looked up through its validation token. The
+     * token of an upload was used before the upload was staged, so it is not consumed again.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void drainSpooledUploads() {
+        for (StagedUpload upload : uploadSpool.pending()) {
+            try {
+                Optional<Long> feedbackID = feedbackRepository.findFeedbackIDByValidationToken(upload.validationToken());
+                if (feedbackID.isPresent()) {
+                    drainLater(upload, feedbackID.get());
+                } else {
+                    ValidationTokenRegistry.ClaimedToken claimedToken = new ValidationTokenRegistry.ClaimedToken(
+                            upload.validationToken(), upload.kioskID(), upload.receivedAt());
+                    drainLater(upload, registerFeedback(upload, claimedToken));
+                }
+            } catch (RuntimeException e) {
+                log.error("Could not recover spooled upload {}", upload.spoolID(), e);
+            }
+        }
     }
 
+    /**
+     * Inserts the feedback of a staged upload with all of its audio details in a single statement, linked to the
+     * validation token it was uploaded with and to that token's kiosk. The audio path is where the upload will be
+     * once it is drained.
+     *
+     * @return the id of the feedback
+     */
+    private Long registerFeedback(StagedUpload upload, ValidationTokenRegistry.ClaimedToken claimedToken) {
+        FeedbackEntity feedbackEntity = new FeedbackEntity();
+        feedbackEntity.setFeedbackReceivedAt(upload.receivedAt());
+        feedbackEntity.setFilePath(audioStore.resolve(upload.fileHash(), upload.extension()).toString());
+        feedbackEntity.setFile_hash(upload.fileHash());
+        feedbackEntity.setFeedbackDuration(upload.feedbackDuration());
+        feedbackEntity.setTranscription(null);
+        feedbackEntity.setSentimentAnalysis(null);
+        KioskEntity kioskEntity = new KioskEntity();
+        kioskEntity.setKioskID(claimedToken.kioskID());
+        feedbackEntity.setFeedbackSource(kioskEntity);
+        ValidationTokenEntity validationTokenEntity = new ValidationTokenEntity();
+        validationTokenEntity.setValidationToken(claimedToken.validationToken());
+        feedbackEntity.setValidationToken(validationTokenEntity);
+        Long feedbackID = feedbackStateMachine.register(feedbackEntity);
+        validationTokenRegistry.markUsed(claimedToken, feedbackID);
+        return feedbackID;
+    }
 
-    private Mono<Long> saveFile(MultipartFile file, Long feedbackId) {
-        return Mono.fromCallable(() -> {
-            try {
-                String originalFilename = file.getOriginalFilename();
-                String fileExtension = originalFilename.substring(originalFilename.lastIndexOf("."));
-                String newFilename = "feedback_" + feedbackId + fileExtension;
-                Path path = Paths.get(filePath, newFilename);
-                Files.createDirectories(path.getParent());
-                file.transferTo(path.toFile());
-
-                String contentType = file.getContentType();
-                String filename = file.getOriginalFilename();
-                Duration feedbackDuration = null;
-                if(contentType.equals("audio/mpeg") || filename.toLowerCase().endsWith(".mp3")){
-                    Mp3File mp3File = new Mp3File(path);
-                    feedbackDuration = Duration.ofSeconds(mp3File.getLengthInSeconds());
-                }else if(contentType.equals("audio/wav") || filename.toLowerCase().endsWith(".wav")){
-                    AudioFileFormat audioFileFormat = AudioSystem.getAudioFileFormat(path.toFile());
-                    feedbackDuration = Duration.ofSeconds(Math.round(audioFileFormat.getFrameLength()  / audioFileFormat.getFormat().getFrameRate()));
-                }
+    /**
+     * Moves a staged upload into the audio store and publishes the "feedback received" message, off the request
+     * thread. A failed drain is retried and otherwise left in the spool for the next start.
+     */
+    private void drainLater(StagedUpload upload, Long feedbackID) {
+        Mono.fromCallable(() -> drain(upload, feedbackID))
+                .subscribeOn(Schedulers.boundedElastic())
+                .retryWhen(Retry.backoff(3, Duration.ofSeconds(1)))
+                .subscribe(feedbackEventPublisher::publishFeedbackReceived,
+                        error -> log.error("Could not drain spooled upload {} of feedback {}", upload.spoolID(), feedbackID, error));
+    }
 
+    private FeedbackReceivedMessage drain(StagedUpload upload, Long feedbackID) throws IOException {
+        Path spooledFile = uploadSpool.pathOf(upload);
+        // the file is gone if it was moved just before the node stopped
+        Path path = Files.exists(spooledFile)
+                ? audioStore.adopt(spooledFile, upload.fileHash(), upload.extension()).path()
+                : audioStore.resolve(upload.fileHash(), upload.extension());
+        uploadSpool.drained(upload);
+        return new FeedbackReceivedMessage(feedbackID, LocalDateTime.now(), upload.receivedAt(), path.toString(),
+                upload.fileHash(), upload.feedbackDuration(), upload.kioskID());
+    }
 
-                    Optional<FeedbackEntity> feedbackEntityOptional = feedbackRepository.getFeedbackEntityByFeedbackID(feedbackId);
-                if (feedbackEntityOptional.isPresent()) {
-                    FeedbackEntity feedbackEntity = feedbackEntityOptional.get();
-                    feedbackEntity.setFilePath(path.toString());
-                    feedbackEntity.setFile_hash(HashTool.hashFile(path.toFile()));
-                    feedbackEntity.setFeedbackDuration(feedbackDuration);
-                    feedbackRepository.save(feedbackEntity);
+    /**
+     * @return the extension to store an upload with, taken from its file name or else from its content type, or null
+     * if the upload is not a supported audio format
+     */
+    private static String audioExtension(String contentType, String filename) {
+        if (filename != null) {
+            String lowerCaseFilename = filename.toLowerCase(Locale.ROOT);
+            for (String extension : List.of(".mp3", ".m4a", ".wav")) {
+                if (lowerCaseFilename.endsWith(extension)) {
+                    return extension;
                 }
-                return feedbackId;
-                // TODO take a look here
-            } catch (IOException e) {
-                throw new RuntimeException("Failed to save feedback file", e);
             }
-        });
+        }
+        String mediaType = contentType == null ? "" : contentType.split(";")[0].trim().toLowerCase(Locale.ROOT);
+        return switch (mediaType) {
+            case "audio/mpeg" -> ".mp3";
+            case "audio/mp4" -> ".m4a";
+            case "audio/wav" -> ".wav";
+            default -> null;
+        };
     }
 
-    public Mono<Void> transcribeFeedback(Long feedbackID) {
+    @Override
+    public Mono<Void> transcribeFeedback(FeedbackReceivedMessage message) {
         return Mono.fromRunnable(() -> {
+            FeedbackReceivedMessage feedback = message.hasAudioDetails() ? message : loadAudioDetails(message);
+            if (feedback == null) {
+                return;
+            }
+            Long feedbackID = feedback.getFeedbackID();
+            if (!claimTranscription(feedbackID)) {
+                // redelivered message, the feedback is being or has already been transcribed
+                return;
+            }
 
-            Optional<FeedbackEntity> savedFeedback = feedbackRepository.getFeedbackEntityByFeedbackID(feedbackID);
-            if (savedFeedback.isPresent()) {
-                FeedbackEntity feedbackEntity = savedFeedback.get();
-                feedbackEntity.setFeedbackState(FeedbackStateEnum.WAITING_FOR_TRANSCRIPTION);
-                Resource resource = new FileSystemResource(feedbackEntity.getFilePath());
-                TranscriptionEntity transcriptionEntity = new TranscriptionEntity();
+            TranscriptionEntity transcriptionEntity = new TranscriptionEntity();
+            try {
                 transcriptionEntity.setTranscriptionRequestedAt(LocalDateTime.now());
-                AudioTranscriptionResponse response = transcriptionModel.call(new AudioTranscriptionPrompt(resource));
+                Optional<String> cachedTranscription = transcriptionCache.find(feedback.getFileHash());
+                if (cachedTranscription.isPresent()) {
+                    transcriptionEntity.setTranscription(cachedTranscription.get());
+                } else {
+                    AudioPreprocessor.PreparedAudio preparedAudio = prepareAudio(feedback.getFilePath());
+                    Duration duration = preparedAudio.duration() != null ? preparedAudio.duration() : feedback.getFeedbackDuration();
+                    String transcription = chunkedTranscriber.transcribe(preparedAudio.path(), duration);
+                    transcriptionEntity.setTranscription(transcription);
+                    transcriptionCache.put(feedback.getFileHash(), transcriptionEntity.getTranscription());
+                }
                 transcriptionEntity.setTranscriptionReceivedAt(LocalDateTime.now());
-                transcriptionEntity.setTranscription(response.getResult().getOutput());
-                transcriptionEntity.setFeedback(feedbackEntity);
                 transcriptionEntity.setTranscriptionHash(HashTool.hashString(transcriptionEntity.getTranscription()));
-                feedbackEntity.setTranscription(transcriptionEntity);
+            } catch (RuntimeException e) {
+                // hand the feedback back so that the retried message can claim it again
+                feedbackStateMachine.transition(feedbackID, FeedbackStateEnum.WAITING_FOR_TRANSCRIPTION, FeedbackStateEnum.RECEIVED);
+                throw e;
+            }
+
+            if (feedbackStateMachine.completeTranscription(feedbackID, transcriptionEntity)) {
+                FeedbackEntity feedbackEntity = new FeedbackEntity();
+                feedbackEntity.setFeedbackID(feedbackID);
+                feedbackEntity.setFeedbackReceivedAt(feedback.getFeedbackReceivedAt());
+                feedbackEntity.setFilePath(feedback.getFilePath());
+                feedbackEntity.setFile_hash(feedback.getFileHash());
+                feedbackEntity.setFeedbackDuration(feedback.getFeedbackDuration());
+                if (feedback.getKioskID() != null) {
+                    KioskEntity kioskEntity = new KioskEntity();
+                    kioskEntity.setKioskID(feedback.getKioskID());
+                    feedbackEntity.setFeedbackSource(kioskEntity);
+                }
                 feedbackEntity.setFeedbackState(FeedbackStateEnum.TRANSCRIBED);
-                transcriptionRepository.save(transcriptionEntity);
-                feedbackRepository.save(feedbackEntity);
+                feedbackEntity.setTranscription(transcriptionEntity);
                 sinkFeedback(feedbackEntity);
+                sentimentStage.submit(feedbackID, transcriptionEntity.getTranscription(), transcriptionEntity.getTranscriptionHash());
             }
-            //TODO look for potential risks & errors
         });
     }
 
+    /**
+     * Moves a feedback to {@link FeedbackStateEnum#WAITING_FOR_TRANSCRIPTION}. A redelivered message also takes over a
+     * feedback whose claim is older than {@code VoFAS.transcription.claim-lease}, as the worker holding it most likely
+     * died with the message unacknowledged.
+     *
+     * @return whether this worker may transcribe the feedback
+     */
+    private boolean claimTranscription(Long feedbackID) {
+        if (feedbackStateMachine.transition(feedbackID, FeedbackStateEnum.RECEIVED, FeedbackStateEnum.WAITING_FOR_TRANSCRIPTION)) {
+            return true;
+        }
+        if (feedbackStateMachine.reclaim(feedbackID, FeedbackStateEnum.WAITING_FOR_TRANSCRIPTION,
+                LocalDateTime.now().minus(transcriptionClaimLease))) {
+            log.info("Taking over the transcription of feedback {} from a stale claim", feedbackID);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Completes a message that only carries the feedback id, as published by earlier versions.
+     *
+     * @return the completed message, or null if the feedback does not exist
+     */
+    private FeedbackReceivedMessage loadAudioDetails(FeedbackReceivedMessage message) {
+        return feedbackRepository.getFeedbackEntityByFeedbackID(message.getFeedbackID())
+                .map(feedbackEntity -> new FeedbackReceivedMessage(feedbackEntity.getFeedbackID(), message.getPublishedAt(),
+                        feedbackEntity.getFeedbackReceivedAt(), feedbackEntity.getFilePath(), feedbackEntity.getFile_hash(),
+                        feedbackEntity.getFeedbackDuration(),
+                        feedbackEntity.getFeedbackSource() != null ? feedbackEntity.getFeedbackSource().getKioskID() : null))
+                .orElse(null);
+    }
+
+    private AudioPreprocessor.PreparedAudio prepareAudio(String filePath) {
+        try {
+            return audioPreprocessor.prepare(Path.of(filePath));
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to preprocess feedback file", e);
+        }
+    }
+
     @Override
-    public Flux<FeedbackDTO> getFeedbackStream() {
-        return feedbackSink.asFlux();
+    public Flux<FeedbackEventLog.FeedbackEvent> getFeedbackStream(Long lastEventId, String overflowPolicy, Long kioskID, String feedbackState, String sentimentState, Integer minDuration, boolean includeTranscription) throws InvalidFilterOptionException {
+        if (minDuration != null && minDuration < 0) {
+            throw new InvalidFilterOptionException("minDuration", minDuration.toString());
+        }
+        FeedbackCriteria criteria = FeedbackCriteria.parse(null, null, feedbackState, sentimentState);
+        StreamFilter filter = new StreamFilter(kioskID, criteria.feedbackState(), criteria.sentimentState(), minDuration != null ? minDuration : 0);
+        StreamPayload payload = includeTranscription ? StreamPayload.FULL : StreamPayload.WITHOUT_TRANSCRIPTION;
+        return feedbackEventLog.subscribe(lastEventId, filter, payload, StreamOverflowPolicy.fromParameter(overflowPolicy));
     }
 
     @Override
-    @Transactional
     public FeedbackDTO getFeedbackById(Long feedbackID, boolean getFeedbackSource, boolean getValidation) throws ResourceNotFoundException {
-        Optional<FeedbackEntity> feedback = feedbackRepository.getFeedbackEntityByFeedbackID(feedbackID);
+        return getFeedbackDetail(feedbackID, getFeedbackSource, getValidation).feedback();
+    }
+
+    @Override
+    public FeedbackDetailCache.FeedbackDetail getFeedbackDetail(Long feedbackID, boolean getFeedbackSource, boolean getValidation) throws ResourceNotFoundException {
+        return feedbackDetailCache.get(feedbackID, getFeedbackSource, getValidation,
+                () -> loadFeedbackDetail(feedbackID, getFeedbackSource, getValidation));
+    }
+
+    private FeedbackDTO loadFeedbackDetail(Long feedbackID, boolean getFeedbackSource, boolean getValidation) {
+        Optional<FeedbackEntity> feedback = feedbackRepository.findDetailedByFeedbackID(feedbackID);
         if (feedback.isPresent()) {
             FeedbackEntity feedbackEntity = feedback.get();
             FeedbackDTO feedbackDTO = FeedbackMapper.mapFeedbackEntityToFeedbackDTO(feedbackEntity, new FeedbackDTO(), new TranscriptionDTO(), new SentimentAnalysisDTO());
@@ -217,73 +381,69 @@ public class FeedbackServiceImpl implements FeedbackService {
     @Override
     @Transactional
     public Page<FeedbackDTO> getFeedbacks(int pageNumber, String sortBy, boolean ascending, String startDate, String endDate, String feedbackState, String sentimentState) throws InvalidFilterOptionException {
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("dd-MM-yyyy");
         if (!"feedbackID".equalsIgnoreCase(sortBy) && !"feedbackReceivedAt".equalsIgnoreCase(sortBy)) {
             throw new InvalidFilterOptionException("sortBy", sortBy);
         }
         Sort.Direction direction = ascending ? Sort.Direction.ASC : Sort.Direction.DESC;
-        LocalDateTime start = null;
-        if (startDate != null && !startDate.isBlank()) {
-            try {
-                start = LocalDate.parse(startDate, formatter).atStartOfDay();
-            } catch (DateTimeParseException e) {
-                throw new InvalidFilterOptionException("startDate", startDate);
-            }
-        }
-        LocalDateTime end = null;
-        if (endDate != null && !endDate.isBlank()) {
-            try {
-                end = LocalDate.parse(endDate, formatter).atStartOfDay();
-            } catch (DateTimeParseException e) {
-                throw new InvalidFilterOptionException("endDate", endDate);
-            }
-        }
-        if (start != null && end != null && end.isBefore(start)) {
-            throw new InvalidFilterOptionException("dateRange", "endDate must be later than or equal to startDate");
-        }
-        FeedbackStateEnum feedbackStateEnum = null;
-        if (feedbackState != null && !feedbackState.isBlank()) {
-            try {
-                feedbackStateEnum = FeedbackStateEnum.valueOf(feedbackState.toUpperCase());
-            } catch (IllegalArgumentException e) {
-                throw new InvalidFilterOptionException("feedbackState", feedbackState);
-            }
-        }
-        SentimentStateEnum sentimentStateEnum = null;
-        if (sentimentState != null && !sentimentState.isBlank()) {
-            try {
-                sentimentStateEnum = SentimentStateEnum.valueOf(sentimentState.toUpperCase());
-            } catch (IllegalArgumentException e) {
-                throw new InvalidFilterOptionException("sentimentState", sentimentState);
-            }
-        }
-        Pageable pageable = PageRequest.of(pageNumber, 10, Sort.by(direction, sortBy));
-        Page<FeedbackEntity> feedbackEntities = feedbackRepository.findFeedbacksByCriteria(
-                feedbackStateEnum,
+        String sortProperty = "feedbackID".equalsIgnoreCase(sortBy) ? "feedbackID" : "feedbackReceivedAt";
+        FeedbackCriteria criteria = FeedbackCriteria.parse(startDate, endDate, feedbackState, sentimentState);
+        Pageable pageable = PageRequest.of(pageNumber, pageSize, Sort.by(direction, sortProperty));
+        Page<FeedbackListingRow> feedbackRows = feedbackRepository.findFeedbacksByCriteria(
+                criteria.feedbackState(),
                 null,
-                sentimentStateEnum,
-                start,
-                end,
+                criteria.sentimentState(),
+                criteria.start(),
+                criteria.end(),
                 pageable
         );
 
 //        feedbackEntities = feedbackRepository.getFeedbackEntitiesByFeedbackStateAndTranscription(feedbackStateEnum.toString(), pageable);
-        return feedbackEntities.map(feedbackEntity -> {
-            FeedbackDTO feedbackDTO = FeedbackMapper.mapFeedbackEntityToFeedbackDTO(feedbackEntity, new FeedbackDTO(), new TranscriptionDTO(), new SentimentAnalysisDTO());
-            if (feedbackEntity.getFeedbackSource() != null) {
-                feedbackDTO.setFeedbackSource(KioskMapper.mapKioskEntityToKioskDTO(feedbackEntity.getFeedbackSource(), new KioskDTO()));
-            }
-            if (feedbackEntity.getValidationToken() != null) {
-                feedbackDTO.setValidationTokenDTO(ValidationTokenMapper.mapValidationTokenEntityToValidationTokenDTO(feedbackEntity.getValidationToken(), new ValidationTokenDTO()));
-            }
-            return feedbackDTO;
-        });
+        return feedbackRows.map(this::mapFeedbackRow);
     }
 
+    @Override
+    @Transactional
+    public FeedbackSliceDTO getFeedbacksByCursor(String cursor, Integer size, boolean ascending, String startDate, String endDate, String feedbackState, String sentimentState, boolean withCount) throws InvalidFilterOptionException {
+        FeedbackCursor position = null;
+        if (cursor != null && !cursor.isBlank()) {
+            position = FeedbackCursor.decode(cursor);
+            if (position.ascending() != ascending) {
+                throw new InvalidFilterOptionException("cursor", cursor);
+            }
+        }
+        if (size != null && size < 1) {
+            throw new InvalidFilterOptionException("size", size.toString());
+        }
+        int sliceSize = size == null ? pageSize : Math.min(size, maxPageSize);
+        FeedbackCriteria criteria = FeedbackCriteria.parse(startDate, endDate, feedbackState, sentimentState);
+        LocalDateTime cursorReceivedAt = position != null ? position.feedbackReceivedAt() : null;
+        Long cursorID = position != null ? position.feedbackID() : null;
+
+        // the order is part of the seek queries, the pageable only limits the slice
+        Pageable pageable = PageRequest.of(0, sliceSize);
+        Slice<FeedbackListingRow> feedbackRows = ascending
+                ? feedbackRepository.findFeedbacksByCriteriaAfter(criteria.feedbackState(), null, criteria.sentimentState(),
+                criteria.start(), criteria.end(), cursorReceivedAt, cursorID, pageable)
+                : feedbackRepository.findFeedbacksByCriteriaBefore(criteria.feedbackState(), null, criteria.sentimentState(),
+                criteria.start(), criteria.end(), cursorReceivedAt, cursorID, pageable);
+
+        List<FeedbackDTO> content = feedbackRows.map(this::mapFeedbackRow).getContent();
+        String nextCursor = null;
+        if (feedbackRows.hasNext()) {
+            FeedbackListingRow last = feedbackRows.getContent().get(feedbackRows.getNumberOfElements() - 1);
+            nextCursor = new FeedbackCursor(last.feedbackReceivedAt(), last.feedbackID(), ascending).encode();
+        }
+        Long totalElements = withCount
+                ? feedbackRepository.countFeedbacksByCriteria(criteria.feedbackState(), null, criteria.sentimentState(), criteria.start(), criteria.end())
+                : null;
+        return new FeedbackSliceDTO(content, sliceSize, feedbackRows.hasNext(), nextCursor, totalElements);
+    }
 
+    private FeedbackDTO mapFeedbackRow(FeedbackListingRow row) {
+        return FeedbackMapper.mapFeedbackListingRowToFeedbackDTO(row, new FeedbackDTO(), new TranscriptionDTO(), new SentimentAnalysisDTO());
+    }
 
-
-    private void sinkFeedback(FeedbackEntity feedbackEntity) {
+    private FeedbackDTO mapFeedbackWithDetails(FeedbackEntity feedbackEntity) {
         FeedbackDTO feedbackDTO = FeedbackMapper.mapFeedbackEntityToFeedbackDTO(feedbackEntity, new FeedbackDTO(), new TranscriptionDTO(), new SentimentAnalysisDTO());
         if (feedbackEntity.getFeedbackSource() != null) {
             feedbackDTO.setFeedbackSource(KioskMapper.mapKioskEntityToKioskDTO(feedbackEntity.getFeedbackSource(), new KioskDTO()));
@@ -291,9 +451,11 @@ public class FeedbackServiceImpl implements FeedbackService {
         if (feedbackEntity.getValidationToken() != null) {
             feedbackDTO.setValidationTokenDTO(ValidationTokenMapper.mapValidationTokenEntityToValidationTokenDTO(feedbackEntity.getValidationToken(), new ValidationTokenDTO()));
         }
-        feedbackSink.tryEmitNext(feedbackDTO);
+        return feedbackDTO;
     }
 
-}
-
+    private void sinkFeedback(FeedbackEntity feedbackEntity) {
+        feedbackStreamBus.publish(mapFeedbackWithDetails(feedbackEntity));
+    }
 
+}
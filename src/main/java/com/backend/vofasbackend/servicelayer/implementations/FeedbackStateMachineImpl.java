@@ -0,0 +1,188 @@
+package com.backend.vofasbackend.servicelayer.implementations;
+
+import com.backend.vofasbackend.datalayer.entities.FeedbackEntity;
+import com.backend.vofasbackend.datalayer.entities.SentimentAnalysisEntity;
+import com.backend.vofasbackend.datalayer.entities.TranscriptionEntity;
+import com.backend.vofasbackend.datalayer.enums.FeedbackStateEnum;
+import com.backend.vofasbackend.datalayer.projections.FeedbackRollupKey;
+import com.backend.vofasbackend.datalayer.repositories.FeedbackRepository;
+import com.backend.vofasbackend.datalayer.repositories.SentimentAnalysisRepository;
+import com.backend.vofasbackend.datalayer.repositories.TranscriptionRepository;
+import com.backend.vofasbackend.servicelayer.analytics.FeedbackRollupRecorder;
+import com.backend.vofasbackend.servicelayer.caches.FeedbackDetailCache;
+import com.backend.vofasbackend.servicelayer.interfaces.FeedbackStateMachine;
+import com.backend.vofasbackend.servicelayer.search.TranscriptionSearchIndex;
+import jakarta.transaction.Transactional;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.interceptor.TransactionAspectSupport;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+@Slf4j
+@Service
+public class FeedbackStateMachineImpl implements FeedbackStateMachine {
+
+    private static final Map<FeedbackStateEnum, Set<FeedbackStateEnum>> TRANSITIONS = new EnumMap<>(FeedbackStateEnum.class);
+
+    static {
+        TRANSITIONS.put(FeedbackStateEnum.RECEIVED, EnumSet.of(FeedbackStateEnum.WAITING_FOR_TRANSCRIPTION));
+        // a failed transcription attempt hands the feedback back so that the retry can claim it again
+        TRANSITIONS.put(FeedbackStateEnum.WAITING_FOR_TRANSCRIPTION, EnumSet.of(FeedbackStateEnum.TRANSCRIBED, FeedbackStateEnum.RECEIVED));
+        TRANSITIONS.put(FeedbackStateEnum.TRANSCRIBED, EnumSet.of(FeedbackStateEnum.WAITING_FOR_SENTIMENT_ANALYSIS));
+        TRANSITIONS.put(FeedbackStateEnum.WAITING_FOR_SENTIMENT_ANALYSIS, EnumSet.of(FeedbackStateEnum.COMPLETED, FeedbackStateEnum.TRANSCRIBED));
+        TRANSITIONS.put(FeedbackStateEnum.COMPLETED, EnumSet.noneOf(FeedbackStateEnum.class));
+    }
+
+    private final FeedbackRepository feedbackRepository;
+    private final TranscriptionRepository transcriptionRepository;
+    private final SentimentAnalysisRepository sentimentAnalysisRepository;
+    private final FeedbackDetailCache feedbackDetailCache;
+    private final FeedbackRollupRecorder feedbackRollupRecorder;
+    private final TranscriptionSearchIndex transcriptionSearchIndex;
+
+    @Autowired
+    public FeedbackStateMachineImpl(FeedbackRepository feedbackRepository, TranscriptionRepository transcriptionRepository, SentimentAnalysisRepository sentimentAnalysisRepository, FeedbackDetailCache feedbackDetailCache, FeedbackRollupRecorder feedbackRollupRecorder, TranscriptionSearchIndex transcriptionSearchIndex) {
+        this.feedbackRepository = feedbackRepository;
+        this.transcriptionRepository = transcriptionRepository;
+        this.sentimentAnalysisRepository = sentimentAnalysisRepository;
+        this.feedbackDetailCache = feedbackDetailCache;
+        this.feedbackRollupRecorder = feedbackRollupRecorder;
+        this.transcriptionSearchIndex = transcriptionSearchIndex;
+    }
+
+    @Override
+    @Transactional
+    public Long register(FeedbackEntity feedbackEntity) {
+        feedbackEntity.setFeedbackState(FeedbackStateEnum.RECEIVED);
+        feedbackEntity.setFeedbackStateChangedAt(feedbackEntity.getFeedbackReceivedAt());
+        FeedbackEntity savedFeedback = feedbackRepository.save(feedbackEntity);
+        feedbackRollupRecorder.feedbackReceived(
+                savedFeedback.getFeedbackReceivedAt(),
+                savedFeedback.getFeedbackSource() != null ? savedFeedback.getFeedbackSource().getKioskID() : null,
+                savedFeedback.getFeedbackDuration());
+        return savedFeedback.getFeedbackID();
+    }
+
+    @Override
+    @Transactional
+    public boolean transition(Long feedbackID, FeedbackStateEnum from, FeedbackStateEnum to) {
+        checkTransition(from, to);
+        if (feedbackRepository.updateFeedbackState(feedbackID, from, to, LocalDateTime.now()) != 1) {
+            return false;
+        }
+        feedbackDetailCache.invalidate(feedbackID);
+        return true;
+    }
+
+    @Override
+    @Transactional
+    public boolean reclaim(Long feedbackID, FeedbackStateEnum state, LocalDateTime claimedBefore) {
+        return feedbackRepository.renewFeedbackState(feedbackID, state, claimedBefore, LocalDateTime.now()) == 1;
+    }
+
+    @Override
+    @Transactional
+    public Set<Long> transitionAll(Collection<Long> feedbackIDs, FeedbackStateEnum from, FeedbackStateEnum to) {
+        checkTransition(from, to);
+        Set<Long> moved = new LinkedHashSet<>();
+        LocalDateTime now = LocalDateTime.now();
+        for (Long feedbackID : feedbackIDs) {
+            if (feedbackRepository.updateFeedbackState(feedbackID, from, to, now) == 1) {
+                feedbackDetailCache.invalidate(feedbackID);
+                moved.add(feedbackID);
+            }
+        }
+        return moved;
+    }
+
+    @Override
+    @Transactional
+    public boolean completeTranscription(Long feedbackID, TranscriptionEntity transcriptionEntity) {
+        checkTransition(FeedbackStateEnum.WAITING_FOR_TRANSCRIPTION, FeedbackStateEnum.TRANSCRIBED);
+        // ids are allocated before the insert, flush so the row exists before the feedback references it
+        TranscriptionEntity savedTranscription = transcriptionRepository.saveAndFlush(transcriptionEntity);
+        int updated = feedbackRepository.attachTranscription(feedbackID, savedTranscription,
+                FeedbackStateEnum.WAITING_FOR_TRANSCRIPTION, FeedbackStateEnum.TRANSCRIBED, LocalDateTime.now());
+        if (updated != 1) {
+            // another attempt finished first, drop the duplicate transcription row
+            TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
+            return false;
+        }
+        feedbackRepository.findRollupKeyByFeedbackID(feedbackID).ifPresent(key -> {
+            feedbackRollupRecorder.feedbackTranscribed(key.feedbackReceivedAt(), key.kioskID(), savedTranscription.getTranscriptionReceivedAt());
+            indexAfterCommit(feedbackID, key, savedTranscription.getTranscription());
+        });
+        feedbackDetailCache.invalidate(feedbackID);
+        return true;
+    }
+
+    @Override
+    @Transactional
+    public Set<Long> completeSentimentAnalyses(Map<Long, SentimentAnalysisEntity> sentimentAnalyses) {
+        checkTransition(FeedbackStateEnum.WAITING_FOR_SENTIMENT_ANALYSIS, FeedbackStateEnum.COMPLETED);
+        sentimentAnalysisRepository.saveAllAndFlush(sentimentAnalyses.values());
+        Set<Long> completed = new LinkedHashSet<>();
+        List<SentimentAnalysisEntity> discarded = new ArrayList<>();
+        LocalDateTime now = LocalDateTime.now();
+        sentimentAnalyses.forEach((feedbackID, sentimentAnalysis) -> {
+            if (feedbackRepository.attachSentimentAnalysis(feedbackID, sentimentAnalysis,
+                    FeedbackStateEnum.WAITING_FOR_SENTIMENT_ANALYSIS, FeedbackStateEnum.COMPLETED, now) == 1) {
+                completed.add(feedbackID);
+            } else {
+                discarded.add(sentimentAnalysis);
+            }
+        });
+        // the feedbacks were handed back or analyzed elsewhere in the meantime, drop their duplicate rows
+        sentimentAnalysisRepository.deleteAll(discarded);
+        if (!completed.isEmpty()) {
+            for (FeedbackRollupKey key : feedbackRepository.findRollupKeysByFeedbackIDs(completed)) {
+                feedbackRollupRecorder.sentimentAnalyzed(key.feedbackReceivedAt(), key.kioskID(),
+                        sentimentAnalyses.get(key.feedbackID()).getSentimentState());
+            }
+        }
+        completed.forEach(feedbackDetailCache::invalidate);
+        return completed;
+    }
+
+    private static void checkTransition(FeedbackStateEnum from, FeedbackStateEnum to) {
+        if (!TRANSITIONS.get(from).contains(to)) {
+            throw new IllegalArgumentException("Feedback cannot move from " + from + " to " + to);
+        }
+    }
+
+    /**
+     * Indexes a transcription once the transaction that saved it commits, so a rolled back transcription never becomes
+     * searchable. A failed write is only logged: the transcription is committed, and the next rebuild indexes it.
+     */
+    private void indexAfterCommit(Long feedbackID, FeedbackRollupKey key, String transcription) {
+        Runnable index = () -> {
+            try {
+                transcriptionSearchIndex.index(feedbackID, key.feedbackReceivedAt(), key.kioskID(), transcription);
+            } catch (RuntimeException e) {
+                log.warn("Could not index the transcription of feedback {}", feedbackID, e);
+            }
+        };
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    index.run();
+                }
+            });
+        } else {
+            index.run();
+        }
+    }
+}
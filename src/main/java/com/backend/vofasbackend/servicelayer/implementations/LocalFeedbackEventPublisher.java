@@ -0,0 +1,62 @@
+package com.backend.vofasbackend.servicelayer.implementations;
+
+import com.backend.vofasbackend.servicelayer.interfaces.FeedbackEventPublisher;
+import com.backend.vofasbackend.servicelayer.interfaces.FeedbackService;
+import com.backend.vofasbackend.servicelayer.messages.FeedbackReceivedMessage;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * In-process stand-in for the message broker, enabled with {@code VoFAS.messaging.broker=local}. Messages are
+ * dispatched to a fixed-size worker pool with a bounded queue; when the queue is full the publishing thread runs the
+ * transcription itself, which pushes back on the upload path instead of growing memory.
+ * <p>
+ * This mode is meant for development and tests: queued work is not durable.
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(name = "VoFAS.messaging.broker", havingValue = "local")
+public class LocalFeedbackEventPublisher implements FeedbackEventPublisher {
+
+    private final ObjectProvider<FeedbackService> feedbackServiceProvider;
+    private final ThreadPoolExecutor executor;
+
+    public LocalFeedbackEventPublisher(ObjectProvider<FeedbackService> feedbackServiceProvider,
+                                       @Value("${VoFAS.transcription.worker.concurrency}") int concurrency,
+                                       @Value("${VoFAS.transcription.worker.local-queue-capacity:256}") int queueCapacity) {
+        this.feedbackServiceProvider = feedbackServiceProvider;
+        this.executor = new ThreadPoolExecutor(
+                concurrency,
+                concurrency,
+                0L,
+                TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                new ThreadPoolExecutor.CallerRunsPolicy()
+        );
+    }
+
+    @Override
+    public void publishFeedbackReceived(FeedbackReceivedMessage message) {
+        executor.execute(() -> {
+            try {
+                feedbackServiceProvider.getObject().transcribeFeedback(message).block();
+            } catch (RuntimeException e) {
+                log.error("Transcription of feedback {} failed", message.getFeedbackID(), e);
+            }
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        executor.shutdown();
+        executor.awaitTermination(30, TimeUnit.SECONDS);
+    }
+}
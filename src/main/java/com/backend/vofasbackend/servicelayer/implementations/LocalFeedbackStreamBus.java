@@ -0,0 +1,27 @@
+package com.backend.vofasbackend.servicelayer.implementations;
+
+import com.backend.vofasbackend.presentationlayer.datatransferobjects.FeedbackDTO;
+import com.backend.vofasbackend.servicelayer.interfaces.FeedbackStreamBus;
+import com.backend.vofasbackend.servicelayer.streaming.FeedbackEventLog;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+/**
+ * Single-node {@link FeedbackStreamBus}, enabled with {@code VoFAS.messaging.broker=local}: feedbacks only go to
+ * the event log of the current JVM.
+ */
+@Service
+@ConditionalOnProperty(name = "VoFAS.messaging.broker", havingValue = "local")
+public class LocalFeedbackStreamBus implements FeedbackStreamBus {
+
+    private final FeedbackEventLog feedbackEventLog;
+
+    public LocalFeedbackStreamBus(FeedbackEventLog feedbackEventLog) {
+        this.feedbackEventLog = feedbackEventLog;
+    }
+
+    @Override
+    public void publish(FeedbackDTO feedbackDTO) {
+        feedbackEventLog.append(feedbackDTO);
+    }
+}
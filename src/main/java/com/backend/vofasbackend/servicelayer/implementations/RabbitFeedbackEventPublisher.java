@@ -0,0 +1,36 @@
+package com.backend.vofasbackend.servicelayer.implementations;
+
+import com.backend.vofasbackend.contants.MessagingConstants;
+import com.backend.vofasbackend.servicelayer.interfaces.FeedbackEventPublisher;
+import com.backend.vofasbackend.servicelayer.messages.FeedbackReceivedMessage;
+import org.springframework.amqp.core.MessageDeliveryMode;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+/**
+ * {@link FeedbackEventPublisher} that publishes persistent messages to the feedback exchange, so queued
+ * transcriptions survive broker and application restarts.
+ */
+@Service
+@ConditionalOnProperty(name = "VoFAS.messaging.broker", havingValue = "rabbit", matchIfMissing = true)
+public class RabbitFeedbackEventPublisher implements FeedbackEventPublisher {
+
+    private final RabbitTemplate rabbitTemplate;
+
+    public RabbitFeedbackEventPublisher(RabbitTemplate rabbitTemplate) {
+        this.rabbitTemplate = rabbitTemplate;
+    }
+
+    @Override
+    public void publishFeedbackReceived(FeedbackReceivedMessage message) {
+        rabbitTemplate.convertAndSend(
+                MessagingConstants.FEEDBACK_EXCHANGE,
+                MessagingConstants.FEEDBACK_RECEIVED_ROUTING_KEY,
+                message,
+                amqpMessage -> {
+                    amqpMessage.getMessageProperties().setDeliveryMode(MessageDeliveryMode.PERSISTENT);
+                    return amqpMessage;
+                });
+    }
+}
@@ -0,0 +1,138 @@
+package com.backend.vofasbackend.servicelayer.implementations;
+
+import com.backend.vofasbackend.contants.MessagingConstants;
+import com.backend.vofasbackend.presentationlayer.datatransferobjects.FeedbackDTO;
+import com.backend.vofasbackend.servicelayer.interfaces.FeedbackStreamBus;
+import com.backend.vofasbackend.servicelayer.messages.FeedbackStreamBatch;
+import com.backend.vofasbackend.servicelayer.streaming.FeedbackEventLog;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.core.MessageDeliveryMode;
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * {@link FeedbackStreamBus} that fans processed feedbacks out to every node through the feedback stream exchange.
+ * <p>
+ * A feedback is appended to the local event log before anything else, so subscribers connected to the publishing
+ * node see it as quickly as on a single node. The copy for the other nodes is queued and sent from a background
+ * thread in batches, either when {@code VoFAS.stream.fanout.batch-size} events are pending or when the
+ * {@code VoFAS.stream.fanout.batch-window} elapses. Each node consumes its own auto-delete queue bound to the fanout
+ * exchange, ignores the batches it published itself and drops events it has already seen, since the broker may
+ * redeliver a batch after a consumer failure.
+ * <p>
+ * The live stream is best-effort: batches are sent non-persistent and a failed send is logged and dropped instead
+ * of being retried, because a reconnecting dashboard reloads its state from the REST API anyway.
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(name = "VoFAS.messaging.broker", havingValue = "rabbit", matchIfMissing = true)
+public class RabbitFeedbackStreamBus implements FeedbackStreamBus {
+
+    private final FeedbackEventLog feedbackEventLog;
+    private final RabbitTemplate rabbitTemplate;
+    private final int batchSize;
+    private final String nodeID = UUID.randomUUID().toString();
+    private final AtomicLong sequence = new AtomicLong();
+    private final Cache<String, Boolean> seenEventIDs;
+    private final ScheduledExecutorService sender;
+    private List<FeedbackStreamBatch.Event> pending = new ArrayList<>();
+
+    public RabbitFeedbackStreamBus(FeedbackEventLog feedbackEventLog,
+                                   RabbitTemplate rabbitTemplate,
+                                   @Value("${VoFAS.stream.fanout.batch-size}") int batchSize,
+                                   @Value("${VoFAS.stream.fanout.batch-window}") Duration batchWindow,
+                                   @Value("${VoFAS.stream.fanout.dedup-size}") long dedupSize) {
+        this.feedbackEventLog = feedbackEventLog;
+        this.rabbitTemplate = rabbitTemplate;
+        this.batchSize = batchSize;
+        this.seenEventIDs = Caffeine.newBuilder().maximumSize(dedupSize).build();
+        this.sender = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "feedback-stream-fanout");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long windowMillis = Math.max(1, batchWindow.toMillis());
+        sender.scheduleWithFixedDelay(this::flush, windowMillis, windowMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void publish(FeedbackDTO feedbackDTO) {
+        feedbackEventLog.append(feedbackDTO);
+
+        FeedbackStreamBatch.Event event = new FeedbackStreamBatch.Event(nodeID + ":" + sequence.incrementAndGet(), feedbackDTO);
+        boolean full;
+        synchronized (this) {
+            pending.add(event);
+            full = pending.size() >= batchSize;
+        }
+        if (full) {
+            sender.execute(this::flush);
+        }
+    }
+
+    /**
+     * Appends the events published by other nodes to the local event log.
+     *
+     * @param batch the batch received from the feedback stream exchange
+     */
+    @RabbitListener(queues = "#{feedbackStreamQueue.name}")
+    public void onFeedbackStreamBatch(FeedbackStreamBatch batch) {
+        if (nodeID.equals(batch.getOriginNode()) || batch.getEvents() == null) {
+            return;
+        }
+        for (FeedbackStreamBatch.Event event : batch.getEvents()) {
+            if (seenEventIDs.asMap().putIfAbsent(event.getEventID(), Boolean.TRUE) == null) {
+                feedbackEventLog.append(event.getFeedback());
+            }
+        }
+    }
+
+    /**
+     * Sends the pending events as one batch. Runs on the sender thread, so publishing threads never wait on the broker.
+     */
+    void flush() {
+        List<FeedbackStreamBatch.Event> events;
+        synchronized (this) {
+            if (pending.isEmpty()) {
+                return;
+            }
+            events = pending;
+            pending = new ArrayList<>(batchSize);
+        }
+        try {
+            rabbitTemplate.convertAndSend(
+                    MessagingConstants.FEEDBACK_STREAM_EXCHANGE,
+                    "",
+                    new FeedbackStreamBatch(nodeID, events),
+                    amqpMessage -> {
+                        amqpMessage.getMessageProperties().setDeliveryMode(MessageDeliveryMode.NON_PERSISTENT);
+                        return amqpMessage;
+                    });
+        } catch (AmqpException e) {
+            log.warn("Could not fan out {} feedback stream events to other nodes", events.size(), e);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        sender.shutdown();
+        sender.awaitTermination(5, TimeUnit.SECONDS);
+        flush();
+    }
+}
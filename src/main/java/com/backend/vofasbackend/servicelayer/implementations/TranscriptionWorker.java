@@ -0,0 +1,34 @@
+package com.backend.vofasbackend.servicelayer.implementations;
+
+import com.backend.vofasbackend.contants.MessagingConstants;
+import com.backend.vofasbackend.servicelayer.interfaces.FeedbackService;
+import com.backend.vofasbackend.servicelayer.messages.FeedbackReceivedMessage;
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.stereotype.Component;
+
+/**
+ * Consumes "feedback received" messages from the transcription queue and runs the transcription synchronously on
+ * the listener thread. The message is acknowledged only when the transcription completed, so work in flight is
+ * redelivered if the node goes down.
+ * <p>
+ * Nodes that should only serve HTTP traffic can disable the worker with {@code VoFAS.transcription.worker.enabled}.
+ */
+@Component
+@ConditionalOnExpression("'${VoFAS.messaging.broker:rabbit}' == 'rabbit' and ${VoFAS.transcription.worker.enabled:true}")
+public class TranscriptionWorker {
+
+    private final FeedbackService feedbackService;
+
+    public TranscriptionWorker(FeedbackService feedbackService) {
+        this.feedbackService = feedbackService;
+    }
+
+    @RabbitListener(
+            queues = MessagingConstants.TRANSCRIPTION_QUEUE,
+            containerFactory = "transcriptionListenerContainerFactory"
+    )
+    public void onFeedbackReceived(FeedbackReceivedMessage message) {
+        feedbackService.transcribeFeedback(message).block();
+    }
+}
@@ -0,0 +1,42 @@
+package com.backend.vofasbackend.servicelayer.implementations;
+
+import com.backend.vofasbackend.datalayer.enums.ValidationTokenStateEnum;
+import com.backend.vofasbackend.exceptions.exceptions.InvalidFilterOptionException;
+import com.backend.vofasbackend.exceptions.exceptions.ResourceNotFoundException;
+import com.backend.vofasbackend.presentationlayer.datatransferobjects.ValidationTokenDTO;
+import com.backend.vofasbackend.servicelayer.interfaces.ValidationTokenService;
+import com.backend.vofasbackend.servicelayer.tokens.ValidationTokenPool;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+@Service
+public class ValidationTokenServiceImpl implements ValidationTokenService {
+
+    private final ValidationTokenPool validationTokenPool;
+    private final int maxLeaseCount;
+
+    public ValidationTokenServiceImpl(ValidationTokenPool validationTokenPool,
+                                      @Value("${VoFAS.tokens.lease.max-count}") int maxLeaseCount) {
+        this.validationTokenPool = validationTokenPool;
+        this.maxLeaseCount = maxLeaseCount;
+    }
+
+    @Override
+    public List<ValidationTokenDTO> leaseTokens(Long kioskID, int count) throws InvalidFilterOptionException, ResourceNotFoundException {
+        if (count < 1 || count > maxLeaseCount) {
+            throw new InvalidFilterOptionException("count", String.valueOf(count));
+        }
+        return validationTokenPool.lease(kioskID, count).stream()
+                .map(issuedToken -> {
+                    ValidationTokenDTO validationTokenDTO = new ValidationTokenDTO();
+                    validationTokenDTO.setValidationToken(issuedToken.validationToken().toString());
+                    validationTokenDTO.setKiosk(issuedToken.kioskID());
+                    validationTokenDTO.setValidationTokenState(ValidationTokenStateEnum.VALID.toString());
+                    validationTokenDTO.setTokenCreateAt(issuedToken.createdAt());
+                    return validationTokenDTO;
+                })
+                .toList();
+    }
+}
@@ -0,0 +1,32 @@
+package com.backend.vofasbackend.servicelayer.interfaces;
+
+import com.backend.vofasbackend.exceptions.exceptions.InvalidFilterOptionException;
+import com.backend.vofasbackend.presentationlayer.datatransferobjects.AnalyticsBucketDTO;
+
+import java.util.List;
+
+/**
+ * Answers feedback analytics queries from the pre-aggregated rollups, so the cost of a query depends on the number
+ * of buckets it covers and not on the number of feedbacks received in them.
+ */
+public interface AnalyticsService {
+
+    /**
+     * Returns the analytics of every hour or day between two dates, oldest first. Buckets without feedbacks are
+     * included with zero counts, so the series has no gaps.
+     *
+     * @param granularity {@code hour} or {@code day}
+     * @param startDate   first day of the range as dd-MM-yyyy, defaults to six days before {@code endDate}
+     * @param endDate     last day of the range as dd-MM-yyyy, inclusive, defaults to today
+     * @param kioskID     the kiosk to report on, null for all kiosks
+     * @throws InvalidFilterOptionException if an option cannot be parsed or the range has too many buckets
+     */
+    List<AnalyticsBucketDTO> getRollups(String granularity, String startDate, String endDate, Long kioskID) throws InvalidFilterOptionException;
+
+    /**
+     * Returns the analytics of a whole date range, summed from its daily buckets.
+     *
+     * @see #getRollups
+     */
+    AnalyticsBucketDTO getSummary(String startDate, String endDate, Long kioskID) throws InvalidFilterOptionException;
+}
@@ -0,0 +1,42 @@
+package com.backend.vofasbackend.servicelayer.interfaces;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Storage for feedback audio files. Files are addressed by the SHA-256 hash of their content, so identical uploads
+ * share a single file on disk.
+ */
+public interface AudioStore {
+
+    /**
+     * Moves a file whose hash is already known into the store, or deletes it if an identical file is stored already.
+     *
+     * @param file      the file to move, it no longer exists once this returns
+     * @param fileHash  the lowercase hexadecimal SHA-256 hash of the file content
+     * @param extension the file extension including the leading dot
+     * @return the location and hash of the stored file
+     * @throws IOException if the file could not be moved
+     */
+    StoredAudio adopt(Path file, String fileHash, String extension) throws IOException;
+
+    /**
+     * Resolves the location of a stored file from its hash.
+     *
+     * @param fileHash  the lowercase hexadecimal SHA-256 hash of the file content
+     * @param extension the file extension including the leading dot
+     * @return the path of the file inside the store
+     */
+    Path resolve(String fileHash, String extension);
+
+    /**
+     * Describes a file that has been written to the store.
+     *
+     * @param path         location of the file inside the store
+     * @param fileHash     lowercase hexadecimal SHA-256 hash of the file content
+     * @param size         size of the file in bytes
+     * @param deduplicated true if an identical file was already stored and the upload was discarded
+     */
+    record StoredAudio(Path path, String fileHash, long size, boolean deduplicated) {
+    }
+}
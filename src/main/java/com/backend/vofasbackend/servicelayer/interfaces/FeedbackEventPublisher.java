@@ -0,0 +1,18 @@
+package com.backend.vofasbackend.servicelayer.interfaces;
+
+import com.backend.vofasbackend.servicelayer.messages.FeedbackReceivedMessage;
+
+/**
+ * Hands feedback pipeline work over to the transcription workers. Implementations decide whether the work travels
+ * through the message broker or stays inside the current JVM.
+ */
+public interface FeedbackEventPublisher {
+
+    /**
+     * Publishes a "feedback received" message. Once this method returns the message has been handed to the
+     * transport and the feedback will be transcribed by one of the workers.
+     *
+     * @param message the message describing the stored feedback
+     */
+    void publishFeedbackReceived(FeedbackReceivedMessage message);
+}
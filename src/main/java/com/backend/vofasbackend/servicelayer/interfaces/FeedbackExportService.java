@@ -0,0 +1,27 @@
+package com.backend.vofasbackend.servicelayer.interfaces;
+
+import com.backend.vofasbackend.exceptions.exceptions.InvalidFilterOptionException;
+import com.backend.vofasbackend.servicelayer.export.FeedbackExport;
+
+/**
+ * Exports feedbacks in bulk. The rows are streamed from the database to the output as they are read, so an export
+ * of any size runs in constant memory.
+ */
+public interface FeedbackExportService {
+
+    /**
+     * Validates an export request. Nothing is read until the body of the returned export is written, so errors in the
+     * options are reported before a response is committed.
+     *
+     * @param format         {@code ndjson} or {@code csv}
+     * @param gzip           true to compress the output
+     * @param startDate      only export feedbacks received from this day on, as dd-MM-yyyy
+     * @param endDate        only export feedbacks received until this day, as dd-MM-yyyy
+     * @param feedbackState  only export feedbacks in this state
+     * @param sentimentState only export feedbacks with this sentiment
+     * @param kioskID        only export feedbacks recorded at this kiosk
+     * @throws InvalidFilterOptionException if an option cannot be parsed
+     */
+    FeedbackExport prepareExport(String format, boolean gzip, String startDate, String endDate, String feedbackState,
+                                 String sentimentState, Long kioskID) throws InvalidFilterOptionException;
+}
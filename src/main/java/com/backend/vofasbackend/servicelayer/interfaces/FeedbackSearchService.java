@@ -0,0 +1,29 @@
+package com.backend.vofasbackend.servicelayer.interfaces;
+
+import com.backend.vofasbackend.exceptions.exceptions.InvalidFilterOptionException;
+import com.backend.vofasbackend.presentationlayer.datatransferobjects.FeedbackSliceDTO;
+
+/**
+ * Searches the transcriptions of the feedbacks through the full-text index.
+ */
+public interface FeedbackSearchService {
+
+    /**
+     * Finds the feedbacks whose transcription matches a query, best match first. Words are matched in their Turkish
+     * stem form, all words are required unless combined with {@code OR}, {@code NOT} excludes a word and double quotes
+     * search for a phrase.
+     *
+     * @param query          the query text
+     * @param pageNumber     the page number to retrieve (zero-based)
+     * @param size           the maximum number of feedbacks in the page, null for the configured default
+     * @param startDate      only match feedbacks received from this day on, as dd-MM-yyyy
+     * @param endDate        only match feedbacks received until this day, as dd-MM-yyyy
+     * @param feedbackState  only match feedbacks in this state
+     * @param sentimentState only match feedbacks with this sentiment
+     * @param kioskID        only match feedbacks recorded at this kiosk
+     * @return the page of matches; the total is only present when no state or sentiment filter is given
+     * @throws InvalidFilterOptionException if the query or a filter option cannot be parsed
+     */
+    FeedbackSliceDTO searchFeedbacks(String query, int pageNumber, Integer size, String startDate, String endDate,
+                                     String feedbackState, String sentimentState, Long kioskID) throws InvalidFilterOptionException;
+}
@@ -1,31 +1,73 @@
 package com.backend.vofasbackend.servicelayer.interfaces;
 
 import com.backend.vofasbackend.exceptions.exceptions.InvalidFilterOptionException;
+import com.backend.vofasbackend.exceptions.exceptions.InvalidValidationTokenException;
 import com.backend.vofasbackend.exceptions.exceptions.ResourceNotFoundException;
 import com.backend.vofasbackend.exceptions.exceptions.UnsupportedMediaTypeException;
 import com.backend.vofasbackend.presentationlayer.datatransferobjects.FeedbackDTO;
+import com.backend.vofasbackend.presentationlayer.datatransferobjects.FeedbackSliceDTO;
+import com.backend.vofasbackend.servicelayer.caches.FeedbackDetailCache;
+import com.backend.vofasbackend.servicelayer.messages.FeedbackReceivedMessage;
+import com.backend.vofasbackend.servicelayer.streaming.FeedbackEventLog;
+import com.backend.vofasbackend.servicelayer.streaming.StreamOverflowPolicy;
 import com.mpatric.mp3agic.InvalidDataException;
 import com.mpatric.mp3agic.UnsupportedTagException;
 import org.springframework.data.domain.Page;
-import org.springframework.web.multipart.MultipartFile;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 import javax.sound.sampled.UnsupportedAudioFileException;
 import java.io.IOException;
+import java.io.InputStream;
 import java.util.UUID;
 
 public interface FeedbackService {
 
     /**
-     * This method just saves the feedback audio file to database, sets required fields in the FeedBackEntity & sends
-     * audio file to openAI for transcription
+     * This method spools the feedback audio to durable storage, inserts the FeedBackEntity with all of its audio
+     * details & returns its id; the audio is then moved to the audio store and a "feedback received" message is
+     * published so that a transcription worker sends the audio file to openAI for transcription
      *
-     * @param file that'll be saved to databased
+     * The validation token is used up before anything is stored and given back if storing fails, so each token
+     * creates at most one feedback. Once this method returns the upload survives a restart of the application.
+     *
+     * @param content the audio, read to its end but not closed
+     * @param contentType the media type of the audio, may be null if the file name tells the format
+     * @param filename the original file name of the audio, may be null
+     * @param validationToken the single-use token the kiosk was given for this upload
+     * @return the id of the created feedback
+     * @throws UnsupportedMediaTypeException if the audio is not MP3, M4A or WAV
+     * @throws InvalidValidationTokenException if the token is unknown or has already been used
+     * @throws IOException if the audio could not be read or spooled
+     */
+    Long saveFeedback(InputStream content, String contentType, String filename, UUID validationToken) throws UnsupportedMediaTypeException, InvalidValidationTokenException, IOException;
+
+    /**
+     * Transcribes the audio file of an already stored feedback, moves it to the TRANSCRIBED state and queues it for
+     * sentiment analysis. This is invoked by the transcription workers; the feedback is claimed with a conditional state transition first, so
+     * calling it again for a feedback that is being or has been transcribed does nothing and redelivered messages
+     * are harmless.
+     *
+     * @param message the "feedback received" message published by {@link #saveFeedback}
+     * @return a Mono that completes when the transcription has been persisted
      */
-    Mono<Void> saveFeedback(MultipartFile file, UUID validationToken) throws UnsupportedMediaTypeException;
+    Mono<Void> transcribeFeedback(FeedbackReceivedMessage message);
 
-    Flux<FeedbackDTO> getFeedbackStream();
+    /**
+     * Streams the processed feedbacks matching the given filters; null filters match every feedback. A reconnecting
+     * client passes the id of the last event it received and first gets the retained events it missed.
+     *
+     * @param lastEventId          the value of the {@code Last-Event-ID} header, null for a new client
+     * @param overflowPolicy       {@code drop-oldest} or {@code disconnect}, see {@link StreamOverflowPolicy}
+     * @param kioskID              the kiosk the feedbacks were recorded at
+     * @param feedbackState        the state of the feedbacks
+     * @param sentimentState       the sentiment analysis result of the feedbacks
+     * @param minDuration          the shortest recording to stream, in seconds
+     * @param includeTranscription false to leave the transcription text out of the streamed feedbacks
+     * @return the events, each carrying its id and serialized feedback
+     * @throws InvalidFilterOptionException if the overflow policy or a filter value is invalid
+     */
+    Flux<FeedbackEventLog.FeedbackEvent> getFeedbackStream(Long lastEventId, String overflowPolicy, Long kioskID, String feedbackState, String sentimentState, Integer minDuration, boolean includeTranscription) throws InvalidFilterOptionException;
 
     /**
      * Retrieves feedback details by ID.
@@ -38,6 +80,18 @@ public interface FeedbackService {
      */
     FeedbackDTO getFeedbackById(Long feedbackID, boolean getFeedbackSource, boolean getValidation) throws ResourceNotFoundException;
 
+    /**
+     * Retrieves feedback details by ID together with the ETag of their JSON representation. Details are served
+     * from a cache that is invalidated whenever the feedback changes state.
+     *
+     * @param feedbackID        the unique ID of the feedback
+     * @param getFeedbackSource true to include source details, false otherwise
+     * @param getValidation     true to include the validation token, false otherwise
+     * @return the feedback details and their ETag
+     * @throws ResourceNotFoundException if feedback with the given ID is not found
+     */
+    FeedbackDetailCache.FeedbackDetail getFeedbackDetail(Long feedbackID, boolean getFeedbackSource, boolean getValidation) throws ResourceNotFoundException;
+
     /**
      * Retrieves a paginated and optionally sorted list of feedbacks with filtering options.
      *
@@ -53,4 +107,22 @@ public interface FeedbackService {
      */
     Page<FeedbackDTO> getFeedbacks(int pageNumber, String sortBy, boolean ascending, String startDate, String endDate, String feedbackState, String sentimentState) throws InvalidFilterOptionException;
 
+    /**
+     * Retrieves feedbacks one slice at a time by seeking past the last feedback of the previous slice, ordered by
+     * receive time and ID. Unlike {@link #getFeedbacks} the cost of a slice does not depend on how deep the client
+     * has paged, and the total count is only computed on request.
+     *
+     * @param cursor         the {@code nextCursor} of the previous slice, or null for the first slice
+     * @param size           the maximum number of feedbacks in the slice, null for the configured default
+     * @param ascending      true for oldest first, false for newest first; must match the cursor
+     * @param startDate      the start date for filtering feedbacks
+     * @param endDate        the end date for filtering feedbacks
+     * @param feedbackState  the state of the feedback to filter
+     * @param sentimentState the sentiment analysis state to filter
+     * @param withCount      true to include the total number of matching feedbacks
+     * @return the slice and the cursor of the next one
+     * @throws InvalidFilterOptionException if a filter option or the cursor is invalid
+     */
+    FeedbackSliceDTO getFeedbacksByCursor(String cursor, Integer size, boolean ascending, String startDate, String endDate, String feedbackState, String sentimentState, boolean withCount) throws InvalidFilterOptionException;
+
 }
@@ -0,0 +1,86 @@
+package com.backend.vofasbackend.servicelayer.interfaces;
+
+import com.backend.vofasbackend.datalayer.entities.FeedbackEntity;
+import com.backend.vofasbackend.datalayer.entities.SentimentAnalysisEntity;
+import com.backend.vofasbackend.datalayer.entities.TranscriptionEntity;
+import com.backend.vofasbackend.datalayer.enums.FeedbackStateEnum;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Moves feedbacks through the {@link FeedbackStateEnum} lifecycle.
+ * <p>
+ * Transitions are conditional updates on the current state rather than load-modify-save cycles, so each one is a
+ * single statement and concurrent or repeated attempts cannot apply the same transition twice: only the caller
+ * whose update matched the expected state wins, everybody else is told the transition did not happen. Every applied
+ * transition records when it happened and invalidates the cached details of the feedback, and registering, transcribing and analyzing a feedback
+ * update the analytics rollups in the same transaction.
+ */
+public interface FeedbackStateMachine {
+
+    /**
+     * Inserts a new, fully populated feedback in the {@link FeedbackStateEnum#RECEIVED} state.
+     *
+     * @param feedbackEntity the feedback to insert, its state is overwritten
+     * @return the id of the inserted feedback
+     */
+    Long register(FeedbackEntity feedbackEntity);
+
+    /**
+     * Moves a feedback from one state to the next.
+     *
+     * @param feedbackID the feedback to move
+     * @param from       the state the feedback is expected to be in
+     * @param to         the new state
+     * @return true if the feedback was in {@code from} and is now in {@code to}, false otherwise
+     * @throws IllegalArgumentException if the lifecycle has no transition from {@code from} to {@code to}
+     */
+    boolean transition(Long feedbackID, FeedbackStateEnum from, FeedbackStateEnum to);
+
+    /**
+     * Takes over a feedback that was claimed by moving it to {@code state} before {@code claimedBefore}, e.g. by a
+     * worker that died before finishing, and restarts the claim. Of several concurrent attempts only one succeeds.
+     *
+     * @param feedbackID    the feedback to take over
+     * @param state         the state the feedback is expected to be in
+     * @param claimedBefore the time before which the feedback must have entered {@code state}
+     * @return true if the claim was renewed, false if the feedback moved on or was claimed more recently
+     */
+    boolean reclaim(Long feedbackID, FeedbackStateEnum state, LocalDateTime claimedBefore);
+
+    /**
+     * Moves a batch of feedbacks from one state to the next in one transaction. Each feedback is moved with its own
+     * conditional update, so the ones in another state are left alone.
+     *
+     * @param feedbackIDs the feedbacks to move
+     * @param from        the state the feedbacks are expected to be in
+     * @param to          the new state
+     * @return the ids of the feedbacks that were in {@code from} and are now in {@code to}
+     * @throws IllegalArgumentException if the lifecycle has no transition from {@code from} to {@code to}
+     */
+    Set<Long> transitionAll(Collection<Long> feedbackIDs, FeedbackStateEnum from, FeedbackStateEnum to);
+
+    /**
+     * Stores the transcription of a feedback in {@link FeedbackStateEnum#WAITING_FOR_TRANSCRIPTION} and moves it to
+     * {@link FeedbackStateEnum#TRANSCRIBED}, in one transaction.
+     *
+     * @param feedbackID          the feedback that was transcribed
+     * @param transcriptionEntity the new transcription, it is inserted only if the transition happens
+     * @return true if the transcription was stored, false if the feedback was no longer waiting for it
+     */
+    boolean completeTranscription(Long feedbackID, TranscriptionEntity transcriptionEntity);
+
+    /**
+     * Stores the sentiment analyses of a batch of feedbacks in
+     * {@link FeedbackStateEnum#WAITING_FOR_SENTIMENT_ANALYSIS} and moves them to {@link FeedbackStateEnum#COMPLETED},
+     * all in one transaction.
+     *
+     * @param sentimentAnalyses the new sentiment analyses by feedback id
+     * @return the ids of the feedbacks whose analysis was stored; analyses of feedbacks that were no longer waiting
+     * for one are discarded
+     */
+    Set<Long> completeSentimentAnalyses(Map<Long, SentimentAnalysisEntity> sentimentAnalyses);
+}
@@ -0,0 +1,18 @@
+package com.backend.vofasbackend.servicelayer.interfaces;
+
+import com.backend.vofasbackend.presentationlayer.datatransferobjects.FeedbackDTO;
+
+/**
+ * Carries processed feedbacks to the live feedback streams. Implementations decide whether the streams of other
+ * nodes are reached through the message broker or only the streams of the current JVM exist.
+ */
+public interface FeedbackStreamBus {
+
+    /**
+     * Publishes a processed feedback to the live streams. Subscribers connected to this node receive it before the
+     * method returns; subscribers on other nodes receive it shortly after.
+     *
+     * @param feedbackDTO the processed feedback
+     */
+    void publish(FeedbackDTO feedbackDTO);
+}
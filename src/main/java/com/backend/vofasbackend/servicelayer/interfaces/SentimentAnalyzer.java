@@ -0,0 +1,26 @@
+package com.backend.vofasbackend.servicelayer.interfaces;
+
+import com.backend.vofasbackend.datalayer.enums.SentimentStateEnum;
+
+import java.util.List;
+
+/**
+ * Classifies the sentiment of transcriptions. The sentiment stage hands over whole batches, so implementations that
+ * call a remote model pay the per-call overhead once per batch; the analyzer behind this abstraction (the local
+ * Turkish lexicon or an OpenAI chat model) is chosen by configuration.
+ */
+public interface SentimentAnalyzer {
+
+    /**
+     * @return the name of the analyzer, e.g. "lexicon" or "openai"
+     */
+    String getName();
+
+    /**
+     * Classifies a batch of transcriptions. This is a blocking call.
+     *
+     * @param transcriptions the transcription texts
+     * @return the sentiment of each transcription, in the same order
+     */
+    List<SentimentStateEnum> analyze(List<String> transcriptions);
+}
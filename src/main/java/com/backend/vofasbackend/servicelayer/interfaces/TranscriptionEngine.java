@@ -0,0 +1,23 @@
+package com.backend.vofasbackend.servicelayer.interfaces;
+
+import org.springframework.core.io.Resource;
+
+/**
+ * Turns feedback audio into text. The pipeline only depends on this abstraction, so the provider behind it (the
+ * OpenAI transcription API or the in-process stub used for offline load tests) is chosen by configuration.
+ */
+public interface TranscriptionEngine {
+
+    /**
+     * @return the name of the provider behind this engine, e.g. "openai" or "stub"
+     */
+    String getName();
+
+    /**
+     * Transcribes the given audio file. This is a blocking call.
+     *
+     * @param audio the audio file to transcribe
+     * @return the transcription text
+     */
+    String transcribe(Resource audio);
+}
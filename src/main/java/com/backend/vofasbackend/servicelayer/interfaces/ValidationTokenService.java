@@ -0,0 +1,24 @@
+package com.backend.vofasbackend.servicelayer.interfaces;
+
+import com.backend.vofasbackend.exceptions.exceptions.InvalidFilterOptionException;
+import com.backend.vofasbackend.exceptions.exceptions.ResourceNotFoundException;
+import com.backend.vofasbackend.presentationlayer.datatransferobjects.ValidationTokenDTO;
+
+import java.util.List;
+
+/**
+ * Issues the single-use validation tokens kiosks attach to feedback uploads.
+ */
+public interface ValidationTokenService {
+
+    /**
+     * Hands out valid tokens to a kiosk, served from the kiosk's pool of pre-generated tokens where possible.
+     *
+     * @param kioskID the kiosk the tokens will be used at
+     * @param count   the number of tokens, at most {@code VoFAS.tokens.lease.max-count}
+     * @return the tokens
+     * @throws InvalidFilterOptionException if the count is out of range
+     * @throws ResourceNotFoundException    if there is no such kiosk
+     */
+    List<ValidationTokenDTO> leaseTokens(Long kioskID, int count) throws InvalidFilterOptionException, ResourceNotFoundException;
+}
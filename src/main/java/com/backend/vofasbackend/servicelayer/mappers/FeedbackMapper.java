@@ -1,9 +1,12 @@
 package com.backend.vofasbackend.servicelayer.mappers;
 
 import com.backend.vofasbackend.datalayer.entities.FeedbackEntity;
+import com.backend.vofasbackend.datalayer.projections.FeedbackListingRow;
 import com.backend.vofasbackend.presentationlayer.datatransferobjects.FeedbackDTO;
+import com.backend.vofasbackend.presentationlayer.datatransferobjects.KioskDTO;
 import com.backend.vofasbackend.presentationlayer.datatransferobjects.SentimentAnalysisDTO;
 import com.backend.vofasbackend.presentationlayer.datatransferobjects.TranscriptionDTO;
+import com.backend.vofasbackend.presentationlayer.datatransferobjects.ValidationTokenDTO;
 
 import java.time.LocalTime;
 
@@ -23,4 +26,46 @@ public class FeedbackMapper {
         }
         return feedbackDTO;
     }
+
+    /**
+     * Maps a listing row to the same DTO that {@link #mapFeedbackEntityToFeedbackDTO} combined with
+     * {@link KioskMapper} and {@link ValidationTokenMapper} produce for the corresponding entities.
+     */
+    public static FeedbackDTO mapFeedbackListingRowToFeedbackDTO(FeedbackListingRow row, FeedbackDTO feedbackDTO, TranscriptionDTO transcriptionDTO, SentimentAnalysisDTO sentimentAnalysisDTO){
+        feedbackDTO.setFeedbackId(row.feedbackID());
+        feedbackDTO.setFilePath(row.filePath());
+        feedbackDTO.setFileHash(row.fileHash());
+        feedbackDTO.setFeedbackState(row.feedbackState().toString());
+        feedbackDTO.setFeedbackReceivedAt(row.feedbackReceivedAt());
+        feedbackDTO.setFeedbackDuration(row.feedbackDuration() != null ? LocalTime.ofSecondOfDay(row.feedbackDuration().getSeconds()) : LocalTime.ofSecondOfDay(0));
+        if(row.transcriptionID() != null){
+            transcriptionDTO.setTranscription(row.transcription());
+            transcriptionDTO.setTranscriptionRequestedAt(row.transcriptionRequestedAt());
+            transcriptionDTO.setTranscriptionReceivedAt(row.transcriptionReceivedAt());
+            transcriptionDTO.setTranscriptionHash(row.transcriptionHash());
+            feedbackDTO.setTranscriptionDTO(transcriptionDTO);
+        }
+        if(row.sentimentID() != null){
+            sentimentAnalysisDTO.setSentimentState(row.sentimentState().toString());
+            sentimentAnalysisDTO.setAnalysisRequestedAt(row.analysisRequestedAt());
+            feedbackDTO.setSentimentAnalysisDTO(sentimentAnalysisDTO);
+        }
+        if(row.kioskID() != null){
+            KioskDTO kioskDTO = new KioskDTO();
+            kioskDTO.setKioskId(row.kioskID());
+            kioskDTO.setKioskName(row.kioskName());
+            kioskDTO.setKioskDescription(row.kioskDescription());
+            kioskDTO.setKioskState(row.kioskState().toString());
+            feedbackDTO.setFeedbackSource(kioskDTO);
+        }
+        if(row.validationToken() != null){
+            ValidationTokenDTO validationTokenDTO = new ValidationTokenDTO();
+            validationTokenDTO.setValidationToken(row.validationToken().toString());
+            validationTokenDTO.setValidationTokenState(row.validationTokenState().toString());
+            validationTokenDTO.setTokenCreateAt(row.tokenCreateAt());
+            validationTokenDTO.setKiosk(row.tokenKioskID());
+            feedbackDTO.setValidationTokenDTO(validationTokenDTO);
+        }
+        return feedbackDTO;
+    }
 }
@@ -8,7 +8,7 @@ public class KioskMapper {
         kioskDTO.setKioskId(kioskEntity.getKioskID());
         kioskDTO.setKioskName(kioskEntity.getKioskName());
         kioskDTO.setKioskDescription(kioskEntity.getKioskDescription());
-        kioskDTO.setKioskState(kioskEntity.getKioskStateEnum().toString());
+        kioskDTO.setKioskState(kioskEntity.getKioskStateEnum() != null ? kioskEntity.getKioskStateEnum().toString() : null);
         return kioskDTO;
     }
 }
@@ -0,0 +1,69 @@
+package com.backend.vofasbackend.servicelayer.messages;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * Message published once a feedback audio file has been stored and the feedback is ready to be transcribed.
+ * <p>
+ * Besides the feedback id the message carries the stored audio's location and properties and the kiosk the feedback
+ * was recorded at, so the transcription worker does not have to load the feedback row again. Messages that only carry
+ * the id, or were published before the kiosk was added, are still accepted; the worker then reads the missing fields
+ * from the database.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FeedbackReceivedMessage {
+
+    /**
+     * Identifier of the feedback that is waiting for transcription.
+     */
+    private Long feedbackID;
+
+    /**
+     * The timestamp when the message was published.
+     */
+    private LocalDateTime publishedAt;
+
+    /**
+     * The timestamp when the feedback was received.
+     */
+    private LocalDateTime feedbackReceivedAt;
+
+    /**
+     * Path of the stored audio file.
+     */
+    private String filePath;
+
+    /**
+     * SHA-256 hash of the stored audio file.
+     */
+    private String fileHash;
+
+    /**
+     * Duration of the recording, null if it could not be determined.
+     */
+    private Duration feedbackDuration;
+
+    /**
+     * Identifier of the kiosk the feedback was recorded at.
+     */
+    private Long kioskID;
+
+    public FeedbackReceivedMessage(Long feedbackID, LocalDateTime publishedAt) {
+        this.feedbackID = feedbackID;
+        this.publishedAt = publishedAt;
+    }
+
+    /**
+     * @return true if the message carries the stored audio details and the kiosk, false if only the id is known
+     */
+    public boolean hasAudioDetails() {
+        return filePath != null && kioskID != null;
+    }
+}
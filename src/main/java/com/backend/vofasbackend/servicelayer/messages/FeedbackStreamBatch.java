@@ -0,0 +1,44 @@
+package com.backend.vofasbackend.servicelayer.messages;
+
+import com.backend.vofasbackend.presentationlayer.datatransferobjects.FeedbackDTO;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Message fanned out to every node so that feedbacks processed on one node reach the live streams of all of them.
+ * Events are collected for a short window and sent together to keep the message rate low.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FeedbackStreamBatch {
+
+    /**
+     * Identifier of the node that published the events.
+     */
+    private String originNode;
+
+    /**
+     * The events, in the order they were published.
+     */
+    private List<Event> events;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Event {
+
+        /**
+         * Identifier of the event, unique across nodes. Receivers use it to drop redelivered events.
+         */
+        private String eventID;
+
+        /**
+         * The processed feedback.
+         */
+        private FeedbackDTO feedback;
+    }
+}
@@ -0,0 +1,206 @@
+package com.backend.vofasbackend.servicelayer.recovery;
+
+import com.backend.vofasbackend.datalayer.enums.FeedbackStateEnum;
+import com.backend.vofasbackend.datalayer.projections.StuckFeedbackRow;
+import com.backend.vofasbackend.datalayer.repositories.FeedbackRepository;
+import com.backend.vofasbackend.servicelayer.interfaces.FeedbackEventPublisher;
+import com.backend.vofasbackend.servicelayer.interfaces.FeedbackStateMachine;
+import com.backend.vofasbackend.servicelayer.messages.FeedbackReceivedMessage;
+import com.backend.vofasbackend.servicelayer.sentiment.SentimentStage;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Puts feedbacks back into the pipeline when the node working on them went away, e.g. because the JVM died while the
+ * upload's transcription or a sentiment batch was running in memory.
+ * <p>
+ * When the application is ready and then every {@code VoFAS.recovery.interval}, the scheduler looks for feedbacks
+ * whose state has not changed for {@code VoFAS.recovery.stuck-timeout} and takes at most
+ * {@code VoFAS.recovery.batch-size} of them, so a backlog left by an outage drains at a bounded rate instead of
+ * reaching the transcription provider all at once. Each feedback is claimed with a conditional update that gives this
+ * node a lease of {@code VoFAS.recovery.lease}; other nodes skip it until the lease runs out, and the same node does
+ * not re-enqueue it again before then either.
+ * <ul>
+ *   <li>{@link FeedbackStateEnum#RECEIVED}: the "feedback received" message is published again.</li>
+ *   <li>{@link FeedbackStateEnum#WAITING_FOR_TRANSCRIPTION}: the feedback is handed back to
+ *   {@link FeedbackStateEnum#RECEIVED} and its message published again.</li>
+ *   <li>{@link FeedbackStateEnum#TRANSCRIBED}: the feedback is submitted to the {@link SentimentStage}.</li>
+ *   <li>{@link FeedbackStateEnum#WAITING_FOR_SENTIMENT_ANALYSIS}: the feedback is handed back to
+ *   {@link FeedbackStateEnum#TRANSCRIBED} and submitted to the {@link SentimentStage}.</li>
+ * </ul>
+ * The timeout must be longer than the slowest transcription: a worker that is still running when its feedback is
+ * handed back loses its result to the state machine, and the feedback is transcribed again. Re-enqueued feedbacks that
+ * are also still queued elsewhere are processed once, as the state machine rejects the second claim. Leases and the
+ * timeout compare timestamps taken on different nodes, which assumes their clocks are synchronized.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "VoFAS.recovery.enabled", havingValue = "true", matchIfMissing = true)
+public class FeedbackRecoveryScheduler {
+
+    private static final Set<FeedbackStateEnum> PIPELINE_STATES = EnumSet.of(
+            FeedbackStateEnum.RECEIVED,
+            FeedbackStateEnum.WAITING_FOR_TRANSCRIPTION,
+            FeedbackStateEnum.TRANSCRIBED,
+            FeedbackStateEnum.WAITING_FOR_SENTIMENT_ANALYSIS);
+
+    private final FeedbackRepository feedbackRepository;
+    private final FeedbackStateMachine feedbackStateMachine;
+    private final FeedbackEventPublisher feedbackEventPublisher;
+    private final SentimentStage sentimentStage;
+    private final TransactionTemplate transaction;
+    private final MeterRegistry meterRegistry;
+    private final Duration stuckTimeout;
+    private final Duration lease;
+    private final int batchSize;
+    private final String nodeID;
+    private final ScheduledExecutorService recoverer;
+
+    public FeedbackRecoveryScheduler(FeedbackRepository feedbackRepository,
+                                     FeedbackStateMachine feedbackStateMachine,
+                                     FeedbackEventPublisher feedbackEventPublisher,
+                                     SentimentStage sentimentStage,
+                                     PlatformTransactionManager transactionManager,
+                                     MeterRegistry meterRegistry,
+                                     @Value("${VoFAS.recovery.stuck-timeout}") Duration stuckTimeout,
+                                     @Value("${VoFAS.recovery.lease}") Duration lease,
+                                     @Value("${VoFAS.recovery.interval}") Duration interval,
+                                     @Value("${VoFAS.recovery.batch-size}") int batchSize,
+                                     @Value("${VoFAS.recovery.node-id:}") String nodeID) {
+        this.feedbackRepository = feedbackRepository;
+        this.feedbackStateMachine = feedbackStateMachine;
+        this.feedbackEventPublisher = feedbackEventPublisher;
+        this.sentimentStage = sentimentStage;
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.meterRegistry = meterRegistry;
+        this.stuckTimeout = stuckTimeout;
+        this.lease = lease;
+        this.batchSize = Math.max(1, batchSize);
+        // the JVM name is "pid@host"
+        this.nodeID = nodeID.isBlank() ? ManagementFactory.getRuntimeMXBean().getName() : nodeID;
+
+        this.recoverer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "feedback-recovery");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long intervalMillis = Math.max(1, interval.toMillis());
+        recoverer.scheduleWithFixedDelay(this::recoverSafely, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Recovers the feedbacks left behind by the previous run of the application, without waiting for the first
+     * interval.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void recoverOnStartup() {
+        recoverer.execute(this::recoverSafely);
+    }
+
+    /**
+     * Claims and re-enqueues one batch of stuck feedbacks.
+     *
+     * @return the number of feedbacks put back into the pipeline
+     */
+    int recover() {
+        LocalDateTime now = LocalDateTime.now();
+        List<StuckFeedbackRow> stuck = feedbackRepository.findStuckFeedbacks(PIPELINE_STATES, now.minus(stuckTimeout), now,
+                PageRequest.of(0, batchSize));
+        if (stuck.isEmpty()) {
+            return 0;
+        }
+        LocalDateTime leaseUntil = now.plus(lease);
+        Map<FeedbackStateEnum, List<StuckFeedbackRow>> claimed = transaction.execute(status -> {
+            Map<FeedbackStateEnum, List<StuckFeedbackRow>> byState = new EnumMap<>(FeedbackStateEnum.class);
+            for (StuckFeedbackRow row : stuck) {
+                // another node claimed it, or it moved on since it was listed
+                if (feedbackRepository.claimRecoveryLease(row.feedbackID(), row.feedbackState(), nodeID, now, leaseUntil) == 1) {
+                    byState.computeIfAbsent(row.feedbackState(), state -> new ArrayList<>()).add(row);
+                }
+            }
+            return byState;
+        });
+        if (claimed == null || claimed.isEmpty()) {
+            return 0;
+        }
+
+        List<StuckFeedbackRow> toTranscribe = new ArrayList<>(claimed.getOrDefault(FeedbackStateEnum.RECEIVED, List.of()));
+        toTranscribe.addAll(handBack(claimed, FeedbackStateEnum.WAITING_FOR_TRANSCRIPTION, FeedbackStateEnum.RECEIVED));
+        List<StuckFeedbackRow> toAnalyze = new ArrayList<>(claimed.getOrDefault(FeedbackStateEnum.TRANSCRIBED, List.of()));
+        toAnalyze.addAll(handBack(claimed, FeedbackStateEnum.WAITING_FOR_SENTIMENT_ANALYSIS, FeedbackStateEnum.TRANSCRIBED));
+
+        int recovered = 0;
+        for (StuckFeedbackRow row : toTranscribe) {
+            try {
+                feedbackEventPublisher.publishFeedbackReceived(new FeedbackReceivedMessage(row.feedbackID(), LocalDateTime.now()));
+                recovered(row);
+                recovered++;
+            } catch (RuntimeException e) {
+                // the lease runs out and a later pass tries again
+                log.warn("Could not re-enqueue feedback {} for transcription", row.feedbackID(), e);
+            }
+        }
+        for (StuckFeedbackRow row : toAnalyze) {
+            sentimentStage.submit(row.feedbackID(), row.transcription(), row.transcriptionHash());
+            recovered(row);
+            recovered++;
+        }
+        log.info("Re-enqueued {} feedbacks stuck for more than {}", recovered, stuckTimeout);
+        return recovered;
+    }
+
+    /**
+     * Moves the claimed feedbacks in {@code from} back to {@code to}.
+     *
+     * @return the feedbacks that were handed back
+     */
+    private List<StuckFeedbackRow> handBack(Map<FeedbackStateEnum, List<StuckFeedbackRow>> claimed,
+                                            FeedbackStateEnum from, FeedbackStateEnum to) {
+        List<StuckFeedbackRow> rows = claimed.getOrDefault(from, List.of());
+        if (rows.isEmpty()) {
+            return List.of();
+        }
+        Set<Long> handedBack = feedbackStateMachine.transitionAll(rows.stream().map(StuckFeedbackRow::feedbackID).toList(), from, to);
+        return rows.stream().filter(row -> handedBack.contains(row.feedbackID())).toList();
+    }
+
+    private void recovered(StuckFeedbackRow row) {
+        meterRegistry.counter("vofas.recovery.requeued", "state", row.feedbackState().toString()).increment();
+    }
+
+    private void recoverSafely() {
+        try {
+            recover();
+        } catch (RuntimeException e) {
+            log.warn("Could not recover stuck feedbacks", e);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        recoverer.shutdown();
+        recoverer.awaitTermination(5, TimeUnit.SECONDS);
+    }
+}
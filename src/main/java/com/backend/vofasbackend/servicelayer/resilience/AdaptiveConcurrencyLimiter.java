@@ -0,0 +1,172 @@
+package com.backend.vofasbackend.servicelayer.resilience;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Concurrency limiter whose limit follows the observed latency of the protected calls using additive increase,
+ * multiplicative decrease (AIMD). Every fast call completed while the limit was in use grows the limit by
+ * {@code 1 / limit}, i.e. by one per window of calls; every failed call or call slower than the latency threshold
+ * shrinks it by the back-off ratio.
+ * <p>
+ * Callers over the limit wait in a bounded queue for at most {@code maxWait}; callers arriving when the queue is full
+ * are rejected immediately.
+ */
+public class AdaptiveConcurrencyLimiter {
+
+    /**
+     * Result of an attempt to acquire a permit.
+     */
+    public enum Acquisition {
+        ACQUIRED,
+        REJECTED_QUEUE_FULL,
+        REJECTED_TIMEOUT
+    }
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double backoffRatio;
+    private final long latencyThresholdNanos;
+    private final int maxQueued;
+    private final long maxWaitNanos;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition permitReleased = lock.newCondition();
+
+    private double limit;
+    private int inFlight;
+    private int queued;
+
+    public AdaptiveConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit, double backoffRatio,
+                                      Duration latencyThreshold, int maxQueued, Duration maxWait) {
+        if (minLimit < 1 || maxLimit < minLimit || initialLimit < minLimit || initialLimit > maxLimit) {
+            throw new IllegalArgumentException("Limits must satisfy 1 <= minLimit <= initialLimit <= maxLimit");
+        }
+        if (backoffRatio <= 0 || backoffRatio >= 1) {
+            throw new IllegalArgumentException("Back-off ratio must be between 0 and 1");
+        }
+        this.limit = initialLimit;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.backoffRatio = backoffRatio;
+        this.latencyThresholdNanos = latencyThreshold.toNanos();
+        this.maxQueued = maxQueued;
+        this.maxWaitNanos = maxWait.toNanos();
+    }
+
+    /**
+     * Acquires a permit, waiting in the queue if the limit is reached. A caller that got
+     * {@link Acquisition#ACQUIRED} must call exactly one of the release methods afterwards.
+     */
+    public Acquisition acquire() throws InterruptedException {
+        lock.lock();
+        try {
+            if (inFlight < currentLimit()) {
+                inFlight++;
+                return Acquisition.ACQUIRED;
+            }
+            if (queued >= maxQueued) {
+                return Acquisition.REJECTED_QUEUE_FULL;
+            }
+            queued++;
+            try {
+                long remainingNanos = maxWaitNanos;
+                while (inFlight >= currentLimit()) {
+                    if (remainingNanos <= 0) {
+                        return Acquisition.REJECTED_TIMEOUT;
+                    }
+                    remainingNanos = permitReleased.awaitNanos(remainingNanos);
+                }
+                inFlight++;
+                return Acquisition.ACQUIRED;
+            } finally {
+                queued--;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Releases a permit after a successful call and adapts the limit to the call's latency.
+     */
+    public void releaseOnSuccess(long latency, TimeUnit unit) {
+        lock.lock();
+        try {
+            boolean limitInUse = inFlight * 2 >= limit;
+            inFlight--;
+            if (unit.toNanos(latency) > latencyThresholdNanos) {
+                decreaseLimit();
+            } else if (limitInUse) {
+                limit = Math.min(maxLimit, limit + 1.0 / limit);
+            }
+            permitReleased.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Releases a permit after a failed call and backs the limit off.
+     */
+    public void releaseOnFailure() {
+        lock.lock();
+        try {
+            inFlight--;
+            decreaseLimit();
+            permitReleased.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Releases a permit without adapting the limit, for calls that were never sent.
+     */
+    public void releaseIgnored() {
+        lock.lock();
+        try {
+            inFlight--;
+            permitReleased.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getLimit() {
+        lock.lock();
+        try {
+            return currentLimit();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getInFlight() {
+        lock.lock();
+        try {
+            return inFlight;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getQueued() {
+        lock.lock();
+        try {
+            return queued;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void decreaseLimit() {
+        limit = Math.max(minLimit, limit * backoffRatio);
+    }
+
+    private int currentLimit() {
+        return (int) limit;
+    }
+}
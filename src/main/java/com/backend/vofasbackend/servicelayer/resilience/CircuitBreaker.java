@@ -0,0 +1,152 @@
+package com.backend.vofasbackend.servicelayer.resilience;
+
+import java.time.Duration;
+import java.util.function.LongSupplier;
+
+/**
+ * Count-based circuit breaker. While CLOSED the outcomes of the last {@code windowSize} calls are recorded and the
+ * circuit opens once at least {@code minimumCalls} have been recorded and the failure rate reaches the threshold.
+ * While OPEN every call is rejected; after {@code openDuration} the circuit becomes HALF_OPEN and lets
+ * {@code halfOpenProbes} calls through. The circuit closes when all of them succeed and opens again on the first
+ * failure.
+ * <p>
+ * {@link #tryAcquirePermission()} returns a generation number that has to be handed back with the outcome, so that
+ * calls started before a state change do not count towards the new state.
+ */
+public class CircuitBreaker {
+
+    public enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+
+    /**
+     * Returned by {@link #tryAcquirePermission()} when the call is not permitted.
+     */
+    public static final long NOT_PERMITTED = -1;
+
+    private final int minimumCalls;
+    private final double failureRateThreshold;
+    private final long openDurationNanos;
+    private final int halfOpenProbes;
+    private final LongSupplier nanoClock;
+
+    private final boolean[] failures;
+    private int nextOutcome;
+    private int recordedCalls;
+    private int recordedFailures;
+
+    private State state = State.CLOSED;
+    private long generation;
+    private long openedAt;
+    private int probesInFlight;
+    private int probeSuccesses;
+
+    public CircuitBreaker(int windowSize, int minimumCalls, double failureRateThreshold, Duration openDuration,
+                          int halfOpenProbes) {
+        this(windowSize, minimumCalls, failureRateThreshold, openDuration, halfOpenProbes, System::nanoTime);
+    }
+
+    CircuitBreaker(int windowSize, int minimumCalls, double failureRateThreshold, Duration openDuration,
+                   int halfOpenProbes, LongSupplier nanoClock) {
+        if (minimumCalls < 1 || minimumCalls > windowSize || halfOpenProbes < 1) {
+            throw new IllegalArgumentException("Circuit breaker requires 1 <= minimumCalls <= windowSize and halfOpenProbes >= 1");
+        }
+        this.failures = new boolean[windowSize];
+        this.minimumCalls = minimumCalls;
+        this.failureRateThreshold = failureRateThreshold;
+        this.openDurationNanos = openDuration.toNanos();
+        this.halfOpenProbes = halfOpenProbes;
+        this.nanoClock = nanoClock;
+    }
+
+    /**
+     * @return the generation to pass to the outcome methods, or {@link #NOT_PERMITTED}
+     */
+    public synchronized long tryAcquirePermission() {
+        if (state == State.OPEN) {
+            if (nanoClock.getAsLong() - openedAt < openDurationNanos) {
+                return NOT_PERMITTED;
+            }
+            transitionTo(State.HALF_OPEN);
+        }
+        if (state == State.HALF_OPEN) {
+            if (probesInFlight >= halfOpenProbes) {
+                return NOT_PERMITTED;
+            }
+            probesInFlight++;
+        }
+        return generation;
+    }
+
+    /**
+     * Gives a permission back for a call that was never sent.
+     */
+    public synchronized void releasePermission(long permittedGeneration) {
+        if (permittedGeneration == generation && state == State.HALF_OPEN) {
+            probesInFlight--;
+        }
+    }
+
+    public synchronized void onSuccess(long permittedGeneration) {
+        if (permittedGeneration != generation) {
+            return;
+        }
+        if (state == State.HALF_OPEN) {
+            probesInFlight--;
+            if (++probeSuccesses >= halfOpenProbes) {
+                transitionTo(State.CLOSED);
+            }
+        } else if (state == State.CLOSED) {
+            record(false);
+        }
+    }
+
+    public synchronized void onFailure(long permittedGeneration) {
+        if (permittedGeneration != generation) {
+            return;
+        }
+        if (state == State.HALF_OPEN) {
+            transitionTo(State.OPEN);
+        } else if (state == State.CLOSED) {
+            record(true);
+            if (recordedCalls >= minimumCalls && (double) recordedFailures / recordedCalls >= failureRateThreshold) {
+                transitionTo(State.OPEN);
+            }
+        }
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    private void record(boolean failure) {
+        if (recordedCalls == failures.length) {
+            if (failures[nextOutcome]) {
+                recordedFailures--;
+            }
+        } else {
+            recordedCalls++;
+        }
+        failures[nextOutcome] = failure;
+        if (failure) {
+            recordedFailures++;
+        }
+        nextOutcome = (nextOutcome + 1) % failures.length;
+    }
+
+    private void transitionTo(State newState) {
+        state = newState;
+        generation++;
+        probesInFlight = 0;
+        probeSuccesses = 0;
+        if (newState == State.OPEN) {
+            openedAt = nanoClock.getAsLong();
+        } else if (newState == State.CLOSED) {
+            recordedCalls = 0;
+            recordedFailures = 0;
+            nextOutcome = 0;
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.backend.vofasbackend.servicelayer.resilience;
+
+import org.springframework.ai.audio.transcription.AudioTranscriptionPrompt;
+import org.springframework.ai.audio.transcription.AudioTranscriptionResponse;
+import org.springframework.ai.model.Model;
+
+/**
+ * Decorates a transcription model so that every call goes through a {@link TranscriptionGuard}.
+ */
+public class GuardedTranscriptionModel implements Model<AudioTranscriptionPrompt, AudioTranscriptionResponse> {
+
+    private final Model<AudioTranscriptionPrompt, AudioTranscriptionResponse> delegate;
+    private final TranscriptionGuard transcriptionGuard;
+
+    public GuardedTranscriptionModel(Model<AudioTranscriptionPrompt, AudioTranscriptionResponse> delegate,
+                                     TranscriptionGuard transcriptionGuard) {
+        this.delegate = delegate;
+        this.transcriptionGuard = transcriptionGuard;
+    }
+
+    @Override
+    public AudioTranscriptionResponse call(AudioTranscriptionPrompt prompt) {
+        return transcriptionGuard.execute(() -> delegate.call(prompt));
+    }
+}
@@ -0,0 +1,102 @@
+package com.backend.vofasbackend.servicelayer.resilience;
+
+import com.backend.vofasbackend.exceptions.exceptions.TranscriptionUnavailableException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Runs calls to the transcription provider under an {@link AdaptiveConcurrencyLimiter} and a {@link CircuitBreaker}.
+ * Calls rejected by either of them fail fast with a {@link TranscriptionUnavailableException} instead of tying up a
+ * worker thread on a provider that is already slow or failing.
+ * <p>
+ * Published metrics: {@code vofas.transcription.limiter.limit}, {@code vofas.transcription.limiter.inflight},
+ * {@code vofas.transcription.limiter.queued}, {@code vofas.transcription.limiter.rejections} (tagged by reason) and
+ * {@code vofas.transcription.circuit.state} (0 closed, 1 half-open, 2 open).
+ */
+public class TranscriptionGuard {
+
+    private final AdaptiveConcurrencyLimiter limiter;
+    private final CircuitBreaker circuitBreaker;
+    private final Counter circuitOpenRejections;
+    private final Counter queueFullRejections;
+    private final Counter timeoutRejections;
+
+    public TranscriptionGuard(AdaptiveConcurrencyLimiter limiter, CircuitBreaker circuitBreaker, MeterRegistry meterRegistry) {
+        this.limiter = limiter;
+        this.circuitBreaker = circuitBreaker;
+        Gauge.builder("vofas.transcription.limiter.limit", limiter, AdaptiveConcurrencyLimiter::getLimit)
+                .register(meterRegistry);
+        Gauge.builder("vofas.transcription.limiter.inflight", limiter, AdaptiveConcurrencyLimiter::getInFlight)
+                .register(meterRegistry);
+        Gauge.builder("vofas.transcription.limiter.queued", limiter, AdaptiveConcurrencyLimiter::getQueued)
+                .register(meterRegistry);
+        Gauge.builder("vofas.transcription.circuit.state", circuitBreaker, breaker -> breaker.getState().ordinal())
+                .register(meterRegistry);
+        this.circuitOpenRejections = rejectionCounter(meterRegistry, "circuit_open");
+        this.queueFullRejections = rejectionCounter(meterRegistry, "queue_full");
+        this.timeoutRejections = rejectionCounter(meterRegistry, "timeout");
+    }
+
+    /**
+     * Executes the given call if the circuit is closed and a concurrency permit can be obtained.
+     *
+     * @throws TranscriptionUnavailableException if the call was rejected without being executed
+     */
+    public <T> T execute(Supplier<T> call) {
+        long generation = circuitBreaker.tryAcquirePermission();
+        if (generation == CircuitBreaker.NOT_PERMITTED) {
+            circuitOpenRejections.increment();
+            throw new TranscriptionUnavailableException("circuit breaker is open");
+        }
+        AdaptiveConcurrencyLimiter.Acquisition acquisition = acquirePermit(generation);
+        if (acquisition != AdaptiveConcurrencyLimiter.Acquisition.ACQUIRED) {
+            circuitBreaker.releasePermission(generation);
+            if (acquisition == AdaptiveConcurrencyLimiter.Acquisition.REJECTED_QUEUE_FULL) {
+                queueFullRejections.increment();
+                throw new TranscriptionUnavailableException("too many transcriptions are queued");
+            }
+            timeoutRejections.increment();
+            throw new TranscriptionUnavailableException("timed out waiting for a concurrency permit");
+        }
+
+        long startedAt = System.nanoTime();
+        try {
+            T result = call.get();
+            limiter.releaseOnSuccess(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+            circuitBreaker.onSuccess(generation);
+            return result;
+        } catch (RuntimeException | Error e) {
+            limiter.releaseOnFailure();
+            circuitBreaker.onFailure(generation);
+            throw e;
+        }
+    }
+
+    public AdaptiveConcurrencyLimiter getLimiter() {
+        return limiter;
+    }
+
+    public CircuitBreaker getCircuitBreaker() {
+        return circuitBreaker;
+    }
+
+    private AdaptiveConcurrencyLimiter.Acquisition acquirePermit(long generation) {
+        try {
+            return limiter.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            circuitBreaker.releasePermission(generation);
+            throw new TranscriptionUnavailableException("interrupted while waiting for a concurrency permit");
+        }
+    }
+
+    private static Counter rejectionCounter(MeterRegistry meterRegistry, String reason) {
+        return Counter.builder("vofas.transcription.limiter.rejections")
+                .tag("reason", reason)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,279 @@
+package com.backend.vofasbackend.servicelayer.search;
+
+import com.backend.vofasbackend.datalayer.projections.TranscriptionSearchRow;
+import com.backend.vofasbackend.datalayer.repositories.FeedbackRepository;
+import com.backend.vofasbackend.exceptions.exceptions.InvalidFilterOptionException;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.tr.TurkishAnalyzer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.LongPoint;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.queryparser.classic.ParseException;
+import org.apache.lucene.queryparser.classic.QueryParser;
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.SearcherManager;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.store.FSDirectory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Embedded Lucene index over the transcription texts of the feedbacks.
+ * <p>
+ * Texts are analyzed with Lucene's {@link TurkishAnalyzer}, matching the language the transcriptions are requested
+ * in: apostrophe suffixes are cut ("Ankara'da"), dotted and dotless i are lower-cased the Turkish way, stop words are
+ * dropped and words are stemmed, so "kasada", "kasalar" and "Kasa" find each other. Besides the text, each feedback
+ * stores its id and indexes its receive time and kiosk, the filters that never change after transcription.
+ * <p>
+ * The database stays the source of truth: the index is rebuilt from it in parallel when the application starts, and
+ * is kept up to date by indexing each transcription once its transaction commits. Searches see new documents after
+ * at most {@code VoFAS.search.refresh-interval}.
+ */
+@Slf4j
+@Component
+public class TranscriptionSearchIndex {
+
+    static final String ID = "feedbackID";
+    static final String TEXT = "transcription";
+    static final String RECEIVED_AT = "receivedAt";
+    static final String KIOSK = "kioskID";
+
+    private final FeedbackRepository feedbackRepository;
+    private final TransactionTemplate readOnlyTransaction;
+    private final int rebuildParallelism;
+    private final Analyzer analyzer = new TurkishAnalyzer();
+    private final FSDirectory directory;
+    private final IndexWriter indexWriter;
+    private final SearcherManager searcherManager;
+    private final ScheduledExecutorService refresher;
+    private volatile boolean rebuilding;
+
+    public TranscriptionSearchIndex(FeedbackRepository feedbackRepository,
+                                    PlatformTransactionManager transactionManager,
+                                    @Value("${VoFAS.search.index-path}") String indexPath,
+                                    @Value("${VoFAS.search.rebuild-parallelism}") int rebuildParallelism,
+                                    @Value("${VoFAS.search.refresh-interval}") Duration refreshInterval) throws IOException {
+        this.feedbackRepository = feedbackRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.rebuildParallelism = Math.max(1, rebuildParallelism);
+
+        Path path = Files.createDirectories(Path.of(indexPath));
+        this.directory = FSDirectory.open(path);
+        // the index is rebuilt from the database on startup, whatever a previous run left behind is discarded
+        this.indexWriter = new IndexWriter(directory, new IndexWriterConfig(analyzer).setOpenMode(IndexWriterConfig.OpenMode.CREATE));
+        this.searcherManager = new SearcherManager(indexWriter, null);
+        this.refresher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "transcription-search-refresh");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long refreshMillis = Math.max(1, refreshInterval.toMillis());
+        refresher.scheduleWithFixedDelay(this::refresh, refreshMillis, refreshMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Indexes the transcription of a feedback, replacing an earlier version. Call it once the transcription is
+     * committed, so rolled back transcriptions never become searchable.
+     */
+    public void index(Long feedbackID, LocalDateTime receivedAt, Long kioskID, String transcription) {
+        write(feedbackID, receivedAt, kioskID, transcription);
+    }
+
+    /**
+     * Finds the feedbacks whose transcription matches a query, best match first.
+     * <p>
+     * The query uses the Lucene query syntax: words are all required by default, {@code OR}, {@code NOT}, {@code +}
+     * and {@code -} combine them, and double quotes search for a phrase.
+     *
+     * @param query    the query text
+     * @param start    only match feedbacks received at or after this time, applied together with {@code end}
+     * @param end      only match feedbacks received at or before this time, applied together with {@code start}
+     * @param kioskID  only match feedbacks recorded at this kiosk, null for all
+     * @param offset   the number of best matches to skip
+     * @param count    the maximum number of matches to return
+     * @throws InvalidFilterOptionException if the query cannot be parsed
+     */
+    public SearchHits search(String query, LocalDateTime start, LocalDateTime end, Long kioskID, int offset, int count) throws InvalidFilterOptionException {
+        BooleanQuery.Builder builder = new BooleanQuery.Builder().add(parse(query), BooleanClause.Occur.MUST);
+        if (start != null && end != null) {
+            builder.add(LongPoint.newRangeQuery(RECEIVED_AT, epochSecond(start), epochSecond(end)), BooleanClause.Occur.FILTER);
+        }
+        if (kioskID != null) {
+            builder.add(LongPoint.newExactQuery(KIOSK, kioskID), BooleanClause.Occur.FILTER);
+        }
+
+        IndexSearcher searcher = null;
+        try {
+            searcher = searcherManager.acquire();
+            TopDocs topDocs = searcher.search(builder.build(), offset + count);
+            List<Long> feedbackIDs = new ArrayList<>(count);
+            for (int i = offset; i < topDocs.scoreDocs.length; i++) {
+                ScoreDoc scoreDoc = topDocs.scoreDocs[i];
+                feedbackIDs.add(Long.valueOf(searcher.storedFields().document(scoreDoc.doc).get(ID)));
+            }
+            return new SearchHits(topDocs.totalHits.value, feedbackIDs);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            release(searcher);
+        }
+    }
+
+    /**
+     * True while the startup rebuild is running and searches may miss older feedbacks.
+     */
+    public boolean isRebuilding() {
+        return rebuilding;
+    }
+
+    /**
+     * Re-reads every transcription from the database into the index. The feedback id range is split between
+     * {@code VoFAS.search.rebuild-parallelism} workers, each streaming its slice in its own read-only transaction.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        Long minID = feedbackRepository.findMinFeedbackID().orElse(null);
+        Long maxID = feedbackRepository.findMaxFeedbackID().orElse(null);
+        if (minID == null || maxID == null) {
+            return;
+        }
+        rebuilding = true;
+        long started = System.nanoTime();
+        AtomicLong indexed = new AtomicLong();
+        long sliceSize = (maxID - minID) / rebuildParallelism + 1;
+        ExecutorService workers = Executors.newFixedThreadPool(rebuildParallelism);
+        try {
+            List<CompletableFuture<Void>> slices = new ArrayList<>();
+            for (long fromID = minID; fromID <= maxID; fromID += sliceSize) {
+                long sliceFrom = fromID;
+                long sliceTo = Math.min(maxID, fromID + sliceSize - 1);
+                slices.add(CompletableFuture.runAsync(() -> indexed.addAndGet(rebuildSlice(sliceFrom, sliceTo)), workers));
+            }
+            CompletableFuture.allOf(slices.toArray(CompletableFuture[]::new)).join();
+            refresh();
+            log.info("Indexed {} transcriptions in {} ms", indexed.get(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+        } finally {
+            workers.shutdown();
+            rebuilding = false;
+        }
+    }
+
+    private long rebuildSlice(long fromID, long toID) {
+        Long count = readOnlyTransaction.execute(status -> {
+            long sliceCount = 0;
+            try (Stream<TranscriptionSearchRow> rows = feedbackRepository.streamTranscriptionsBetween(fromID, toID)) {
+                for (TranscriptionSearchRow row : (Iterable<TranscriptionSearchRow>) rows::iterator) {
+                    write(row.feedbackID(), row.feedbackReceivedAt(), row.kioskID(), row.transcription());
+                    sliceCount++;
+                }
+            }
+            return sliceCount;
+        });
+        return count != null ? count : 0;
+    }
+
+    private void write(Long feedbackID, LocalDateTime receivedAt, Long kioskID, String transcription) {
+        Document document = new Document();
+        document.add(new StringField(ID, feedbackID.toString(), Field.Store.YES));
+        document.add(new TextField(TEXT, transcription != null ? transcription : "", Field.Store.NO));
+        if (receivedAt != null) {
+            document.add(new LongPoint(RECEIVED_AT, epochSecond(receivedAt)));
+        }
+        if (kioskID != null) {
+            document.add(new LongPoint(KIOSK, kioskID));
+        }
+        try {
+            // updateDocument keeps a feedback indexed once when the rebuild and a live update meet
+            indexWriter.updateDocument(new Term(ID, feedbackID.toString()), document);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private Query parse(String query) throws InvalidFilterOptionException {
+        if (query == null || query.isBlank()) {
+            throw new InvalidFilterOptionException("query", query);
+        }
+        QueryParser parser = new QueryParser(TEXT, analyzer);
+        parser.setDefaultOperator(QueryParser.Operator.AND);
+        parser.setAllowLeadingWildcard(false);
+        try {
+            return parser.parse(query);
+        } catch (ParseException | IllegalArgumentException e) {
+            throw new InvalidFilterOptionException("query", query);
+        }
+    }
+
+    void refresh() {
+        try {
+            searcherManager.maybeRefresh();
+        } catch (IOException e) {
+            log.warn("Could not refresh the transcription search index", e);
+        }
+    }
+
+    private void release(IndexSearcher searcher) {
+        if (searcher == null) {
+            return;
+        }
+        try {
+            searcherManager.release(searcher);
+        } catch (IOException e) {
+            log.warn("Could not release a transcription searcher", e);
+        }
+    }
+
+    private static long epochSecond(LocalDateTime time) {
+        return time.toEpochSecond(ZoneOffset.UTC);
+    }
+
+    @PreDestroy
+    void close() throws IOException {
+        refresher.shutdownNow();
+        searcherManager.close();
+        indexWriter.close();
+        directory.close();
+    }
+
+    /**
+     * A page of matches.
+     *
+     * @param totalHits   the number of matching feedbacks, a lower bound once it exceeds a thousand
+     * @param feedbackIDs the ids of the matches on the page, best match first
+     */
+    public record SearchHits(long totalHits, List<Long> feedbackIDs) {
+    }
+}
@@ -0,0 +1,76 @@
+package com.backend.vofasbackend.servicelayer.sentiment;
+
+import com.backend.vofasbackend.datalayer.enums.SentimentStateEnum;
+import com.backend.vofasbackend.servicelayer.interfaces.SentimentAnalyzer;
+import org.springframework.ai.chat.messages.SystemMessage;
+import org.springframework.ai.chat.messages.UserMessage;
+import org.springframework.ai.chat.model.ChatModel;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.chat.prompt.Prompt;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * {@link SentimentAnalyzer} asking a Spring AI chat model to label a whole batch of transcriptions in one call.
+ * <p>
+ * The transcriptions are sent as a numbered list and the model answers with one numbered label per line. A batch
+ * whose answer does not label every transcription fails as a whole, so the sentiment stage can hand it back.
+ */
+public class ChatModelSentimentAnalyzer implements SentimentAnalyzer {
+
+    static final String INSTRUCTIONS = "You classify the sentiment of Turkish customer feedbacks recorded at kiosks. " +
+            "For each numbered feedback answer with one line in the form '<number>: <label>', where the label is " +
+            "POSITIVE, NEUTRAL or NEGATIVE. Answer every feedback in the given order and write nothing else.";
+
+    private static final Pattern LABEL_LINE = Pattern.compile("^\\s*(\\d+)\\s*[:.)-]\\s*(POSITIVE|NEUTRAL|NEGATIVE)\\b",
+            Pattern.CASE_INSENSITIVE | Pattern.MULTILINE);
+
+    private final String name;
+    private final ChatModel chatModel;
+
+    public ChatModelSentimentAnalyzer(String name, ChatModel chatModel) {
+        this.name = name;
+        this.chatModel = chatModel;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public List<SentimentStateEnum> analyze(List<String> transcriptions) {
+        if (transcriptions.isEmpty()) {
+            return List.of();
+        }
+        StringBuilder feedbacks = new StringBuilder();
+        for (int i = 0; i < transcriptions.size(); i++) {
+            String transcription = transcriptions.get(i) != null ? transcriptions.get(i) : "";
+            // one feedback per line keeps the numbering unambiguous
+            feedbacks.append(i + 1).append(": ").append(transcription.replaceAll("\\s+", " ").strip()).append('\n');
+        }
+        ChatResponse response = chatModel.call(new Prompt(List.of(
+                new SystemMessage(INSTRUCTIONS),
+                new UserMessage(feedbacks.toString()))));
+        return parse(response.getResult().getOutput().getContent(), transcriptions.size());
+    }
+
+    static List<SentimentStateEnum> parse(String answer, int expected) {
+        SentimentStateEnum[] labels = new SentimentStateEnum[expected];
+        Matcher matcher = LABEL_LINE.matcher(answer != null ? answer : "");
+        while (matcher.find()) {
+            int index = Integer.parseInt(matcher.group(1)) - 1;
+            if (index >= 0 && index < expected) {
+                labels[index] = SentimentStateEnum.valueOf(matcher.group(2).toUpperCase(Locale.ROOT));
+            }
+        }
+        if (Arrays.asList(labels).contains(null)) {
+            throw new IllegalStateException("The sentiment model did not label all " + expected + " feedbacks: " + answer);
+        }
+        return List.of(labels);
+    }
+}
@@ -0,0 +1,130 @@
+package com.backend.vofasbackend.servicelayer.sentiment;
+
+import com.backend.vofasbackend.datalayer.enums.SentimentStateEnum;
+import com.backend.vofasbackend.servicelayer.interfaces.SentimentAnalyzer;
+import org.springframework.core.io.Resource;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Offline {@link SentimentAnalyzer} scoring Turkish transcriptions against a word lexicon.
+ * <p>
+ * Turkish glues suffixes to its words, so lexicon entries are prefixes and each word takes the polarity of the
+ * longest entry it starts with ("memnunum", "memnunduk" and "memnuniyetsiz" find their own entries). On top of the
+ * word polarities a few rules cover the common constructs of short spoken feedback: negated verb forms
+ * ("beğenmedim") and a following "değil" or "yok" flip the polarity of the word before them, intensifiers such as
+ * "çok" double the next word, and "ama" halves what was said before it since the point usually follows it. A positive
+ * total is {@link SentimentStateEnum#POSITIVE}, a negative one {@link SentimentStateEnum#NEGATIVE}.
+ */
+public class LexiconSentimentAnalyzer implements SentimentAnalyzer {
+
+    private static final Locale TURKISH = Locale.forLanguageTag("tr");
+    private static final Pattern WORD_SEPARATOR = Pattern.compile("[^\\p{L}]+");
+    private static final Pattern NEGATIVE_VERB_SUFFIX = Pattern.compile("^(m[ae][dyzm]|m[ıiuü]yor)");
+    private static final Set<String> INTENSIFIERS = Set.of("çok", "gayet", "gerçekten", "aşırı", "oldukça", "epey");
+    private static final Set<String> CONTRASTS = Set.of("ama", "fakat", "ancak", "lakin");
+
+    private final Map<String, Entry> lexicon;
+
+    public LexiconSentimentAnalyzer(Resource lexiconResource) {
+        this.lexicon = load(lexiconResource);
+    }
+
+    @Override
+    public String getName() {
+        return "lexicon";
+    }
+
+    @Override
+    public List<SentimentStateEnum> analyze(List<String> transcriptions) {
+        return transcriptions.stream().map(this::classify).toList();
+    }
+
+    SentimentStateEnum classify(String transcription) {
+        double score = score(transcription);
+        if (score > 0) {
+            return SentimentStateEnum.POSITIVE;
+        }
+        return score < 0 ? SentimentStateEnum.NEGATIVE : SentimentStateEnum.NEUTRAL;
+    }
+
+    double score(String transcription) {
+        if (transcription == null) {
+            return 0;
+        }
+        double score = 0;
+        double weight = 1;
+        double previous = 0;
+        for (String word : WORD_SEPARATOR.split(transcription.toLowerCase(TURKISH))) {
+            if (word.isEmpty()) {
+                continue;
+            }
+            if (CONTRASTS.contains(word)) {
+                score /= 2;
+                weight = 1;
+                previous = 0;
+            } else if (INTENSIFIERS.contains(word)) {
+                weight = 2;
+            } else if (word.startsWith("değil") || word.equals("yok")) {
+                // "memnun değilim", "sorun yok": take the previous word back with the opposite sign
+                score -= 2 * previous;
+                previous = 0;
+            } else {
+                int polarity = polarity(word);
+                if (polarity != 0) {
+                    previous = polarity * weight;
+                    score += previous;
+                    weight = 1;
+                }
+            }
+        }
+        return score;
+    }
+
+    private int polarity(String word) {
+        for (int length = word.length(); length >= 2; length--) {
+            Entry entry = lexicon.get(word.substring(0, length));
+            if (entry != null) {
+                boolean negated = entry.verb() && NEGATIVE_VERB_SUFFIX.matcher(word.substring(length)).find();
+                return negated ? -entry.polarity() : entry.polarity();
+            }
+        }
+        return 0;
+    }
+
+    private static Map<String, Entry> load(Resource lexiconResource) {
+        Map<String, Entry> entries = new HashMap<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(lexiconResource.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                line = line.strip();
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                String[] parts = line.split("\\s+");
+                if (parts.length != 2) {
+                    throw new IllegalStateException("Invalid sentiment lexicon line: " + line);
+                }
+                String word = parts[0].toLowerCase(TURKISH);
+                boolean verb = word.endsWith("-");
+                entries.put(verb ? word.substring(0, word.length() - 1) : word, new Entry(Integer.parseInt(parts[1]), verb));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read the sentiment lexicon " + lexiconResource, e);
+        }
+        return entries;
+    }
+
+    private record Entry(int polarity, boolean verb) {
+    }
+}
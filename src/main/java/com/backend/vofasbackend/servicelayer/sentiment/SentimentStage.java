@@ -0,0 +1,233 @@
+package com.backend.vofasbackend.servicelayer.sentiment;
+
+import com.backend.vofasbackend.datalayer.entities.SentimentAnalysisEntity;
+import com.backend.vofasbackend.datalayer.enums.FeedbackStateEnum;
+import com.backend.vofasbackend.datalayer.enums.SentimentStateEnum;
+import com.backend.vofasbackend.datalayer.repositories.FeedbackRepository;
+import com.backend.vofasbackend.presentationlayer.datatransferobjects.FeedbackDTO;
+import com.backend.vofasbackend.presentationlayer.datatransferobjects.SentimentAnalysisDTO;
+import com.backend.vofasbackend.presentationlayer.datatransferobjects.TranscriptionDTO;
+import com.backend.vofasbackend.servicelayer.caches.SentimentCache;
+import com.backend.vofasbackend.servicelayer.interfaces.FeedbackStateMachine;
+import com.backend.vofasbackend.servicelayer.interfaces.FeedbackStreamBus;
+import com.backend.vofasbackend.servicelayer.interfaces.SentimentAnalyzer;
+import com.backend.vofasbackend.servicelayer.mappers.FeedbackMapper;
+import com.backend.vofasbackend.servicelayer.tools.HashTool;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The sentiment analysis stage of the feedback pipeline, moving transcribed feedbacks to
+ * {@link FeedbackStateEnum#COMPLETED}.
+ * <p>
+ * Transcribed feedbacks are collected into micro-batches: a batch is closed when it holds
+ * {@code VoFAS.sentiment.batch-size} feedbacks or {@code VoFAS.sentiment.batch-window} after its first feedback
+ * arrived, whichever comes first. Each batch is claimed, analyzed with a single {@link SentimentAnalyzer} call and
+ * stored in a single transaction, so the per-call overhead of the analyzer and of the commit is paid once per batch.
+ * Texts whose sentiment is already known from the {@link SentimentCache} are not sent to the analyzer, and a text
+ * occurring several times in a batch is sent once; a batch made of known texts skips the analyzer altogether.
+ * Up to {@code VoFAS.sentiment.parallelism} batches are analyzed at once; when all of them are busy the collecting
+ * thread analyzes the next batch itself, and once the queue is full {@link #submit} blocks, which slows the
+ * transcription workers down to the pace of the stage instead of buffering without bound.
+ * <p>
+ * A batch that cannot be analyzed is handed back to {@link FeedbackStateEnum#TRANSCRIBED}. Submitted feedbacks live in
+ * memory only, feedbacks still queued when the node stops stay transcribed.
+ */
+@Slf4j
+@Component
+public class SentimentStage {
+
+    private final FeedbackStateMachine feedbackStateMachine;
+    private final FeedbackRepository feedbackRepository;
+    private final SentimentAnalyzer sentimentAnalyzer;
+    private final SentimentCache sentimentCache;
+    private final FeedbackStreamBus feedbackStreamBus;
+    private final int batchSize;
+    private final long batchWindowNanos;
+    private final BlockingQueue<PendingFeedback> pending;
+    private final ThreadPoolExecutor analyzers;
+    private final Thread collector;
+    private final DistributionSummary batchSizes;
+    private final Timer analysisTimer;
+    private volatile boolean running = true;
+
+    public SentimentStage(FeedbackStateMachine feedbackStateMachine,
+                          FeedbackRepository feedbackRepository,
+                          SentimentAnalyzer sentimentAnalyzer,
+                          SentimentCache sentimentCache,
+                          FeedbackStreamBus feedbackStreamBus,
+                          MeterRegistry meterRegistry,
+                          @Value("${VoFAS.sentiment.batch-size}") int batchSize,
+                          @Value("${VoFAS.sentiment.batch-window}") Duration batchWindow,
+                          @Value("${VoFAS.sentiment.parallelism}") int parallelism,
+                          @Value("${VoFAS.sentiment.queue-capacity}") int queueCapacity) {
+        this.feedbackStateMachine = feedbackStateMachine;
+        this.feedbackRepository = feedbackRepository;
+        this.sentimentAnalyzer = sentimentAnalyzer;
+        this.sentimentCache = sentimentCache;
+        this.feedbackStreamBus = feedbackStreamBus;
+        this.batchSize = Math.max(1, batchSize);
+        this.batchWindowNanos = batchWindow.toNanos();
+        this.pending = new ArrayBlockingQueue<>(queueCapacity);
+        this.analyzers = new ThreadPoolExecutor(parallelism, parallelism, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(parallelism), runnable -> {
+            Thread thread = new Thread(runnable, "sentiment-analyzer");
+            thread.setDaemon(true);
+            return thread;
+        }, new ThreadPoolExecutor.CallerRunsPolicy());
+        Gauge.builder("vofas.sentiment.queued", pending, BlockingQueue::size).register(meterRegistry);
+        this.batchSizes = DistributionSummary.builder("vofas.sentiment.batch.size").register(meterRegistry);
+        this.analysisTimer = Timer.builder("vofas.sentiment.analysis")
+                .tag("analyzer", sentimentAnalyzer.getName())
+                .register(meterRegistry);
+        this.collector = new Thread(this::collectBatches, "sentiment-batcher");
+        this.collector.setDaemon(true);
+        this.collector.start();
+    }
+
+    /**
+     * Queues a feedback that has just been transcribed for sentiment analysis, blocking while the queue is full.
+     *
+     * @param feedbackID        the feedback, expected to be in {@link FeedbackStateEnum#TRANSCRIBED}
+     * @param transcription     its transcription text
+     * @param transcriptionHash the hash of the text, computed here if null
+     */
+    public void submit(Long feedbackID, String transcription, String transcriptionHash) {
+        String text = transcription != null ? transcription : "";
+        try {
+            pending.put(new PendingFeedback(feedbackID, text, transcriptionHash != null ? transcriptionHash : HashTool.hashString(text)));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("Feedback {} was not queued for sentiment analysis", feedbackID);
+        }
+    }
+
+    private void collectBatches() {
+        while (running) {
+            try {
+                PendingFeedback first = pending.poll(1, TimeUnit.SECONDS);
+                if (first == null) {
+                    continue;
+                }
+                List<PendingFeedback> batch = new ArrayList<>(batchSize);
+                batch.add(first);
+                long deadline = System.nanoTime() + batchWindowNanos;
+                while (batch.size() < batchSize) {
+                    pending.drainTo(batch, batchSize - batch.size());
+                    long remaining = deadline - System.nanoTime();
+                    if (batch.size() >= batchSize || remaining <= 0) {
+                        break;
+                    }
+                    PendingFeedback next = pending.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                analyzers.execute(() -> {
+                    try {
+                        process(batch);
+                    } catch (RuntimeException e) {
+                        log.error("Sentiment analysis batch of {} feedbacks failed", batch.size(), e);
+                    }
+                });
+            } catch (InterruptedException e) {
+                return;
+            }
+        }
+    }
+
+    void process(List<PendingFeedback> batch) {
+        Map<Long, PendingFeedback> feedbacks = new LinkedHashMap<>();
+        batch.forEach(feedback -> feedbacks.put(feedback.feedbackID(), feedback));
+        // feedbacks analyzed by another node or already handed back are skipped here
+        List<Long> claimed = new ArrayList<>(feedbackStateMachine.transitionAll(feedbacks.keySet(),
+                FeedbackStateEnum.TRANSCRIBED, FeedbackStateEnum.WAITING_FOR_SENTIMENT_ANALYSIS));
+        if (claimed.isEmpty()) {
+            return;
+        }
+        batchSizes.record(claimed.size());
+
+        LocalDateTime requestedAt = LocalDateTime.now();
+        Map<String, SentimentStateEnum> sentiments;
+        try {
+            sentiments = analyze(claimed.stream().map(feedbacks::get).toList());
+        } catch (RuntimeException e) {
+            log.error("Sentiment analysis of {} feedbacks failed, handing them back", claimed.size(), e);
+            feedbackStateMachine.transitionAll(claimed, FeedbackStateEnum.WAITING_FOR_SENTIMENT_ANALYSIS, FeedbackStateEnum.TRANSCRIBED);
+            return;
+        }
+        LocalDateTime receivedAt = LocalDateTime.now();
+
+        Map<Long, SentimentAnalysisEntity> sentimentAnalyses = new LinkedHashMap<>();
+        for (int i = 0; i < claimed.size(); i++) {
+            SentimentAnalysisEntity sentimentAnalysis = new SentimentAnalysisEntity();
+            sentimentAnalysis.setSentimentState(sentiments.get(feedbacks.get(claimed.get(i)).transcriptionHash()));
+            sentimentAnalysis.setAnalysisRequestedAt(requestedAt);
+            sentimentAnalysis.setAnalysisReceivedAt(receivedAt);
+            sentimentAnalyses.put(claimed.get(i), sentimentAnalysis);
+        }
+        Set<Long> completed = feedbackStateMachine.completeSentimentAnalyses(sentimentAnalyses);
+        if (!completed.isEmpty()) {
+            feedbackRepository.findFeedbacksByIDs(completed, null, null).forEach(row -> feedbackStreamBus.publish(
+                    FeedbackMapper.mapFeedbackListingRowToFeedbackDTO(row, new FeedbackDTO(), new TranscriptionDTO(), new SentimentAnalysisDTO())));
+        }
+    }
+
+    private Map<String, SentimentStateEnum> analyze(List<PendingFeedback> feedbacks) {
+        Map<String, SentimentStateEnum> sentiments = new HashMap<>(
+                sentimentCache.findAll(feedbacks.stream().map(PendingFeedback::transcriptionHash).toList()));
+        Map<String, String> unknownTexts = new LinkedHashMap<>();
+        for (PendingFeedback feedback : feedbacks) {
+            if (!sentiments.containsKey(feedback.transcriptionHash())) {
+                unknownTexts.putIfAbsent(feedback.transcriptionHash(), feedback.transcription());
+            }
+        }
+        if (unknownTexts.isEmpty()) {
+            return sentiments;
+        }
+
+        List<String> hashes = List.copyOf(unknownTexts.keySet());
+        List<SentimentStateEnum> results = analysisTimer.record(() -> sentimentAnalyzer.analyze(List.copyOf(unknownTexts.values())));
+        if (results == null || results.size() != hashes.size()) {
+            throw new IllegalStateException("The " + sentimentAnalyzer.getName() + " analyzer returned "
+                    + (results == null ? 0 : results.size()) + " results for " + hashes.size() + " texts");
+        }
+        for (int i = 0; i < hashes.size(); i++) {
+            sentiments.put(hashes.get(i), results.get(i));
+            sentimentCache.put(hashes.get(i), results.get(i));
+        }
+        return sentiments;
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        running = false;
+        collector.interrupt();
+        collector.join(TimeUnit.SECONDS.toMillis(5));
+        analyzers.shutdown();
+        analyzers.awaitTermination(30, TimeUnit.SECONDS);
+    }
+
+    record PendingFeedback(Long feedbackID, String transcription, String transcriptionHash) {
+    }
+}
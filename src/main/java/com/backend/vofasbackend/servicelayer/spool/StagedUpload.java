@@ -0,0 +1,21 @@
+package com.backend.vofasbackend.servicelayer.spool;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * An upload held in the {@link UploadSpool}, with everything needed to create its feedback again after a restart.
+ *
+ * @param spoolID          the name of the spooled file, without the extension
+ * @param extension        the file extension including the leading dot
+ * @param fileHash         the lowercase hexadecimal SHA-256 hash of the audio
+ * @param size             the size of the audio in bytes
+ * @param feedbackDuration the duration of the recording, null if it could not be determined
+ * @param validationToken  the token the upload was made with
+ * @param kioskID          the kiosk the token belongs to
+ * @param receivedAt       when the upload was received
+ */
+public record StagedUpload(UUID spoolID, String extension, String fileHash, long size, Duration feedbackDuration,
+                           UUID validationToken, Long kioskID, LocalDateTime receivedAt) {
+}
@@ -0,0 +1,325 @@
+package com.backend.vofasbackend.servicelayer.spool;
+
+import com.backend.vofasbackend.servicelayer.tools.HashTool;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Durable staging area for uploaded audio, so an upload can be acknowledged once its bytes are safe on disk and be
+ * moved into the {@link com.backend.vofasbackend.servicelayer.interfaces.AudioStore} afterwards.
+ * <p>
+ * Each upload is streamed into its own file under {@code VoFAS.spool.path} by {@link HashTool#copyAndHash}, hashed
+ * on the way, and forced to disk by the uploading thread. It is then recorded in a write-ahead log,
+ * {@value #LOG_FILE}, by a single committer thread:
+ * the records of all uploads finishing at the same time are appended together and made durable with one fsync of the
+ * directory and one of the log, so concurrent uploads share the cost of the sync instead of queueing for it. Once an
+ * upload has been moved to the audio store a "drained" record is appended, which is not waited for: losing it only
+ * drains the upload again.
+ * <p>
+ * On startup the log is replayed: uploads staged but not drained are returned by {@link #pending()}, spooled files
+ * without a record belong to uploads that were never acknowledged and are deleted, and the log is rewritten with the
+ * pending records only. The log is rewritten the same way whenever it grows past {@code VoFAS.spool.log.compact-size}.
+ */
+@Slf4j
+@Component
+public class UploadSpool {
+
+    static final String LOG_FILE = "spool.log";
+
+    private static final String STAGED = "STAGED ";
+    private static final String DRAINED = "DRAINED ";
+
+    private final Path directory;
+    private final Path logFile;
+    private final long compactSize;
+    private final ObjectMapper objectMapper;
+    private final Map<UUID, StagedUpload> pending = new ConcurrentHashMap<>();
+    private final BlockingQueue<Append> appends = new LinkedBlockingQueue<>();
+    private final DistributionSummary commitBatchSizes;
+    private final Thread committer;
+    private FileChannel logChannel;
+    private volatile boolean running = true;
+
+    public UploadSpool(@Value("${VoFAS.spool.path}") String spoolPath,
+                       @Value("${VoFAS.spool.log.compact-size}") DataSize compactSize,
+                       ObjectMapper objectMapper,
+                       MeterRegistry meterRegistry) {
+        this.directory = Paths.get(spoolPath);
+        this.logFile = directory.resolve(LOG_FILE);
+        this.compactSize = compactSize.toBytes();
+        this.objectMapper = objectMapper;
+        this.commitBatchSizes = DistributionSummary.builder("vofas.spool.commit.batch.size").register(meterRegistry);
+        Gauge.builder("vofas.spool.pending", pending, Map::size).register(meterRegistry);
+        this.committer = new Thread(this::commitAppends, "upload-spool-committer");
+        this.committer.setDaemon(true);
+    }
+
+    @PostConstruct
+    public void init() throws IOException {
+        Files.createDirectories(directory);
+        if (Files.exists(logFile)) {
+            replay();
+        }
+        Set<Path> spooledFiles = pending.values().stream().map(this::pathOf).collect(Collectors.toSet());
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : files.toList()) {
+                if (!file.equals(logFile) && !spooledFiles.contains(file)) {
+                    Files.deleteIfExists(file);
+                }
+            }
+        }
+        rewriteLog();
+        committer.start();
+        log.info("Upload spool initialized at {} with {} pending uploads", directory, pending.size());
+    }
+
+    /**
+     * Streams an upload into a new spool file and forces it to disk. The upload is not staged yet, see
+     * {@link #stage(StagedUpload)}; the stream is read to its end but not closed.
+     *
+     * @param content   the audio content
+     * @param extension the file extension including the leading dot
+     * @return the spooled file and its hash
+     * @throws IOException if the content could not be read or written
+     */
+    public SpooledAudio write(InputStream content, String extension) throws IOException {
+        UUID spoolID = UUID.randomUUID();
+        Path file = directory.resolve(spoolID + extension);
+        MessageDigest digest = HashTool.newSha256Digest();
+        long size;
+        try (FileChannel target = FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+            size = HashTool.copyAndHash(content, target, digest);
+            target.force(false);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(file);
+            throw e;
+        }
+        return new SpooledAudio(spoolID, file, HashTool.toHex(digest.digest()), size);
+    }
+
+    /**
+     * Records a spooled upload in the log and waits until the record is on disk. If this fails the spooled file is
+     * deleted.
+     *
+     * @throws IOException if the record could not be written
+     */
+    public void stage(StagedUpload upload) throws IOException {
+        pending.put(upload.spoolID(), upload);
+        try {
+            append(STAGED + objectMapper.writeValueAsString(upload), true).get();
+        } catch (IOException | ExecutionException | InterruptedException e) {
+            if (e instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+            }
+            pending.remove(upload.spoolID());
+            Files.deleteIfExists(pathOf(upload));
+            throw e instanceof IOException ioException ? ioException : new IOException("Could not stage upload " + upload.spoolID(), e);
+        }
+    }
+
+    /**
+     * Records that a staged upload has been moved out of the spool.
+     */
+    public void drained(StagedUpload upload) {
+        pending.remove(upload.spoolID());
+        append(DRAINED + upload.spoolID(), false);
+    }
+
+    /**
+     * Deletes the spooled file of an upload that will not be drained and forgets the upload.
+     */
+    public void discard(StagedUpload upload) {
+        try {
+            Files.deleteIfExists(pathOf(upload));
+        } catch (IOException e) {
+            log.warn("Could not delete spooled upload {}", upload.spoolID(), e);
+        }
+        drained(upload);
+    }
+
+    /**
+     * @return the staged uploads that have not been drained yet
+     */
+    public Collection<StagedUpload> pending() {
+        return List.copyOf(pending.values());
+    }
+
+    /**
+     * @return the location of the spooled file of an upload
+     */
+    public Path pathOf(StagedUpload upload) {
+        return directory.resolve(upload.spoolID() + upload.extension());
+    }
+
+    private CompletableFuture<Void> append(String record, boolean durable) {
+        Append append = new Append((record + "\n").getBytes(StandardCharsets.UTF_8), durable, new CompletableFuture<>());
+        if (!running) {
+            append.written().completeExceptionally(new IOException("The upload spool is shut down"));
+            return append.written();
+        }
+        appends.add(append);
+        return append.written();
+    }
+
+    private void commitAppends() {
+        List<Append> batch = new ArrayList<>();
+        while (running || !appends.isEmpty()) {
+            try {
+                Append first = appends.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                appends.drainTo(batch);
+                commit(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void commit(List<Append> batch) {
+        try {
+            boolean durable = false;
+            for (Append append : batch) {
+                ByteBuffer bytes = ByteBuffer.wrap(append.record());
+                while (bytes.hasRemaining()) {
+                    logChannel.write(bytes);
+                }
+                durable |= append.durable();
+            }
+            if (durable) {
+                forceDirectory();
+                logChannel.force(false);
+                commitBatchSizes.record(batch.size());
+            }
+            batch.forEach(append -> append.written().complete(null));
+        } catch (IOException | RuntimeException e) {
+            log.error("Could not write {} upload spool records", batch.size(), e);
+            batch.forEach(append -> append.written().completeExceptionally(e));
+        }
+        try {
+            if (logChannel.size() > compactSize) {
+                rewriteLog();
+            }
+        } catch (IOException e) {
+            log.warn("Could not compact the upload spool log", e);
+        }
+    }
+
+    private void replay() throws IOException {
+        try (BufferedReader reader = Files.newBufferedReader(logFile, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                try {
+                    if (line.startsWith(STAGED)) {
+                        StagedUpload upload = objectMapper.readValue(line.substring(STAGED.length()), StagedUpload.class);
+                        pending.put(upload.spoolID(), upload);
+                    } else if (line.startsWith(DRAINED)) {
+                        pending.remove(UUID.fromString(line.substring(DRAINED.length())));
+                    }
+                } catch (IOException | IllegalArgumentException e) {
+                    // the tail of a record that was being written when the node stopped, it was never acknowledged
+                    log.warn("Skipping unreadable upload spool record: {}", line);
+                }
+            }
+        }
+    }
+
+    /**
+     * Replaces the log with one holding only the pending uploads. Called before the committer starts and then on the
+     * committer thread only.
+     */
+    private void rewriteLog() throws IOException {
+        Path rewritten = directory.resolve(LOG_FILE + ".new");
+        try (FileChannel target = FileChannel.open(rewritten, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            for (StagedUpload upload : pending.values()) {
+                ByteBuffer bytes = ByteBuffer.wrap((STAGED + objectMapper.writeValueAsString(upload) + "\n").getBytes(StandardCharsets.UTF_8));
+                while (bytes.hasRemaining()) {
+                    target.write(bytes);
+                }
+            }
+            target.force(false);
+        }
+        if (logChannel != null) {
+            logChannel.close();
+        }
+        Files.move(rewritten, logFile, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        forceDirectory();
+        logChannel = FileChannel.open(logFile, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    /**
+     * Makes the names of new spooled files and of a rewritten log durable.
+     */
+    private void forceDirectory() {
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            // directories cannot be opened for syncing on every platform
+            log.debug("Could not sync the upload spool directory", e);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException, IOException {
+        running = false;
+        committer.join(TimeUnit.SECONDS.toMillis(5));
+        if (logChannel != null) {
+            logChannel.close();
+        }
+    }
+
+    /**
+     * An upload written to the spool.
+     *
+     * @param spoolID  the name of the file, without the extension
+     * @param path     the location of the file
+     * @param fileHash the lowercase hexadecimal SHA-256 hash of the content
+     * @param size     the size of the content in bytes
+     */
+    public record SpooledAudio(UUID spoolID, Path path, String fileHash, long size) {
+    }
+
+    private record Append(byte[] record, boolean durable, CompletableFuture<Void> written) {
+    }
+}
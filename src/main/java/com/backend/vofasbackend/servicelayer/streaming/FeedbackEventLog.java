@@ -0,0 +1,363 @@
+package com.backend.vofasbackend.servicelayer.streaming;
+
+import com.backend.vofasbackend.datalayer.enums.FeedbackStateEnum;
+import com.backend.vofasbackend.datalayer.enums.SentimentStateEnum;
+import com.backend.vofasbackend.presentationlayer.datatransferobjects.FeedbackDTO;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.FluxSink;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Bounded log of the processed feedbacks pushed to the dashboard stream.
+ * <p>
+ * Events are kept in a fixed-size ring and numbered with monotonically increasing ids, which clients echo back in
+ * the {@code Last-Event-ID} header to resume where they left off. Subscribers do not get a queue of their own: each
+ * one only holds a cursor into the ring and is fed as fast as it requests, so a slow client costs no memory. A
+ * subscriber whose undelivered events have been overwritten is handled according to its
+ * {@link StreamOverflowPolicy}.
+ * <p>
+ * Subscribers only receive the feedbacks matching their {@link StreamFilter}. An appended event is matched through a
+ * {@link SubscriptionIndex}, so subscribers that are not interested in it are not even looked at, and its JSON is
+ * produced once per {@link StreamPayload} however many subscribers receive it.
+ * <p>
+ * Ids start at the epoch millisecond the log was created, so they keep increasing across restarts as long as fewer
+ * than one event per millisecond is appended on average.
+ * <p>
+ * Publishes {@code vofas.feedback.stream.subscribers}, a {@code vofas.feedback.stream.lag} gauge per subscriber and
+ * the {@code vofas.feedback.stream.dropped} counter of matching events skipped by subscribers.
+ */
+@Slf4j
+@Component
+public class FeedbackEventLog {
+
+    private final AtomicReferenceArray<LoggedEvent> ring;
+    private final int capacity;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+    private final SubscriptionIndex<Subscriber> subscriptionIndex = new SubscriptionIndex<>();
+    private final AtomicLong subscriberSequence = new AtomicLong();
+    private final Counter dropped;
+    private final long firstId;
+
+    /**
+     * Id the next appended event gets. Written only under the lock of the log, after the event is in the ring, so
+     * everything below it can be read without locking.
+     */
+    private volatile long nextId;
+
+    public FeedbackEventLog(ObjectMapper objectMapper,
+                            MeterRegistry meterRegistry,
+                            @Value("${VoFAS.stream.buffer-size}") int capacity) {
+        this.ring = new AtomicReferenceArray<>(capacity);
+        this.capacity = capacity;
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+        this.firstId = System.currentTimeMillis();
+        this.nextId = firstId;
+        Gauge.builder("vofas.feedback.stream.subscribers", subscriptionIndex, SubscriptionIndex::size)
+                .register(meterRegistry);
+        this.dropped = Counter.builder("vofas.feedback.stream.dropped")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Appends a feedback to the log and pushes it to the matching subscribers that have demand.
+     *
+     * @return the id of the appended event
+     */
+    public long append(FeedbackDTO feedbackDTO) {
+        LoggedEvent event;
+        List<Subscriber> matches = new ArrayList<>();
+        synchronized (this) {
+            event = LoggedEvent.of(nextId, feedbackDTO);
+            ring.set(indexOf(event.id()), event);
+            nextId = event.id() + 1;
+            subscriptionIndex.forEachMatch(event.kioskID(), event.feedbackState(), event.sentimentState(), event.durationSeconds(),
+                    subscriber -> {
+                        subscriber.matched(event);
+                        matches.add(subscriber);
+                    });
+        }
+        matches.forEach(Subscriber::drain);
+        return event.id();
+    }
+
+    /**
+     * Subscribes to the matching events appended from now on, preceded by the retained matching events after
+     * {@code lastEventId}. Events are only read from the ring when they are requested.
+     *
+     * @param lastEventId    the id of the last event the client received, null for a new client
+     * @param filter         the feedbacks to stream
+     * @param payload        the shape of the streamed JSON
+     * @param overflowPolicy what to do when the subscriber falls behind the ring
+     */
+    public Flux<FeedbackEvent> subscribe(Long lastEventId, StreamFilter filter, StreamPayload payload, StreamOverflowPolicy overflowPolicy) {
+        return Flux.create(sink -> {
+            Subscriber subscriber;
+            synchronized (this) {
+                long head = nextId;
+                long oldest = oldestRetainedId();
+                if (lastEventId == null || lastEventId >= head) {
+                    // new client, or an id from before a restart with a clock set back: only live events
+                    subscriber = new Subscriber(sink, filter, payload, overflowPolicy, head, 0);
+                } else if (lastEventId < firstId) {
+                    // the client was connected before a restart, replay all that is retained
+                    subscriber = new Subscriber(sink, filter, payload, overflowPolicy, oldest, 0);
+                } else {
+                    // the number of skipped events is only known for all events, matching or not
+                    long start = Math.max(lastEventId + 1, oldest);
+                    subscriber = new Subscriber(sink, filter, payload, overflowPolicy, start, start - lastEventId - 1);
+                }
+                subscriber.matched += countMatching(filter, subscriber.cursor, head);
+                subscriptionIndex.add(filter, subscriber);
+            }
+            sink.onRequest(n -> subscriber.drain());
+            sink.onDispose(subscriber::dispose);
+            subscriber.drain();
+        });
+    }
+
+    synchronized long oldestRetainedId() {
+        return Math.max(firstId, nextId - capacity);
+    }
+
+    private long countMatching(StreamFilter filter, long from, long to) {
+        long count = 0;
+        for (long id = Math.max(from, oldestRetainedId()); id < to; id++) {
+            if (filter.matches(ring.get(indexOf(id)))) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private int indexOf(long id) {
+        return (int) Math.floorMod(id, (long) capacity);
+    }
+
+    /**
+     * An event as delivered to a subscriber.
+     *
+     * @param id           the id of the event, sent as the SSE id
+     * @param feedback     the feedback carried by the event
+     * @param payload      the JSON of the feedback in the shape the subscriber asked for
+     * @param missedBefore how many events for the subscriber were skipped right before this one
+     */
+    public record FeedbackEvent(long id, FeedbackDTO feedback, String payload, long missedBefore) {
+    }
+
+    /**
+     * An event as stored in the ring, with the values subscribers filter on and its serialized forms.
+     */
+    static final class LoggedEvent {
+
+        private final long id;
+        private final FeedbackDTO feedback;
+        private final Long kioskID;
+        private final FeedbackStateEnum feedbackState;
+        private final SentimentStateEnum sentimentState;
+        private final long durationSeconds;
+        private final String[] payloads = new String[StreamPayload.values().length];
+
+        private LoggedEvent(long id, FeedbackDTO feedback, Long kioskID, FeedbackStateEnum feedbackState,
+                            SentimentStateEnum sentimentState, long durationSeconds) {
+            this.id = id;
+            this.feedback = feedback;
+            this.kioskID = kioskID;
+            this.feedbackState = feedbackState;
+            this.sentimentState = sentimentState;
+            this.durationSeconds = durationSeconds;
+        }
+
+        static LoggedEvent of(long id, FeedbackDTO feedback) {
+            return new LoggedEvent(
+                    id,
+                    feedback,
+                    feedback.getFeedbackSource() != null ? feedback.getFeedbackSource().getKioskId() : null,
+                    feedback.getFeedbackState() != null ? FeedbackStateEnum.valueOf(feedback.getFeedbackState()) : null,
+                    feedback.getSentimentAnalysisDTO() != null && feedback.getSentimentAnalysisDTO().getSentimentState() != null
+                            ? SentimentStateEnum.valueOf(feedback.getSentimentAnalysisDTO().getSentimentState()) : null,
+                    feedback.getFeedbackDuration() != null ? feedback.getFeedbackDuration().toSecondOfDay() : 0
+            );
+        }
+
+        long id() {
+            return id;
+        }
+
+        Long kioskID() {
+            return kioskID;
+        }
+
+        FeedbackStateEnum feedbackState() {
+            return feedbackState;
+        }
+
+        SentimentStateEnum sentimentState() {
+            return sentimentState;
+        }
+
+        long durationSeconds() {
+            return durationSeconds;
+        }
+
+        synchronized String payload(StreamPayload shape, ObjectMapper objectMapper) {
+            String payload = payloads[shape.ordinal()];
+            if (payload == null) {
+                payload = serialize(shape, objectMapper);
+                payloads[shape.ordinal()] = payload;
+            }
+            return payload;
+        }
+
+        private String serialize(StreamPayload shape, ObjectMapper objectMapper) {
+            try {
+                if (shape == StreamPayload.FULL) {
+                    return objectMapper.writeValueAsString(feedback);
+                }
+                ObjectNode tree = objectMapper.valueToTree(feedback);
+                if (tree.get("transcriptionDTO") instanceof ObjectNode transcription) {
+                    transcription.remove("transcription");
+                }
+                return objectMapper.writeValueAsString(tree);
+            } catch (JsonProcessingException e) {
+                throw new IllegalStateException("Feedback " + feedback.getFeedbackId() + " cannot be serialized", e);
+            }
+        }
+    }
+
+    private final class Subscriber {
+
+        private final FluxSink<FeedbackEvent> sink;
+        private final StreamFilter filter;
+        private final StreamPayload payload;
+        private final StreamOverflowPolicy overflowPolicy;
+        private final AtomicInteger wip = new AtomicInteger();
+        private final Gauge lagGauge;
+
+        /**
+         * Id of the next event to look at, only advanced inside {@link #drain}.
+         */
+        private long cursor;
+        private long missed;
+
+        /**
+         * Number of matching events appended for this subscriber, only written under the lock of the log.
+         */
+        private volatile long matched;
+        private volatile long delivered;
+
+        /**
+         * Set when an event matches while everything matched before has been delivered: the cursor can jump straight
+         * to it instead of stepping over the events of other subscribers.
+         */
+        private volatile long resumeFrom;
+
+        private Subscriber(FluxSink<FeedbackEvent> sink, StreamFilter filter, StreamPayload payload,
+                           StreamOverflowPolicy overflowPolicy, long cursor, long missed) {
+            this.sink = sink;
+            this.filter = filter;
+            this.payload = payload;
+            this.overflowPolicy = overflowPolicy;
+            this.cursor = cursor;
+            this.missed = missed;
+            this.lagGauge = Gauge.builder("vofas.feedback.stream.lag", this, Subscriber::lag)
+                    .tag("subscriber", Long.toString(subscriberSequence.incrementAndGet()))
+                    .register(meterRegistry);
+        }
+
+        private double lag() {
+            return Math.max(0, matched - delivered);
+        }
+
+        private void matched(LoggedEvent event) {
+            if (matched == delivered) {
+                resumeFrom = event.id();
+            }
+            matched++;
+        }
+
+        /**
+         * Delivers matching events up to the requested amount. Calls from the appending threads and from downstream
+         * requests are serialized: whoever gets in first does the work for the others.
+         */
+        private void drain() {
+            if (wip.getAndIncrement() != 0) {
+                return;
+            }
+            int pending = 1;
+            do {
+                long requested = sink.requestedFromDownstream();
+                while (requested > 0 && delivered < matched && !sink.isCancelled()) {
+                    cursor = Math.max(cursor, resumeFrom);
+                    if (cursor >= nextId) {
+                        break;
+                    }
+                    LoggedEvent event = ring.get(indexOf(cursor));
+                    if (event == null || event.id() != cursor) {
+                        if (!skipOverwritten()) {
+                            return;
+                        }
+                        continue;
+                    }
+                    cursor++;
+                    if (filter.matches(event)) {
+                        FeedbackEvent delivery = new FeedbackEvent(event.id(), event.feedback, event.payload(payload, objectMapper), missed);
+                        missed = 0;
+                        delivered++;
+                        requested--;
+                        sink.next(delivery);
+                    }
+                }
+                pending = wip.addAndGet(-pending);
+            } while (pending != 0);
+        }
+
+        /**
+         * @return false if the subscriber was disconnected
+         */
+        private boolean skipOverwritten() {
+            long lost;
+            synchronized (FeedbackEventLog.this) {
+                long oldest = oldestRetainedId();
+                if (cursor >= oldest) {
+                    // the event was overwritten after the cursor was read, it is retained again
+                    return true;
+                }
+                lost = Math.max(0, matched - delivered - countMatching(filter, oldest, nextId));
+                if (lost == 0 || overflowPolicy == StreamOverflowPolicy.DROP_OLDEST) {
+                    cursor = oldest;
+                }
+            }
+            if (lost > 0 && overflowPolicy == StreamOverflowPolicy.DISCONNECT) {
+                log.info("Disconnecting feedback stream subscriber that missed {} events", lost);
+                sink.complete();
+                return false;
+            }
+            dropped.increment(lost);
+            missed += lost;
+            // the lost events are accounted for as if they had been delivered
+            delivered += lost;
+            return true;
+        }
+
+        private void dispose() {
+            subscriptionIndex.remove(filter, this);
+            meterRegistry.remove(lagGauge);
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.backend.vofasbackend.servicelayer.streaming;
+
+import com.backend.vofasbackend.datalayer.enums.FeedbackStateEnum;
+import com.backend.vofasbackend.datalayer.enums.SentimentStateEnum;
+
+/**
+ * The feedbacks a stream subscriber is interested in. Null components match every feedback.
+ *
+ * @param kioskID            the kiosk the feedback was recorded at
+ * @param feedbackState      the state of the feedback
+ * @param sentimentState     the result of its sentiment analysis
+ * @param minDurationSeconds the shortest recording to stream, 0 for all
+ */
+public record StreamFilter(Long kioskID, FeedbackStateEnum feedbackState, SentimentStateEnum sentimentState, long minDurationSeconds) {
+
+    public static final StreamFilter ALL = new StreamFilter(null, null, null, 0);
+
+    boolean matches(FeedbackEventLog.LoggedEvent event) {
+        return (kioskID == null || kioskID.equals(event.kioskID()))
+                && (feedbackState == null || feedbackState == event.feedbackState())
+                && (sentimentState == null || sentimentState == event.sentimentState())
+                && minDurationSeconds <= event.durationSeconds();
+    }
+}
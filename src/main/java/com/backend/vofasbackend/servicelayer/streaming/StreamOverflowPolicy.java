@@ -0,0 +1,35 @@
+package com.backend.vofasbackend.servicelayer.streaming;
+
+import com.backend.vofasbackend.exceptions.exceptions.InvalidFilterOptionException;
+
+import java.util.Locale;
+
+/**
+ * What happens to a stream subscriber that falls so far behind that the events it has not received yet have been
+ * overwritten in the {@link FeedbackEventLog}.
+ */
+public enum StreamOverflowPolicy {
+
+    /**
+     * Skip to the oldest event still retained; the subscriber is told how many events it missed.
+     */
+    DROP_OLDEST,
+
+    /**
+     * Complete the stream. A client reconnecting with {@code Last-Event-ID} resumes from the oldest retained event.
+     */
+    DISCONNECT;
+
+    /**
+     * Parses the {@code overflow} request parameter, e.g. {@code drop-oldest}.
+     *
+     * @throws InvalidFilterOptionException if the value names no policy
+     */
+    public static StreamOverflowPolicy fromParameter(String value) throws InvalidFilterOptionException {
+        try {
+            return valueOf(value.trim().replace('-', '_').toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new InvalidFilterOptionException("overflow", value);
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.backend.vofasbackend.servicelayer.streaming;
+
+/**
+ * The shape of the JSON sent for each streamed feedback. Every event is serialized at most once per shape, however
+ * many subscribers receive it.
+ */
+public enum StreamPayload {
+
+    /**
+     * The complete {@code FeedbackDTO}.
+     */
+    FULL,
+
+    /**
+     * The {@code FeedbackDTO} without the transcription text, for dashboards that only show counts and states.
+     */
+    WITHOUT_TRANSCRIPTION
+}
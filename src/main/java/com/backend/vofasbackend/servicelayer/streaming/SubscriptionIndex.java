@@ -0,0 +1,86 @@
+package com.backend.vofasbackend.servicelayer.streaming;
+
+import com.backend.vofasbackend.datalayer.enums.FeedbackStateEnum;
+import com.backend.vofasbackend.datalayer.enums.SentimentStateEnum;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+
+/**
+ * Index of stream subscribers by their {@link StreamFilter}. Subscribers are bucketed by the exact values of the
+ * kiosk, feedback state and sentiment state they filter on, with null standing for "any"; inside a bucket they are
+ * ordered by minimum duration. An event therefore only looks at the at most eight buckets its values can match and
+ * at the subscribers of those buckets whose minimum duration it reaches, instead of testing every subscriber.
+ *
+ * @param <S> the subscriber type
+ */
+final class SubscriptionIndex<S> {
+
+    private final Map<BucketKey, NavigableMap<Long, List<S>>> buckets = new HashMap<>();
+    private int size;
+
+    synchronized void add(StreamFilter filter, S subscriber) {
+        buckets.computeIfAbsent(BucketKey.of(filter), key -> new TreeMap<>())
+                .computeIfAbsent(filter.minDurationSeconds(), minDuration -> new ArrayList<>())
+                .add(subscriber);
+        size++;
+    }
+
+    synchronized void remove(StreamFilter filter, S subscriber) {
+        BucketKey key = BucketKey.of(filter);
+        NavigableMap<Long, List<S>> bucket = buckets.get(key);
+        if (bucket == null) {
+            return;
+        }
+        List<S> subscribers = bucket.get(filter.minDurationSeconds());
+        if (subscribers != null && subscribers.remove(subscriber)) {
+            size--;
+            if (subscribers.isEmpty()) {
+                bucket.remove(filter.minDurationSeconds());
+                if (bucket.isEmpty()) {
+                    buckets.remove(key);
+                }
+            }
+        }
+    }
+
+    /**
+     * Calls {@code action} for every subscriber whose filter matches a feedback with the given values.
+     */
+    synchronized void forEachMatch(Long kioskID, FeedbackStateEnum feedbackState, SentimentStateEnum sentimentState,
+                                   long durationSeconds, Consumer<S> action) {
+        for (Long kiosk : candidates(kioskID)) {
+            for (FeedbackStateEnum state : candidates(feedbackState)) {
+                for (SentimentStateEnum sentiment : candidates(sentimentState)) {
+                    NavigableMap<Long, List<S>> bucket = buckets.get(new BucketKey(kiosk, state, sentiment));
+                    if (bucket != null) {
+                        bucket.headMap(durationSeconds, true).values().forEach(subscribers -> subscribers.forEach(action));
+                    }
+                }
+            }
+        }
+    }
+
+    synchronized int size() {
+        return size;
+    }
+
+    private static <T> List<T> candidates(T value) {
+        // a feedback without a value only reaches the subscribers that do not filter on it
+        return value == null ? Collections.singletonList(null) : Arrays.asList(value, null);
+    }
+
+    private record BucketKey(Long kioskID, FeedbackStateEnum feedbackState, SentimentStateEnum sentimentState) {
+
+        static BucketKey of(StreamFilter filter) {
+            return new BucketKey(filter.kioskID(), filter.feedbackState(), filter.sentimentState());
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.backend.vofasbackend.servicelayer.tokens;
+
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Thread-safe Bloom filter over UUIDs. It answers "definitely never added" or "possibly added", the latter being
+ * wrong for about the configured share of UUIDs that were never added once the expected number of UUIDs is in.
+ * UUIDs cannot be removed.
+ */
+final class UuidBloomFilter {
+
+    private static final double LN_2 = Math.log(2);
+
+    private final AtomicLongArray words;
+    private final long bitCount;
+    private final int hashCount;
+    private final long expectedInsertions;
+
+    /**
+     * @param expectedInsertions the number of UUIDs the filter is sized for
+     * @param falsePositiveRate  the share of never added UUIDs reported as possibly added at that size
+     */
+    UuidBloomFilter(long expectedInsertions, double falsePositiveRate) {
+        if (expectedInsertions <= 0 || falsePositiveRate <= 0 || falsePositiveRate >= 1) {
+            throw new IllegalArgumentException("Invalid Bloom filter size " + expectedInsertions + " / " + falsePositiveRate);
+        }
+        long bits = (long) Math.ceil(-expectedInsertions * Math.log(falsePositiveRate) / (LN_2 * LN_2));
+        this.words = new AtomicLongArray(Math.toIntExact(Math.max(1, (bits + 63) >>> 6)));
+        this.bitCount = words.length() * 64L;
+        this.hashCount = Math.max(1, (int) Math.round((double) bitCount / expectedInsertions * LN_2));
+        this.expectedInsertions = expectedInsertions;
+    }
+
+    void add(UUID uuid) {
+        long hash1 = mix(uuid.getMostSignificantBits());
+        long hash2 = mix(uuid.getLeastSignificantBits()) | 1;
+        for (int i = 0; i < hashCount; i++) {
+            long bit = Math.floorMod(hash1 + i * hash2, bitCount);
+            long mask = 1L << bit;
+            int word = (int) (bit >>> 6);
+            if ((words.get(word) & mask) == 0) {
+                words.getAndAccumulate(word, mask, (current, added) -> current | added);
+            }
+        }
+    }
+
+    boolean mightContain(UUID uuid) {
+        long hash1 = mix(uuid.getMostSignificantBits());
+        long hash2 = mix(uuid.getLeastSignificantBits()) | 1;
+        for (int i = 0; i < hashCount; i++) {
+            long bit = Math.floorMod(hash1 + i * hash2, bitCount);
+            if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    long expectedInsertions() {
+        return expectedInsertions;
+    }
+
+    /**
+     * The MurmurHash3 finalizer, spreading the fixed version and variant bits of a UUID over the whole word.
+     */
+    private static long mix(long value) {
+        value ^= value >>> 33;
+        value *= 0xff51afd7ed558ccdL;
+        value ^= value >>> 33;
+        value *= 0xc4ceb9fe1a85ec53L;
+        value ^= value >>> 33;
+        return value;
+    }
+}
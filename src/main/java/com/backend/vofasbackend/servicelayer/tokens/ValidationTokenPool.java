@@ -0,0 +1,224 @@
+package com.backend.vofasbackend.servicelayer.tokens;
+
+import com.backend.vofasbackend.datalayer.entities.KioskEntity;
+import com.backend.vofasbackend.datalayer.entities.ValidationTokenEntity;
+import com.backend.vofasbackend.datalayer.enums.KioskStateEnum;
+import com.backend.vofasbackend.datalayer.repositories.KioskRepository;
+import com.backend.vofasbackend.datalayer.repositories.ValidationTokenRepository;
+import com.backend.vofasbackend.exceptions.exceptions.ResourceNotFoundException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-kiosk pools of pre-generated validation tokens, so a kiosk handing out a token per customer interaction gets
+ * them from memory instead of waiting for inserts.
+ * <p>
+ * Tokens are generated in batches of {@code VoFAS.tokens.pool.insert-batch-size}, one transaction per batch, and
+ * written as JDBC batch inserts: their UUID keys are generated before the insert, so Hibernate groups the rows by
+ * {@code hibernate.jdbc.batch_size}. A background refiller tops each pool back up to {@code VoFAS.tokens.pool.size}
+ * once it falls below half of it; a lease larger than what is pooled generates the rest on the spot.
+ * <p>
+ * A token expires {@code VoFAS.tokens.expiry.ttl} after it was created, not after it was leased, so pooled tokens with
+ * less than {@code VoFAS.tokens.pool.min-remaining-lifetime} left are no longer handed out. They stay valid until the
+ * sweeper expires them.
+ * <p>
+ * Pools are kept in memory only. Tokens pooled when the application stops stay valid until they expire.
+ */
+@Slf4j
+@Component
+public class ValidationTokenPool {
+
+    private final ValidationTokenRepository validationTokenRepository;
+    private final KioskRepository kioskRepository;
+    private final ValidationTokenRegistry validationTokenRegistry;
+    private final TransactionTemplate transaction;
+    private final int poolSize;
+    private final int insertBatchSize;
+    private final Duration timeToLive;
+    private final Duration minRemainingLifetime;
+    private final Map<Long, Queue<IssuedToken>> pools = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService refiller;
+    private final Counter generated;
+
+    public ValidationTokenPool(ValidationTokenRepository validationTokenRepository,
+                               KioskRepository kioskRepository,
+                               ValidationTokenRegistry validationTokenRegistry,
+                               PlatformTransactionManager transactionManager,
+                               MeterRegistry meterRegistry,
+                               @Value("${VoFAS.tokens.pool.size}") int poolSize,
+                               @Value("${VoFAS.tokens.pool.insert-batch-size}") int insertBatchSize,
+                               @Value("${VoFAS.tokens.pool.refill-interval}") Duration refillInterval,
+                               @Value("${VoFAS.tokens.expiry.ttl}") Duration timeToLive,
+                               @Value("${VoFAS.tokens.pool.min-remaining-lifetime}") Duration minRemainingLifetime) {
+        this.validationTokenRepository = validationTokenRepository;
+        this.kioskRepository = kioskRepository;
+        this.validationTokenRegistry = validationTokenRegistry;
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.poolSize = Math.max(0, poolSize);
+        this.insertBatchSize = Math.max(1, insertBatchSize);
+        this.timeToLive = timeToLive;
+        this.minRemainingLifetime = minRemainingLifetime;
+        this.generated = Counter.builder("vofas.tokens.generated")
+                .register(meterRegistry);
+        Gauge.builder("vofas.tokens.pooled", pools, index -> index.values().stream().mapToInt(Queue::size).sum())
+                .register(meterRegistry);
+
+        this.refiller = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "validation-token-refill");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long refillMillis = Math.max(1, refillInterval.toMillis());
+        refiller.scheduleWithFixedDelay(this::refillAll, refillMillis, refillMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Creates the pools of the active kiosks, so their first leases are served from memory.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void fillActiveKiosks() {
+        kioskRepository.findKioskIDsByState(KioskStateEnum.ACTIVE)
+                .forEach(kioskID -> pools.computeIfAbsent(kioskID, kiosk -> new ConcurrentLinkedQueue<>()));
+        refiller.execute(this::refillAll);
+    }
+
+    /**
+     * Hands out valid tokens to a kiosk.
+     *
+     * @param kioskID the kiosk
+     * @param count   the number of tokens
+     * @return the tokens, oldest first
+     * @throws ResourceNotFoundException if there is no such kiosk
+     */
+    public List<IssuedToken> lease(Long kioskID, int count) throws ResourceNotFoundException {
+        Queue<IssuedToken> pool = poolOf(kioskID);
+        List<IssuedToken> leased = new ArrayList<>(count);
+        LocalDateTime createdAfter = issuableCreatedAfter();
+        IssuedToken token;
+        while (leased.size() < count && (token = pool.poll()) != null) {
+            // tokens may have expired, or be about to, while they were pooled
+            if (isIssuable(token, createdAfter)) {
+                leased.add(token);
+            }
+        }
+        if (leased.size() < count) {
+            leased.addAll(generate(kioskID, count - leased.size()));
+        }
+        if (pool.size() < poolSize / 2) {
+            refiller.execute(() -> refill(kioskID, pool));
+        }
+        return leased;
+    }
+
+    /**
+     * Tops up the pools that fell below half of their size. Runs on the refiller thread.
+     */
+    void refillAll() {
+        LocalDateTime createdAfter = issuableCreatedAfter();
+        pools.forEach((kioskID, pool) -> {
+            pool.removeIf(token -> !isIssuable(token, createdAfter));
+            if (pool.size() < poolSize / 2) {
+                refill(kioskID, pool);
+            }
+        });
+    }
+
+    /**
+     * Inserts and registers new tokens for a kiosk, one transaction per {@code VoFAS.tokens.pool.insert-batch-size}
+     * tokens. The tokens become usable once their batch has committed.
+     */
+    List<IssuedToken> generate(Long kioskID, int count) {
+        List<IssuedToken> issued = new ArrayList<>(count);
+        for (int offset = 0; offset < count; offset += insertBatchSize) {
+            int batchSize = Math.min(insertBatchSize, count - offset);
+            List<ValidationTokenEntity> inserted = transaction.execute(status -> {
+                KioskEntity kioskEntity = kioskRepository.getReferenceById(kioskID);
+                List<ValidationTokenEntity> validationTokenEntities = new ArrayList<>(batchSize);
+                for (int i = 0; i < batchSize; i++) {
+                    ValidationTokenEntity validationTokenEntity = new ValidationTokenEntity();
+                    validationTokenEntity.setParentKiosk(kioskEntity);
+                    validationTokenEntities.add(validationTokenEntity);
+                }
+                return validationTokenRepository.saveAll(validationTokenEntities);
+            });
+            for (ValidationTokenEntity validationTokenEntity : inserted) {
+                validationTokenRegistry.register(validationTokenEntity.getValidationToken(), kioskID, validationTokenEntity.getTokenCreateAt());
+                issued.add(new IssuedToken(validationTokenEntity.getValidationToken(), kioskID, validationTokenEntity.getTokenCreateAt()));
+            }
+            generated.increment(inserted.size());
+        }
+        return issued;
+    }
+
+    /**
+     * @return the creation time after which a token still has {@code VoFAS.tokens.pool.min-remaining-lifetime} left
+     */
+    private LocalDateTime issuableCreatedAfter() {
+        return LocalDateTime.now().minus(timeToLive).plus(minRemainingLifetime);
+    }
+
+    private boolean isIssuable(IssuedToken token, LocalDateTime createdAfter) {
+        return token.createdAt().isAfter(createdAfter) && validationTokenRegistry.isValid(token.validationToken());
+    }
+
+    private void refill(Long kioskID, Queue<IssuedToken> pool) {
+        int missing = poolSize - pool.size();
+        if (missing <= poolSize / 2) {
+            return;
+        }
+        try {
+            pool.addAll(generate(kioskID, missing));
+        } catch (RuntimeException e) {
+            log.warn("Could not refill the validation token pool of kiosk {}", kioskID, e);
+        }
+    }
+
+    private Queue<IssuedToken> poolOf(Long kioskID) throws ResourceNotFoundException {
+        Queue<IssuedToken> pool = pools.get(kioskID);
+        if (pool != null) {
+            return pool;
+        }
+        if (!kioskRepository.existsById(kioskID)) {
+            throw new ResourceNotFoundException("Kiosk", "kioskID", String.valueOf(kioskID));
+        }
+        return pools.computeIfAbsent(kioskID, kiosk -> new ConcurrentLinkedQueue<>());
+    }
+
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        refiller.shutdown();
+        refiller.awaitTermination(5, TimeUnit.SECONDS);
+    }
+
+    /**
+     * A token handed out to a kiosk.
+     *
+     * @param validationToken the token
+     * @param kioskID         the kiosk it may be used at
+     * @param createdAt       when the token was created
+     */
+    public record IssuedToken(UUID validationToken, Long kioskID, LocalDateTime createdAt) {
+    }
+}
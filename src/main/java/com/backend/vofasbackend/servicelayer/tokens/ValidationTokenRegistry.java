@@ -0,0 +1,369 @@
+package com.backend.vofasbackend.servicelayer.tokens;
+
+import com.backend.vofasbackend.datalayer.entities.ValidationTokenEntity;
+import com.backend.vofasbackend.datalayer.enums.ValidationTokenStateEnum;
+import com.backend.vofasbackend.datalayer.projections.ValidationTokenRow;
+import com.backend.vofasbackend.datalayer.repositories.FeedbackRepository;
+import com.backend.vofasbackend.datalayer.repositories.ValidationTokenRepository;
+import com.backend.vofasbackend.exceptions.exceptions.InvalidValidationTokenException;
+import com.backend.vofasbackend.servicelayer.caches.FeedbackDetailCache;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Registry of the validation tokens an upload may be made with, keeping the valid tokens in memory so checking a
+ * token and finding its kiosk does not cost database round trips on the upload path.
+ * <p>
+ * The valid tokens are loaded when the application starts and indexed by token and by kiosk. A Bloom filter in front
+ * of the index sends tokens this node does not know, e.g. those issued by another node, straight to the database.
+ * Using a token known here is a compare-and-set from {@link ValidationTokenStateEnum#VALID} to
+ * {@link ValidationTokenStateEnum#USED} in memory, so of two concurrent uploads to this node exactly one gets it, and
+ * the upload goes on without touching the database. Using a token this node does not hold is a conditional update in
+ * the database instead, which also rejects a token that a feedback already references.
+ * <p>
+ * The use, its time and the link to the feedback created with the token are written behind the upload, in batches
+ * every {@code VoFAS.tokens.write-behind.interval}. A token issued by this node and used through another one at the
+ * same time is only noticed when the batch is written, and logged. Uses that were not written yet when the process
+ * dies leave the token valid in the database, but referenced by its feedback, so it is neither loaded again nor
+ * usable through the database. Writing a link drops the cached details of the feedback, whose token is part of them.
+ */
+@Slf4j
+@Component
+public class ValidationTokenRegistry {
+
+    private final ValidationTokenRepository validationTokenRepository;
+    private final FeedbackRepository feedbackRepository;
+    private final FeedbackDetailCache feedbackDetailCache;
+    private final TransactionTemplate transaction;
+    private final long expectedTokens;
+    private final double falsePositiveRate;
+    private final int batchSize;
+    private final Map<UUID, TokenEntry> tokens = new ConcurrentHashMap<>();
+    private final Map<Long, Set<UUID>> validTokensByKiosk = new ConcurrentHashMap<>();
+    private final BlockingQueue<TokenUse> pendingUses = new LinkedBlockingQueue<>();
+    private final AtomicLong filterInsertions = new AtomicLong();
+    private final ScheduledExecutorService writer;
+    private final Counter databaseLookups;
+    private final Counter rejectedUnknown;
+    private final Counter rejectedUsed;
+    private volatile UuidBloomFilter filter;
+
+    public ValidationTokenRegistry(ValidationTokenRepository validationTokenRepository,
+                                   FeedbackRepository feedbackRepository,
+                                   FeedbackDetailCache feedbackDetailCache,
+                                   PlatformTransactionManager transactionManager,
+                                   MeterRegistry meterRegistry,
+                                   @Value("${VoFAS.tokens.filter.expected-insertions}") long expectedTokens,
+                                   @Value("${VoFAS.tokens.filter.false-positive-rate}") double falsePositiveRate,
+                                   @Value("${VoFAS.tokens.write-behind.batch-size}") int batchSize,
+                                   @Value("${VoFAS.tokens.write-behind.interval}") Duration writeInterval) {
+        this.validationTokenRepository = validationTokenRepository;
+        this.feedbackRepository = feedbackRepository;
+        this.feedbackDetailCache = feedbackDetailCache;
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.expectedTokens = expectedTokens;
+        this.falsePositiveRate = falsePositiveRate;
+        this.batchSize = Math.max(1, batchSize);
+        this.filter = new UuidBloomFilter(expectedTokens, falsePositiveRate);
+
+        this.databaseLookups = Counter.builder("vofas.tokens.database-lookups").register(meterRegistry);
+        this.rejectedUnknown = rejectedCounter(meterRegistry, "unknown");
+        this.rejectedUsed = rejectedCounter(meterRegistry, "used");
+        Gauge.builder("vofas.tokens.valid", validTokensByKiosk, index -> index.values().stream().mapToInt(Set::size).sum())
+                .register(meterRegistry);
+        Gauge.builder("vofas.tokens.write-behind.pending", pendingUses, BlockingQueue::size)
+                .register(meterRegistry);
+
+        this.writer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "validation-token-writer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long writeMillis = Math.max(1, writeInterval.toMillis());
+        writer.scheduleWithFixedDelay(this::flush, writeMillis, writeMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Loads the valid tokens before the web server accepts uploads.
+     */
+    @PostConstruct
+    void load() {
+        List<ValidationTokenRow> validTokens = validationTokenRepository.findUnlinkedTokensByState(ValidationTokenStateEnum.VALID);
+        if (validTokens.size() > expectedTokens / 2) {
+            filter = new UuidBloomFilter(2L * validTokens.size(), falsePositiveRate);
+        }
+        validTokens.forEach(row -> register(row.validationToken(), row.kioskID(), row.tokenCreateAt()));
+        log.info("Loaded {} valid validation tokens", validTokens.size());
+    }
+
+    /**
+     * Makes a newly issued token usable.
+     *
+     * @param validationToken the token
+     * @param kioskID         the kiosk it was issued to
+     * @param createdAt       when the token was created
+     */
+    public void register(UUID validationToken, Long kioskID, LocalDateTime createdAt) {
+        TokenEntry entry = new TokenEntry(validationToken, kioskID, createdAt);
+        if (tokens.putIfAbsent(validationToken, entry) != null) {
+            return;
+        }
+        validTokensByKiosk.computeIfAbsent(kioskID, kiosk -> ConcurrentHashMap.newKeySet()).add(validationToken);
+        addToFilter(validationToken);
+    }
+
+    /**
+     * Uses a token. The token is no longer valid on this node once this returns; give it back with
+     * {@link #release(ClaimedToken)} if the upload fails, or record the feedback created with it with
+     * {@link #markUsed(ClaimedToken, Long)}.
+     *
+     * @param validationToken the token sent with an upload
+     * @return the used token and the kiosk it belongs to
+     * @throws InvalidValidationTokenException if the token was never issued or has been used already
+     */
+    public ClaimedToken consume(UUID validationToken) throws InvalidValidationTokenException {
+        if (validationToken == null) {
+            rejectedUnknown.increment();
+            throw new InvalidValidationTokenException(null);
+        }
+        TokenEntry entry = filter.mightContain(validationToken) ? tokens.get(validationToken) : null;
+        if (entry == null) {
+            return consumeFromDatabase(validationToken);
+        }
+        if (!entry.state.compareAndSet(ValidationTokenStateEnum.VALID, ValidationTokenStateEnum.USED)) {
+            rejectedUsed.increment();
+            throw new InvalidValidationTokenException(validationToken);
+        }
+        removeFromKiosk(entry);
+        return new ClaimedToken(validationToken, entry.kioskID, LocalDateTime.now());
+    }
+
+    /**
+     * Uses a token this node does not hold, which is either unknown or was issued by another node.
+     */
+    private ClaimedToken consumeFromDatabase(UUID validationToken) {
+        databaseLookups.increment();
+        LocalDateTime usedAt = LocalDateTime.now();
+        Long kioskID = transaction.execute(status -> validationTokenRepository.useToken(validationToken, usedAt) == 1
+                ? validationTokenRepository.findKioskIDByValidationToken(validationToken).orElse(null)
+                : null);
+        if (kioskID == null) {
+            rejectedUnknown.increment();
+            throw new InvalidValidationTokenException(validationToken);
+        }
+        return new ClaimedToken(validationToken, kioskID, usedAt);
+    }
+
+    /**
+     * Makes a token consumed by a failed upload valid again.
+     */
+    public void release(ClaimedToken claimedToken) {
+        TokenEntry entry = tokens.get(claimedToken.validationToken());
+        if (entry != null && entry.state.get() == ValidationTokenStateEnum.USED) {
+            // used in memory only, the database still holds it as valid
+            restore(entry);
+            return;
+        }
+        transaction.executeWithoutResult(status -> validationTokenRepository.releaseToken(claimedToken.validationToken()));
+    }
+
+    private void restore(TokenEntry entry) {
+        if (entry.state.compareAndSet(ValidationTokenStateEnum.USED, ValidationTokenStateEnum.VALID)) {
+            validTokensByKiosk.computeIfAbsent(entry.kioskID, kiosk -> ConcurrentHashMap.newKeySet()).add(entry.token);
+        }
+    }
+
+    /**
+     * Records the feedback created with a consumed token. The token row is marked used and linked to the feedback by
+     * the next write-behind batch.
+     */
+    public void markUsed(ClaimedToken claimedToken, Long feedbackID) {
+        // a spooled upload replayed after a restart used its token before, while it was loaded as valid again
+        TokenEntry entry = tokens.get(claimedToken.validationToken());
+        if (entry != null && entry.state.compareAndSet(ValidationTokenStateEnum.VALID, ValidationTokenStateEnum.USED)) {
+            removeFromKiosk(entry);
+        }
+        pendingUses.add(new TokenUse(claimedToken, feedbackID));
+        if (pendingUses.size() >= batchSize) {
+            writer.execute(this::flush);
+        }
+    }
+
+    /**
+     * @return whether the token can still be used
+     */
+    public boolean isValid(UUID validationToken) {
+        TokenEntry entry = tokens.get(validationToken);
+        return entry != null && entry.state.get() == ValidationTokenStateEnum.VALID;
+    }
+
+    /**
+     * Expires the valid tokens created before a time. A token that is being used at the same moment either wins the
+     * compare-and-set and counts as used, or is expired.
+     *
+     * @return the tokens expired
+     */
+    public List<UUID> expireCreatedBefore(LocalDateTime cutoff) {
+        List<UUID> expired = new ArrayList<>();
+        for (TokenEntry entry : tokens.values()) {
+            if (entry.createdAt.isBefore(cutoff)
+                    && entry.state.compareAndSet(ValidationTokenStateEnum.VALID, ValidationTokenStateEnum.EXPIRED)) {
+                removeFromKiosk(entry);
+                tokens.remove(entry.token);
+                expired.add(entry.token);
+            }
+        }
+        return expired;
+    }
+
+    /**
+     * @return the number of unused tokens issued to a kiosk
+     */
+    public int validTokenCount(Long kioskID) {
+        Set<UUID> validTokens = validTokensByKiosk.get(kioskID);
+        return validTokens == null ? 0 : validTokens.size();
+    }
+
+    /**
+     * Writes the pending uses in batches of {@code VoFAS.tokens.write-behind.batch-size}, one transaction per
+     * batch. A batch that fails is retried with the next flush.
+     */
+    void flush() {
+        List<TokenUse> batch = new ArrayList<>(batchSize);
+        while (pendingUses.drainTo(batch, batchSize) > 0) {
+            try {
+                transaction.executeWithoutResult(status -> write(batch));
+            } catch (RuntimeException e) {
+                log.warn("Could not write {} validation token uses, retrying later", batch.size(), e);
+                pendingUses.addAll(batch);
+                return;
+            }
+            batch.forEach(use -> tokens.remove(use.claimedToken().validationToken()));
+            batch.clear();
+        }
+    }
+
+    private void write(List<TokenUse> batch) {
+        Map<UUID, TokenUse> uses = batch.stream()
+                .collect(Collectors.toMap(use -> use.claimedToken().validationToken(), Function.identity(), (first, second) -> first));
+        for (ValidationTokenEntity validationTokenEntity : validationTokenRepository.findAllById(uses.keySet())) {
+            TokenUse use = uses.get(validationTokenEntity.getValidationToken());
+            if (validationTokenEntity.getUserToken() != null) {
+                log.warn("Validation token {} was already used by feedback {} when feedback {} used it",
+                        use.claimedToken().validationToken(), validationTokenEntity.getUserToken().getFeedbackID(), use.feedbackID());
+                continue;
+            }
+            // a token this node did not hold was marked used by consume() already
+            if (validationTokenEntity.getValidationTokenStateEnum() == ValidationTokenStateEnum.USED) {
+                if (tokens.containsKey(use.claimedToken().validationToken())) {
+                    log.warn("Validation token {} used by feedback {} was used through another node as well",
+                            use.claimedToken().validationToken(), use.feedbackID());
+                }
+            } else {
+                validationTokenEntity.setValidationTokenStateEnum(ValidationTokenStateEnum.USED);
+                validationTokenEntity.setTokenUsedAt(use.claimedToken().usedAt());
+            }
+            validationTokenEntity.setUserToken(feedbackRepository.getReferenceById(use.feedbackID()));
+            feedbackDetailCache.invalidate(use.feedbackID());
+        }
+    }
+
+    /**
+     * Adds a token that is already in {@link #tokens} to the filter. Holding the lock of {@link #rebuildFilter()} means
+     * the token either goes into the published filter or is added by a rebuild that has not started yet.
+     */
+    private synchronized void addToFilter(UUID validationToken) {
+        filter.add(validationToken);
+        if (filterInsertions.incrementAndGet() > filter.expectedInsertions()) {
+            rebuildFilter();
+        }
+    }
+
+    /**
+     * Replaces the filter with one sized for twice the valid tokens, which also forgets the used ones. The new filter
+     * is filled before it is published, so a concurrent {@link #consume(UUID)} never sees it without the known tokens.
+     */
+    private synchronized void rebuildFilter() {
+        if (filterInsertions.get() <= filter.expectedInsertions()) {
+            return;
+        }
+        long validTokens = tokens.size();
+        UuidBloomFilter rebuilt = new UuidBloomFilter(Math.max(expectedTokens, 2 * validTokens), falsePositiveRate);
+        tokens.keySet().forEach(rebuilt::add);
+        filterInsertions.set(validTokens);
+        filter = rebuilt;
+    }
+
+    private void removeFromKiosk(TokenEntry entry) {
+        Set<UUID> validTokens = validTokensByKiosk.get(entry.kioskID);
+        if (validTokens != null) {
+            validTokens.remove(entry.token);
+        }
+    }
+
+    private static Counter rejectedCounter(MeterRegistry meterRegistry, String reason) {
+        return Counter.builder("vofas.tokens.rejected")
+                .tag("reason", reason)
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        writer.shutdown();
+        writer.awaitTermination(5, TimeUnit.SECONDS);
+        flush();
+    }
+
+    /**
+     * A token consumed by an upload.
+     *
+     * @param validationToken the token
+     * @param kioskID         the kiosk the token was issued to
+     * @param usedAt          when the token was consumed
+     */
+    public record ClaimedToken(UUID validationToken, Long kioskID, LocalDateTime usedAt) {
+    }
+
+    private record TokenUse(ClaimedToken claimedToken, Long feedbackID) {
+    }
+
+    private static final class TokenEntry {
+
+        private final UUID token;
+        private final Long kioskID;
+        private final LocalDateTime createdAt;
+        private final AtomicReference<ValidationTokenStateEnum> state = new AtomicReference<>(ValidationTokenStateEnum.VALID);
+
+        private TokenEntry(UUID token, Long kioskID, LocalDateTime createdAt) {
+            this.token = token;
+            this.kioskID = kioskID;
+            this.createdAt = createdAt;
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package com.backend.vofasbackend.servicelayer.tokens;
+
+import com.backend.vofasbackend.datalayer.enums.ValidationTokenStateEnum;
+import com.backend.vofasbackend.datalayer.repositories.FeedbackRepository;
+import com.backend.vofasbackend.datalayer.repositories.ValidationTokenRepository;
+import com.backend.vofasbackend.servicelayer.caches.FeedbackDetailCache;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Expires the validation tokens that were not used within {@code VoFAS.tokens.expiry.ttl} of their creation, every
+ * {@code VoFAS.tokens.expiry.sweep-interval}.
+ * <p>
+ * Tokens are expired in the {@link ValidationTokenRegistry} first, so an upload racing the sweep either uses the token
+ * or is rejected. The database is then swept on its own, whichever node issued the tokens: the oldest valid tokens
+ * past the cutoff are expired {@code VoFAS.tokens.expiry.update-batch-size} at a time with a conditional update, one
+ * transaction per batch, until none are left. A batch that fails stays valid and is expired by the next sweep.
+ * A valid token is normally not referenced by a feedback yet, but one released under a spooled upload is; the cached
+ * details of such feedbacks are dropped with the update.
+ */
+@Slf4j
+@Component
+public class ValidationTokenSweeper {
+
+    private final ValidationTokenRegistry validationTokenRegistry;
+    private final ValidationTokenRepository validationTokenRepository;
+    private final FeedbackRepository feedbackRepository;
+    private final FeedbackDetailCache feedbackDetailCache;
+    private final TransactionTemplate transaction;
+    private final Duration timeToLive;
+    private final int updateBatchSize;
+    private final ScheduledExecutorService sweeper;
+    private final Counter expired;
+
+    public ValidationTokenSweeper(ValidationTokenRegistry validationTokenRegistry,
+                                  ValidationTokenRepository validationTokenRepository,
+                                  FeedbackRepository feedbackRepository,
+                                  FeedbackDetailCache feedbackDetailCache,
+                                  PlatformTransactionManager transactionManager,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${VoFAS.tokens.expiry.ttl}") Duration timeToLive,
+                                  @Value("${VoFAS.tokens.expiry.sweep-interval}") Duration sweepInterval,
+                                  @Value("${VoFAS.tokens.expiry.update-batch-size}") int updateBatchSize) {
+        this.validationTokenRegistry = validationTokenRegistry;
+        this.validationTokenRepository = validationTokenRepository;
+        this.feedbackRepository = feedbackRepository;
+        this.feedbackDetailCache = feedbackDetailCache;
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.timeToLive = timeToLive;
+        this.updateBatchSize = Math.max(1, updateBatchSize);
+        this.expired = Counter.builder("vofas.tokens.expired")
+                .register(meterRegistry);
+
+        this.sweeper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "validation-token-sweeper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long sweepMillis = Math.max(1, sweepInterval.toMillis());
+        sweeper.scheduleWithFixedDelay(this::sweep, sweepMillis, sweepMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Expires the tokens older than the time to live.
+     *
+     * @return the number of tokens expired in the database
+     */
+    int sweep() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(timeToLive);
+        validationTokenRegistry.expireCreatedBefore(cutoff);
+        int updated = 0;
+        try {
+            List<UUID> batch;
+            do {
+                batch = validationTokenRepository.findValidTokensCreatedBefore(cutoff, PageRequest.of(0, updateBatchSize));
+                if (batch.isEmpty()) {
+                    break;
+                }
+                List<UUID> expiring = batch;
+                Integer batchUpdated = transaction.execute(status -> {
+                    int batchExpired = validationTokenRepository.updateTokenStates(
+                            expiring, ValidationTokenStateEnum.VALID, ValidationTokenStateEnum.EXPIRED);
+                    if (batchExpired > 0) {
+                        feedbackRepository.findFeedbackIDsByValidationTokens(expiring).forEach(feedbackDetailCache::invalidate);
+                    }
+                    return batchExpired;
+                });
+                updated += batchUpdated == null ? 0 : batchUpdated;
+            } while (batch.size() == updateBatchSize);
+        } catch (RuntimeException e) {
+            // the tokens left valid in the database are past the cutoff still, the next sweep picks them up again
+            log.warn("Could not expire all validation tokens created before {}", cutoff, e);
+        }
+        expired.increment(updated);
+        if (updated > 0) {
+            log.info("Expired {} validation tokens", updated);
+        }
+        return updated;
+    }
+
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        sweeper.shutdown();
+        sweeper.awaitTermination(5, TimeUnit.SECONDS);
+    }
+}
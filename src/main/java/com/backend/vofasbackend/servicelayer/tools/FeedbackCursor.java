@@ -0,0 +1,46 @@
+package com.backend.vofasbackend.servicelayer.tools;
+
+import com.backend.vofasbackend.exceptions.exceptions.InvalidFilterOptionException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Position of the last feedback a client has seen in a keyset-paginated listing.
+ * <p>
+ * Clients receive it as an opaque base64url token and hand it back unchanged to fetch the next slice. The sort
+ * direction is part of the token, so a cursor cannot be replayed against a listing sorted the other way.
+ *
+ * @param feedbackReceivedAt receive time of the last feedback returned
+ * @param feedbackID         id of the last feedback returned, breaks ties between equal receive times
+ * @param ascending          sort direction of the listing the cursor belongs to
+ */
+public record FeedbackCursor(LocalDateTime feedbackReceivedAt, Long feedbackID, boolean ascending) {
+
+    private static final String SEPARATOR = "|";
+
+    public String encode() {
+        String raw = feedbackReceivedAt + SEPARATOR + feedbackID + SEPARATOR + (ascending ? "A" : "D");
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @param token a token produced by {@link #encode()}
+     * @return the decoded cursor
+     * @throws InvalidFilterOptionException if the token is malformed
+     */
+    public static FeedbackCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\|");
+            if (parts.length != 3 || !(parts[2].equals("A") || parts[2].equals("D"))) {
+                throw new InvalidFilterOptionException("cursor", token);
+            }
+            return new FeedbackCursor(LocalDateTime.parse(parts[0]), Long.parseLong(parts[1]), parts[2].equals("A"));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new InvalidFilterOptionException("cursor", token);
+        }
+    }
+}
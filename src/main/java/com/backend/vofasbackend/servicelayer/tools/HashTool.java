@@ -1,39 +1,71 @@
 package com.backend.vofasbackend.servicelayer.tools;
 
-import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.util.Base64;
+import java.util.HexFormat;
 
 public class HashTool {
+
+    private static final int BUFFER_SIZE = 256 * 1024;
+
+    private static final ThreadLocal<ByteBuffer> BUFFERS = ThreadLocal.withInitial(() -> ByteBuffer.allocateDirect(BUFFER_SIZE));
+
     public static String hashString(String input) {
+        byte[] hash = newSha256Digest().digest(input.getBytes());
+        return Base64.getEncoder().encodeToString(hash);
+    }
+
+    public static MessageDigest newSha256Digest() {
         try {
-            MessageDigest digest = MessageDigest.getInstance("SHA-256");
-            byte[] hash = digest.digest(input.getBytes());
-            return Base64.getEncoder().encodeToString(hash);
+            return MessageDigest.getInstance("SHA-256");
         } catch (NoSuchAlgorithmException e) {
             throw new RuntimeException("Error: SHA-256 algorithm not found", e);
         }
     }
 
-    public static String hashFile(File file) {
-        try {
-            MessageDigest digest = MessageDigest.getInstance("SHA-256");
-            try (FileInputStream fis = new FileInputStream(file)) {
-                byte[] byteArray = new byte[1024];
-                int bytesRead;
-                while ((bytesRead = fis.read(byteArray)) != -1) {
-                    digest.update(byteArray, 0, bytesRead);
+    public static String toHex(byte[] hash) {
+        return HexFormat.of().formatHex(hash);
+    }
+
+    /**
+     * Copies a stream to a channel through a large direct buffer, feeding the digest on the way, so the hash is known
+     * when the last byte has been written and the target never has to be read back. The stream is read to its end but
+     * not closed.
+     *
+     * @return the number of bytes copied
+     */
+    public static long copyAndHash(InputStream content, WritableByteChannel target, MessageDigest digest) throws IOException {
+        // uploads spooled to disk by the servlet container can be read through their file channel directly
+        ReadableByteChannel source = content instanceof FileInputStream fileInputStream
+                ? fileInputStream.getChannel()
+                : Channels.newChannel(content);
+        ByteBuffer buffer = BUFFERS.get();
+        buffer.clear();
+        long size = 0;
+        boolean endOfStream = false;
+        while (!endOfStream) {
+            while (buffer.hasRemaining()) {
+                if (source.read(buffer) == -1) {
+                    endOfStream = true;
+                    break;
                 }
             }
-            byte[] hash = digest.digest();
-            return Base64.getEncoder().encodeToString(hash);
-        } catch (NoSuchAlgorithmException e) {
-            throw new RuntimeException("Error: SHA-256 algorithm not found", e);
-        } catch (IOException e) {
-            throw new RuntimeException("Error reading file", e);
+            buffer.flip();
+            digest.update(buffer);
+            buffer.rewind();
+            while (buffer.hasRemaining()) {
+                size += target.write(buffer);
+            }
+            buffer.clear();
         }
+        return size;
     }
 }
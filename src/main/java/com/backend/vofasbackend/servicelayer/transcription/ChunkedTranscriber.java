@@ -0,0 +1,145 @@
+package com.backend.vofasbackend.servicelayer.transcription;
+
+import com.backend.vofasbackend.servicelayer.audio.AudioSplitter;
+import com.backend.vofasbackend.servicelayer.interfaces.TranscriptionEngine;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.stereotype.Component;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Transcribes recordings through the {@link TranscriptionEngine}, splitting long ones into
+ * overlapping chunks that are transcribed in parallel.
+ * <p>
+ * A single request for a long recording keeps one provider slot busy for as long as the whole
+ * recording takes to process. Chunks go through the same engine, and so through the same
+ * limiter and circuit breaker, so a long recording can use idle capacity without starving the
+ * short ones queued behind it.
+ */
+@Slf4j
+@Component
+public class ChunkedTranscriber {
+
+    private final TranscriptionEngine transcriptionEngine;
+    private final AudioSplitter audioSplitter;
+    private final ExecutorService chunkExecutor;
+
+    @Value("${VoFAS.transcription.chunk.threshold}")
+    private Duration threshold;
+
+    @Value("${VoFAS.transcription.chunk.length}")
+    private Duration chunkLength;
+
+    @Value("${VoFAS.transcription.chunk.overlap}")
+    private Duration overlap;
+
+    @Value("${VoFAS.transcription.chunk.silence-search-window}")
+    private Duration silenceSearchWindow;
+
+    @Value("${VoFAS.transcription.chunk.max-overlap-words:12}")
+    private int maxOverlapWords;
+
+    @Autowired
+    public ChunkedTranscriber(TranscriptionEngine transcriptionEngine, AudioSplitter audioSplitter,
+                              @Value("${VoFAS.transcription.chunk.max-parallelism}") int maxParallelism) {
+        this.transcriptionEngine = transcriptionEngine;
+        this.audioSplitter = audioSplitter;
+        AtomicInteger threadNumber = new AtomicInteger();
+        ThreadFactory threadFactory = runnable -> {
+            Thread thread = new Thread(runnable, "transcription-chunk-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+        this.chunkExecutor = Executors.newFixedThreadPool(maxParallelism, threadFactory);
+    }
+
+    /**
+     * Transcribes the recording, chunking it if it is longer than the configured threshold.
+     *
+     * @param audio    path of the stored recording
+     * @param duration duration of the recording, or null if unknown
+     * @return the transcription text
+     */
+    public String transcribe(Path audio, Duration duration) {
+        if (duration == null || duration.compareTo(threshold) < 0) {
+            return transcriptionEngine.transcribe(new FileSystemResource(audio));
+        }
+
+        Path chunkDirectory = null;
+        try {
+            chunkDirectory = Files.createTempDirectory("vofas-chunks-");
+            List<Path> chunks = audioSplitter.split(audio, chunkDirectory, chunkLength, overlap, silenceSearchWindow);
+            if (chunks.size() <= 1) {
+                return transcriptionEngine.transcribe(new FileSystemResource(audio));
+            }
+            log.debug("Transcribing {} in {} chunks", audio, chunks.size());
+
+            List<CompletableFuture<String>> pending = new ArrayList<>(chunks.size());
+            AtomicBoolean failed = new AtomicBoolean();
+            for (Path chunk : chunks) {
+                pending.add(CompletableFuture.supplyAsync(() -> transcribeChunk(chunk, failed), chunkExecutor));
+            }
+            List<String> parts = new ArrayList<>(chunks.size());
+            try {
+                for (CompletableFuture<String> part : pending) {
+                    parts.add(part.join());
+                }
+            } catch (CompletionException e) {
+                // the whole recording is retried, chunks that have not started yet would only be thrown away
+                pending.forEach(part -> part.cancel(false));
+                if (e.getCause() instanceof RuntimeException cause) {
+                    throw cause;
+                }
+                throw e;
+            }
+            return TranscriptStitcher.stitch(parts, maxOverlapWords);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to split audio file " + audio, e);
+        } finally {
+            if (chunkDirectory != null) {
+                try {
+                    FileSystemUtils.deleteRecursively(chunkDirectory);
+                } catch (IOException e) {
+                    log.warn("Failed to delete chunk directory {}", chunkDirectory, e);
+                }
+            }
+        }
+    }
+
+    private String transcribeChunk(Path chunk, AtomicBoolean failed) {
+        // the worker freed by a failed chunk must not start the next one before the caller gets to cancel it
+        if (failed.get()) {
+            throw new CancellationException("Another chunk of the recording failed");
+        }
+        try {
+            return transcriptionEngine.transcribe(new FileSystemResource(chunk));
+        } catch (RuntimeException e) {
+            failed.set(true);
+            throw e;
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        chunkExecutor.shutdownNow();
+    }
+}
@@ -0,0 +1,32 @@
+package com.backend.vofasbackend.servicelayer.transcription;
+
+import com.backend.vofasbackend.servicelayer.interfaces.TranscriptionEngine;
+import org.springframework.ai.audio.transcription.AudioTranscriptionPrompt;
+import org.springframework.ai.audio.transcription.AudioTranscriptionResponse;
+import org.springframework.ai.model.Model;
+import org.springframework.core.io.Resource;
+
+/**
+ * {@link TranscriptionEngine} backed by a Spring AI transcription model.
+ */
+public class ModelTranscriptionEngine implements TranscriptionEngine {
+
+    private final String name;
+    private final Model<AudioTranscriptionPrompt, AudioTranscriptionResponse> model;
+
+    public ModelTranscriptionEngine(String name, Model<AudioTranscriptionPrompt, AudioTranscriptionResponse> model) {
+        this.name = name;
+        this.model = model;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public String transcribe(Resource audio) {
+        AudioTranscriptionResponse response = model.call(new AudioTranscriptionPrompt(audio));
+        return response.getResult().getOutput();
+    }
+}
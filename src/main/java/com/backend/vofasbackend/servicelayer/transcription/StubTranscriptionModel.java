@@ -0,0 +1,180 @@
+package com.backend.vofasbackend.servicelayer.transcription;
+
+import com.backend.vofasbackend.servicelayer.audio.AudioProbe;
+import com.backend.vofasbackend.servicelayer.tools.HashTool;
+import org.springframework.ai.audio.transcription.AudioTranscription;
+import org.springframework.ai.audio.transcription.AudioTranscriptionPrompt;
+import org.springframework.ai.audio.transcription.AudioTranscriptionResponse;
+import org.springframework.ai.model.Model;
+import org.springframework.ai.retry.TransientAiException;
+import org.springframework.core.io.Resource;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * In-process transcription provider for load tests on machines without access to the transcription API.
+ * <p>
+ * The returned text and the latency are seeded from the content hash and the duration of the audio, so the same
+ * recording or chunk always produces the same transcription after the same time, while chunks with the same file name
+ * from different recordings do not. Roughly one sentence is returned per five seconds of audio. Latency follows a
+ * log-normal distribution around a median of {@code medianLatency} plus {@code realTimeFactor} times the duration of
+ * the audio; requests above the configured rate are throttled with a simulated 429 response, and a configurable share
+ * of the remaining requests fails with a simulated server error. Failures are drawn per request, so a retry of a
+ * failed chunk can succeed.
+ */
+public class StubTranscriptionModel implements Model<AudioTranscriptionPrompt, AudioTranscriptionResponse> {
+
+    private static final List<String> SENTENCES = List.of(
+            "Hizmetten çok memnun kaldım, teşekkürler.",
+            "Kasada çok uzun süre bekledim.",
+            "Personel ilgili ve güler yüzlüydü.",
+            "Ürünler raflarda eksikti, bulamadım.",
+            "Fiyatlar biraz yüksek ama kalite iyi.",
+            "Mağaza temiz ve düzenliydi.",
+            "Siparişim yanlış geldi, berbat bir deneyim.",
+            "Genel olarak fena değildi."
+    );
+
+    private static final long SECONDS_PER_SENTENCE = 5;
+
+    private final AudioProbe audioProbe;
+    private final long medianLatencyNanos;
+    private final double realTimeFactor;
+    private final double latencySigma;
+    private final double failureRate;
+    private final TokenBucket throttle;
+    private final long seed;
+    private final Random random;
+
+    public StubTranscriptionModel(AudioProbe audioProbe, Duration medianLatency, double realTimeFactor,
+                                  double latencySigma, double requestsPerSecond, double failureRate, long seed) {
+        this.audioProbe = audioProbe;
+        this.medianLatencyNanos = medianLatency.toNanos();
+        this.realTimeFactor = realTimeFactor;
+        this.latencySigma = latencySigma;
+        this.failureRate = failureRate;
+        this.throttle = requestsPerSecond > 0 ? new TokenBucket(requestsPerSecond) : null;
+        this.seed = seed;
+        this.random = new Random(seed);
+    }
+
+    @Override
+    public AudioTranscriptionResponse call(AudioTranscriptionPrompt request) {
+        if (throttle != null && !throttle.tryTake()) {
+            throw new TransientAiException("429 Too Many Requests (simulated by the stub transcription provider)");
+        }
+        double failureDraw;
+        synchronized (random) {
+            failureDraw = random.nextDouble();
+        }
+        Simulation simulation = simulate(request.getInstructions());
+        sleep(simulation.latency().toNanos());
+        if (failureDraw < failureRate) {
+            throw new TransientAiException("500 Internal Server Error (simulated by the stub transcription provider)");
+        }
+        return new AudioTranscriptionResponse(new AudioTranscription(simulation.transcription()));
+    }
+
+    /**
+     * Draws the latency and the transcription of an audio file from a generator seeded with its content hash and
+     * duration. Audio of unknown duration counts as empty.
+     */
+    Simulation simulate(Resource audio) {
+        Duration duration = durationOf(audio);
+        Random audioRandom = new Random(seed ^ ByteBuffer.wrap(contentHashOf(audio)).getLong() ^ duration.toMillis());
+        double medianNanos = medianLatencyNanos + realTimeFactor * duration.toNanos();
+        Duration latency = Duration.ofNanos((long) (medianNanos * Math.exp(latencySigma * audioRandom.nextGaussian())));
+
+        long sentenceCount = 1 + duration.toSeconds() / SECONDS_PER_SENTENCE;
+        StringBuilder transcription = new StringBuilder();
+        for (long i = 0; i < sentenceCount; i++) {
+            if (i > 0) {
+                transcription.append(' ');
+            }
+            transcription.append(SENTENCES.get(audioRandom.nextInt(SENTENCES.size())));
+        }
+        return new Simulation(latency, transcription.toString());
+    }
+
+    private Duration durationOf(Resource audio) {
+        if (!audio.isFile()) {
+            return Duration.ZERO;
+        }
+        try {
+            return audioProbe.probe(audio.getFile().toPath())
+                    .map(AudioProbe.AudioInfo::duration)
+                    .orElse(Duration.ZERO);
+        } catch (IOException e) {
+            return Duration.ZERO;
+        }
+    }
+
+    private static byte[] contentHashOf(Resource audio) {
+        MessageDigest digest = HashTool.newSha256Digest();
+        byte[] buffer = new byte[64 * 1024];
+        try (InputStream content = audio.getInputStream()) {
+            int read;
+            while ((read = content.read(buffer)) != -1) {
+                digest.update(buffer, 0, read);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read " + audio.getDescription(), e);
+        }
+        return digest.digest();
+    }
+
+    private static void sleep(long nanos) {
+        try {
+            TimeUnit.NANOSECONDS.sleep(nanos);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new TransientAiException("Interrupted while simulating transcription latency", e);
+        }
+    }
+
+    /**
+     * What the stub answers for an audio file, apart from simulated failures.
+     *
+     * @param latency       how long the request takes
+     * @param transcription the returned text
+     */
+    record Simulation(Duration latency, String transcription) {
+    }
+
+    /**
+     * Token bucket refilled continuously at the configured rate, holding at most one second worth of tokens.
+     */
+    private static final class TokenBucket {
+
+        private final double tokensPerNano;
+        private final double capacity;
+        private double tokens;
+        private long refilledAt;
+
+        private TokenBucket(double tokensPerSecond) {
+            this.tokensPerNano = tokensPerSecond / TimeUnit.SECONDS.toNanos(1);
+            this.capacity = Math.max(1, tokensPerSecond);
+            this.tokens = capacity;
+            this.refilledAt = System.nanoTime();
+        }
+
+        private synchronized boolean tryTake() {
+            long now = System.nanoTime();
+            tokens = Math.min(capacity, tokens + (now - refilledAt) * tokensPerNano);
+            refilledAt = now;
+            if (tokens < 1) {
+                return false;
+            }
+            tokens--;
+            return true;
+        }
+    }
+}
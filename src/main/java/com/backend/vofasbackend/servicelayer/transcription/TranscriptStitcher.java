@@ -0,0 +1,67 @@
+package com.backend.vofasbackend.servicelayer.transcription;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Joins the transcriptions of overlapping audio chunks into a single text.
+ * <p>
+ * Consecutive chunks share a few seconds of audio, so the end of one transcription usually
+ * repeats at the start of the next. The longest run of words that ends the text so far and
+ * starts the next chunk is dropped from the next chunk before appending it. Words are compared
+ * case- and punctuation-insensitively since the model may punctuate a cut sentence differently.
+ */
+public final class TranscriptStitcher {
+
+    private static final Locale TURKISH = Locale.forLanguageTag("tr");
+    private static final int MIN_OVERLAP_WORDS = 2;
+
+    private TranscriptStitcher() {
+    }
+
+    /**
+     * @param parts           chunk transcriptions in playback order
+     * @param maxOverlapWords the longest repeated run to look for
+     * @return the stitched transcription
+     */
+    public static String stitch(List<String> parts, int maxOverlapWords) {
+        List<String> words = new ArrayList<>();
+        List<String> normalized = new ArrayList<>();
+        for (String part : parts) {
+            if (part == null || part.isBlank()) {
+                continue;
+            }
+            String[] next = part.trim().split("\\s+");
+            String[] nextNormalized = new String[next.length];
+            for (int i = 0; i < next.length; i++) {
+                nextNormalized[i] = normalize(next[i]);
+            }
+            int overlap = longestOverlap(normalized, nextNormalized, maxOverlapWords);
+            for (int i = overlap; i < next.length; i++) {
+                words.add(next[i]);
+                normalized.add(nextNormalized[i]);
+            }
+        }
+        return String.join(" ", words);
+    }
+
+    private static int longestOverlap(List<String> tail, String[] head, int maxOverlapWords) {
+        int longest = Math.min(maxOverlapWords, Math.min(tail.size(), head.length));
+        for (int length = longest; length >= MIN_OVERLAP_WORDS; length--) {
+            int offset = tail.size() - length;
+            boolean matches = true;
+            for (int i = 0; i < length && matches; i++) {
+                matches = tail.get(offset + i).equals(head[i]);
+            }
+            if (matches) {
+                return length;
+            }
+        }
+        return 0;
+    }
+
+    private static String normalize(String word) {
+        return word.toLowerCase(TURKISH).replaceAll("[\\p{P}\\p{S}]", "");
+    }
+}
@@ -0,0 +1,74 @@
+package com.backend.vofasbackend.datalayer.migrations;
+
+import com.backend.vofasbackend.datalayer.entities.FeedbackEntity;
+import com.backend.vofasbackend.datalayer.entities.TranscriptionEntity;
+import com.backend.vofasbackend.datalayer.enums.FeedbackStateEnum;
+import com.backend.vofasbackend.datalayer.repositories.TranscriptionRepository;
+import com.backend.vofasbackend.servicelayer.tools.HashTool;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@Import(FileHashEncodingMigration.class)
+class FileHashEncodingMigrationTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private TranscriptionRepository transcriptionRepository;
+
+    @Autowired
+    private FileHashEncodingMigration migration;
+
+    @Test
+    void base64HashesAreReEncodedAsHex() {
+        byte[] digest = HashTool.newSha256Digest().digest("kayıt".getBytes(StandardCharsets.UTF_8));
+        String hex = HashTool.toHex(digest);
+        Long oldFeedbackID = persistFeedback(Base64.getEncoder().encodeToString(digest), "Eski kayıt");
+        String newHash = "0f".repeat(32);
+        Long newFeedbackID = persistFeedback(newHash, "Yeni kayıt");
+        Long unknownFeedbackID = persistFeedback("bm90IGEgZGlnZXN0", null);
+        entityManager.flush();
+        entityManager.clear();
+
+        migration.migrate();
+        entityManager.clear();
+
+        assertEquals(hex, entityManager.find(FeedbackEntity.class, oldFeedbackID).getFile_hash());
+        assertEquals(newHash, entityManager.find(FeedbackEntity.class, newFeedbackID).getFile_hash());
+        assertEquals("bm90IGEgZGlnZXN0", entityManager.find(FeedbackEntity.class, unknownFeedbackID).getFile_hash());
+        assertEquals(List.of("Eski kayıt"), transcriptionRepository.findTranscriptionsByFileHash(hex, PageRequest.of(0, 1)));
+    }
+
+    @Test
+    void onlyDigestsAreDecoded() {
+        assertEquals(HashTool.toHex(new byte[32]), FileHashEncodingMigration.toHex(Base64.getEncoder().encodeToString(new byte[32])));
+        assertNull(FileHashEncodingMigration.toHex("bm90IGEgZGlnZXN0"));
+        assertNull(FileHashEncodingMigration.toHex("not base64="));
+    }
+
+    private Long persistFeedback(String fileHash, String transcription) {
+        FeedbackEntity feedback = new FeedbackEntity();
+        feedback.setFeedbackReceivedAt(LocalDateTime.now());
+        feedback.setFeedbackState(FeedbackStateEnum.TRANSCRIBED);
+        feedback.setFile_hash(fileHash);
+        if (transcription != null) {
+            TranscriptionEntity transcriptionEntity = new TranscriptionEntity(null, transcription, "hash", LocalDateTime.now(), LocalDateTime.now(), null);
+            entityManager.persist(transcriptionEntity);
+            feedback.setTranscription(transcriptionEntity);
+        }
+        return entityManager.persistAndGetId(feedback, Long.class);
+    }
+}
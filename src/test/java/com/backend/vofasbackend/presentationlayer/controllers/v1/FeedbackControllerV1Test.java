@@ -0,0 +1,76 @@
+package com.backend.vofasbackend.presentationlayer.controllers.v1;
+
+import com.backend.vofasbackend.presentationlayer.datatransferobjects.FeedbackDTO;
+import com.backend.vofasbackend.servicelayer.interfaces.FeedbackExportService;
+import com.backend.vofasbackend.servicelayer.interfaces.FeedbackSearchService;
+import com.backend.vofasbackend.servicelayer.interfaces.FeedbackService;
+import com.backend.vofasbackend.servicelayer.streaming.FeedbackEventLog;
+import com.backend.vofasbackend.servicelayer.streaming.StreamFilter;
+import com.backend.vofasbackend.servicelayer.streaming.StreamOverflowPolicy;
+import com.backend.vofasbackend.servicelayer.streaming.StreamPayload;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.Mockito.*;
+
+class FeedbackControllerV1Test {
+
+    private FeedbackService feedbackService;
+    private FeedbackControllerV1 controller;
+
+    @BeforeEach
+    void setUp() {
+        feedbackService = mock(FeedbackService.class);
+        controller = new FeedbackControllerV1(feedbackService, mock(FeedbackExportService.class), mock(FeedbackSearchService.class));
+        ReflectionTestUtils.setField(controller, "streamHeartbeat", Duration.ofHours(1));
+    }
+
+    @Test
+    void streamOfADisconnectedSubscriberEnds() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        FeedbackEventLog eventLog = new FeedbackEventLog(new ObjectMapper().registerModule(new JavaTimeModule()), meterRegistry, 4);
+        when(feedbackService.getFeedbackStream(any(), any(), any(), any(), any(), any(), anyBoolean()))
+                .thenReturn(eventLog.subscribe(null, StreamFilter.ALL, StreamPayload.FULL, StreamOverflowPolicy.DISCONNECT));
+
+        StepVerifier.create(controller.streamFeedbacks(null, "disconnect", null, null, null, null, true), 0)
+                .then(() -> {
+                    // more than the response buffers ahead of the client and the ring of four retain
+                    for (long feedbackID = 1; feedbackID <= 100; feedbackID++) {
+                        FeedbackDTO feedbackDTO = new FeedbackDTO();
+                        feedbackDTO.setFeedbackId(feedbackID);
+                        eventLog.append(feedbackDTO);
+                    }
+                })
+                .thenRequest(Long.MAX_VALUE)
+                .thenConsumeWhile(event -> event.id() != null)
+                .expectComplete()
+                .verify(Duration.ofSeconds(5));
+
+        assertEquals(0.0, meterRegistry.get("vofas.feedback.stream.subscribers").gauge().value());
+    }
+
+    @Test
+    void heartbeatsStopWithTheEvents() {
+        ReflectionTestUtils.setField(controller, "streamHeartbeat", Duration.ofMillis(20));
+        Sinks.Many<FeedbackEventLog.FeedbackEvent> events = Sinks.many().unicast().onBackpressureBuffer();
+        when(feedbackService.getFeedbackStream(any(), any(), any(), any(), any(), any(), anyBoolean())).thenReturn(events.asFlux());
+
+        StepVerifier.create(controller.streamFeedbacks(null, "drop-oldest", null, null, null, null, true))
+                .assertNext(event -> assertEquals("heartbeat", event.comment()))
+                .then(events::tryEmitComplete)
+                .thenConsumeWhile(event -> "heartbeat".equals(event.comment()))
+                .expectComplete()
+                .verify(Duration.ofSeconds(5));
+    }
+}
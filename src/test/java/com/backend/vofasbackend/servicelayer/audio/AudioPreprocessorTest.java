@@ -0,0 +1,80 @@
+package com.backend.vofasbackend.servicelayer.audio;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.sound.sampled.AudioFileFormat;
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.AudioInputStream;
+import javax.sound.sampled.AudioSystem;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AudioPreprocessorTest {
+
+    @TempDir
+    Path directory;
+
+    private final AudioPreprocessor audioPreprocessor =
+            new AudioPreprocessor(true, 16000, -45, Duration.ofMillis(300), Duration.ofMillis(500));
+
+    @Test
+    void downmixesResamplesAndTrimsSilence() throws Exception {
+        // 44.1 kHz stereo: 3 s silence, 2 s tone, 4 s silence
+        Path original = writeStereoWav(directory.resolve("abc.wav"), 3, 2, 4);
+
+        AudioPreprocessor.PreparedAudio prepared = audioPreprocessor.prepare(original);
+
+        assertEquals(directory.resolve("abc.16k.wav"), prepared.path());
+        try (AudioInputStream stream = AudioSystem.getAudioInputStream(prepared.path().toFile())) {
+            AudioFormat format = stream.getFormat();
+            assertEquals(16000, format.getSampleRate());
+            assertEquals(1, format.getChannels());
+            assertEquals(16, format.getSampleSizeInBits());
+            double seconds = stream.getFrameLength() / format.getFrameRate();
+            // tone plus pre-roll and post-roll
+            assertEquals(2.8, seconds, 0.05);
+            assertEquals(seconds, prepared.duration().toMillis() / 1000.0, 0.01);
+        }
+        assertTrue(Files.size(prepared.path()) * 10 < Files.size(original));
+        try (var files = Files.list(directory)) {
+            assertTrue(files.noneMatch(path -> path.toString().endsWith(".tmp")));
+        }
+    }
+
+    @Test
+    void passesSilentAndNonWavFilesThrough() throws Exception {
+        Path silent = writeStereoWav(directory.resolve("silent.wav"), 2, 0, 0);
+        Path mp3 = Files.write(directory.resolve("abc.mp3"), new byte[16]);
+
+        assertEquals(silent, audioPreprocessor.prepare(silent).path());
+        assertNull(audioPreprocessor.prepare(silent).duration());
+        assertEquals(mp3, audioPreprocessor.prepare(mp3).path());
+        assertFalse(Files.exists(directory.resolve("silent.16k.wav")));
+    }
+
+    private static Path writeStereoWav(Path path, double leadingSilence, double tone, double trailingSilence) throws Exception {
+        float sampleRate = 44100;
+        int frames = (int) ((leadingSilence + tone + trailingSilence) * sampleRate);
+        ByteArrayOutputStream pcm = new ByteArrayOutputStream(frames * 4);
+        for (int frame = 0; frame < frames; frame++) {
+            double time = frame / sampleRate;
+            boolean voiced = time >= leadingSilence && time < leadingSilence + tone;
+            short sample = voiced ? (short) (Math.sin(2 * Math.PI * 300 * time) * 10000) : 0;
+            for (int channel = 0; channel < 2; channel++) {
+                pcm.write(sample & 0xFF);
+                pcm.write((sample >> 8) & 0xFF);
+            }
+        }
+        AudioFormat format = new AudioFormat(sampleRate, 16, 2, true, false);
+        try (AudioInputStream stream = new AudioInputStream(new ByteArrayInputStream(pcm.toByteArray()), format, frames)) {
+            AudioSystem.write(stream, AudioFileFormat.Type.WAVE, path.toFile());
+        }
+        return path;
+    }
+}
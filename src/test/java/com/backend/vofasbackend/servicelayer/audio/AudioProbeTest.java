@@ -0,0 +1,151 @@
+package com.backend.vofasbackend.servicelayer.audio;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.sound.sampled.AudioFileFormat;
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.AudioInputStream;
+import javax.sound.sampled.AudioSystem;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AudioProbeTest {
+
+    // MPEG 1 layer III, 128 kbit/s, 44.1 kHz, joint stereo
+    private static final int FRAME_HEADER = 0xFFFB9044;
+    private static final int FRAME_LENGTH = 417;
+
+    @TempDir
+    Path directory;
+
+    private final AudioProbe audioProbe = new AudioProbe();
+
+    @Test
+    void estimatesCbrMp3DurationFromSampledFrames() throws IOException {
+        int frames = 2297; // 60 s
+        ByteBuffer file = ByteBuffer.allocate(10 + 500 + frames * FRAME_LENGTH + 128);
+        file.put(new byte[]{'I', 'D', '3', 3, 0, 0, 0, 0, 3, 0x74}); // 500 byte ID3v2 tag
+        file.position(510);
+        for (int i = 0; i < frames; i++) {
+            file.putInt(510 + i * FRAME_LENGTH, FRAME_HEADER);
+        }
+        file.position(file.capacity() - 128);
+        file.put("TAG".getBytes(StandardCharsets.US_ASCII));
+
+        AudioProbe.AudioInfo info = audioProbe.probe(Files.write(directory.resolve("cbr.mp3"), file.array())).orElseThrow();
+
+        // an estimate: these frames never carry the padding slot a real encoder would add
+        assertEquals(60.0, info.duration().toMillis() / 1000.0, 0.25);
+        assertEquals(44100, info.sampleRate());
+        assertEquals(2, info.channels());
+    }
+
+    @Test
+    void readsFrameCountFromXingHeader() throws IOException {
+        ByteBuffer file = ByteBuffer.allocate(FRAME_LENGTH * 4);
+        file.putInt(0, FRAME_HEADER);
+        int xing = 4 + 32;
+        file.put(xing, "Xing".getBytes(StandardCharsets.US_ASCII));
+        file.putInt(xing + 4, 0x1);
+        // the file is truncated, only the header knows the real length
+        file.putInt(xing + 8, 3828);
+        for (int i = 1; i < 4; i++) {
+            file.putInt(i * FRAME_LENGTH, FRAME_HEADER);
+        }
+
+        AudioProbe.AudioInfo info = audioProbe.probe(Files.write(directory.resolve("vbr.mp3"), file.array())).orElseThrow();
+
+        assertEquals(Duration.ofMillis(3828L * 1152 * 1000 / 44100), info.duration());
+    }
+
+    @Test
+    void readsWavChunks() throws Exception {
+        byte[] pcm = new byte[22050 * 2 * 3];
+        AudioFormat format = new AudioFormat(22050, 16, 2, true, false);
+        Path wav = directory.resolve("speech.wav");
+        try (AudioInputStream stream = new AudioInputStream(new ByteArrayInputStream(pcm), format, pcm.length / 4)) {
+            AudioSystem.write(stream, AudioFileFormat.Type.WAVE, wav.toFile());
+        }
+
+        AudioProbe.AudioInfo info = audioProbe.probe(wav).orElseThrow();
+
+        assertEquals(Duration.ofMillis(1500), info.duration());
+        assertEquals(22050, info.sampleRate());
+        assertEquals(2, info.channels());
+    }
+
+    @Test
+    void readsM4aMovieHeaderAfterMediaData() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        box(out, "ftyp", new byte[8]);
+        box(out, "mdat", new byte[4096]);
+
+        ByteArrayOutputStream mvhd = new ByteArrayOutputStream();
+        DataOutputStream mvhdOut = new DataOutputStream(mvhd);
+        mvhdOut.writeInt(0);            // version and flags
+        mvhdOut.writeInt(0);            // creation time
+        mvhdOut.writeInt(0);            // modification time
+        mvhdOut.writeInt(1000);         // timescale
+        mvhdOut.writeInt(42_500);       // duration
+        mvhdOut.write(new byte[80]);
+
+        ByteArrayOutputStream mp4a = new ByteArrayOutputStream();
+        DataOutputStream mp4aOut = new DataOutputStream(mp4a);
+        mp4aOut.write(new byte[6]);
+        mp4aOut.writeShort(1);          // data reference index
+        mp4aOut.write(new byte[8]);
+        mp4aOut.writeShort(1);          // channels
+        mp4aOut.writeShort(16);         // sample size
+        mp4aOut.writeInt(0);
+        mp4aOut.writeInt(48000 << 16);  // sample rate, 16.16 fixed point
+
+        ByteArrayOutputStream stsd = new ByteArrayOutputStream();
+        DataOutputStream stsdOut = new DataOutputStream(stsd);
+        stsdOut.writeInt(0);
+        stsdOut.writeInt(1);
+        box(stsdOut, "mp4a", mp4a.toByteArray());
+
+        byte[] stbl = boxBytes("stbl", boxBytes("stsd", stsd.toByteArray()));
+        byte[] trak = boxBytes("trak", boxBytes("mdia", boxBytes("minf", stbl)));
+        ByteArrayOutputStream moov = new ByteArrayOutputStream();
+        box(new DataOutputStream(moov), "mvhd", mvhd.toByteArray());
+        moov.write(trak);
+        box(out, "moov", moov.toByteArray());
+
+        AudioProbe.AudioInfo info = audioProbe.probe(Files.write(directory.resolve("voice.m4a"), bytes.toByteArray())).orElseThrow();
+
+        assertEquals(Duration.ofMillis(42_500), info.duration());
+        assertEquals(48000, info.sampleRate());
+        assertEquals(1, info.channels());
+    }
+
+    @Test
+    void returnsEmptyForUnreadableFiles() throws IOException {
+        assertTrue(audioProbe.probe(Files.write(directory.resolve("noise.mp3"), new byte[1024])).isEmpty());
+        assertTrue(audioProbe.probe(Files.write(directory.resolve("noise.wav"), new byte[1024])).isEmpty());
+        assertTrue(audioProbe.probe(directory.resolve("missing.m4a")).isEmpty());
+    }
+
+    private static void box(DataOutputStream out, String type, byte[] body) throws IOException {
+        out.writeInt(8 + body.length);
+        out.write(type.getBytes(StandardCharsets.US_ASCII));
+        out.write(body);
+    }
+
+    private static byte[] boxBytes(String type, byte[] body) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        box(new DataOutputStream(bytes), type, body);
+        return bytes.toByteArray();
+    }
+}
@@ -0,0 +1,88 @@
+package com.backend.vofasbackend.servicelayer.audio;
+
+import com.backend.vofasbackend.servicelayer.transcription.TranscriptStitcher;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.sound.sampled.AudioFileFormat;
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.AudioInputStream;
+import javax.sound.sampled.AudioSystem;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AudioSplitterTest {
+
+    private static final float SAMPLE_RATE = 8000;
+
+    @TempDir
+    Path directory;
+
+    private final AudioSplitter audioSplitter = new AudioSplitter();
+
+    @Test
+    void cutsWavAtSilenceNearTargetBoundaries() throws Exception {
+        // 10 s of tone with silent gaps at 4.5 s and 8.6 s
+        Path audio = writeWav(directory.resolve("speech.wav"), 10, new double[][]{{4.4, 4.6}, {8.5, 8.7}});
+        Path chunks = Files.createDirectory(directory.resolve("chunks"));
+
+        List<Path> parts = audioSplitter.split(audio, chunks, Duration.ofSeconds(4), Duration.ofMillis(500), Duration.ofSeconds(1));
+
+        assertEquals(3, parts.size());
+        assertEquals(4.5, durationSeconds(parts.get(0)), 0.11);
+        // later chunks repeat the overlap before their cut
+        assertEquals(8.6 - 4.5 + 0.5, durationSeconds(parts.get(1)), 0.21);
+        assertEquals(10 - 8.6 + 0.5, durationSeconds(parts.get(2)), 0.21);
+    }
+
+    @Test
+    void leavesShortRecordingsWhole() throws Exception {
+        Path audio = writeWav(directory.resolve("short.wav"), 4.5, new double[0][]);
+
+        List<Path> parts = audioSplitter.split(audio, directory, Duration.ofSeconds(4), Duration.ofMillis(500), Duration.ofSeconds(1));
+
+        assertEquals(List.of(audio), parts);
+    }
+
+    @Test
+    void stitchingDropsWordsRepeatedByTheOverlap() {
+        String stitched = TranscriptStitcher.stitch(List.of(
+                "Personel çok ilgiliydi ama bekleme",
+                "ama bekleme süresi uzundu. Kasada",
+                "uzundu, kasada sıra yoktu."), 12);
+
+        assertEquals("Personel çok ilgiliydi ama bekleme süresi uzundu. Kasada sıra yoktu.", stitched);
+    }
+
+    private static Path writeWav(Path path, double seconds, double[][] silences) throws Exception {
+        int frames = (int) (seconds * SAMPLE_RATE);
+        ByteArrayOutputStream pcm = new ByteArrayOutputStream(frames * 2);
+        for (int frame = 0; frame < frames; frame++) {
+            double time = frame / SAMPLE_RATE;
+            boolean silent = false;
+            for (double[] silence : silences) {
+                silent |= time >= silence[0] && time < silence[1];
+            }
+            short sample = silent ? 0 : (short) (Math.sin(2 * Math.PI * 440 * time) * 12000);
+            pcm.write(sample & 0xFF);
+            pcm.write((sample >> 8) & 0xFF);
+        }
+        AudioFormat format = new AudioFormat(SAMPLE_RATE, 16, 1, true, false);
+        try (AudioInputStream stream = new AudioInputStream(new ByteArrayInputStream(pcm.toByteArray()), format, frames)) {
+            AudioSystem.write(stream, AudioFileFormat.Type.WAVE, path.toFile());
+        }
+        return path;
+    }
+
+    private static double durationSeconds(Path wav) throws Exception {
+        try (AudioInputStream stream = AudioSystem.getAudioInputStream(wav.toFile())) {
+            return stream.getFrameLength() / stream.getFormat().getFrameRate();
+        }
+    }
+}
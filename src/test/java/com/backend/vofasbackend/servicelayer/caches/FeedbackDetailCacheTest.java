@@ -0,0 +1,89 @@
+package com.backend.vofasbackend.servicelayer.caches;
+
+import com.backend.vofasbackend.exceptions.exceptions.ResourceNotFoundException;
+import com.backend.vofasbackend.presentationlayer.datatransferobjects.FeedbackDTO;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FeedbackDetailCacheTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private FeedbackDetailCache cache;
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        cache = new FeedbackDetailCache(new ObjectMapper().registerModule(new JavaTimeModule()), meterRegistry, 100, Duration.ofMinutes(10));
+    }
+
+    @Test
+    void repeatedReadsAreServedFromCache() {
+        FeedbackDetailCache.FeedbackDetail first = cache.get(1L, false, false, () -> load(1L, "RECEIVED"));
+        FeedbackDetailCache.FeedbackDetail second = cache.get(1L, false, false, () -> load(1L, "RECEIVED"));
+
+        assertSame(first, second);
+        assertEquals(1, loads.get());
+        assertEquals(1.0, meterRegistry.get("cache.gets").tag("cache", "feedbackDetailCache").tag("result", "hit").functionCounter().count());
+    }
+
+    @Test
+    void flagsAreCachedSeparately() {
+        cache.get(1L, false, false, () -> load(1L, "RECEIVED"));
+        cache.get(1L, true, false, () -> load(1L, "RECEIVED"));
+        cache.get(1L, true, true, () -> load(1L, "RECEIVED"));
+
+        assertEquals(3, loads.get());
+        assertEquals(3, cache.estimatedSize());
+    }
+
+    @Test
+    void invalidationDropsEveryVariantAndChangesETag() {
+        String eTag = cache.get(1L, false, false, () -> load(1L, "RECEIVED")).eTag();
+        cache.get(1L, true, true, () -> load(1L, "RECEIVED"));
+        cache.get(2L, false, false, () -> load(2L, "RECEIVED"));
+
+        cache.invalidate(1L);
+
+        assertEquals(1, cache.estimatedSize());
+        FeedbackDetailCache.FeedbackDetail reloaded = cache.get(1L, false, false, () -> load(1L, "TRANSCRIBED"));
+        assertEquals("TRANSCRIBED", reloaded.feedback().getFeedbackState());
+        assertNotEquals(eTag, reloaded.eTag());
+    }
+
+    @Test
+    void unchangedContentKeepsETag() {
+        String eTag = cache.get(1L, false, false, () -> load(1L, "RECEIVED")).eTag();
+        cache.invalidate(1L);
+
+        assertEquals(eTag, cache.get(1L, false, false, () -> load(1L, "RECEIVED")).eTag());
+        assertTrue(eTag.startsWith("\"") && eTag.endsWith("\""));
+    }
+
+    @Test
+    void missingFeedbackIsNotCached() {
+        assertThrows(ResourceNotFoundException.class, () -> cache.get(3L, false, false, () -> {
+            throw new ResourceNotFoundException("FeedbackEntity", "feedbackID", "3");
+        }));
+
+        assertEquals(0, cache.estimatedSize());
+    }
+
+    private FeedbackDTO load(Long feedbackID, String state) {
+        loads.incrementAndGet();
+        FeedbackDTO feedbackDTO = new FeedbackDTO();
+        feedbackDTO.setFeedbackId(feedbackID);
+        feedbackDTO.setFeedbackState(state);
+        feedbackDTO.setFeedbackReceivedAt(LocalDateTime.of(2024, 12, 4, 10, 0));
+        return feedbackDTO;
+    }
+}
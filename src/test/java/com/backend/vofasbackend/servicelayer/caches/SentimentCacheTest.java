@@ -0,0 +1,72 @@
+package com.backend.vofasbackend.servicelayer.caches;
+
+import com.backend.vofasbackend.datalayer.enums.SentimentStateEnum;
+import com.backend.vofasbackend.datalayer.projections.TranscriptionSentimentRow;
+import com.backend.vofasbackend.datalayer.repositories.SentimentAnalysisRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Pageable;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+class SentimentCacheTest {
+
+    private SentimentAnalysisRepository sentimentAnalysisRepository;
+    private SimpleMeterRegistry meterRegistry;
+    private SentimentCache cache;
+
+    @BeforeEach
+    void setUp() {
+        sentimentAnalysisRepository = mock(SentimentAnalysisRepository.class);
+        meterRegistry = new SimpleMeterRegistry();
+        cache = new SentimentCache(sentimentAnalysisRepository, meterRegistry, 100, 10);
+    }
+
+    @Test
+    void warmUpKeepsTheMostFrequentResultOfEachText() {
+        when(sentimentAnalysisRepository.findMostFrequentSentiments(any(Pageable.class))).thenReturn(List.of(
+                new TranscriptionSentimentRow("çok güzel", SentimentStateEnum.POSITIVE),
+                new TranscriptionSentimentRow("berbat", SentimentStateEnum.NEGATIVE),
+                new TranscriptionSentimentRow("çok güzel", SentimentStateEnum.NEUTRAL)));
+
+        cache.warmUp();
+
+        assertEquals(Map.of("çok güzel", SentimentStateEnum.POSITIVE, "berbat", SentimentStateEnum.NEGATIVE),
+                cache.findAll(List.of("çok güzel", "berbat")));
+        verify(sentimentAnalysisRepository, never()).findSentimentsByTranscriptionHashes(anyCollection());
+    }
+
+    @Test
+    void missesAreLookedUpInTheStoreOncePerBatch() {
+        when(sentimentAnalysisRepository.findSentimentsByTranscriptionHashes(anyCollection())).thenReturn(List.of(
+                new TranscriptionSentimentRow("teşekkürler", SentimentStateEnum.POSITIVE)));
+
+        Map<String, SentimentStateEnum> first = cache.findAll(List.of("teşekkürler", "yeni bir metin"));
+        Map<String, SentimentStateEnum> second = cache.findAll(List.of("teşekkürler"));
+
+        assertEquals(Map.of("teşekkürler", SentimentStateEnum.POSITIVE), first);
+        assertEquals(first, second);
+        verify(sentimentAnalysisRepository).findSentimentsByTranscriptionHashes(Set.of("teşekkürler", "yeni bir metin"));
+        assertEquals(1.0, meterRegistry.get("vofas.sentiment.cache.store").tag("result", "hit").counter().count());
+        assertEquals(1.0, meterRegistry.get("vofas.sentiment.cache.store").tag("result", "miss").counter().count());
+    }
+
+    @Test
+    void hitRatioCountsBothTiers() {
+        cache.put("berbat", SentimentStateEnum.NEGATIVE);
+
+        cache.findAll(List.of("berbat", "harika", "berbat"));
+        cache.findAll(List.of("berbat"));
+
+        // duplicates within a batch count once: three lookups, two answered
+        assertEquals(2.0 / 3, meterRegistry.get("vofas.sentiment.cache.hit-ratio").gauge().value(), 1e-9);
+    }
+}
@@ -0,0 +1,91 @@
+package com.backend.vofasbackend.servicelayer.caches;
+
+import com.backend.vofasbackend.datalayer.repositories.TranscriptionRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class TranscriptionCacheTest {
+
+    private static final String FIRST_HASH = "0a".repeat(32);
+    private static final String SECOND_HASH = "0b".repeat(32);
+
+    private TranscriptionRepository transcriptionRepository;
+    private SimpleMeterRegistry meterRegistry;
+    private TranscriptionCache cache;
+
+    @BeforeEach
+    void setUp() {
+        transcriptionRepository = mock(TranscriptionRepository.class);
+        meterRegistry = new SimpleMeterRegistry();
+        cache = new TranscriptionCache(transcriptionRepository, meterRegistry, 100, Duration.ofMinutes(10));
+    }
+
+    @Test
+    void recordedTranscriptionIsAnsweredFromMemory() {
+        cache.put(FIRST_HASH, "Kuyruk çok uzundu");
+
+        assertEquals(Optional.of("Kuyruk çok uzundu"), cache.find(FIRST_HASH));
+        verifyNoInteractions(transcriptionRepository);
+        assertEquals(1.0, meterRegistry.get("cache.gets").tag("cache", "transcriptionCache").tag("result", "hit").functionCounter().count());
+    }
+
+    @Test
+    void persistedTranscriptionIsLoadedFromTheStoreOnce() {
+        when(transcriptionRepository.findTranscriptionsByFileHash(eq(FIRST_HASH), any(Pageable.class))).thenReturn(List.of("Personel ilgiliydi"));
+
+        assertEquals(Optional.of("Personel ilgiliydi"), cache.find(FIRST_HASH));
+        assertEquals(Optional.of("Personel ilgiliydi"), cache.find(FIRST_HASH));
+
+        verify(transcriptionRepository).findTranscriptionsByFileHash(FIRST_HASH, PageRequest.of(0, 1));
+        assertEquals(1.0, meterRegistry.get("vofas.transcription.cache.store").tag("result", "hit").counter().count());
+    }
+
+    @Test
+    void evictedTranscriptionIsAnsweredFromTheStore() {
+        cache = new TranscriptionCache(transcriptionRepository, meterRegistry, 1, Duration.ofMinutes(10));
+        when(transcriptionRepository.findTranscriptionsByFileHash(anyString(), any(Pageable.class))).thenAnswer(invocation ->
+                List.of(invocation.getArgument(0).equals(FIRST_HASH) ? "Kasada bekledim" : "Mağaza temizdi"));
+        cache.put(FIRST_HASH, "Kasada bekledim");
+        cache.put(SECOND_HASH, "Mağaza temizdi");
+        cache.cleanUp();
+        assertEquals(1, cache.estimatedSize());
+
+        assertEquals(Optional.of("Kasada bekledim"), cache.find(FIRST_HASH));
+        assertEquals(Optional.of("Mağaza temizdi"), cache.find(SECOND_HASH));
+
+        // the size bound may evict either entry, the evicted one comes back from the store
+        verify(transcriptionRepository, atLeastOnce()).findTranscriptionsByFileHash(anyString(), any(Pageable.class));
+        assertTrue(meterRegistry.get("vofas.transcription.cache.store").tag("result", "hit").counter().count() >= 1.0);
+        assertEquals(0.0, meterRegistry.get("vofas.transcription.cache.store").tag("result", "miss").counter().count());
+    }
+
+    @Test
+    void unknownAudioIsAMiss() {
+        when(transcriptionRepository.findTranscriptionsByFileHash(eq(FIRST_HASH), any(Pageable.class))).thenReturn(List.of());
+
+        assertEquals(Optional.empty(), cache.find(FIRST_HASH));
+        assertEquals(1.0, meterRegistry.get("vofas.transcription.cache.store").tag("result", "miss").counter().count());
+    }
+
+    @Test
+    void audioWithoutHashIsNeitherLookedUpNorRecorded() {
+        cache.put(null, "Hash yok");
+
+        assertEquals(Optional.empty(), cache.find(null));
+        verifyNoInteractions(transcriptionRepository);
+        assertEquals(0, cache.estimatedSize());
+    }
+}
@@ -0,0 +1,112 @@
+package com.backend.vofasbackend.servicelayer.implementations;
+
+import com.backend.vofasbackend.datalayer.enums.SentimentStateEnum;
+import com.backend.vofasbackend.datalayer.repositories.FeedbackRollupRepository;
+import com.backend.vofasbackend.exceptions.exceptions.InvalidFilterOptionException;
+import com.backend.vofasbackend.presentationlayer.datatransferobjects.AnalyticsBucketDTO;
+import com.backend.vofasbackend.servicelayer.analytics.FeedbackRollupRecorder;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class AnalyticsServiceImplTest {
+
+    private static final LocalDateTime MORNING = LocalDateTime.of(2024, 12, 4, 10, 15);
+
+    @Autowired
+    private FeedbackRollupRepository feedbackRollupRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private FeedbackRollupRecorder recorder;
+    private TransactionTemplate transaction;
+    private AnalyticsServiceImpl analyticsService;
+
+    @BeforeEach
+    void setUp() {
+        recorder = new FeedbackRollupRecorder(feedbackRollupRepository, transactionManager);
+        transaction = new TransactionTemplate(transactionManager);
+        analyticsService = new AnalyticsServiceImpl(feedbackRollupRepository, 100);
+    }
+
+    @AfterEach
+    void tearDown() {
+        feedbackRollupRepository.deleteAll();
+    }
+
+    @Test
+    void hourlyRollupsAreFilledAndAveraged() {
+        transaction.executeWithoutResult(status -> {
+            recorder.feedbackReceived(MORNING, 1L, Duration.ofSeconds(20));
+            recorder.feedbackReceived(MORNING.plusMinutes(30), 1L, Duration.ofSeconds(40));
+            recorder.feedbackReceived(MORNING.plusMinutes(30), 2L, Duration.ofSeconds(90));
+            recorder.feedbackTranscribed(MORNING, 1L, MORNING.plusSeconds(6));
+            recorder.feedbackTranscribed(MORNING.plusMinutes(30), 1L, MORNING.plusMinutes(30).plusSeconds(2));
+            recorder.sentimentAnalyzed(MORNING, 1L, SentimentStateEnum.POSITIVE);
+            recorder.feedbackReceived(MORNING.plusHours(2), 1L, Duration.ofSeconds(10));
+        });
+
+        List<AnalyticsBucketDTO> kioskOne = analyticsService.getRollups("hour", "04-12-2024", "04-12-2024", 1L);
+
+        assertEquals(24, kioskOne.size());
+        AnalyticsBucketDTO tenOClock = kioskOne.get(10);
+        assertEquals(MORNING.withMinute(0), tenOClock.getBucketStart());
+        assertEquals(2, tenOClock.getFeedbackCount());
+        assertEquals(60.0, tenOClock.getTotalDurationSeconds());
+        assertEquals(30.0, tenOClock.getAverageDurationSeconds());
+        assertEquals(2, tenOClock.getTranscribedCount());
+        assertEquals(4.0, tenOClock.getAverageTranscriptionLatencySeconds());
+        assertEquals(1, tenOClock.getPositiveCount());
+        assertEquals(0, kioskOne.get(11).getFeedbackCount());
+        assertNull(kioskOne.get(11).getAverageDurationSeconds());
+        assertEquals(1, kioskOne.get(12).getFeedbackCount());
+
+        List<AnalyticsBucketDTO> allKiosks = analyticsService.getRollups("hour", "04-12-2024", "04-12-2024", null);
+        assertEquals(3, allKiosks.get(10).getFeedbackCount());
+        assertEquals(150.0, allKiosks.get(10).getTotalDurationSeconds());
+    }
+
+    @Test
+    void dailyRollupsAndSummaryReadOneRowPerBucket() {
+        transaction.executeWithoutResult(status -> {
+            recorder.feedbackReceived(MORNING, 1L, Duration.ofSeconds(30));
+            recorder.feedbackReceived(MORNING.plusDays(1), 1L, Duration.ofSeconds(30));
+            recorder.feedbackReceived(MORNING.plusDays(1), 2L, Duration.ofSeconds(60));
+            recorder.sentimentAnalyzed(MORNING.plusDays(1), 2L, SentimentStateEnum.NEGATIVE);
+        });
+
+        List<AnalyticsBucketDTO> days = analyticsService.getRollups("day", "03-12-2024", "05-12-2024", null);
+        assertEquals(List.of(0L, 1L, 2L), days.stream().map(AnalyticsBucketDTO::getFeedbackCount).toList());
+
+        AnalyticsBucketDTO summary = analyticsService.getSummary("01-12-2024", "31-12-2024", null);
+        assertEquals(3, summary.getFeedbackCount());
+        assertEquals(40.0, summary.getAverageDurationSeconds());
+        assertEquals(1, summary.getNegativeCount());
+        assertNull(summary.getAverageTranscriptionLatencySeconds());
+
+        // two granularities, three kiosk-days
+        assertEquals(6, feedbackRollupRepository.count());
+    }
+
+    @Test
+    void invalidQueriesAreRejected() {
+        assertThrows(InvalidFilterOptionException.class, () -> analyticsService.getRollups("week", null, null, null));
+        assertThrows(InvalidFilterOptionException.class, () -> analyticsService.getRollups("hour", "01-12-2024", "31-12-2024", null));
+        assertThrows(InvalidFilterOptionException.class, () -> analyticsService.getSummary("05-12-2024", "04-12-2024", null));
+    }
+}
@@ -0,0 +1,75 @@
+package com.backend.vofasbackend.servicelayer.implementations;
+
+import com.backend.vofasbackend.servicelayer.interfaces.AudioStore;
+import com.backend.vofasbackend.servicelayer.tools.HashTool;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ContentAddressedAudioStoreTest {
+
+    @TempDir
+    Path storeRoot;
+
+    private ContentAddressedAudioStore audioStore;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        audioStore = new ContentAddressedAudioStore(storeRoot.toString());
+        audioStore.init();
+    }
+
+    @Test
+    void storesFileUnderShardedHashPath() throws IOException {
+        byte[] content = randomBytes(1_000_000);
+        String fileHash = HashTool.toHex(HashTool.newSha256Digest().digest(content));
+
+        AudioStore.StoredAudio storedAudio = audioStore.adopt(Files.write(storeRoot.resolve("spooled.MP3"), content), fileHash, ".MP3");
+
+        assertFalse(storedAudio.deduplicated());
+        assertEquals(storeRoot.resolve(fileHash.substring(0, 2)).resolve(fileHash.substring(2, 4)).resolve(fileHash + ".mp3"),
+                storedAudio.path());
+    }
+
+    @Test
+    void identicalUploadsAreStoredOnce() throws IOException {
+        byte[] content = randomBytes(300_000);
+        String fileHash = HashTool.toHex(HashTool.newSha256Digest().digest(content));
+        Path firstSpooled = Files.write(storeRoot.resolve("first.wav"), content);
+        Path secondSpooled = Files.write(storeRoot.resolve("second.wav"), content);
+
+        AudioStore.StoredAudio first = audioStore.adopt(firstSpooled, fileHash, ".wav");
+        AudioStore.StoredAudio second = audioStore.adopt(secondSpooled, fileHash, ".wav");
+
+        assertEquals(first.path(), second.path());
+        assertTrue(second.deduplicated());
+        assertFalse(Files.exists(secondSpooled));
+    }
+
+    @Test
+    void adoptedFileIsMovedUnderItsHash() throws IOException {
+        byte[] content = randomBytes(10_000);
+        String fileHash = HashTool.toHex(HashTool.newSha256Digest().digest(content));
+        Path spooled = Files.write(storeRoot.resolve("spooled.mp3"), content);
+
+        AudioStore.StoredAudio storedAudio = audioStore.adopt(spooled, fileHash, ".mp3");
+
+        assertEquals(audioStore.resolve(fileHash, ".mp3"), storedAudio.path());
+        assertEquals(content.length, storedAudio.size());
+        assertFalse(Files.exists(spooled));
+        assertArrayEquals(content, Files.readAllBytes(storedAudio.path()));
+    }
+
+    private static byte[] randomBytes(int length) {
+        byte[] bytes = new byte[length];
+        new Random(42).nextBytes(bytes);
+        return bytes;
+    }
+}
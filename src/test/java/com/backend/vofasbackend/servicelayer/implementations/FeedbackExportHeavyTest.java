@@ -0,0 +1,95 @@
+package com.backend.vofasbackend.servicelayer.implementations;
+
+import com.backend.vofasbackend.datalayer.repositories.FeedbackRepository;
+import com.backend.vofasbackend.servicelayer.export.FeedbackExport;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Exports a million feedbacks from a file-backed database. Run with {@code ./gradlew heavyTest}, which gives the JVM
+ * a heap far too small to hold the rows, so the test only passes if the export streams them.
+ */
+@Tag("heavy")
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class FeedbackExportHeavyTest {
+
+    private static final int FEEDBACKS = 1_000_000;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private FeedbackRepository feedbackRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @DynamicPropertySource
+    static void fileDatabase(DynamicPropertyRegistry registry) throws IOException {
+        String directory = Files.createTempDirectory("vofas-export").toAbsolutePath().toString();
+        registry.add("spring.datasource.url", () -> "jdbc:h2:file:" + directory + "/export;DB_CLOSE_ON_EXIT=FALSE");
+    }
+
+    @Test
+    void millionRowsAreExportedInConstantMemory() throws IOException {
+        jdbcTemplate.update("INSERT INTO feedback_table (feedback_id, feedback_received_at, feedback_state, file_path, file_hash) " +
+                "SELECT X, DATEADD('SECOND', X, TIMESTAMP '2024-01-01 00:00:00'), 'TRANSCRIBED', " +
+                "CONCAT('/feedbacks/', X, '.mp3'), CONCAT('hash-', X) FROM SYSTEM_RANGE(1, " + FEEDBACKS + ")");
+        FeedbackExportServiceImpl exportService = new FeedbackExportServiceImpl(feedbackRepository,
+                new ObjectMapper().registerModule(new JavaTimeModule()), transactionManager, 500);
+
+        LineCountingOutputStream ndjson = new LineCountingOutputStream();
+        exportService.prepareExport("ndjson", false, null, null, null, null, null).body().writeTo(ndjson);
+        LineCountingOutputStream csv = new LineCountingOutputStream();
+        FeedbackExport csvExport = exportService.prepareExport("csv", false, null, null, null, null, null);
+        csvExport.body().writeTo(csv);
+
+        assertEquals(FEEDBACKS, ndjson.lines);
+        assertEquals(FEEDBACKS + 1, csv.lines);
+        assertTrue(ndjson.flushes >= FEEDBACKS / 500, "the export is flushed while it is written");
+    }
+
+    private static final class LineCountingOutputStream extends OutputStream {
+
+        private long lines;
+        private long flushes;
+
+        @Override
+        public void write(int b) {
+            if (b == '\n') {
+                lines++;
+            }
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            for (int i = off; i < off + len; i++) {
+                write(b[i]);
+            }
+        }
+
+        @Override
+        public void flush() {
+            flushes++;
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package com.backend.vofasbackend.servicelayer.implementations;
+
+import com.backend.vofasbackend.datalayer.entities.FeedbackEntity;
+import com.backend.vofasbackend.datalayer.entities.KioskEntity;
+import com.backend.vofasbackend.datalayer.entities.TranscriptionEntity;
+import com.backend.vofasbackend.datalayer.enums.FeedbackStateEnum;
+import com.backend.vofasbackend.datalayer.enums.KioskStateEnum;
+import com.backend.vofasbackend.datalayer.repositories.FeedbackRepository;
+import com.backend.vofasbackend.exceptions.exceptions.InvalidFilterOptionException;
+import com.backend.vofasbackend.servicelayer.export.FeedbackExport;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+class FeedbackExportServiceImplTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private FeedbackRepository feedbackRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private FeedbackExportServiceImpl exportService;
+    private Long entranceID;
+
+    @BeforeEach
+    void setUp() {
+        exportService = new FeedbackExportServiceImpl(feedbackRepository, objectMapper, transactionManager, 2);
+
+        KioskEntity entrance = kiosk("Entrance", "123-456");
+        KioskEntity cafeteria = kiosk("Cafeteria", "654-321");
+        entranceID = entrance.getKioskID();
+        LocalDateTime receivedAt = LocalDateTime.of(2024, 12, 4, 10, 0);
+        feedback(receivedAt, entrance, "Teşekkürler");
+        feedback(receivedAt.plusMinutes(1), cafeteria, "Yemek \"soğuk\", kasa yavaş\nbir de sıra uzun");
+        feedback(receivedAt.plusMinutes(2), entrance, "=HYPERLINK(\"x\")");
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void ndjsonHasOneFeedbackPerLineOldestFirst() throws Exception {
+        FeedbackExport export = exportService.prepareExport("ndjson", false, null, null, null, null, null);
+
+        List<String> lines = write(export).lines().toList();
+
+        assertEquals("application/x-ndjson;charset=UTF-8", export.contentType());
+        assertEquals("feedbacks.ndjson", export.fileName());
+        assertEquals(3, lines.size());
+        JsonNode first = objectMapper.readTree(lines.get(0));
+        assertEquals("Teşekkürler", first.at("/transcriptionDTO/transcription").asText());
+        assertEquals("Entrance", first.at("/feedbackSource/kioskName").asText());
+        assertEquals("00:30", first.get("feedbackDuration").asText());
+    }
+
+    @Test
+    void csvIsQuotedAndFilteredByKiosk() throws Exception {
+        String all = write(exportService.prepareExport("CSV", false, null, null, null, null, null));
+        String entrance = write(exportService.prepareExport("csv", false, null, null, null, null, entranceID));
+
+        assertTrue(all.startsWith("feedbackId,feedbackReceivedAt,feedbackDurationSeconds,"));
+        assertTrue(all.contains(",\"Yemek \"\"soğuk\"\", kasa yavaş\nbir de sıra uzun\","));
+        assertTrue(all.contains(",\"'=HYPERLINK(\"\"x\"\")\","));
+        assertTrue(all.contains(",04-12-2024 10:00:00,30,TRANSCRIBED,"));
+        assertEquals(3, entrance.split("\r\n").length);
+    }
+
+    @Test
+    void gzipExportDecompressesToTheSameRows() throws Exception {
+        FeedbackExport export = exportService.prepareExport("ndjson", true, null, null, null, null, null);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        export.body().writeTo(out);
+
+        String decompressed;
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(out.toByteArray()))) {
+            decompressed = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+        assertEquals("application/gzip", export.contentType());
+        assertEquals("feedbacks.ndjson.gz", export.fileName());
+        assertEquals(write(exportService.prepareExport("ndjson", false, null, null, null, null, null)), decompressed);
+    }
+
+    @Test
+    void invalidOptionsAreRejectedBeforeWriting() {
+        assertThrows(InvalidFilterOptionException.class, () -> exportService.prepareExport("xml", false, null, null, null, null, null));
+        assertThrows(InvalidFilterOptionException.class, () -> exportService.prepareExport("csv", false, "2024-12-04", null, null, null, null));
+    }
+
+    private static String write(FeedbackExport export) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        export.body().writeTo(out);
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    private KioskEntity kiosk(String name, String key) {
+        KioskEntity kiosk = new KioskEntity();
+        kiosk.setKioskName(name);
+        kiosk.setKioskDescription(name + " kiosk");
+        kiosk.setKioskStateEnum(KioskStateEnum.ACTIVE);
+        kiosk.setKioskKey(key);
+        return entityManager.persist(kiosk);
+    }
+
+    private void feedback(LocalDateTime receivedAt, KioskEntity kiosk, String text) {
+        TranscriptionEntity transcription = new TranscriptionEntity(null, text, "hash", receivedAt, receivedAt, null);
+        entityManager.persist(transcription);
+        FeedbackEntity feedback = new FeedbackEntity();
+        feedback.setFeedbackReceivedAt(receivedAt);
+        feedback.setFeedbackState(FeedbackStateEnum.TRANSCRIBED);
+        feedback.setFeedbackDuration(Duration.ofSeconds(30));
+        feedback.setFeedbackSource(kiosk);
+        feedback.setTranscription(transcription);
+        entityManager.persist(feedback);
+    }
+}
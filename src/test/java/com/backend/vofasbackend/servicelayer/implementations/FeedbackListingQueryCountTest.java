@@ -0,0 +1,127 @@
+package com.backend.vofasbackend.servicelayer.implementations;
+
+import com.backend.vofasbackend.datalayer.entities.FeedbackEntity;
+import com.backend.vofasbackend.datalayer.entities.KioskEntity;
+import com.backend.vofasbackend.datalayer.entities.SentimentAnalysisEntity;
+import com.backend.vofasbackend.datalayer.entities.TranscriptionEntity;
+import com.backend.vofasbackend.datalayer.entities.ValidationTokenEntity;
+import com.backend.vofasbackend.datalayer.enums.FeedbackStateEnum;
+import com.backend.vofasbackend.datalayer.enums.KioskStateEnum;
+import com.backend.vofasbackend.datalayer.enums.SentimentStateEnum;
+import com.backend.vofasbackend.datalayer.repositories.FeedbackRepository;
+import com.backend.vofasbackend.presentationlayer.datatransferobjects.FeedbackDTO;
+import com.backend.vofasbackend.presentationlayer.datatransferobjects.FeedbackSliceDTO;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.Page;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Guards the number of SQL statements a feedback listing issues, whatever associations the listed feedbacks have.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class FeedbackListingQueryCountTest {
+
+    private static final int FEEDBACKS = 25;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private FeedbackRepository feedbackRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private FeedbackServiceImpl feedbackService;
+    private Statistics statistics;
+    private Long newestFeedbackID;
+
+    @BeforeEach
+    void setUp() {
+        feedbackService = new FeedbackServiceImpl(feedbackRepository, null, null, null, null, null, null, null, null, null, null, null, null, null);
+        ReflectionTestUtils.setField(feedbackService, "pageSize", 10);
+        ReflectionTestUtils.setField(feedbackService, "maxPageSize", 100);
+
+        KioskEntity kiosk = new KioskEntity();
+        kiosk.setKioskName("Entrance");
+        kiosk.setKioskDescription("Main entrance kiosk");
+        kiosk.setKioskStateEnum(KioskStateEnum.ACTIVE);
+        kiosk.setKioskKey("123-456");
+        entityManager.persist(kiosk);
+
+        LocalDateTime receivedAt = LocalDateTime.of(2024, 12, 4, 10, 0);
+        for (int i = 0; i < FEEDBACKS; i++) {
+            FeedbackEntity feedback = new FeedbackEntity();
+            feedback.setFeedbackReceivedAt(receivedAt.plusMinutes(i));
+            feedback.setFeedbackState(FeedbackStateEnum.TRANSCRIBED);
+            feedback.setFeedbackDuration(Duration.ofSeconds(12));
+            feedback.setFeedbackSource(kiosk);
+
+            TranscriptionEntity transcription = new TranscriptionEntity(null, "Teşekkürler " + i, "hash-" + i, receivedAt, receivedAt, null);
+            entityManager.persist(transcription);
+            feedback.setTranscription(transcription);
+
+            if (i % 2 == 0) {
+                SentimentAnalysisEntity sentiment = new SentimentAnalysisEntity(null, SentimentStateEnum.POSITIVE, receivedAt, receivedAt, null);
+                entityManager.persist(sentiment);
+                feedback.setSentimentAnalysis(sentiment);
+            }
+            if (i % 3 == 0) {
+                ValidationTokenEntity token = new ValidationTokenEntity();
+                token.setValidationToken(null); // let the id generator assign it on persist
+                token.setParentKiosk(kiosk);
+                entityManager.persist(token);
+                feedback.setValidationToken(token);
+            }
+            newestFeedbackID = entityManager.persistAndGetId(feedback, Long.class);
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void offsetPageIsOneSelectPlusCount() {
+        Page<FeedbackDTO> page = feedbackService.getFeedbacks(0, "feedbackReceivedAt", false, null, null, null, null);
+
+        assertEquals(10, page.getNumberOfElements());
+        assertEquals(FEEDBACKS, page.getTotalElements());
+        assertAllDetailsMapped(page.getContent().get(0), newestFeedbackID);
+        assertEquals(2, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+
+    @Test
+    void cursorSliceIsOneSelect() {
+        FeedbackSliceDTO first = feedbackService.getFeedbacksByCursor(null, null, false, null, null, null, null, false);
+        FeedbackSliceDTO second = feedbackService.getFeedbacksByCursor(first.getNextCursor(), null, false, null, null, null, null, false);
+
+        assertEquals(10, second.getContent().size());
+        assertTrue(second.getContent().get(0).getFeedbackId() < first.getContent().get(9).getFeedbackId());
+        assertEquals(2, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+
+    private static void assertAllDetailsMapped(FeedbackDTO feedback, Long feedbackID) {
+        // the newest feedback has every association
+        assertEquals(feedbackID, feedback.getFeedbackId());
+        assertEquals("Teşekkürler 24", feedback.getTranscriptionDTO().getTranscription());
+        assertEquals("POSITIVE", feedback.getSentimentAnalysisDTO().getSentimentState());
+        assertEquals("Entrance", feedback.getFeedbackSource().getKioskName());
+        assertEquals(feedback.getFeedbackSource().getKioskId(), feedback.getValidationTokenDTO().getKiosk());
+    }
+}
@@ -0,0 +1,125 @@
+package com.backend.vofasbackend.servicelayer.implementations;
+
+import com.backend.vofasbackend.datalayer.entities.SentimentAnalysisEntity;
+import com.backend.vofasbackend.datalayer.entities.TranscriptionEntity;
+import com.backend.vofasbackend.datalayer.enums.FeedbackStateEnum;
+import com.backend.vofasbackend.datalayer.projections.FeedbackRollupKey;
+import com.backend.vofasbackend.datalayer.repositories.FeedbackRepository;
+import com.backend.vofasbackend.datalayer.repositories.SentimentAnalysisRepository;
+import com.backend.vofasbackend.datalayer.repositories.TranscriptionRepository;
+import com.backend.vofasbackend.servicelayer.analytics.FeedbackRollupRecorder;
+import com.backend.vofasbackend.servicelayer.caches.FeedbackDetailCache;
+import com.backend.vofasbackend.servicelayer.search.TranscriptionSearchIndex;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Checks that state changes are stamped with the application clock, the one the recovery compares against, and that
+ * transcriptions reach the search index only once committed.
+ */
+class FeedbackStateMachineImplTest {
+
+    private static final long FEEDBACK_ID = 7L;
+
+    private FeedbackRepository feedbackRepository;
+    private TranscriptionSearchIndex transcriptionSearchIndex;
+    private FeedbackStateMachineImpl feedbackStateMachine;
+
+    @BeforeEach
+    void setUp() {
+        feedbackRepository = mock(FeedbackRepository.class);
+        TranscriptionRepository transcriptionRepository = mock(TranscriptionRepository.class);
+        when(transcriptionRepository.saveAndFlush(any())).thenAnswer(invocation -> invocation.getArgument(0));
+        transcriptionSearchIndex = mock(TranscriptionSearchIndex.class);
+        feedbackStateMachine = new FeedbackStateMachineImpl(feedbackRepository, transcriptionRepository, mock(SentimentAnalysisRepository.class),
+                mock(FeedbackDetailCache.class), mock(FeedbackRollupRecorder.class), transcriptionSearchIndex);
+    }
+
+    @Test
+    void transitionIsStampedWithTheApplicationClock() {
+        when(feedbackRepository.updateFeedbackState(eq(FEEDBACK_ID), any(), any(), any())).thenReturn(1);
+        LocalDateTime before = LocalDateTime.now();
+
+        assertTrue(feedbackStateMachine.transition(FEEDBACK_ID, FeedbackStateEnum.RECEIVED, FeedbackStateEnum.WAITING_FOR_TRANSCRIPTION));
+
+        ArgumentCaptor<LocalDateTime> now = ArgumentCaptor.forClass(LocalDateTime.class);
+        verify(feedbackRepository).updateFeedbackState(eq(FEEDBACK_ID), eq(FeedbackStateEnum.RECEIVED), eq(FeedbackStateEnum.WAITING_FOR_TRANSCRIPTION), now.capture());
+        assertStampedSince(before, now.getValue());
+    }
+
+    @Test
+    void reclaimIsStampedWithTheApplicationClock() {
+        when(feedbackRepository.renewFeedbackState(eq(FEEDBACK_ID), any(), any(), any())).thenReturn(1);
+        LocalDateTime before = LocalDateTime.now();
+        LocalDateTime claimedBefore = before.minusMinutes(10);
+
+        assertTrue(feedbackStateMachine.reclaim(FEEDBACK_ID, FeedbackStateEnum.WAITING_FOR_TRANSCRIPTION, claimedBefore));
+
+        ArgumentCaptor<LocalDateTime> now = ArgumentCaptor.forClass(LocalDateTime.class);
+        verify(feedbackRepository).renewFeedbackState(eq(FEEDBACK_ID), eq(FeedbackStateEnum.WAITING_FOR_TRANSCRIPTION), eq(claimedBefore), now.capture());
+        assertStampedSince(before, now.getValue());
+    }
+
+    @Test
+    void completedTranscriptionIsStampedWithTheApplicationClock() {
+        when(feedbackRepository.attachTranscription(eq(FEEDBACK_ID), any(), any(), any(), any())).thenReturn(1);
+        LocalDateTime before = LocalDateTime.now();
+
+        assertTrue(feedbackStateMachine.completeTranscription(FEEDBACK_ID,
+                new TranscriptionEntity(null, "Kuyruk çok uzundu", "hash", before, before, null)));
+
+        ArgumentCaptor<LocalDateTime> now = ArgumentCaptor.forClass(LocalDateTime.class);
+        verify(feedbackRepository).attachTranscription(eq(FEEDBACK_ID), any(),
+                eq(FeedbackStateEnum.WAITING_FOR_TRANSCRIPTION), eq(FeedbackStateEnum.TRANSCRIBED), now.capture());
+        assertStampedSince(before, now.getValue());
+    }
+
+    @Test
+    void transcriptionIsIndexedOnceCommitted() {
+        LocalDateTime receivedAt = LocalDateTime.now().minusMinutes(5);
+        when(feedbackRepository.attachTranscription(eq(FEEDBACK_ID), any(), any(), any(), any())).thenReturn(1);
+        when(feedbackRepository.findRollupKeyByFeedbackID(FEEDBACK_ID)).thenReturn(Optional.of(new FeedbackRollupKey(FEEDBACK_ID, receivedAt, 3L)));
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            assertTrue(feedbackStateMachine.completeTranscription(FEEDBACK_ID,
+                    new TranscriptionEntity(null, "Kuyruk çok uzundu", "hash", receivedAt, receivedAt, null)));
+            verifyNoInteractions(transcriptionSearchIndex);
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        verify(transcriptionSearchIndex).index(FEEDBACK_ID, receivedAt, 3L, "Kuyruk çok uzundu");
+    }
+
+    @Test
+    void completedSentimentAnalysisIsStampedWithTheApplicationClock() {
+        when(feedbackRepository.attachSentimentAnalysis(eq(FEEDBACK_ID), any(), any(), any(), any())).thenReturn(1);
+        LocalDateTime before = LocalDateTime.now();
+
+        assertEquals(Set.of(FEEDBACK_ID), feedbackStateMachine.completeSentimentAnalyses(Map.of(FEEDBACK_ID, new SentimentAnalysisEntity())));
+
+        ArgumentCaptor<LocalDateTime> now = ArgumentCaptor.forClass(LocalDateTime.class);
+        verify(feedbackRepository).attachSentimentAnalysis(eq(FEEDBACK_ID), any(),
+                eq(FeedbackStateEnum.WAITING_FOR_SENTIMENT_ANALYSIS), eq(FeedbackStateEnum.COMPLETED), now.capture());
+        assertStampedSince(before, now.getValue());
+    }
+
+    private static void assertStampedSince(LocalDateTime before, LocalDateTime stamped) {
+        assertFalse(stamped.isBefore(before));
+        assertFalse(stamped.isAfter(LocalDateTime.now()));
+    }
+}
@@ -0,0 +1,183 @@
+package com.backend.vofasbackend.servicelayer.implementations;
+
+import com.backend.vofasbackend.datalayer.entities.FeedbackEntity;
+import com.backend.vofasbackend.datalayer.entities.KioskEntity;
+import com.backend.vofasbackend.datalayer.entities.TranscriptionEntity;
+import com.backend.vofasbackend.datalayer.enums.FeedbackStateEnum;
+import com.backend.vofasbackend.datalayer.repositories.FeedbackRepository;
+import com.backend.vofasbackend.presentationlayer.datatransferobjects.FeedbackDTO;
+import com.backend.vofasbackend.servicelayer.audio.AudioPreprocessor;
+import com.backend.vofasbackend.servicelayer.caches.FeedbackDetailCache;
+import com.backend.vofasbackend.servicelayer.caches.TranscriptionCache;
+import com.backend.vofasbackend.servicelayer.interfaces.FeedbackStateMachine;
+import com.backend.vofasbackend.servicelayer.interfaces.FeedbackStreamBus;
+import com.backend.vofasbackend.servicelayer.messages.FeedbackReceivedMessage;
+import com.backend.vofasbackend.servicelayer.sentiment.SentimentStage;
+import com.backend.vofasbackend.servicelayer.streaming.FeedbackEventLog;
+import com.backend.vofasbackend.servicelayer.streaming.StreamFilter;
+import com.backend.vofasbackend.servicelayer.streaming.StreamOverflowPolicy;
+import com.backend.vofasbackend.servicelayer.streaming.StreamPayload;
+import com.backend.vofasbackend.servicelayer.transcription.ChunkedTranscriber;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.test.StepVerifier;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Runs "feedback received" messages through {@link FeedbackServiceImpl#transcribeFeedback(FeedbackReceivedMessage)}
+ * with the stages around it mocked.
+ */
+class FeedbackTranscriptionPipelineTest {
+
+    private static final long FEEDBACK_ID = 7L;
+    private static final String FILE_HASH = "ab".repeat(32);
+    private static final long KIOSK_ID = 3L;
+
+    private FeedbackRepository feedbackRepository;
+    private FeedbackStateMachine feedbackStateMachine;
+    private AudioPreprocessor audioPreprocessor;
+    private ChunkedTranscriber chunkedTranscriber;
+    private TranscriptionCache transcriptionCache;
+    private FeedbackStreamBus feedbackStreamBus;
+    private SentimentStage sentimentStage;
+    private FeedbackServiceImpl feedbackService;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        feedbackRepository = mock(FeedbackRepository.class);
+        feedbackStateMachine = mock(FeedbackStateMachine.class);
+        audioPreprocessor = mock(AudioPreprocessor.class);
+        chunkedTranscriber = mock(ChunkedTranscriber.class);
+        transcriptionCache = mock(TranscriptionCache.class);
+        feedbackStreamBus = mock(FeedbackStreamBus.class);
+        sentimentStage = mock(SentimentStage.class);
+        when(audioPreprocessor.prepare(any())).thenAnswer(invocation -> new AudioPreprocessor.PreparedAudio(invocation.getArgument(0), Duration.ofSeconds(30)));
+        when(chunkedTranscriber.transcribe(any(), any())).thenReturn("Kuyruk çok uzundu");
+        when(transcriptionCache.find(any())).thenReturn(Optional.empty());
+        when(feedbackStateMachine.completeTranscription(eq(FEEDBACK_ID), any())).thenReturn(true);
+        feedbackService = new FeedbackServiceImpl(feedbackRepository, feedbackStateMachine, audioPreprocessor, chunkedTranscriber,
+                null, null, null, transcriptionCache, mock(FeedbackDetailCache.class), null, feedbackStreamBus, sentimentStage, null, null);
+        ReflectionTestUtils.setField(feedbackService, "transcriptionClaimLease", Duration.ofMinutes(10));
+    }
+
+    @Test
+    void receivedFeedbackIsTranscribed() {
+        claimable(true);
+
+        feedbackService.transcribeFeedback(message()).block();
+
+        verify(chunkedTranscriber).transcribe(Path.of("/audio/feedback.wav"), Duration.ofSeconds(30));
+        verify(transcriptionCache).put(FILE_HASH, "Kuyruk çok uzundu");
+        verify(feedbackStateMachine).completeTranscription(eq(FEEDBACK_ID), any());
+        verify(sentimentStage).submit(eq(FEEDBACK_ID), eq("Kuyruk çok uzundu"), any());
+        verify(feedbackStateMachine, never()).reclaim(any(), any(), any());
+    }
+
+    @Test
+    void cachedTranscriptionSkipsTheTranscriber() {
+        claimable(true);
+        when(transcriptionCache.find(FILE_HASH)).thenReturn(Optional.of("Personel ilgiliydi"));
+
+        feedbackService.transcribeFeedback(message()).block();
+
+        verifyNoInteractions(audioPreprocessor, chunkedTranscriber);
+        verify(transcriptionCache, never()).put(any(), any());
+        ArgumentCaptor<TranscriptionEntity> transcription = ArgumentCaptor.forClass(TranscriptionEntity.class);
+        verify(feedbackStateMachine).completeTranscription(eq(FEEDBACK_ID), transcription.capture());
+        assertEquals("Personel ilgiliydi", transcription.getValue().getTranscription());
+        ArgumentCaptor<FeedbackDTO> streamed = ArgumentCaptor.forClass(FeedbackDTO.class);
+        verify(feedbackStreamBus).publish(streamed.capture());
+        assertEquals("TRANSCRIBED", streamed.getValue().getFeedbackState());
+        verify(sentimentStage).submit(eq(FEEDBACK_ID), eq("Personel ilgiliydi"), any());
+    }
+
+    @Test
+    void redeliveryTakesOverAStaleClaim() {
+        claimable(false);
+        when(feedbackStateMachine.reclaim(eq(FEEDBACK_ID), eq(FeedbackStateEnum.WAITING_FOR_TRANSCRIPTION), any())).thenReturn(true);
+        LocalDateTime before = LocalDateTime.now();
+
+        feedbackService.transcribeFeedback(message()).block();
+
+        ArgumentCaptor<LocalDateTime> claimedBefore = ArgumentCaptor.forClass(LocalDateTime.class);
+        verify(feedbackStateMachine).reclaim(eq(FEEDBACK_ID), eq(FeedbackStateEnum.WAITING_FOR_TRANSCRIPTION), claimedBefore.capture());
+        assertFalse(claimedBefore.getValue().isBefore(before.minusMinutes(10)));
+        assertFalse(claimedBefore.getValue().isAfter(LocalDateTime.now().minusMinutes(10)));
+        verify(chunkedTranscriber).transcribe(any(), any());
+        verify(feedbackStateMachine).completeTranscription(eq(FEEDBACK_ID), any());
+    }
+
+    @Test
+    void redeliveryOfAFreshClaimIsDropped() {
+        claimable(false);
+
+        feedbackService.transcribeFeedback(message()).block();
+
+        verify(feedbackStateMachine).reclaim(eq(FEEDBACK_ID), eq(FeedbackStateEnum.WAITING_FOR_TRANSCRIPTION), any());
+        verifyNoInteractions(chunkedTranscriber, sentimentStage, feedbackStreamBus);
+        verify(feedbackStateMachine, never()).completeTranscription(any(), any());
+    }
+
+    @Test
+    void transcribedEventReachesSubscribersFilteredByKiosk() {
+        claimable(true);
+        FeedbackEventLog eventLog = new FeedbackEventLog(new ObjectMapper().registerModule(new JavaTimeModule()), new SimpleMeterRegistry(), 16);
+        doAnswer(invocation -> eventLog.append(invocation.getArgument(0))).when(feedbackStreamBus).publish(any());
+        StreamFilter kioskFilter = new StreamFilter(KIOSK_ID, FeedbackStateEnum.TRANSCRIBED, null, 0);
+
+        StepVerifier.create(eventLog.subscribe(null, kioskFilter, StreamPayload.FULL, StreamOverflowPolicy.DROP_OLDEST))
+                .then(() -> feedbackService.transcribeFeedback(message()).block())
+                .assertNext(event -> {
+                    assertEquals(FEEDBACK_ID, event.feedback().getFeedbackId());
+                    assertEquals(KIOSK_ID, event.feedback().getFeedbackSource().getKioskId());
+                    assertEquals("TRANSCRIBED", event.feedback().getFeedbackState());
+                })
+                .thenCancel()
+                .verify();
+    }
+
+    @Test
+    void messageWithoutKioskIsCompletedFromTheDatabase() {
+        claimable(true);
+        FeedbackEntity feedbackEntity = new FeedbackEntity();
+        feedbackEntity.setFeedbackID(FEEDBACK_ID);
+        feedbackEntity.setFilePath("/audio/feedback.wav");
+        feedbackEntity.setFile_hash(FILE_HASH);
+        KioskEntity kioskEntity = new KioskEntity();
+        kioskEntity.setKioskID(KIOSK_ID);
+        feedbackEntity.setFeedbackSource(kioskEntity);
+        when(feedbackRepository.getFeedbackEntityByFeedbackID(FEEDBACK_ID)).thenReturn(Optional.of(feedbackEntity));
+        FeedbackReceivedMessage published = message();
+        published.setKioskID(null);
+
+        feedbackService.transcribeFeedback(published).block();
+
+        ArgumentCaptor<FeedbackDTO> streamed = ArgumentCaptor.forClass(FeedbackDTO.class);
+        verify(feedbackStreamBus).publish(streamed.capture());
+        assertEquals(KIOSK_ID, streamed.getValue().getFeedbackSource().getKioskId());
+    }
+
+    private void claimable(boolean received) {
+        when(feedbackStateMachine.transition(FEEDBACK_ID, FeedbackStateEnum.RECEIVED, FeedbackStateEnum.WAITING_FOR_TRANSCRIPTION))
+                .thenReturn(received);
+    }
+
+    private static FeedbackReceivedMessage message() {
+        return new FeedbackReceivedMessage(FEEDBACK_ID, LocalDateTime.now(), LocalDateTime.now().minusMinutes(1),
+                "/audio/feedback.wav", FILE_HASH, Duration.ofSeconds(31), KIOSK_ID);
+    }
+}
@@ -0,0 +1,55 @@
+package com.backend.vofasbackend.servicelayer.implementations;
+
+import com.backend.vofasbackend.servicelayer.interfaces.FeedbackService;
+import com.backend.vofasbackend.servicelayer.messages.FeedbackReceivedMessage;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+
+import static org.mockito.Mockito.*;
+
+class LocalFeedbackEventPublisherTest {
+
+    @Test
+    void publishedFeedbackIsTranscribedByWorkerPool() throws InterruptedException {
+        FeedbackService feedbackService = mock(FeedbackService.class);
+        when(feedbackService.transcribeFeedback(any(FeedbackReceivedMessage.class))).thenReturn(Mono.empty());
+        LocalFeedbackEventPublisher publisher = new LocalFeedbackEventPublisher(providerOf(feedbackService), 2, 4);
+
+        for (long feedbackID = 1; feedbackID <= 10; feedbackID++) {
+            publisher.publishFeedbackReceived(new FeedbackReceivedMessage(feedbackID, LocalDateTime.now()));
+        }
+        publisher.shutdown();
+
+        for (long feedbackID = 1; feedbackID <= 10; feedbackID++) {
+            verify(feedbackService).transcribeFeedback(forFeedback(feedbackID));
+        }
+    }
+
+    @Test
+    void failedTranscriptionDoesNotStopWorkers() throws InterruptedException {
+        FeedbackService feedbackService = mock(FeedbackService.class);
+        when(feedbackService.transcribeFeedback(forFeedback(1L))).thenReturn(Mono.error(new IllegalStateException("boom")));
+        when(feedbackService.transcribeFeedback(forFeedback(2L))).thenReturn(Mono.empty());
+        LocalFeedbackEventPublisher publisher = new LocalFeedbackEventPublisher(providerOf(feedbackService), 1, 4);
+
+        publisher.publishFeedbackReceived(new FeedbackReceivedMessage(1L, LocalDateTime.now()));
+        publisher.publishFeedbackReceived(new FeedbackReceivedMessage(2L, LocalDateTime.now()));
+        publisher.shutdown();
+
+        verify(feedbackService, timeout(1000)).transcribeFeedback(forFeedback(2L));
+    }
+
+    private static FeedbackReceivedMessage forFeedback(long feedbackID) {
+        return argThat(message -> message != null && message.getFeedbackID() == feedbackID);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static ObjectProvider<FeedbackService> providerOf(FeedbackService feedbackService) {
+        ObjectProvider<FeedbackService> provider = mock(ObjectProvider.class);
+        when(provider.getObject()).thenReturn(feedbackService);
+        return provider;
+    }
+}
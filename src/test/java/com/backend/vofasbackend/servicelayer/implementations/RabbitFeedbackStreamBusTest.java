@@ -0,0 +1,173 @@
+package com.backend.vofasbackend.servicelayer.implementations;
+
+import com.backend.vofasbackend.contants.MessagingConstants;
+import com.backend.vofasbackend.presentationlayer.datatransferobjects.FeedbackDTO;
+import com.backend.vofasbackend.presentationlayer.datatransferobjects.KioskDTO;
+import com.backend.vofasbackend.presentationlayer.datatransferobjects.SentimentAnalysisDTO;
+import com.backend.vofasbackend.presentationlayer.datatransferobjects.TranscriptionDTO;
+import com.backend.vofasbackend.presentationlayer.datatransferobjects.ValidationTokenDTO;
+import com.backend.vofasbackend.servicelayer.messages.FeedbackStreamBatch;
+import com.backend.vofasbackend.servicelayer.streaming.FeedbackEventLog;
+import com.backend.vofasbackend.servicelayer.streaming.StreamFilter;
+import com.backend.vofasbackend.servicelayer.streaming.StreamOverflowPolicy;
+import com.backend.vofasbackend.servicelayer.streaming.StreamPayload;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessagePostProcessor;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Runs three nodes against an in-process stand-in for the fanout exchange: every batch a node sends is serialized
+ * like on the wire and handed to the listener of each node.
+ */
+class RabbitFeedbackStreamBusTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+    private final Jackson2JsonMessageConverter messageConverter = new Jackson2JsonMessageConverter(objectMapper);
+    private final List<Node> nodes = new ArrayList<>();
+    private int deliveriesPerBatch = 1;
+
+    @BeforeEach
+    void setUp() {
+        for (int i = 0; i < 3; i++) {
+            nodes.add(new Node(64));
+        }
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        for (Node node : nodes) {
+            node.bus.shutdown();
+        }
+    }
+
+    @Test
+    void feedbackReachesSubscribersOfEveryNodeOnce() {
+        Node origin = nodes.get(0);
+        origin.bus.publish(detailedFeedback(1L));
+        origin.bus.publish(feedback(2L));
+
+        // the publishing node delivers locally before the batch leaves
+        assertEquals(List.of(1L, 2L), origin.receivedFeedbackIDs());
+        assertTrue(nodes.get(1).receivedFeedbackIDs().isEmpty());
+
+        origin.bus.flush();
+
+        for (Node node : nodes) {
+            assertEquals(List.of(1L, 2L), node.receivedFeedbackIDs());
+            // remote subscribers see exactly the JSON the origin's subscribers saw
+            assertEquals(origin.received.get(0).payload(), node.received.get(0).payload());
+        }
+        verify(origin.rabbitTemplate, times(1)).convertAndSend(eq(MessagingConstants.FEEDBACK_STREAM_EXCHANGE), eq(""),
+                any(Object.class), any(MessagePostProcessor.class));
+    }
+
+    @Test
+    void redeliveredBatchIsIgnored() {
+        deliveriesPerBatch = 2;
+
+        nodes.get(1).bus.publish(feedback(1L));
+        nodes.get(1).bus.flush();
+
+        for (Node node : nodes) {
+            assertEquals(List.of(1L), node.receivedFeedbackIDs());
+        }
+    }
+
+    @Test
+    void fullBatchIsSentWithoutWaitingForTheWindow() {
+        Node origin = new Node(3);
+        nodes.add(origin);
+
+        for (long feedbackID = 1; feedbackID <= 3; feedbackID++) {
+            origin.bus.publish(feedback(feedbackID));
+        }
+
+        ArgumentCaptor<FeedbackStreamBatch> batch = ArgumentCaptor.forClass(FeedbackStreamBatch.class);
+        verify(origin.rabbitTemplate, timeout(5000)).convertAndSend(eq(MessagingConstants.FEEDBACK_STREAM_EXCHANGE), eq(""),
+                batch.capture(), any(MessagePostProcessor.class));
+        assertEquals(3, batch.getValue().getEvents().size());
+    }
+
+    private void fanOut(Object batch, MessagePostProcessor postProcessor) {
+        Message message = postProcessor.postProcessMessage(messageConverter.toMessage(batch, new MessageProperties()));
+        for (int delivery = 0; delivery < deliveriesPerBatch; delivery++) {
+            for (Node node : nodes) {
+                try {
+                    node.bus.onFeedbackStreamBatch(objectMapper.readValue(message.getBody(), FeedbackStreamBatch.class));
+                } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                }
+            }
+        }
+    }
+
+    private static FeedbackDTO detailedFeedback(Long feedbackID) {
+        FeedbackDTO feedbackDTO = feedback(feedbackID);
+        feedbackDTO.setFeedbackReceivedAt(LocalDateTime.of(2024, 12, 1, 10, 15, 30));
+        feedbackDTO.setFeedbackDuration(LocalTime.ofSecondOfDay(95));
+        feedbackDTO.setFeedbackState("TRANSCRIBED");
+        TranscriptionDTO transcriptionDTO = new TranscriptionDTO();
+        transcriptionDTO.setTranscription("Kasada çok bekledim");
+        transcriptionDTO.setTranscriptionHash("hash");
+        feedbackDTO.setTranscriptionDTO(transcriptionDTO);
+        SentimentAnalysisDTO sentimentAnalysisDTO = new SentimentAnalysisDTO();
+        sentimentAnalysisDTO.setSentimentState("NEGATIVE");
+        feedbackDTO.setSentimentAnalysisDTO(sentimentAnalysisDTO);
+        KioskDTO kioskDTO = new KioskDTO();
+        kioskDTO.setKioskId(7L);
+        feedbackDTO.setFeedbackSource(kioskDTO);
+        ValidationTokenDTO validationTokenDTO = new ValidationTokenDTO();
+        validationTokenDTO.setValidationToken("token");
+        validationTokenDTO.setKiosk(7L);
+        feedbackDTO.setValidationTokenDTO(validationTokenDTO);
+        return feedbackDTO;
+    }
+
+    private static FeedbackDTO feedback(Long feedbackID) {
+        FeedbackDTO feedbackDTO = new FeedbackDTO();
+        feedbackDTO.setFeedbackId(feedbackID);
+        return feedbackDTO;
+    }
+
+    private class Node {
+
+        final RabbitTemplate rabbitTemplate = mock(RabbitTemplate.class);
+        final RabbitFeedbackStreamBus bus;
+        final List<FeedbackEventLog.FeedbackEvent> received = new CopyOnWriteArrayList<>();
+
+        Node(int batchSize) {
+            FeedbackEventLog eventLog = new FeedbackEventLog(objectMapper, new SimpleMeterRegistry(), 16);
+            eventLog.subscribe(null, StreamFilter.ALL, StreamPayload.FULL, StreamOverflowPolicy.DROP_OLDEST).subscribe(received::add);
+            bus = new RabbitFeedbackStreamBus(eventLog, rabbitTemplate, batchSize, Duration.ofHours(1), 100);
+            doAnswer(invocation -> {
+                fanOut(invocation.getArgument(2), invocation.getArgument(3));
+                return null;
+            }).when(rabbitTemplate).convertAndSend(eq(MessagingConstants.FEEDBACK_STREAM_EXCHANGE), eq(""),
+                    any(Object.class), any(MessagePostProcessor.class));
+        }
+
+        List<Long> receivedFeedbackIDs() {
+            return received.stream().map(event -> event.feedback().getFeedbackId()).toList();
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package com.backend.vofasbackend.servicelayer.implementations;
+
+import com.backend.vofasbackend.configurations.RabbitMQConfiguration;
+import com.backend.vofasbackend.contants.MessagingConstants;
+import com.backend.vofasbackend.servicelayer.interfaces.FeedbackService;
+import com.backend.vofasbackend.servicelayer.messages.FeedbackReceivedMessage;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.github.fridujo.rabbitmq.mock.MockConnectionFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageDeliveryMode;
+import org.springframework.amqp.rabbit.annotation.EnableRabbit;
+import org.springframework.amqp.rabbit.connection.CachingConnectionFactory;
+import org.springframework.amqp.rabbit.connection.ConnectionFactory;
+import org.springframework.amqp.rabbit.core.RabbitAdmin;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.amqp.rabbit.listener.MessageListenerContainer;
+import org.springframework.amqp.rabbit.listener.RabbitListenerEndpointRegistry;
+import org.springframework.amqp.support.converter.MessageConverter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.convert.ApplicationConversionService;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.core.convert.ConversionService;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Runs the transcription listener against an in-process AMQP broker: messages go out through
+ * {@link RabbitFeedbackEventPublisher}, through the topology and listener container factory of
+ * {@link RabbitMQConfiguration}, and into {@link TranscriptionWorker}.
+ */
+@SpringJUnitConfig
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+@TestPropertySource(properties = {
+        "VoFAS.transcription.worker.concurrency=1",
+        "VoFAS.transcription.worker.max-concurrency=1",
+        "VoFAS.transcription.worker.prefetch=1",
+        "VoFAS.transcription.worker.max-attempts=2",
+        "VoFAS.stream.fanout.queue-ttl=30s",
+        "VoFAS.stream.fanout.queue-max-length=100"})
+class TranscriptionListenerTest {
+
+    @Autowired
+    private FeedbackService feedbackService;
+
+    @Autowired
+    private RabbitFeedbackEventPublisher publisher;
+
+    @Autowired
+    private RabbitTemplate rabbitTemplate;
+
+    @Autowired
+    private RabbitAdmin rabbitAdmin;
+
+    @Autowired
+    private RabbitListenerEndpointRegistry listenerRegistry;
+
+    @BeforeEach
+    void setUp() {
+        reset(feedbackService);
+    }
+
+    @Test
+    void failingMessageIsRetriedThenDeadLettered() {
+        when(feedbackService.transcribeFeedback(any())).thenReturn(Mono.error(new IllegalStateException("provider down")));
+
+        publisher.publishFeedbackReceived(new FeedbackReceivedMessage(1L, LocalDateTime.now()));
+
+        Message deadLettered = rabbitTemplate.receive(MessagingConstants.TRANSCRIPTION_DEAD_LETTER_QUEUE, 10_000);
+        assertNotNull(deadLettered, "the message was not dead-lettered");
+        FeedbackReceivedMessage message = (FeedbackReceivedMessage) rabbitTemplate.getMessageConverter().fromMessage(deadLettered);
+        assertEquals(1L, message.getFeedbackID());
+        assertEquals(MessageDeliveryMode.PERSISTENT, deadLettered.getMessageProperties().getReceivedDeliveryMode());
+        verify(feedbackService, times(2)).transcribeFeedback(argThat(received -> received.getFeedbackID() == 1L));
+        assertEquals(0, messageCount(MessagingConstants.TRANSCRIPTION_QUEUE));
+    }
+
+    @Test
+    void acknowledgedMessageIsNotRedelivered() {
+        when(feedbackService.transcribeFeedback(any())).thenReturn(Mono.empty());
+
+        publisher.publishFeedbackReceived(new FeedbackReceivedMessage(2L, LocalDateTime.now()));
+        verify(feedbackService, timeout(5_000)).transcribeFeedback(argThat(received -> received.getFeedbackID() == 2L));
+
+        // closing the consumer returns unacknowledged messages to the queue
+        listenerRegistry.stop();
+        assertNull(rabbitTemplate.receive(MessagingConstants.TRANSCRIPTION_QUEUE, 500));
+        assertNull(rabbitTemplate.receive(MessagingConstants.TRANSCRIPTION_DEAD_LETTER_QUEUE, 100));
+        verify(feedbackService, times(1)).transcribeFeedback(any());
+    }
+
+    @Test
+    void workerTakesOneMessageAtATime() throws InterruptedException {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(feedbackService.transcribeFeedback(any())).thenReturn(Mono.fromRunnable(() -> {
+            started.countDown();
+            try {
+                release.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }));
+
+        publisher.publishFeedbackReceived(new FeedbackReceivedMessage(3L, LocalDateTime.now()));
+        publisher.publishFeedbackReceived(new FeedbackReceivedMessage(4L, LocalDateTime.now()));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        verify(feedbackService, after(300).times(1)).transcribeFeedback(any());
+        release.countDown();
+        verify(feedbackService, timeout(5_000).times(2)).transcribeFeedback(any());
+        // the in-process broker does not enforce basic.qos, so the prefetch is checked on the container
+        MessageListenerContainer container = listenerRegistry.getListenerContainers().iterator().next();
+        assertEquals(1, ReflectionTestUtils.getField(container, "prefetchCount"));
+        assertEquals(1, ReflectionTestUtils.getField(container, "maxConcurrentConsumers"));
+    }
+
+    private int messageCount(String queue) {
+        return (Integer) rabbitAdmin.getQueueProperties(queue).get(RabbitAdmin.QUEUE_MESSAGE_COUNT);
+    }
+
+    @Configuration
+    @EnableRabbit
+    @Import({RabbitMQConfiguration.class, TranscriptionWorker.class, RabbitFeedbackEventPublisher.class})
+    static class BrokerConfiguration {
+
+        @Bean
+        ConnectionFactory connectionFactory() {
+            return new CachingConnectionFactory(new MockConnectionFactory());
+        }
+
+        @Bean
+        RabbitAdmin rabbitAdmin(ConnectionFactory connectionFactory) {
+            return new RabbitAdmin(connectionFactory);
+        }
+
+        @Bean
+        RabbitTemplate rabbitTemplate(ConnectionFactory connectionFactory, MessageConverter messageConverter) {
+            RabbitTemplate rabbitTemplate = new RabbitTemplate(connectionFactory);
+            rabbitTemplate.setMessageConverter(messageConverter);
+            return rabbitTemplate;
+        }
+
+        @Bean
+        static ConversionService conversionService() {
+            return ApplicationConversionService.getSharedInstance();
+        }
+
+        @Bean
+        ObjectMapper objectMapper() {
+            return new ObjectMapper().registerModule(new JavaTimeModule());
+        }
+
+        @Bean
+        FeedbackService feedbackService() {
+            return mock(FeedbackService.class);
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.backend.vofasbackend.servicelayer.recovery;
+
+import com.backend.vofasbackend.datalayer.enums.FeedbackStateEnum;
+import com.backend.vofasbackend.datalayer.projections.StuckFeedbackRow;
+import com.backend.vofasbackend.datalayer.repositories.FeedbackRepository;
+import com.backend.vofasbackend.servicelayer.interfaces.FeedbackEventPublisher;
+import com.backend.vofasbackend.servicelayer.interfaces.FeedbackStateMachine;
+import com.backend.vofasbackend.servicelayer.messages.FeedbackReceivedMessage;
+import com.backend.vofasbackend.servicelayer.sentiment.SentimentStage;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class FeedbackRecoverySchedulerTest {
+
+    @Test
+    void stuckFeedbacksAreClaimedAndReEnqueued() throws InterruptedException {
+        FeedbackRepository feedbackRepository = mock(FeedbackRepository.class);
+        when(feedbackRepository.findStuckFeedbacks(anyCollection(), any(), any(), any())).thenReturn(List.of(
+                new StuckFeedbackRow(1L, FeedbackStateEnum.RECEIVED, null, null),
+                new StuckFeedbackRow(2L, FeedbackStateEnum.WAITING_FOR_TRANSCRIPTION, null, null),
+                new StuckFeedbackRow(3L, FeedbackStateEnum.TRANSCRIBED, "iyi", "h3"),
+                new StuckFeedbackRow(4L, FeedbackStateEnum.WAITING_FOR_SENTIMENT_ANALYSIS, "kötü", "h4"),
+                new StuckFeedbackRow(5L, FeedbackStateEnum.RECEIVED, null, null)));
+        when(feedbackRepository.claimRecoveryLease(anyLong(), any(), eq("node-1"), any(), any())).thenReturn(1);
+        // leased by another node
+        when(feedbackRepository.claimRecoveryLease(eq(5L), any(), eq("node-1"), any(), any())).thenReturn(0);
+        FeedbackStateMachine feedbackStateMachine = mock(FeedbackStateMachine.class);
+        when(feedbackStateMachine.transitionAll(anyCollection(), any(), any()))
+                .thenAnswer(invocation -> Set.copyOf(invocation.getArgument(0)));
+        FeedbackEventPublisher feedbackEventPublisher = mock(FeedbackEventPublisher.class);
+        SentimentStage sentimentStage = mock(SentimentStage.class);
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        FeedbackRecoveryScheduler scheduler = new FeedbackRecoveryScheduler(feedbackRepository, feedbackStateMachine,
+                feedbackEventPublisher, sentimentStage, mock(PlatformTransactionManager.class), meterRegistry,
+                Duration.ofMinutes(15), Duration.ofMinutes(10), Duration.ofHours(1), 5, "node-1");
+
+        assertEquals(4, scheduler.recover());
+        scheduler.shutdown();
+
+        ArgumentCaptor<Pageable> page = ArgumentCaptor.forClass(Pageable.class);
+        verify(feedbackRepository).findStuckFeedbacks(anyCollection(), any(), any(), page.capture());
+        assertEquals(5, page.getValue().getPageSize());
+        verify(feedbackStateMachine).transitionAll(List.of(2L), FeedbackStateEnum.WAITING_FOR_TRANSCRIPTION, FeedbackStateEnum.RECEIVED);
+        verify(feedbackStateMachine).transitionAll(List.of(4L), FeedbackStateEnum.WAITING_FOR_SENTIMENT_ANALYSIS, FeedbackStateEnum.TRANSCRIBED);
+        ArgumentCaptor<FeedbackReceivedMessage> messages = ArgumentCaptor.forClass(FeedbackReceivedMessage.class);
+        verify(feedbackEventPublisher, times(2)).publishFeedbackReceived(messages.capture());
+        assertEquals(List.of(1L, 2L), messages.getAllValues().stream().map(FeedbackReceivedMessage::getFeedbackID).toList());
+        verify(sentimentStage).submit(3L, "iyi", "h3");
+        verify(sentimentStage).submit(4L, "kötü", "h4");
+        verifyNoMoreInteractions(sentimentStage);
+        assertEquals(1.0, meterRegistry.get("vofas.recovery.requeued").tag("state", "WAITING_FOR_TRANSCRIPTION").counter().count());
+    }
+}
@@ -0,0 +1,158 @@
+package com.backend.vofasbackend.servicelayer.resilience;
+
+import com.backend.vofasbackend.exceptions.exceptions.TranscriptionUnavailableException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.audio.transcription.AudioTranscription;
+import org.springframework.ai.audio.transcription.AudioTranscriptionPrompt;
+import org.springframework.ai.audio.transcription.AudioTranscriptionResponse;
+import org.springframework.ai.model.Model;
+import org.springframework.core.io.ByteArrayResource;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TranscriptionGuardTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void slowProviderShrinksLimitAndFastProviderGrowsItBack() {
+        StubModel model = new StubModel();
+        TranscriptionGuard guard = guard(8, 1, 16, Duration.ofMillis(50), 10);
+        GuardedTranscriptionModel guardedModel = new GuardedTranscriptionModel(model, guard);
+
+        model.latencyMillis = 80;
+        for (int i = 0; i < 10; i++) {
+            guardedModel.call(prompt());
+        }
+        int limitAfterSlowCalls = guard.getLimiter().getLimit();
+        assertTrue(limitAfterSlowCalls < 8, "limit should back off when latency exceeds the threshold");
+
+        model.latencyMillis = 0;
+        runConcurrently(guardedModel, limitAfterSlowCalls, 200);
+        assertTrue(guard.getLimiter().getLimit() > limitAfterSlowCalls, "limit should grow while calls are fast and the limit is used");
+        assertEquals(0, guard.getLimiter().getInFlight());
+    }
+
+    @Test
+    void errorBurstOpensCircuitAndRejectsWithoutCallingProvider() {
+        StubModel model = new StubModel();
+        model.failing = true;
+        TranscriptionGuard guard = guard(4, 1, 8, Duration.ofSeconds(1), 10);
+        GuardedTranscriptionModel guardedModel = new GuardedTranscriptionModel(model, guard);
+
+        for (int i = 0; i < 5; i++) {
+            assertThrows(IllegalStateException.class, () -> guardedModel.call(prompt()));
+        }
+        assertEquals(CircuitBreaker.State.OPEN, guard.getCircuitBreaker().getState());
+
+        int callsBefore = model.calls.get();
+        assertThrows(TranscriptionUnavailableException.class, () -> guardedModel.call(prompt()));
+        assertEquals(callsBefore, model.calls.get());
+        assertEquals(1.0, meterRegistry.get("vofas.transcription.limiter.rejections").tag("reason", "circuit_open").counter().count());
+    }
+
+    @Test
+    void excessWorkBeyondQueueIsShed() throws Exception {
+        StubModel model = new StubModel();
+        model.latencyMillis = 300;
+        TranscriptionGuard guard = guard(1, 1, 1, Duration.ofSeconds(10), 1);
+        GuardedTranscriptionModel guardedModel = new GuardedTranscriptionModel(model, guard);
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            executor.submit(() -> guardedModel.call(prompt()));
+            executor.submit(() -> guardedModel.call(prompt()));
+            Thread.sleep(100);
+            assertThrows(TranscriptionUnavailableException.class, () -> guardedModel.call(prompt()));
+            assertEquals(1.0, meterRegistry.get("vofas.transcription.limiter.rejections").tag("reason", "queue_full").counter().count());
+        } finally {
+            executor.shutdown();
+            assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+        }
+    }
+
+    @Test
+    void halfOpenCircuitClosesAfterSuccessfulProbes() {
+        long[] now = {0};
+        CircuitBreaker circuitBreaker = new CircuitBreaker(4, 2, 0.5, Duration.ofSeconds(30), 2, () -> now[0]);
+        circuitBreaker.onFailure(circuitBreaker.tryAcquirePermission());
+        circuitBreaker.onFailure(circuitBreaker.tryAcquirePermission());
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+        assertEquals(CircuitBreaker.NOT_PERMITTED, circuitBreaker.tryAcquirePermission());
+
+        now[0] = Duration.ofSeconds(31).toNanos();
+        long firstProbe = circuitBreaker.tryAcquirePermission();
+        long secondProbe = circuitBreaker.tryAcquirePermission();
+        assertEquals(CircuitBreaker.State.HALF_OPEN, circuitBreaker.getState());
+        assertEquals(CircuitBreaker.NOT_PERMITTED, circuitBreaker.tryAcquirePermission());
+
+        circuitBreaker.onSuccess(firstProbe);
+        circuitBreaker.onSuccess(secondProbe);
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+    }
+
+    private TranscriptionGuard guard(int initialLimit, int minLimit, int maxLimit, Duration latencyThreshold, int maxQueued) {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(
+                initialLimit, minLimit, maxLimit, 0.5, latencyThreshold, maxQueued, Duration.ofSeconds(5));
+        CircuitBreaker circuitBreaker = new CircuitBreaker(10, 5, 0.5, Duration.ofMinutes(1), 1);
+        return new TranscriptionGuard(limiter, circuitBreaker, meterRegistry);
+    }
+
+    private static void runConcurrently(GuardedTranscriptionModel model, int threads, int callsPerThread) {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                futures.add(executor.submit(() -> {
+                    for (int call = 0; call < callsPerThread; call++) {
+                        model.call(prompt());
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } catch (InterruptedException | ExecutionException | TimeoutException e) {
+            fail(e);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static AudioTranscriptionPrompt prompt() {
+        return new AudioTranscriptionPrompt(new ByteArrayResource(new byte[16]));
+    }
+
+    /**
+     * Local stand-in for the transcription provider that injects latency and errors.
+     */
+    private static class StubModel implements Model<AudioTranscriptionPrompt, AudioTranscriptionResponse> {
+
+        private final AtomicInteger calls = new AtomicInteger();
+        private volatile long latencyMillis;
+        private volatile boolean failing;
+
+        @Override
+        public AudioTranscriptionResponse call(AudioTranscriptionPrompt request) {
+            calls.incrementAndGet();
+            if (latencyMillis > 0) {
+                try {
+                    Thread.sleep(latencyMillis);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            if (failing) {
+                throw new IllegalStateException("provider failure");
+            }
+            return new AudioTranscriptionResponse(new AudioTranscription("merhaba"));
+        }
+    }
+}
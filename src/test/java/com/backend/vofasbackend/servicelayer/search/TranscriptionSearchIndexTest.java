@@ -0,0 +1,128 @@
+package com.backend.vofasbackend.servicelayer.search;
+
+import com.backend.vofasbackend.datalayer.projections.TranscriptionSearchRow;
+import com.backend.vofasbackend.datalayer.repositories.FeedbackRepository;
+import com.backend.vofasbackend.exceptions.exceptions.InvalidFilterOptionException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+class TranscriptionSearchIndexTest {
+
+    private static final LocalDateTime DAY = LocalDateTime.of(2024, 12, 4, 10, 0);
+
+    @TempDir
+    Path indexPath;
+
+    private FeedbackRepository feedbackRepository;
+    private TranscriptionSearchIndex searchIndex;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        feedbackRepository = mock(FeedbackRepository.class);
+        PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        searchIndex = new TranscriptionSearchIndex(feedbackRepository, transactionManager, indexPath.toString(), 3, Duration.ofHours(1));
+
+        searchIndex.index(1L, DAY, 1L, "Kasada çok uzun süre bekledim, personel ilgisizdi.");
+        searchIndex.index(2L, DAY.plusDays(1), 2L, "İstanbul'daki şubede kasalar hızlıydı, teşekkürler.");
+        searchIndex.index(3L, DAY.plusDays(2), 1L, "Personel çok ilgiliydi ama otopark doluydu.");
+        searchIndex.index(4L, DAY.plusDays(3), null, "ISPARTA'DAN geldim, ürünler taze değildi.");
+        searchIndex.refresh();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        searchIndex.close();
+    }
+
+    @Test
+    void matchesInflectedAndCaseFoldedTurkishWords() {
+        assertEquals(List.of(1L, 2L), sorted(search("kasalar")));
+        assertEquals(List.of(2L), search("istanbul"));
+        assertEquals(List.of(4L), search("Isparta"));
+    }
+
+    @Test
+    void supportsBooleanAndPhraseQueries() {
+        assertEquals(List.of(1L, 3L), sorted(search("personel")));
+        assertEquals(List.of(1L), search("personel kasada"));
+        assertEquals(List.of(3L), search("personel NOT kasada"));
+        assertEquals(List.of(3L, 4L), sorted(search("otopark OR taze")));
+        assertEquals(List.of(1L), search("\"uzun süre bekledim\""));
+        assertEquals(List.of(), search("\"bekledim uzun\""));
+    }
+
+    @Test
+    void appliesKioskAndDateFilters() {
+        assertEquals(List.of(1L, 3L), sorted(searchIndex.search("personel", null, null, 1L, 0, 10).feedbackIDs()));
+        assertEquals(List.of(), searchIndex.search("personel", null, null, 2L, 0, 10).feedbackIDs());
+        assertEquals(List.of(3L), searchIndex.search("personel", DAY.plusDays(1), DAY.plusDays(3), null, 0, 10).feedbackIDs());
+    }
+
+    @Test
+    void reindexingReplacesTheDocument() {
+        searchIndex.index(1L, DAY, 1L, "Otopark genişti.");
+        searchIndex.refresh();
+
+        assertEquals(List.of(3L), search("personel"));
+        assertEquals(List.of(1L, 3L), sorted(search("otopark")));
+    }
+
+    @Test
+    void pagesThroughMatches() {
+        TranscriptionSearchIndex.SearchHits hits = searchIndex.search("personel", null, null, null, 1, 10);
+
+        assertEquals(2, hits.totalHits());
+        assertEquals(1, hits.feedbackIDs().size());
+    }
+
+    @Test
+    void rejectsMalformedQueries() {
+        assertThrows(InvalidFilterOptionException.class, () -> search("\"kasa"));
+        assertThrows(InvalidFilterOptionException.class, () -> search("*kasa"));
+        assertThrows(InvalidFilterOptionException.class, () -> search(" "));
+    }
+
+    @Test
+    void rebuildIndexesEverySliceOfTheIdRange() {
+        when(feedbackRepository.findMinFeedbackID()).thenReturn(Optional.of(100L));
+        when(feedbackRepository.findMaxFeedbackID()).thenReturn(Optional.of(199L));
+        when(feedbackRepository.streamTranscriptionsBetween(anyLong(), anyLong())).thenAnswer(invocation -> {
+            long fromID = invocation.getArgument(0);
+            long toID = invocation.getArgument(1);
+            return LongStream.rangeClosed(fromID, toID)
+                    .mapToObj(id -> new TranscriptionSearchRow(id, DAY, 5L, "Müşteri hizmetleri " + id));
+        });
+
+        searchIndex.rebuild();
+
+        verify(feedbackRepository, times(3)).streamTranscriptionsBetween(anyLong(), anyLong());
+        assertEquals(100, searchIndex.search("müşteri", null, null, 5L, 0, 1).totalHits());
+        assertEquals(List.of(142L), search("142"));
+        assertFalse(searchIndex.isRebuilding());
+    }
+
+    private List<Long> search(String query) {
+        return searchIndex.search(query, null, null, null, 0, 10).feedbackIDs();
+    }
+
+    private static List<Long> sorted(List<Long> feedbackIDs) {
+        return feedbackIDs.stream().sorted().toList();
+    }
+}
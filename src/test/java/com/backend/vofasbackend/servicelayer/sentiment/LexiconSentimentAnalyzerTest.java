@@ -0,0 +1,47 @@
+package com.backend.vofasbackend.servicelayer.sentiment;
+
+import com.backend.vofasbackend.datalayer.enums.SentimentStateEnum;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LexiconSentimentAnalyzerTest {
+
+    private final LexiconSentimentAnalyzer analyzer = new LexiconSentimentAnalyzer(new ClassPathResource("sentiment/tr-lexicon.txt"));
+
+    @Test
+    void classifiesInflectedWords() {
+        assertEquals(SentimentStateEnum.POSITIVE, analyzer.classify("Personel çok ilgiliydi, hizmetten memnun kaldım."));
+        assertEquals(SentimentStateEnum.NEGATIVE, analyzer.classify("Kasada uzun süre bekledim, çalışanlar ilgisizdi."));
+        assertEquals(SentimentStateEnum.NEUTRAL, analyzer.classify("Bugün öğleden sonra mağazaya geldim."));
+    }
+
+    @Test
+    void foldsTurkishCapitals() {
+        assertEquals(SentimentStateEnum.NEGATIVE, analyzer.classify("İĞRENÇ BİR DENEYİMDİ"));
+        assertEquals(SentimentStateEnum.POSITIVE, analyzer.classify("TEŞEKKÜRLER, HARİKA"));
+    }
+
+    @Test
+    void flipsNegatedWords() {
+        assertEquals(SentimentStateEnum.NEGATIVE, analyzer.classify("Ürünleri hiç beğenmedim."));
+        assertEquals(SentimentStateEnum.NEGATIVE, analyzer.classify("Hizmetten memnun değilim."));
+        assertEquals(SentimentStateEnum.POSITIVE, analyzer.classify("Hiç sorun yok, beklemeden ödedim."));
+    }
+
+    @Test
+    void weighsTheClauseAfterAContrast() {
+        assertEquals(SentimentStateEnum.NEGATIVE, analyzer.classify("Mağaza temizdi ama kasiyer çok kabaydı."));
+        assertEquals(SentimentStateEnum.POSITIVE, analyzer.classify("Otopark doluydu ama personel çok yardımseverdi."));
+    }
+
+    @Test
+    void analyzesBatchesInOrder() {
+        assertEquals(List.of(SentimentStateEnum.POSITIVE, SentimentStateEnum.NEUTRAL, SentimentStateEnum.NEGATIVE),
+                analyzer.analyze(Arrays.asList("Harika", null, "Berbat")));
+    }
+}
@@ -0,0 +1,131 @@
+package com.backend.vofasbackend.servicelayer.sentiment;
+
+import com.backend.vofasbackend.datalayer.entities.SentimentAnalysisEntity;
+import com.backend.vofasbackend.datalayer.enums.FeedbackStateEnum;
+import com.backend.vofasbackend.datalayer.enums.SentimentStateEnum;
+import com.backend.vofasbackend.datalayer.repositories.FeedbackRepository;
+import com.backend.vofasbackend.servicelayer.caches.SentimentCache;
+import com.backend.vofasbackend.servicelayer.interfaces.FeedbackStateMachine;
+import com.backend.vofasbackend.servicelayer.interfaces.FeedbackStreamBus;
+import com.backend.vofasbackend.servicelayer.interfaces.SentimentAnalyzer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class SentimentStageTest {
+
+    private FeedbackStateMachine feedbackStateMachine;
+    private SentimentAnalyzer sentimentAnalyzer;
+    private SentimentCache sentimentCache;
+    private SimpleMeterRegistry meterRegistry;
+    private SentimentStage sentimentStage;
+
+    @BeforeEach
+    void setUp() {
+        feedbackStateMachine = mock(FeedbackStateMachine.class);
+        FeedbackRepository feedbackRepository = mock(FeedbackRepository.class);
+        sentimentAnalyzer = mock(SentimentAnalyzer.class);
+        sentimentCache = mock(SentimentCache.class);
+        meterRegistry = new SimpleMeterRegistry();
+        when(sentimentAnalyzer.getName()).thenReturn("test");
+        when(sentimentAnalyzer.analyze(anyList())).thenAnswer(invocation -> ((List<?>) invocation.getArgument(0)).stream()
+                .map(transcription -> SentimentStateEnum.POSITIVE).toList());
+        when(feedbackStateMachine.transitionAll(anyCollection(), eq(FeedbackStateEnum.TRANSCRIBED), eq(FeedbackStateEnum.WAITING_FOR_SENTIMENT_ANALYSIS)))
+                .thenAnswer(invocation -> new LinkedHashSet<>(invocation.<Collection<Long>>getArgument(0)));
+        when(feedbackStateMachine.completeSentimentAnalyses(anyMap()))
+                .thenAnswer(invocation -> invocation.<Map<Long, SentimentAnalysisEntity>>getArgument(0).keySet());
+        sentimentStage = new SentimentStage(feedbackStateMachine, feedbackRepository, sentimentAnalyzer, sentimentCache, mock(FeedbackStreamBus.class),
+                meterRegistry, 4, Duration.ofMillis(300), 1, 100);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        sentimentStage.shutdown();
+    }
+
+    @Test
+    void fullBatchIsAnalyzedWithOneCall() {
+        for (long feedbackID = 1; feedbackID <= 4; feedbackID++) {
+            sentimentStage.submit(feedbackID, "Harika " + feedbackID, null);
+        }
+
+        verify(sentimentAnalyzer, timeout(250)).analyze(List.of("Harika 1", "Harika 2", "Harika 3", "Harika 4"));
+        ArgumentCaptor<Map<Long, SentimentAnalysisEntity>> stored = ArgumentCaptor.captor();
+        verify(feedbackStateMachine, timeout(1000)).completeSentimentAnalyses(stored.capture());
+        assertEquals(List.of(1L, 2L, 3L, 4L), List.copyOf(stored.getValue().keySet()));
+        assertTrue(stored.getValue().values().stream().allMatch(analysis -> analysis.getSentimentState() == SentimentStateEnum.POSITIVE
+                && analysis.getAnalysisRequestedAt() != null && analysis.getAnalysisReceivedAt() != null));
+    }
+
+    @Test
+    void partialBatchIsClosedByTheWindow() {
+        sentimentStage.submit(1L, "Harika", null);
+        sentimentStage.submit(2L, "Güzel", null);
+
+        verify(sentimentAnalyzer, after(150).never()).analyze(anyList());
+        verify(sentimentAnalyzer, timeout(1000)).analyze(List.of("Harika", "Güzel"));
+        verify(feedbackStateMachine, timeout(1000)).completeSentimentAnalyses(anyMap());
+        assertEquals(2.0, meterRegistry.get("vofas.sentiment.batch.size").summary().totalAmount());
+    }
+
+    @Test
+    void feedbacksClaimedElsewhereAreSkipped() {
+        when(feedbackStateMachine.transitionAll(anyCollection(), eq(FeedbackStateEnum.TRANSCRIBED), eq(FeedbackStateEnum.WAITING_FOR_SENTIMENT_ANALYSIS)))
+                .thenReturn(Set.of(2L));
+
+        sentimentStage.process(List.of(pending(1L, "Harika"), pending(2L, "Berbat")));
+
+        verify(sentimentAnalyzer).analyze(List.of("Berbat"));
+    }
+
+    @Test
+    void failedBatchIsHandedBack() {
+        when(sentimentAnalyzer.analyze(anyList())).thenThrow(new IllegalStateException("model unavailable"));
+
+        sentimentStage.process(List.of(pending(1L, "Harika"), pending(2L, "Berbat")));
+
+        verify(feedbackStateMachine).transitionAll(List.of(1L, 2L), FeedbackStateEnum.WAITING_FOR_SENTIMENT_ANALYSIS, FeedbackStateEnum.TRANSCRIBED);
+        verify(feedbackStateMachine, never()).completeSentimentAnalyses(anyMap());
+    }
+
+    @Test
+    void knownAndRepeatedTextsAreNotAnalyzedAgain() {
+        when(sentimentCache.findAll(anyCollection())).thenReturn(Map.of("h-berbat", SentimentStateEnum.NEGATIVE));
+
+        sentimentStage.process(List.of(pending(1L, "Berbat"), pending(2L, "Harika"), pending(3L, "Harika"), pending(4L, "Berbat")));
+
+        verify(sentimentAnalyzer).analyze(List.of("Harika"));
+        verify(sentimentCache).put("h-harika", SentimentStateEnum.POSITIVE);
+        ArgumentCaptor<Map<Long, SentimentAnalysisEntity>> stored = ArgumentCaptor.captor();
+        verify(feedbackStateMachine).completeSentimentAnalyses(stored.capture());
+        assertEquals(List.of(SentimentStateEnum.NEGATIVE, SentimentStateEnum.POSITIVE, SentimentStateEnum.POSITIVE, SentimentStateEnum.NEGATIVE),
+                stored.getValue().values().stream().map(SentimentAnalysisEntity::getSentimentState).toList());
+    }
+
+    @Test
+    void batchOfKnownTextsSkipsTheAnalyzer() {
+        when(sentimentCache.findAll(anyCollection())).thenReturn(Map.of("h-harika", SentimentStateEnum.POSITIVE));
+
+        sentimentStage.process(List.of(pending(1L, "Harika"), pending(2L, "Harika")));
+
+        verify(sentimentAnalyzer, never()).analyze(anyList());
+        verify(feedbackStateMachine).completeSentimentAnalyses(anyMap());
+    }
+
+    private static SentimentStage.PendingFeedback pending(Long feedbackID, String transcription) {
+        return new SentimentStage.PendingFeedback(feedbackID, transcription, "h-" + transcription.toLowerCase());
+    }
+}
@@ -0,0 +1,126 @@
+package com.backend.vofasbackend.servicelayer.spool;
+
+import com.backend.vofasbackend.servicelayer.tools.HashTool;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UploadSpoolTest {
+
+    @TempDir
+    Path spoolDirectory;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private SimpleMeterRegistry meterRegistry;
+    private UploadSpool spool;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        spool = start();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        spool.shutdown();
+    }
+
+    @Test
+    void uploadIsHashedWhileItIsWritten() throws IOException {
+        // larger than the copy buffer
+        byte[] audio = new byte[1_000_000];
+        new Random(42).nextBytes(audio);
+
+        UploadSpool.SpooledAudio spooledAudio = spool.write(new ByteArrayInputStream(audio), ".mp3");
+
+        assertEquals(HashTool.toHex(HashTool.newSha256Digest().digest(audio)), spooledAudio.fileHash());
+        assertEquals(audio.length, spooledAudio.size());
+        assertArrayEquals(audio, Files.readAllBytes(spooledAudio.path()));
+    }
+
+    @Test
+    void stagedUploadsSurviveARestart() throws Exception {
+        byte[] audio = "audio".getBytes(StandardCharsets.UTF_8);
+        StagedUpload kept = stage(audio);
+        StagedUpload drained = stage(audio);
+        spool.drained(drained);
+
+        spool.shutdown();
+        spool = start();
+
+        assertEquals(List.of(kept), List.copyOf(spool.pending()));
+        assertArrayEquals(audio, Files.readAllBytes(spool.pathOf(kept)));
+    }
+
+    @Test
+    void unacknowledgedUploadsAreDroppedOnRestart() throws Exception {
+        UploadSpool.SpooledAudio unstaged = spool.write(new ByteArrayInputStream(new byte[]{1, 2, 3}), ".wav");
+        StagedUpload staged = stage(new byte[]{4});
+        spool.shutdown();
+        // a record torn by the crash
+        Files.writeString(spoolDirectory.resolve(UploadSpool.LOG_FILE), "STAGED {\"spoolID\":\"", StandardOpenOption.APPEND);
+
+        spool = start();
+
+        assertFalse(Files.exists(unstaged.path()));
+        assertEquals(List.of(staged), List.copyOf(spool.pending()));
+    }
+
+    @Test
+    void concurrentUploadsAreAllStaged() throws Exception {
+        ExecutorService uploads = Executors.newFixedThreadPool(16);
+        try {
+            List<Callable<StagedUpload>> attempts = new ArrayList<>();
+            for (int i = 0; i < 64; i++) {
+                byte[] audio = {(byte) i};
+                attempts.add(() -> stage(audio));
+            }
+            for (Future<StagedUpload> attempt : uploads.invokeAll(attempts)) {
+                attempt.get();
+            }
+        } finally {
+            uploads.shutdown();
+        }
+
+        assertEquals(64, spool.pending().size());
+        // every record is synced exactly once, in batches of one or more
+        assertEquals(64.0, meterRegistry.get("vofas.spool.commit.batch.size").summary().totalAmount());
+    }
+
+    private StagedUpload stage(byte[] audio) throws IOException {
+        UploadSpool.SpooledAudio spooledAudio = spool.write(new ByteArrayInputStream(audio), ".mp3");
+        StagedUpload upload = new StagedUpload(spooledAudio.spoolID(), ".mp3", spooledAudio.fileHash(), spooledAudio.size(),
+                Duration.ofSeconds(12), UUID.randomUUID(), 1L, LocalDateTime.now());
+        spool.stage(upload);
+        return upload;
+    }
+
+    private UploadSpool start() throws IOException {
+        meterRegistry = new SimpleMeterRegistry();
+        UploadSpool uploadSpool = new UploadSpool(spoolDirectory.toString(), DataSize.ofMegabytes(1), objectMapper, meterRegistry);
+        uploadSpool.init();
+        return uploadSpool;
+    }
+}
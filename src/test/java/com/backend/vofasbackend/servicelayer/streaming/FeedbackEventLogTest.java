@@ -0,0 +1,217 @@
+package com.backend.vofasbackend.servicelayer.streaming;
+
+import com.backend.vofasbackend.datalayer.enums.FeedbackStateEnum;
+import com.backend.vofasbackend.presentationlayer.datatransferobjects.FeedbackDTO;
+import com.backend.vofasbackend.presentationlayer.datatransferobjects.KioskDTO;
+import com.backend.vofasbackend.presentationlayer.datatransferobjects.TranscriptionDTO;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.test.StepVerifier;
+
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class FeedbackEventLogTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private ObjectMapper objectMapper;
+    private FeedbackEventLog eventLog;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        objectMapper = spy(new ObjectMapper().registerModule(new JavaTimeModule()));
+        eventLog = new FeedbackEventLog(objectMapper, meterRegistry, 4);
+    }
+
+    @Test
+    void newSubscriberOnlyReceivesLiveEvents() {
+        append(1L);
+
+        StepVerifier.create(eventLog.subscribe(null, StreamFilter.ALL, StreamPayload.FULL, StreamOverflowPolicy.DROP_OLDEST))
+                .then(() -> append(2L))
+                .assertNext(event -> assertEquals(2L, event.feedback().getFeedbackId()))
+                .thenCancel()
+                .verify();
+    }
+
+    @Test
+    void reconnectingSubscriberReplaysEventsAfterLastEventId() {
+        long first = append(1L);
+        append(2L);
+        append(3L);
+
+        StepVerifier.create(eventLog.subscribe(first, StreamFilter.ALL, StreamPayload.FULL, StreamOverflowPolicy.DROP_OLDEST))
+                .assertNext(event -> assertEquals(first + 1, event.id()))
+                .assertNext(event -> assertEquals(first + 2, event.id()))
+                .then(() -> append(4L))
+                .assertNext(event -> assertEquals(4L, event.feedback().getFeedbackId()))
+                .thenCancel()
+                .verify();
+    }
+
+    @Test
+    void replayBeyondRetentionStartsAtOldestEvent() {
+        long first = append(1L);
+        appendRange(2, 7);
+
+        // ids first+1 and first+2 have been overwritten by the ring of four
+        StepVerifier.create(eventLog.subscribe(first, StreamFilter.ALL, StreamPayload.FULL, StreamOverflowPolicy.DISCONNECT))
+                .assertNext(event -> {
+                    assertEquals(first + 3, event.id());
+                    assertEquals(2, event.missedBefore());
+                })
+                .expectNextCount(3)
+                .thenCancel()
+                .verify();
+    }
+
+    @Test
+    void slowSubscriberSkipsOverwrittenEvents() {
+        StepVerifier.create(eventLog.subscribe(null, StreamFilter.ALL, StreamPayload.FULL, StreamOverflowPolicy.DROP_OLDEST), 1)
+                .then(() -> append(1L))
+                .assertNext(event -> assertEquals(1L, event.feedback().getFeedbackId()))
+                .then(() -> appendRange(2, 7))
+                .thenRequest(10)
+                .assertNext(event -> {
+                    assertEquals(4L, event.feedback().getFeedbackId());
+                    assertEquals(2, event.missedBefore());
+                })
+                .assertNext(event -> assertEquals(0, event.missedBefore()))
+                .expectNextCount(2)
+                .thenCancel()
+                .verify();
+
+        assertEquals(2.0, meterRegistry.get("vofas.feedback.stream.dropped").counter().count());
+    }
+
+    @Test
+    void slowSubscriberIsDisconnected() {
+        StepVerifier.create(eventLog.subscribe(null, StreamFilter.ALL, StreamPayload.FULL, StreamOverflowPolicy.DISCONNECT), 1)
+                .then(() -> append(1L))
+                .expectNextCount(1)
+                .then(() -> appendRange(2, 7))
+                .thenRequest(10)
+                .verifyComplete();
+
+        assertEquals(0.0, meterRegistry.get("vofas.feedback.stream.subscribers").gauge().value());
+    }
+
+    @Test
+    void lagIsReportedPerSubscriber() {
+        StepVerifier.create(eventLog.subscribe(null, StreamFilter.ALL, StreamPayload.FULL, StreamOverflowPolicy.DROP_OLDEST), 0)
+                .then(() -> {
+                    append(1L);
+                    append(2L);
+                    assertEquals(1.0, meterRegistry.get("vofas.feedback.stream.subscribers").gauge().value());
+                    assertEquals(List.of(2.0), meterRegistry.get("vofas.feedback.stream.lag").gauges().stream()
+                            .map(gauge -> gauge.value()).toList());
+                })
+                .thenRequest(2)
+                .expectNextCount(2)
+                .then(() -> assertEquals(0.0, meterRegistry.get("vofas.feedback.stream.lag").gauge().value()))
+                .thenCancel()
+                .verify();
+
+        assertTrue(meterRegistry.find("vofas.feedback.stream.lag").gauges().isEmpty());
+    }
+
+    @Test
+    void filteredSubscriberOnlyReceivesMatchingEvents() {
+        StreamFilter filter = new StreamFilter(1L, FeedbackStateEnum.TRANSCRIBED, null, 10);
+
+        StepVerifier.create(eventLog.subscribe(null, filter, StreamPayload.FULL, StreamOverflowPolicy.DROP_OLDEST))
+                .then(() -> {
+                    append(feedback(1L, 2L, 30));
+                    append(feedback(2L, 1L, 5));
+                    append(feedback(3L, 1L, 30));
+                    append(feedback(4L, null, 30));
+                })
+                .assertNext(event -> assertEquals(3L, event.feedback().getFeedbackId()))
+                .thenCancel()
+                .verify();
+    }
+
+    @Test
+    void eventsOfOtherSubscribersDoNotOverflowTheRing() {
+        StreamFilter filter = new StreamFilter(1L, null, null, 0);
+
+        StepVerifier.create(eventLog.subscribe(null, filter, StreamPayload.FULL, StreamOverflowPolicy.DISCONNECT), 1)
+                .then(() -> append(feedback(1L, 1L, 30)))
+                .expectNextCount(1)
+                .then(() -> {
+                    for (long feedbackID = 2; feedbackID <= 10; feedbackID++) {
+                        append(feedback(feedbackID, 2L, 30));
+                    }
+                    append(feedback(11L, 1L, 30));
+                })
+                .thenRequest(1)
+                .assertNext(event -> {
+                    assertEquals(11L, event.feedback().getFeedbackId());
+                    assertEquals(0, event.missedBefore());
+                })
+                .thenCancel()
+                .verify();
+    }
+
+    @Test
+    void payloadIsSerializedOncePerShape() throws Exception {
+        List<FeedbackEventLog.FeedbackEvent> full = new ArrayList<>();
+        List<FeedbackEventLog.FeedbackEvent> summaries = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            eventLog.subscribe(null, StreamFilter.ALL, StreamPayload.FULL, StreamOverflowPolicy.DROP_OLDEST).subscribe(full::add);
+            eventLog.subscribe(null, StreamFilter.ALL, StreamPayload.WITHOUT_TRANSCRIPTION, StreamOverflowPolicy.DROP_OLDEST).subscribe(summaries::add);
+        }
+
+        FeedbackDTO feedbackDTO = feedback(1L, 1L, 30);
+        TranscriptionDTO transcriptionDTO = new TranscriptionDTO();
+        transcriptionDTO.setTranscription("Kasada çok bekledim");
+        transcriptionDTO.setTranscriptionHash("hash");
+        feedbackDTO.setTranscriptionDTO(transcriptionDTO);
+        append(feedbackDTO);
+
+        assertEquals(3, full.size());
+        assertEquals(3, summaries.size());
+        assertSame(full.get(0).payload(), full.get(2).payload());
+        assertTrue(full.get(0).payload().contains("Kasada çok bekledim"));
+        assertFalse(summaries.get(0).payload().contains("Kasada"));
+        assertTrue(summaries.get(0).payload().contains("\"transcriptionHash\":\"hash\""));
+        verify(objectMapper, times(2)).writeValueAsString(any());
+    }
+
+    private void appendRange(long firstFeedbackID, long lastFeedbackID) {
+        for (long feedbackID = firstFeedbackID; feedbackID <= lastFeedbackID; feedbackID++) {
+            append(feedbackID);
+        }
+    }
+
+    private long append(Long feedbackID) {
+        FeedbackDTO feedbackDTO = new FeedbackDTO();
+        feedbackDTO.setFeedbackId(feedbackID);
+        return eventLog.append(feedbackDTO);
+    }
+
+    private long append(FeedbackDTO feedbackDTO) {
+        return eventLog.append(feedbackDTO);
+    }
+
+    private static FeedbackDTO feedback(Long feedbackID, Long kioskID, int durationSeconds) {
+        FeedbackDTO feedbackDTO = new FeedbackDTO();
+        feedbackDTO.setFeedbackId(feedbackID);
+        feedbackDTO.setFeedbackState(FeedbackStateEnum.TRANSCRIBED.toString());
+        feedbackDTO.setFeedbackDuration(LocalTime.ofSecondOfDay(durationSeconds));
+        if (kioskID != null) {
+            KioskDTO kioskDTO = new KioskDTO();
+            kioskDTO.setKioskId(kioskID);
+            feedbackDTO.setFeedbackSource(kioskDTO);
+        }
+        return feedbackDTO;
+    }
+}
@@ -0,0 +1,64 @@
+package com.backend.vofasbackend.servicelayer.streaming;
+
+import com.backend.vofasbackend.datalayer.enums.FeedbackStateEnum;
+import com.backend.vofasbackend.datalayer.enums.SentimentStateEnum;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SubscriptionIndexTest {
+
+    private final SubscriptionIndex<String> index = new SubscriptionIndex<>();
+
+    @Test
+    void matchesExactValuesAndWildcards() {
+        index.add(StreamFilter.ALL, "all");
+        index.add(new StreamFilter(1L, null, null, 0), "kiosk-1");
+        index.add(new StreamFilter(2L, null, null, 0), "kiosk-2");
+        index.add(new StreamFilter(1L, FeedbackStateEnum.COMPLETED, SentimentStateEnum.NEGATIVE, 0), "kiosk-1-negative");
+        index.add(new StreamFilter(null, null, SentimentStateEnum.NEGATIVE, 0), "negative");
+
+        assertEquals(List.of("all", "kiosk-1", "kiosk-1-negative", "negative"),
+                sorted(match(1L, FeedbackStateEnum.COMPLETED, SentimentStateEnum.NEGATIVE, 30)));
+        assertEquals(List.of("all", "kiosk-1"),
+                sorted(match(1L, FeedbackStateEnum.COMPLETED, SentimentStateEnum.POSITIVE, 30)));
+        assertEquals(List.of("all"), match(null, FeedbackStateEnum.TRANSCRIBED, null, 30));
+    }
+
+    @Test
+    void minimumDurationIsInclusive() {
+        index.add(new StreamFilter(null, null, null, 10), "ten");
+        index.add(new StreamFilter(null, null, null, 60), "sixty");
+
+        assertEquals(List.of(), match(null, null, null, 9));
+        assertEquals(List.of("ten"), match(null, null, null, 10));
+        assertEquals(List.of("sixty", "ten"), sorted(match(null, null, null, 60)));
+    }
+
+    @Test
+    void removedSubscribersAreNotMatched() {
+        StreamFilter filter = new StreamFilter(1L, null, null, 0);
+        index.add(filter, "first");
+        index.add(filter, "second");
+
+        index.remove(filter, "first");
+
+        assertEquals(List.of("second"), match(1L, null, null, 0));
+        assertEquals(1, index.size());
+        index.remove(filter, "second");
+        assertEquals(0, index.size());
+    }
+
+    private List<String> match(Long kioskID, FeedbackStateEnum feedbackState, SentimentStateEnum sentimentState, long durationSeconds) {
+        List<String> matches = new ArrayList<>();
+        index.forEachMatch(kioskID, feedbackState, sentimentState, durationSeconds, matches::add);
+        return matches;
+    }
+
+    private static List<String> sorted(List<String> values) {
+        return values.stream().sorted().toList();
+    }
+}
@@ -0,0 +1,152 @@
+package com.backend.vofasbackend.servicelayer.tokens;
+
+import com.backend.vofasbackend.datalayer.entities.KioskEntity;
+import com.backend.vofasbackend.datalayer.entities.ValidationTokenEntity;
+import com.backend.vofasbackend.datalayer.enums.KioskStateEnum;
+import com.backend.vofasbackend.datalayer.repositories.KioskRepository;
+import com.backend.vofasbackend.datalayer.repositories.ValidationTokenRepository;
+import com.backend.vofasbackend.exceptions.exceptions.ResourceNotFoundException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class ValidationTokenPoolTest {
+
+    private ValidationTokenRepository validationTokenRepository;
+    private KioskRepository kioskRepository;
+    private ValidationTokenRegistry validationTokenRegistry;
+    private SimpleMeterRegistry meterRegistry;
+    private ValidationTokenPool pool;
+    private volatile LocalDateTime createdAt;
+
+    @BeforeEach
+    void setUp() {
+        validationTokenRepository = mock(ValidationTokenRepository.class);
+        when(validationTokenRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            List<ValidationTokenEntity> validationTokenEntities = invocation.getArgument(0);
+            validationTokenEntities.forEach(validationTokenEntity -> {
+                validationTokenEntity.setValidationToken(UUID.randomUUID());
+                if (createdAt != null) {
+                    validationTokenEntity.setTokenCreateAt(createdAt);
+                }
+            });
+            return validationTokenEntities;
+        });
+        kioskRepository = mock(KioskRepository.class);
+        when(kioskRepository.existsById(1L)).thenReturn(true);
+        when(kioskRepository.getReferenceById(1L)).thenReturn(new KioskEntity());
+        validationTokenRegistry = mock(ValidationTokenRegistry.class);
+        when(validationTokenRegistry.isValid(any())).thenReturn(true);
+        meterRegistry = new SimpleMeterRegistry();
+        pool = new ValidationTokenPool(validationTokenRepository, kioskRepository, validationTokenRegistry,
+                mock(PlatformTransactionManager.class), meterRegistry, 10, 4, Duration.ofHours(1),
+                Duration.ofHours(24), Duration.ofHours(12));
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        pool.shutdown();
+    }
+
+    @Test
+    void tokensAreGeneratedInInsertBatches() {
+        List<ValidationTokenPool.IssuedToken> issued = pool.generate(1L, 10);
+
+        assertEquals(10, new HashSet<>(issued.stream().map(ValidationTokenPool.IssuedToken::validationToken).toList()).size());
+        // batches of four, four and two
+        verify(validationTokenRepository, times(3)).saveAll(anyList());
+        issued.forEach(token -> verify(validationTokenRegistry).register(token.validationToken(), 1L, token.createdAt()));
+        assertEquals(10.0, meterRegistry.get("vofas.tokens.generated").counter().count());
+    }
+
+    @Test
+    void leasesAreServedFromThePool() throws InterruptedException {
+        fillPool();
+        clearInvocations(validationTokenRepository);
+
+        List<ValidationTokenPool.IssuedToken> leased = pool.lease(1L, 5);
+
+        assertEquals(5, leased.size());
+        verify(validationTokenRepository, never()).saveAll(anyList());
+        assertEquals(5.0, meterRegistry.get("vofas.tokens.pooled").gauge().value());
+    }
+
+    @Test
+    void expiredPooledTokensAreSkipped() throws InterruptedException {
+        fillPool();
+        ArgumentCaptor<UUID> registered = ArgumentCaptor.forClass(UUID.class);
+        verify(validationTokenRegistry, times(10)).register(registered.capture(), eq(1L), any());
+        AtomicInteger checks = new AtomicInteger();
+        // the three oldest pooled tokens have expired
+        when(validationTokenRegistry.isValid(any())).thenAnswer(invocation -> checks.incrementAndGet() > 3);
+
+        List<ValidationTokenPool.IssuedToken> leased = pool.lease(1L, 4);
+
+        assertEquals(registered.getAllValues().subList(3, 7),
+                leased.stream().map(ValidationTokenPool.IssuedToken::validationToken).toList());
+    }
+
+    @Test
+    void nearlyExpiredPooledTokensAreSkipped() throws InterruptedException {
+        // pooled twenty hours ago, so four hours are left of their lifetime
+        createdAt = LocalDateTime.now().minusHours(20);
+        fillPool();
+        createdAt = null;
+        ArgumentCaptor<UUID> pooled = ArgumentCaptor.forClass(UUID.class);
+        verify(validationTokenRegistry, times(10)).register(pooled.capture(), eq(1L), any());
+
+        List<ValidationTokenPool.IssuedToken> leased = pool.lease(1L, 3);
+
+        assertEquals(3, leased.size());
+        assertTrue(Collections.disjoint(pooled.getAllValues(),
+                leased.stream().map(ValidationTokenPool.IssuedToken::validationToken).toList()));
+        leased.forEach(token -> assertTrue(token.createdAt().isAfter(LocalDateTime.now().minusMinutes(1))));
+    }
+
+    @Test
+    void shortPoolIsCompletedWithNewTokens() throws InterruptedException {
+        fillPool();
+        ArgumentCaptor<UUID> pooled = ArgumentCaptor.forClass(UUID.class);
+        verify(validationTokenRegistry, times(10)).register(pooled.capture(), eq(1L), any());
+
+        List<UUID> leased = pool.lease(1L, 12).stream().map(ValidationTokenPool.IssuedToken::validationToken).toList();
+
+        // ten from the pool, two generated on the spot
+        assertEquals(12, new HashSet<>(leased).size());
+        assertEquals(pooled.getAllValues(), leased.subList(0, 10));
+    }
+
+    @Test
+    void unknownKioskIsRejected() {
+        assertThrows(ResourceNotFoundException.class, () -> pool.lease(2L, 1));
+        verify(validationTokenRepository, never()).saveAll(anyList());
+    }
+
+    private void fillPool() throws InterruptedException {
+        when(kioskRepository.findKioskIDsByState(KioskStateEnum.ACTIVE)).thenReturn(List.of(1L));
+        pool.fillActiveKiosks();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (meterRegistry.get("vofas.tokens.pooled").gauge().value() < 10 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(10.0, meterRegistry.get("vofas.tokens.pooled").gauge().value());
+    }
+}
@@ -0,0 +1,243 @@
+package com.backend.vofasbackend.servicelayer.tokens;
+
+import com.backend.vofasbackend.datalayer.entities.FeedbackEntity;
+import com.backend.vofasbackend.datalayer.entities.ValidationTokenEntity;
+import com.backend.vofasbackend.datalayer.enums.ValidationTokenStateEnum;
+import com.backend.vofasbackend.datalayer.projections.ValidationTokenRow;
+import com.backend.vofasbackend.datalayer.repositories.FeedbackRepository;
+import com.backend.vofasbackend.datalayer.repositories.ValidationTokenRepository;
+import com.backend.vofasbackend.exceptions.exceptions.InvalidValidationTokenException;
+import com.backend.vofasbackend.servicelayer.caches.FeedbackDetailCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+class ValidationTokenRegistryTest {
+
+    private final UUID first = UUID.randomUUID();
+    private final UUID second = UUID.randomUUID();
+    // the tokens the database holds as valid, shared by all nodes
+    private final Set<UUID> validInDatabase = ConcurrentHashMap.newKeySet();
+    private ValidationTokenRepository validationTokenRepository;
+    private FeedbackDetailCache feedbackDetailCache;
+    private SimpleMeterRegistry meterRegistry;
+    private ValidationTokenRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        validationTokenRepository = mock(ValidationTokenRepository.class);
+        FeedbackRepository feedbackRepository = mock(FeedbackRepository.class);
+        when(feedbackRepository.getReferenceById(anyLong())).thenAnswer(invocation -> {
+            FeedbackEntity feedbackEntity = new FeedbackEntity();
+            feedbackEntity.setFeedbackID(invocation.getArgument(0));
+            return feedbackEntity;
+        });
+        when(validationTokenRepository.findUnlinkedTokensByState(ValidationTokenStateEnum.VALID)).thenReturn(List.of(
+                new ValidationTokenRow(first, 1L, LocalDateTime.now().minusDays(2)), new ValidationTokenRow(second, 1L, LocalDateTime.now())));
+        validInDatabase.addAll(List.of(first, second));
+        when(validationTokenRepository.useToken(any(), any()))
+                .thenAnswer(invocation -> validInDatabase.remove(invocation.<UUID>getArgument(0)) ? 1 : 0);
+        when(validationTokenRepository.releaseToken(any()))
+                .thenAnswer(invocation -> validInDatabase.add(invocation.getArgument(0)) ? 1 : 0);
+        when(validationTokenRepository.findKioskIDByValidationToken(any())).thenReturn(Optional.of(2L));
+        feedbackDetailCache = mock(FeedbackDetailCache.class);
+        meterRegistry = new SimpleMeterRegistry();
+        registry = new ValidationTokenRegistry(validationTokenRepository, feedbackRepository, feedbackDetailCache,
+                mock(PlatformTransactionManager.class), meterRegistry, 1_000, 0.01, 16, Duration.ofHours(1));
+        registry.load();
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        registry.shutdown();
+    }
+
+    @Test
+    void aTokenCanOnlyBeUsedOnce() throws Exception {
+        ExecutorService uploads = Executors.newFixedThreadPool(8);
+        try {
+            List<Callable<Boolean>> attempts = new ArrayList<>();
+            for (int i = 0; i < 16; i++) {
+                attempts.add(() -> {
+                    try {
+                        registry.consume(first);
+                        return true;
+                    } catch (InvalidValidationTokenException e) {
+                        return false;
+                    }
+                });
+            }
+            int successes = 0;
+            for (Future<Boolean> attempt : uploads.invokeAll(attempts)) {
+                successes += attempt.get() ? 1 : 0;
+            }
+            assertEquals(1, successes);
+        } finally {
+            uploads.shutdown();
+        }
+        assertEquals(1, registry.validTokenCount(1L));
+        assertEquals(15.0, meterRegistry.get("vofas.tokens.rejected").tag("reason", "used").counter().count());
+        // checked in memory, the use is written behind
+        verify(validationTokenRepository, never()).useToken(any(), any());
+        assertTrue(validInDatabase.contains(first));
+    }
+
+    @Test
+    void unknownTokensAreRejected() {
+        assertThrows(InvalidValidationTokenException.class, () -> registry.consume(UUID.randomUUID()));
+        assertThrows(InvalidValidationTokenException.class, () -> registry.consume(null));
+
+        assertEquals(2.0, meterRegistry.get("vofas.tokens.rejected").tag("reason", "unknown").counter().count());
+        assertEquals(1.0, meterRegistry.get("vofas.tokens.database-lookups").counter().count());
+    }
+
+    @Test
+    void tokenIssuedByAnotherNodeIsUsedOnce() {
+        UUID elsewhere = UUID.randomUUID();
+        validInDatabase.add(elsewhere);
+
+        ValidationTokenRegistry.ClaimedToken claimedToken = registry.consume(elsewhere);
+
+        assertEquals(2L, claimedToken.kioskID());
+        assertThrows(InvalidValidationTokenException.class, () -> registry.consume(elsewhere));
+        assertFalse(validInDatabase.contains(elsewhere));
+    }
+
+    @Test
+    void tokenUsedThroughAnotherNodeKeepsItsFeedback() {
+        Map<UUID, ValidationTokenEntity> stored = storedTokens(first);
+        // another node used and linked the token after this one loaded it
+        stored.get(first).setValidationTokenStateEnum(ValidationTokenStateEnum.USED);
+        FeedbackEntity otherFeedback = new FeedbackEntity();
+        otherFeedback.setFeedbackID(9L);
+        stored.get(first).setUserToken(otherFeedback);
+
+        registry.markUsed(registry.consume(first), 10L);
+        registry.flush();
+
+        assertEquals(9L, stored.get(first).getUserToken().getFeedbackID());
+        verifyNoInteractions(feedbackDetailCache);
+    }
+
+    @Test
+    void releasedTokenCanBeUsedAgain() {
+        ValidationTokenRegistry.ClaimedToken claimedToken = registry.consume(first);
+        assertEquals(1L, claimedToken.kioskID());
+        assertEquals(1, registry.validTokenCount(1L));
+
+        registry.release(claimedToken);
+
+        assertEquals(2, registry.validTokenCount(1L));
+        assertEquals(first, registry.consume(first).validationToken());
+        verify(validationTokenRepository, never()).releaseToken(any());
+    }
+
+    @Test
+    void releasedTokenOfAnotherNodeIsReleasedInTheDatabase() {
+        UUID elsewhere = UUID.randomUUID();
+        validInDatabase.add(elsewhere);
+
+        registry.release(registry.consume(elsewhere));
+
+        assertTrue(validInDatabase.contains(elsewhere));
+        assertEquals(2L, registry.consume(elsewhere).kioskID());
+    }
+
+    @Test
+    void replayedUploadUsesItsTokenAgain() {
+        // the upload was spooled before a restart, which loaded its unwritten token as valid
+        registry.markUsed(new ValidationTokenRegistry.ClaimedToken(first, 1L, LocalDateTime.now()), 10L);
+
+        assertFalse(registry.isValid(first));
+        assertEquals(1, registry.validTokenCount(1L));
+        assertThrows(InvalidValidationTokenException.class, () -> registry.consume(first));
+    }
+
+    @Test
+    void usesAreWrittenInBatches() {
+        Map<UUID, ValidationTokenEntity> stored = storedTokens(first, second);
+        ValidationTokenRegistry.ClaimedToken firstClaim = registry.consume(first);
+        ValidationTokenRegistry.ClaimedToken secondClaim = registry.consume(second);
+        registry.markUsed(firstClaim, 10L);
+        registry.markUsed(secondClaim, 11L);
+
+        registry.flush();
+
+        verify(validationTokenRepository, times(1)).findAllById(anyIterable());
+        verify(validationTokenRepository, never()).useToken(any(), any());
+        assertEquals(ValidationTokenStateEnum.USED, stored.get(first).getValidationTokenStateEnum());
+        assertEquals(firstClaim.usedAt(), stored.get(first).getTokenUsedAt());
+        assertEquals(11L, stored.get(second).getUserToken().getFeedbackID());
+        // the token is part of the feedback details
+        verify(feedbackDetailCache).invalidate(10L);
+        verify(feedbackDetailCache).invalidate(11L);
+        // written tokens leave the registry and stay unusable
+        validInDatabase.removeAll(stored.keySet());
+        assertThrows(InvalidValidationTokenException.class, () -> registry.consume(first));
+        assertEquals(1.0, meterRegistry.get("vofas.tokens.rejected").tag("reason", "unknown").counter().count());
+    }
+
+    @Test
+    void failedBatchIsRetried() {
+        when(validationTokenRepository.findAllById(anyIterable()))
+                .thenThrow(new DataAccessResourceFailureException("database down"));
+        registry.markUsed(registry.consume(first), 10L);
+
+        registry.flush();
+        assertEquals(1.0, meterRegistry.get("vofas.tokens.write-behind.pending").gauge().value());
+
+        Map<UUID, ValidationTokenEntity> stored = storedTokens(first);
+        registry.flush();
+        assertEquals(ValidationTokenStateEnum.USED, stored.get(first).getValidationTokenStateEnum());
+        assertEquals(0.0, meterRegistry.get("vofas.tokens.write-behind.pending").gauge().value());
+    }
+
+    @Test
+    void oldTokensExpire() {
+        List<UUID> expired = registry.expireCreatedBefore(LocalDateTime.now().minusDays(1));
+        assertEquals(List.of(first), expired);
+        // written by the sweeper
+        validInDatabase.removeAll(expired);
+
+        assertFalse(registry.isValid(first));
+        assertTrue(registry.isValid(second));
+        assertEquals(1, registry.validTokenCount(1L));
+        assertThrows(InvalidValidationTokenException.class, () -> registry.consume(first));
+    }
+
+    private Map<UUID, ValidationTokenEntity> storedTokens(UUID... validationTokens) {
+        List<ValidationTokenEntity> entities = new ArrayList<>();
+        for (UUID validationToken : validationTokens) {
+            ValidationTokenEntity validationTokenEntity = new ValidationTokenEntity();
+            validationTokenEntity.setValidationToken(validationToken);
+            entities.add(validationTokenEntity);
+        }
+        doReturn(entities).when(validationTokenRepository).findAllById(anyIterable());
+        return entities.stream().collect(Collectors.toMap(ValidationTokenEntity::getValidationToken, Function.identity()));
+    }
+}
@@ -0,0 +1,92 @@
+package com.backend.vofasbackend.servicelayer.tokens;
+
+import com.backend.vofasbackend.datalayer.enums.ValidationTokenStateEnum;
+import com.backend.vofasbackend.datalayer.repositories.FeedbackRepository;
+import com.backend.vofasbackend.datalayer.repositories.ValidationTokenRepository;
+import com.backend.vofasbackend.servicelayer.caches.FeedbackDetailCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+class ValidationTokenSweeperTest {
+
+    private final List<UUID> expired = Stream.generate(UUID::randomUUID).limit(5).toList();
+    private ValidationTokenRegistry validationTokenRegistry;
+    private ValidationTokenRepository validationTokenRepository;
+    private FeedbackRepository feedbackRepository;
+    private FeedbackDetailCache feedbackDetailCache;
+    private SimpleMeterRegistry meterRegistry;
+    private ValidationTokenSweeper sweeper;
+
+    @BeforeEach
+    void setUp() {
+        validationTokenRegistry = mock(ValidationTokenRegistry.class);
+        validationTokenRepository = mock(ValidationTokenRepository.class);
+        when(validationTokenRepository.updateTokenStates(anyCollection(), any(), any()))
+                .thenAnswer(invocation -> invocation.<List<UUID>>getArgument(0).size());
+        feedbackRepository = mock(FeedbackRepository.class);
+        feedbackDetailCache = mock(FeedbackDetailCache.class);
+        meterRegistry = new SimpleMeterRegistry();
+        sweeper = new ValidationTokenSweeper(validationTokenRegistry, validationTokenRepository,
+                feedbackRepository, feedbackDetailCache,
+                mock(PlatformTransactionManager.class), meterRegistry, Duration.ofHours(24), Duration.ofHours(1), 2);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        sweeper.shutdown();
+    }
+
+    @Test
+    void expiredTokensAreUpdatedInBatches() {
+        // the database holds tokens no registry knows about, issued by another node or before a restart
+        when(validationTokenRepository.findValidTokensCreatedBefore(any(), any()))
+                .thenReturn(expired.subList(0, 2), expired.subList(2, 4), expired.subList(4, 5));
+        // a token released under a spooled upload is referenced by its feedback
+        when(feedbackRepository.findFeedbackIDsByValidationTokens(expired.subList(0, 2))).thenReturn(List.of(42L));
+
+        LocalDateTime before = LocalDateTime.now().minusHours(24);
+        assertEquals(5, sweeper.sweep());
+
+        verify(validationTokenRegistry).expireCreatedBefore(argThat(cutoff -> !cutoff.isBefore(before)));
+        verify(validationTokenRepository, times(3)).findValidTokensCreatedBefore(argThat(cutoff -> !cutoff.isBefore(before)), eq(PageRequest.of(0, 2)));
+        verify(validationTokenRepository).updateTokenStates(expired.subList(0, 2), ValidationTokenStateEnum.VALID, ValidationTokenStateEnum.EXPIRED);
+        verify(validationTokenRepository).updateTokenStates(expired.subList(2, 4), ValidationTokenStateEnum.VALID, ValidationTokenStateEnum.EXPIRED);
+        verify(validationTokenRepository).updateTokenStates(expired.subList(4, 5), ValidationTokenStateEnum.VALID, ValidationTokenStateEnum.EXPIRED);
+        verify(feedbackDetailCache).invalidate(42L);
+        verifyNoMoreInteractions(feedbackDetailCache);
+        assertEquals(5.0, meterRegistry.get("vofas.tokens.expired").counter().count());
+    }
+
+    @Test
+    void failedBatchIsExpiredByTheNextSweep() {
+        when(validationTokenRepository.findValidTokensCreatedBefore(any(), any()))
+                .thenReturn(expired.subList(0, 2), expired.subList(2, 4))
+                .thenReturn(expired.subList(2, 4), expired.subList(4, 5));
+        when(validationTokenRepository.updateTokenStates(eq(expired.subList(2, 4)), any(), any()))
+                .thenThrow(new QueryTimeoutException("Lock wait timeout exceeded"))
+                .thenReturn(2);
+
+        assertEquals(2, sweeper.sweep());
+        assertEquals(3, sweeper.sweep());
+
+        verify(validationTokenRepository, times(2)).updateTokenStates(expired.subList(2, 4), ValidationTokenStateEnum.VALID, ValidationTokenStateEnum.EXPIRED);
+        verify(validationTokenRepository).updateTokenStates(expired.subList(4, 5), ValidationTokenStateEnum.VALID, ValidationTokenStateEnum.EXPIRED);
+        assertEquals(5.0, meterRegistry.get("vofas.tokens.expired").counter().count());
+    }
+}
@@ -0,0 +1,27 @@
+package com.backend.vofasbackend.servicelayer.tools;
+
+import com.backend.vofasbackend.exceptions.exceptions.InvalidFilterOptionException;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FeedbackCursorTest {
+
+    @Test
+    void roundTripsThroughOpaqueToken() {
+        FeedbackCursor cursor = new FeedbackCursor(LocalDateTime.of(2024, 12, 4, 10, 15, 30, 123_456_000), 123L, false);
+
+        String token = cursor.encode();
+
+        assertTrue(token.matches("[A-Za-z0-9_-]+"));
+        assertEquals(cursor, FeedbackCursor.decode(token));
+    }
+
+    @Test
+    void rejectsMalformedTokens() {
+        assertThrows(InvalidFilterOptionException.class, () -> FeedbackCursor.decode("not a cursor"));
+        assertThrows(InvalidFilterOptionException.class, () -> FeedbackCursor.decode("MTIzfDQ1Ng"));
+    }
+}
@@ -0,0 +1,150 @@
+package com.backend.vofasbackend.servicelayer.transcription;
+
+import com.backend.vofasbackend.servicelayer.audio.AudioSplitter;
+import com.backend.vofasbackend.servicelayer.interfaces.TranscriptionEngine;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.retry.TransientAiException;
+import org.springframework.core.io.Resource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class ChunkedTranscriberTest {
+
+    private static final Path RECORDING = Path.of("/audio/feedback.wav");
+
+    private final Queue<String> transcribed = new ConcurrentLinkedQueue<>();
+    private final AtomicReference<Path> chunkDirectory = new AtomicReference<>();
+    private AudioSplitter audioSplitter;
+    private ChunkedTranscriber chunkedTranscriber;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        audioSplitter = mock(AudioSplitter.class);
+        when(audioSplitter.split(eq(RECORDING), any(), any(), any(), any())).thenAnswer(invocation -> {
+            Path directory = invocation.getArgument(1);
+            chunkDirectory.set(directory);
+            List<Path> chunks = new ArrayList<>();
+            for (int i = 0; i < 5; i++) {
+                chunks.add(Files.createFile(directory.resolve(String.format("chunk-%04d.wav", i))));
+            }
+            return chunks;
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        chunkedTranscriber.shutdown();
+    }
+
+    @Test
+    void chunksAreStitchedInPlaybackOrder() {
+        chunkedTranscriber = chunkedTranscriber(new StubEngine(chunk -> "bir " + chunk + " iki"), 3);
+
+        String transcription = chunkedTranscriber.transcribe(RECORDING, Duration.ofMinutes(5));
+
+        assertEquals("bir chunk-0000 iki bir chunk-0001 iki bir chunk-0002 iki bir chunk-0003 iki bir chunk-0004 iki", transcription);
+        assertFalse(Files.exists(chunkDirectory.get()));
+    }
+
+    @Test
+    void shortRecordingIsTranscribedInOnePiece() throws IOException {
+        chunkedTranscriber = chunkedTranscriber(new StubEngine(chunk -> "tek parça"), 3);
+
+        assertEquals("tek parça", chunkedTranscriber.transcribe(RECORDING, Duration.ofSeconds(30)));
+        verify(audioSplitter, never()).split(any(), any(), any(), any(), any());
+    }
+
+    @Test
+    void failingChunkCancelsTheChunksNotStartedYet() throws InterruptedException {
+        CountDownLatch secondStarted = new CountDownLatch(1);
+        CountDownLatch releaseSecond = new CountDownLatch(1);
+        // two workers: the first chunk fails while the second keeps the other worker busy
+        chunkedTranscriber = chunkedTranscriber(new StubEngine(chunk -> {
+            switch (chunk) {
+                case "chunk-0000" -> {
+                    await(secondStarted);
+                    throw new TransientAiException("500 Internal Server Error");
+                }
+                case "chunk-0001" -> {
+                    secondStarted.countDown();
+                    await(releaseSecond);
+                    return "ikinci parça";
+                }
+                default -> {
+                    return "sonraki parça";
+                }
+            }
+        }), 2);
+
+        TransientAiException failure = assertThrows(TransientAiException.class,
+                () -> chunkedTranscriber.transcribe(RECORDING, Duration.ofMinutes(5)));
+        releaseSecond.countDown();
+
+        assertEquals("500 Internal Server Error", failure.getMessage());
+        // give the released worker the time to pick up the queued chunks, had they not been cancelled
+        Thread.sleep(200);
+        assertEquals(List.of("chunk-0000", "chunk-0001"), transcribed.stream().sorted().toList());
+        assertFalse(Files.exists(chunkDirectory.get()));
+    }
+
+    private ChunkedTranscriber chunkedTranscriber(TranscriptionEngine transcriptionEngine, int maxParallelism) {
+        ChunkedTranscriber transcriber = new ChunkedTranscriber(transcriptionEngine, audioSplitter, maxParallelism);
+        ReflectionTestUtils.setField(transcriber, "threshold", Duration.ofMinutes(1));
+        ReflectionTestUtils.setField(transcriber, "chunkLength", Duration.ofSeconds(30));
+        ReflectionTestUtils.setField(transcriber, "overlap", Duration.ofSeconds(2));
+        ReflectionTestUtils.setField(transcriber, "silenceSearchWindow", Duration.ofSeconds(3));
+        ReflectionTestUtils.setField(transcriber, "maxOverlapWords", 12);
+        return transcriber;
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            assertTrue(latch.await(5, TimeUnit.SECONDS));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Answers with the text for the chunk name, without the extension, and records every chunk it was called for.
+     */
+    private final class StubEngine implements TranscriptionEngine {
+
+        private final Function<String, String> transcriptions;
+
+        private StubEngine(Function<String, String> transcriptions) {
+            this.transcriptions = transcriptions;
+        }
+
+        @Override
+        public String getName() {
+            return "stub";
+        }
+
+        @Override
+        public String transcribe(Resource audio) {
+            String chunk = audio.getFilename().replace(".wav", "");
+            transcribed.add(chunk);
+            return transcriptions.apply(chunk);
+        }
+    }
+}
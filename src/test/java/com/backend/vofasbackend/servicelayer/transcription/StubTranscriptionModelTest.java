@@ -0,0 +1,129 @@
+package com.backend.vofasbackend.servicelayer.transcription;
+
+import com.backend.vofasbackend.servicelayer.audio.AudioProbe;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.ai.audio.transcription.AudioTranscriptionPrompt;
+import org.springframework.ai.retry.TransientAiException;
+import org.springframework.core.io.FileSystemResource;
+
+import javax.sound.sampled.AudioFileFormat;
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.AudioInputStream;
+import javax.sound.sampled.AudioSystem;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StubTranscriptionModelTest {
+
+    private static final AudioFormat FORMAT = new AudioFormat(8000, 16, 1, true, false);
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void sameAudioIsAnsweredTheSameWay() throws IOException {
+        Path chunk = writeWav("first", 10, 1);
+
+        StubTranscriptionModel.Simulation simulation = model(Duration.ofMillis(100), 0.1, 0.5, 0, 0.0, 42).simulate(resource(chunk));
+
+        assertEquals(simulation, model(Duration.ofMillis(100), 0.1, 0.5, 0, 0.0, 42).simulate(resource(chunk)));
+        assertNotEquals(simulation.latency(), model(Duration.ofMillis(100), 0.1, 0.5, 0, 0.0, 43).simulate(resource(chunk)).latency());
+    }
+
+    @Test
+    void chunksWithTheSameNameDifferBetweenRecordings() throws IOException {
+        StubTranscriptionModel model = model(Duration.ofMillis(100), 0.1, 0.5, 0, 0.0, 42);
+
+        // the splitter names the chunks of every recording chunk-0000, chunk-0001, ...
+        StubTranscriptionModel.Simulation first = model.simulate(resource(writeWav("first", 30, 1)));
+        StubTranscriptionModel.Simulation second = model.simulate(resource(writeWav("second", 30, 2)));
+
+        assertNotEquals(first.transcription(), second.transcription());
+        assertNotEquals(first.latency(), second.latency());
+    }
+
+    @Test
+    void latencyAndTextGrowWithTheDuration() throws IOException {
+        StubTranscriptionModel model = model(Duration.ofMillis(100), 0.1, 0.0, 0, 0.0, 42);
+
+        StubTranscriptionModel.Simulation shortChunk = model.simulate(resource(writeWav("short", 10, 1)));
+        StubTranscriptionModel.Simulation longChunk = model.simulate(resource(writeWav("long", 30, 1)));
+
+        assertEquals(1.1, shortChunk.latency().toNanos() / 1e9, 1e-6);
+        assertEquals(3.1, longChunk.latency().toNanos() / 1e9, 1e-6);
+        assertEquals(3, sentences(shortChunk.transcription()));
+        assertEquals(7, sentences(longChunk.transcription()));
+    }
+
+    @Test
+    void requestsAboveTheRateAreThrottled() throws IOException {
+        StubTranscriptionModel model = model(Duration.ZERO, 0.0, 0.0, 2, 0.0, 42);
+        AudioTranscriptionPrompt prompt = new AudioTranscriptionPrompt(resource(writeWav("first", 1, 1)));
+
+        model.call(prompt);
+        model.call(prompt);
+
+        TransientAiException throttled = assertThrows(TransientAiException.class, () -> model.call(prompt));
+        assertTrue(throttled.getMessage().startsWith("429"));
+    }
+
+    @Test
+    void failuresFollowTheSeed() throws IOException {
+        AudioTranscriptionPrompt prompt = new AudioTranscriptionPrompt(resource(writeWav("first", 1, 1)));
+
+        List<Boolean> outcomes = outcomes(model(Duration.ZERO, 0.0, 0.0, 0, 0.5, 7), prompt);
+
+        assertEquals(outcomes, outcomes(model(Duration.ZERO, 0.0, 0.0, 0, 0.5, 7), prompt));
+        // failures are drawn per request, so the same chunk fails and succeeds
+        assertTrue(outcomes.contains(true));
+        assertTrue(outcomes.contains(false));
+        assertFalse(outcomes(model(Duration.ZERO, 0.0, 0.0, 0, 1.0, 7), prompt).contains(true));
+    }
+
+    private static List<Boolean> outcomes(StubTranscriptionModel model, AudioTranscriptionPrompt prompt) {
+        List<Boolean> outcomes = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            try {
+                assertFalse(model.call(prompt).getResult().getOutput().isBlank());
+                outcomes.add(true);
+            } catch (TransientAiException e) {
+                assertTrue(e.getMessage().startsWith("500"));
+                outcomes.add(false);
+            }
+        }
+        return outcomes;
+    }
+
+    private static StubTranscriptionModel model(Duration medianLatency, double realTimeFactor, double latencySigma,
+                                                double requestsPerSecond, double failureRate, long seed) {
+        return new StubTranscriptionModel(new AudioProbe(), medianLatency, realTimeFactor, latencySigma,
+                requestsPerSecond, failureRate, seed);
+    }
+
+    private static FileSystemResource resource(Path audio) {
+        return new FileSystemResource(audio);
+    }
+
+    private static long sentences(String transcription) {
+        return transcription.chars().filter(character -> character == '.').count();
+    }
+
+    private Path writeWav(String recording, int seconds, long noiseSeed) throws IOException {
+        byte[] pcm = new byte[(int) FORMAT.getFrameRate() * FORMAT.getFrameSize() * seconds];
+        new Random(noiseSeed).nextBytes(pcm);
+        Path chunk = Files.createDirectories(directory.resolve(recording)).resolve("chunk-0000.wav");
+        try (AudioInputStream stream = new AudioInputStream(new ByteArrayInputStream(pcm), FORMAT, pcm.length / FORMAT.getFrameSize())) {
+            AudioSystem.write(stream, AudioFileFormat.Type.WAVE, chunk.toFile());
+        }
+        return chunk;
+    }
+}
@@ -0,0 +1,55 @@
+package com.backend.vofasbackend.servicelayer.transcription;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TranscriptStitcherTest {
+
+    @Test
+    void repeatedRunOfWordsIsDropped() {
+        String stitched = TranscriptStitcher.stitch(List.of(
+                "Kasada çok uzun süre bekledim",
+                "uzun süre bekledim ve personel ilgisizdi"), 12);
+
+        assertEquals("Kasada çok uzun süre bekledim ve personel ilgisizdi", stitched);
+    }
+
+    @Test
+    void singleRepeatedWordIsKept() {
+        // one word is too weak a match, the speaker may well have repeated it
+        String stitched = TranscriptStitcher.stitch(List.of("Ürünler çok", "çok pahalıydı"), 12);
+
+        assertEquals("Ürünler çok çok pahalıydı", stitched);
+    }
+
+    @Test
+    void overlapLongerThanTheLimitIsKept() {
+        String stitched = TranscriptStitcher.stitch(List.of("bir iki üç", "bir iki üç dört"), 2);
+
+        assertEquals("bir iki üç bir iki üç dört", stitched);
+    }
+
+    @Test
+    void wordsAreComparedWithTurkishCaseFoldingAndWithoutPunctuation() {
+        String stitched = TranscriptStitcher.stitch(List.of(
+                "Girişteki IŞIK YANMIYORDU.",
+                "ışık yanmıyordu, İçerisi karanlıktı.",
+                "İÇERİSİ KARANLIKTI! Başka sorun yoktu."), 12);
+
+        // the first spelling of a repeated run is kept
+        assertEquals("Girişteki IŞIK YANMIYORDU. İçerisi karanlıktı. Başka sorun yoktu.", stitched);
+    }
+
+    @Test
+    void blankPartsAreSkipped() {
+        String stitched = TranscriptStitcher.stitch(Arrays.asList(
+                "  ", "Mağaza temiz ve", null, "", "temiz ve düzenliydi.  ", "\t"), 12);
+
+        assertEquals("Mağaza temiz ve düzenliydi.", stitched);
+        assertEquals("", TranscriptStitcher.stitch(Arrays.asList(null, " "), 12));
+    }
+}